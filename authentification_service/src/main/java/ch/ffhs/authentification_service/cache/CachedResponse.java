@@ -0,0 +1,13 @@
+package ch.ffhs.authentification_service.cache;
+
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+
+/**
+ * Gecachte Antwort eines Katalog-Endpunkts samt ETag und der Katalog-Version, unter der sie
+ * vom Core Backend geliefert wurde.
+ */
+public record CachedResponse(byte[] body, MediaType contentType, String etag, String catalogVersion,
+                             Instant validUntil) {
+}
@@ -0,0 +1,155 @@
+package ch.ffhs.authentification_service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Begrenzter Cache für die Antworten der Katalog-Endpunkte (Impfstoff-Typen, Impfpläne,
+ * Alterskategorien, Wirkstoffe), die für alle Benutzer gleich sind. Ein Eintrag gilt höchstens
+ * ttl lang; alle Einträge werden verworfen, sobald das Core Backend eine andere Katalog-Version
+ * meldet oder eine Schreiboperation auf einem Katalog-Pfad erfolgreich war.
+ */
+@Component
+@Slf4j
+public class CatalogResponseCache {
+
+    private static final String[] CATALOG_PATHS = {
+            "/api/v1/vaccine-types/**",
+            "/api/v1/immunization-plans/**",
+            "/api/v1/age-categories/**",
+            "/api/v1/active-substances/**"
+    };
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Clock clock;
+    private final int maxSize;
+    private final Duration ttl;
+    private final ConcurrentMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicReference<String> catalogVersion = new AtomicReference<>();
+
+    @Autowired
+    public CatalogResponseCache(
+            @Value("${catalog.cache.max-size:500}") int maxSize,
+            @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this(Clock.systemUTC(), maxSize, ttlSeconds);
+    }
+
+    CatalogResponseCache(Clock clock, int maxSize, long ttlSeconds) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("catalog.cache.max-size darf nicht negativ sein: " + maxSize);
+        }
+        if (ttlSeconds < 1) {
+            throw new IllegalArgumentException("catalog.cache.ttl-seconds muss mindestens 1 sein: " + ttlSeconds);
+        }
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * @return true für Pfade der Katalog-Endpunkte; max-size 0 schaltet den Cache ab
+     */
+    public boolean isCatalogPath(String path) {
+        if (maxSize == 0) {
+            return false;
+        }
+        for (String pattern : CATALOG_PATHS) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Optional<CachedResponse> get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(cached.validUntil())) {
+            entries.remove(key, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached);
+    }
+
+    /**
+     * Legt die Antwort ab und liefert sie mit berechnetem ETag zurück. Stammt sie von einer
+     * inzwischen überholten Katalog-Version, wird sie nicht behalten.
+     */
+    public CachedResponse put(String key, byte[] body, MediaType contentType, String version) {
+        Instant now = clock.instant();
+        CachedResponse cached = new CachedResponse(body, contentType, etagFor(body), version, now.plus(ttl));
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, cached);
+        // Parallel gemeldete neue Version: die eben abgelegte Antwort ist bereits veraltet
+        if (!Objects.equals(version, catalogVersion.get())) {
+            entries.remove(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Übernimmt die vom Core Backend gemeldete Katalog-Version und leert den Cache, wenn sie sich
+     * geändert hat. Antworten ohne Version ändern nichts.
+     */
+    public void observeVersion(String version) {
+        if (version == null) {
+            return;
+        }
+        String previous = catalogVersion.getAndSet(version);
+        if (previous != null && !previous.equals(version)) {
+            log.info("[CatalogCache] Katalog-Version {} -> {}, Cache geleert", previous, version);
+            entries.clear();
+        }
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entfernt abgelaufene Einträge; reicht das nicht, beliebige weitere, bis wieder Platz ist.
+     */
+    private void evict(Instant now) {
+        entries.values().removeIf(entry -> !now.isBefore(entry.validUntil()));
+        var iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    static String etagFor(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 ist in jeder JVM vorhanden
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ch.ffhs.authentification_service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Beantwortet GET-Requests auf Katalog-Endpunkte aus dem {@link CatalogResponseCache} und
+ * bedient If-None-Match mit 304. Liest bei jeder weitergeleiteten Antwort die Katalog-Version
+ * des Core Backends mit und leert den Cache nach erfolgreichen Schreiboperationen auf dem Katalog.
+ */
+@Component
+@Slf4j
+public class CatalogResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+
+    // Clients müssen jedes Mal revalidieren; dank ETag kostet das nur einen 304
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final CatalogResponseCache cache;
+
+    public CatalogResponseCacheFilter(CatalogResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public int getOrder() {
+        // Vor NettyWriteResponseFilter, damit der Body über den Decorator geschrieben wird, und
+        // vor dem RequestCoalescingFilter, damit Cache-Treffer gar nicht erst gebündelt werden
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean catalogPath = cache.isCatalogPath(request.getPath().value());
+        boolean read = HttpMethod.GET.equals(request.getMethod());
+        observeUpstream(exchange.getResponse(), catalogPath && !read);
+
+        if (!catalogPath || !read) {
+            return chain.filter(exchange);
+        }
+
+        String key = request.getPath().value()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+        Optional<CachedResponse> cached = cache.get(key);
+        if (cached.isPresent()) {
+            log.debug("[CatalogCache] Treffer fuer {}", key);
+            return writeCached(exchange, cached.get());
+        }
+        return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key)).build());
+    }
+
+    /**
+     * Übernimmt vor dem Senden der Antwort die Katalog-Version und entfernt den internen Header.
+     * Erfolgreiche Schreiboperationen auf dem Katalog leeren den Cache sofort.
+     */
+    private void observeUpstream(ServerHttpResponse response, boolean catalogWrite) {
+        response.beforeCommit(() -> {
+            HttpHeaders headers = response.getHeaders();
+            cache.observeVersion(headers.getFirst(CATALOG_VERSION_HEADER));
+            headers.remove(CATALOG_VERSION_HEADER);
+            HttpStatusCode status = response.getStatusCode();
+            if (catalogWrite && status != null && status.is2xxSuccessful()) {
+                cache.invalidate();
+            }
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(CACHE_CONTROL);
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentType(cached.contentType());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    static boolean notModified(ServerHttpRequest request, String etag) {
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            // Schwacher Vergleich nach RFC 9110: W/-Präfix ignorieren
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sammelt den Body einer erfolgreichen Katalog-Antwort, legt ihn im Cache ab und ergänzt ETag
+     * und Cache-Control. Andere Statuscodes werden unverändert durchgereicht.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String key;
+
+        private CachingResponse(ServerWebExchange exchange, String key) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(this::cacheAndWrite);
+        }
+
+        private Mono<Void> cacheAndWrite(byte[] bytes) {
+            HttpHeaders headers = getHeaders();
+            String version = headers.getFirst(CATALOG_VERSION_HEADER);
+            cache.observeVersion(version);
+            CachedResponse cached = cache.put(key, bytes, headers.getContentType(), version);
+            headers.setETag(cached.etag());
+            headers.setCacheControl(CACHE_CONTROL);
+            if (notModified(request, cached.etag())) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+    }
+}
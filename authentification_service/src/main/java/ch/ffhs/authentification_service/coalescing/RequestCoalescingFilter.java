@@ -0,0 +1,174 @@
+package ch.ffhs.authentification_service.coalescing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bündelt gleichzeitige, identische GET-Requests auf konfigurierte Pfade zu einem einzigen
+ * Upstream-Aufruf und verteilt dessen Antwort an alle Wartenden. Zulässig nur für Pfade, deren
+ * Antwort nicht vom Aufrufer abhängt: der Schlüssel ist Pfad und Query, nicht das Token. Jeder
+ * Request wurde vorher einzeln vom JwtAuthenticationFilter geprüft.
+ * Nur erfolgreiche Antworten ohne Set-Cookie werden geteilt; sonst ruft jeder Wartende den
+ * Upstream selbst auf.
+ */
+@Component
+@Slf4j
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> paths;
+    private final ConcurrentMap<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(@Value("${coalescing.paths:}") String[] paths) {
+        this.paths = Arrays.stream(paths)
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .toList();
+        log.info("[Coalescing] Buendelung fuer {}", this.paths.isEmpty() ? "keine Pfade (aus)" : this.paths);
+    }
+
+    @Override
+    public int getOrder() {
+        // Vor NettyWriteResponseFilter, damit der Body über den Decorator geschrieben wird
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!HttpMethod.GET.equals(request.getMethod()) || !isEligible(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        String key = request.getPath().value()
+                + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+
+        return Mono.defer(() -> {
+            Sinks.One<SharedResponse> own = Sinks.one();
+            Sinks.One<SharedResponse> leader = inFlight.putIfAbsent(key, own);
+            if (leader != null) {
+                log.debug("[Coalescing] Warte auf laufenden Request fuer {}", key);
+                // Ohne teilbare Antwort des ersten Requests selbst weiterleiten. Über Optional, weil
+                // write() selbst leer abschliesst und switchIfEmpty sonst immer greifen würde
+                return leader.asMono()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(shared -> shared.isPresent()
+                                ? write(exchange.getResponse(), shared.get())
+                                : chain.filter(exchange));
+            }
+            return chain.filter(exchange.mutate().response(new SharingResponse(exchange, key, own)).build())
+                    .doFinally(signal -> release(key, own, null));
+        });
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private boolean isEligible(String path) {
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gibt den Schlüssel für neue Requests frei und weckt die Wartenden; null bedeutet, dass sie
+     * selbst weiterleiten müssen. Mehrfacher Aufruf ist harmlos.
+     */
+    private void release(String key, Sinks.One<SharedResponse> own, SharedResponse shared) {
+        inFlight.remove(key, own);
+        if (shared != null) {
+            own.tryEmitValue(shared);
+        } else {
+            own.tryEmitEmpty();
+        }
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    /**
+     * Sammelt den Body der Antwort des ersten Requests und verteilt eine Kopie samt Status und
+     * Headern, bevor er an den eigenen Client geschrieben wird.
+     */
+    private final class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> own;
+
+        private SharingResponse(ServerWebExchange exchange, String key, Sinks.One<SharedResponse> own) {
+            super(exchange.getResponse());
+            this.key = key;
+            this.own = own;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || !status.is2xxSuccessful() || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                release(key, own, null);
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        release(key, own, new SharedResponse(status, copyOf(getHeaders()), bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Gestreamte Antworten werden nicht gepuffert
+            release(key, own, null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private HttpHeaders copyOf(HttpHeaders headers) {
+            HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+            copy.remove(HttpHeaders.TRANSFER_ENCODING);
+            copy.remove(HttpHeaders.CONNECTION);
+            return copy;
+        }
+    }
+}
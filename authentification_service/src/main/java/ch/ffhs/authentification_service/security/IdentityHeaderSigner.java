@@ -0,0 +1,95 @@
+package ch.ffhs.authentification_service.security;
+
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Signiert die Identität eines geprüften Tokens für das Core Backend, damit dieses den JWT
+ * nicht erneut parsen muss. HMAC-SHA256 über Version, User-ID, Username und Zeitstempel;
+ * das Gegenstück ist IdentityHeaderVerifier im Core Backend.
+ */
+@Component
+public class IdentityHeaderSigner {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USERNAME_HEADER = "X-Username";
+    public static final String TIMESTAMP_HEADER = "X-Identity-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Identity-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public IdentityHeaderSigner(@Value("${identity.header.secret}") String secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    IdentityHeaderSigner(String secret, Clock clock) {
+        byte[] keyBytes = secret.startsWith("base64:")
+                ? Decoders.BASE64.decode(secret.substring(7))
+                : secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < 32) {
+            throw new IllegalArgumentException("identity.header.secret ist zu kurz (<256 Bit). Verwende mindestens 32 Byte.");
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.clock = clock;
+        // Mac ist nicht threadsicher, ein initialisiertes Exemplar pro Thread
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Entfernt vom Client mitgeschickte Identitäts-Header, damit nur das Gateway sie setzen kann.
+     */
+    public static void strip(HttpHeaders headers) {
+        headers.remove(USER_ID_HEADER);
+        headers.remove(USERNAME_HEADER);
+        headers.remove(TIMESTAMP_HEADER);
+        headers.remove(SIGNATURE_HEADER);
+    }
+
+    /**
+     * Ersetzt die Identitäts-Header durch signierte Werte für den geprüften Token.
+     */
+    public void apply(HttpHeaders headers, VerifiedToken token) {
+        strip(headers);
+        if (token.userId() == null || token.username() == null) {
+            // Ohne vollständige Identität prüft das Core Backend den JWT selbst
+            return;
+        }
+        String timestamp = String.valueOf(clock.instant().getEpochSecond());
+        headers.set(USER_ID_HEADER, token.userId());
+        headers.set(USERNAME_HEADER, token.username());
+        headers.set(TIMESTAMP_HEADER, timestamp);
+        headers.set(SIGNATURE_HEADER, sign(token.userId(), token.username(), timestamp));
+    }
+
+    String sign(String userId, String username, String timestamp) {
+        String payload = VERSION + "\n" + userId + "\n" + username + "\n" + timestamp;
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -18,13 +18,15 @@ import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @Order(-100) // Früh ausführen
 @Slf4j
 public class JwtAuthenticationFilter implements WebFilter {
 
-    private final JwtValidator jwtValidator;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final IdentityHeaderSigner identityHeaderSigner;
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     private final String[] publicPaths = {
@@ -34,8 +36,9 @@ public class JwtAuthenticationFilter implements WebFilter {
             "/v3/api-docs/**"
     };
 
-    public JwtAuthenticationFilter(JwtValidator jwtValidator) {
-        this.jwtValidator = jwtValidator;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, IdentityHeaderSigner identityHeaderSigner) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.identityHeaderSigner = identityHeaderSigner;
     }
 
     @Override
@@ -44,14 +47,14 @@ public class JwtAuthenticationFilter implements WebFilter {
         // Öffentliche Endpunkte überspringen
         if (checkIfPathExists(path)) {
             log.info("[JWT] Public endpoint – skipping token check");
-            return chain.filter(exchange);
+            return chain.filter(withoutIdentity(exchange));
         }
 
         HttpMethod method = exchange.getRequest().getMethod();
         // 1. Preflight / OPTIONS immer durchlassen
         if (HttpMethod.OPTIONS.equals(method)) {
             log.info("[JWT] OPTIONS request – skipping token check");
-            return chain.filter(exchange);
+            return chain.filter(withoutIdentity(exchange));
         }
 
         String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
@@ -60,13 +63,15 @@ public class JwtAuthenticationFilter implements WebFilter {
             return unauthorized(exchange); // Kein Token vorhanden
         }
 
+        // Höchstens eine Signaturprüfung pro Request, bei bekanntem Token keine
         String token = authHeader.substring(7);
-        if (!jwtValidator.isValid(token)) {
+        Optional<VerifiedToken> verified = verifiedTokenCache.verify(token);
+        if (verified.isEmpty()) {
             log.info("[JWT] Token invalid");
             return unauthorized(exchange); // Ungültiger Token
         }
 
-        String username = jwtValidator.extractUsername(token);
+        String username = verified.get().username();
         log.info("[JWT] Token valid for user=" + username);
         Authentication authentication = new UsernamePasswordAuthenticationToken(
                 username,
@@ -75,11 +80,22 @@ public class JwtAuthenticationFilter implements WebFilter {
         );
         SecurityContextImpl context = new SecurityContextImpl(authentication);
 
+        // Signierte Identität weiterreichen, damit das Core Backend den JWT nicht erneut parst
+        ServerWebExchange forwarded = exchange.mutate()
+                .request(request -> request.headers(headers -> identityHeaderSigner.apply(headers, verified.get())))
+                .build();
+
         // SecurityContext VOR der weiteren Verarbeitung bereitstellen
-        return Mono.defer(() -> chain.filter(exchange))
+        return Mono.defer(() -> chain.filter(forwarded))
                 .contextWrite(ReactiveSecurityContextHolder.withSecurityContext(Mono.just(context)));
     }
 
+    private ServerWebExchange withoutIdentity(ServerWebExchange exchange) {
+        return exchange.mutate()
+                .request(request -> request.headers(IdentityHeaderSigner::strip))
+                .build();
+    }
+
     private Mono<Void> unauthorized(ServerWebExchange exchange) {
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         return exchange.getResponse().setComplete();
@@ -7,7 +7,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.util.Date;
+import java.util.Optional;
 
 /**
  * JWT-Validator für Gateway - NUR VALIDIERUNG, keine Token-Generierung!
@@ -16,7 +17,8 @@ import java.security.Key;
 @Component
 public class JwtValidator {
 
-    private final Key key;
+    // Der Parser wird einmal aufgebaut und ist threadsicher
+    private final JwtParser parser;
 
     public JwtValidator(@Value("${jwt.secret}") String secret) {
         byte[] keyBytes;
@@ -31,7 +33,9 @@ public class JwtValidator {
         if (keyBytes.length < 32) {
             throw new IllegalArgumentException("JWT secret ist zu kurz (<256 Bit). Verwende mindestens 32 Byte.");
         }
-        this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(keyBytes))
+                .build();
     }
 
     /**
@@ -46,11 +50,37 @@ public class JwtValidator {
         }
     }
 
+    /**
+     * Prüft Signatur und Ablaufzeit einmal und liefert die benötigten Claims.
+     *
+     * @return leer, wenn das Token ungültig oder abgelaufen ist
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            Claims claims = parseClaims(token);
+            Date expiration = claims.getExpiration();
+            return Optional.of(new VerifiedToken(usernameOf(claims), userIdOf(claims),
+                    expiration != null ? expiration.toInstant() : null));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Extrahiert Username aus Token
      */
     public String extractUsername(String token) {
-        Claims claims = parseClaims(token);
+        return usernameOf(parseClaims(token));
+    }
+
+    /**
+     * Extrahiert User-ID aus Token
+     */
+    public String extractUserId(String token) {
+        return userIdOf(parseClaims(token));
+    }
+
+    private String usernameOf(Claims claims) {
         // Versuche zuerst "sub", dann "username"
         String username = claims.getSubject();
         if (username == null || username.isEmpty()) {
@@ -59,20 +89,17 @@ public class JwtValidator {
         return username;
     }
 
-    /**
-     * Extrahiert User-ID aus Token
-     */
-    public String extractUserId(String token) {
-        Claims claims = parseClaims(token);
-        return claims.get("userId", String.class);
+    private String userIdOf(Claims claims) {
+        // Das Core Backend schreibt "userid"; "userId" bleibt für ältere Tokens lesbar
+        String userId = claims.get("userid", String.class);
+        if (userId == null || userId.isEmpty()) {
+            userId = claims.get("userId", String.class);
+        }
+        return userId;
     }
 
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((javax.crypto.SecretKey) key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
 
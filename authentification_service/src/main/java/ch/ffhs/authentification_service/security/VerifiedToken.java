@@ -0,0 +1,11 @@
+package ch.ffhs.authentification_service.security;
+
+import java.time.Instant;
+
+/**
+ * Geprüfte Claims eines JWT (Signatur und Ablaufzeit verifiziert).
+ *
+ * @param expiresAt Ablaufzeit aus "exp"; null, wenn das Token keine hat
+ */
+public record VerifiedToken(String username, String userId, Instant expiresAt) {
+}
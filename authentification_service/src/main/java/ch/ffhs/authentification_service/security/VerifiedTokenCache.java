@@ -0,0 +1,119 @@
+package ch.ffhs.authentification_service.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Begrenzter Cache für geprüfte Tokens, damit das Gateway Signatur und Claims eines Tokens nicht
+ * bei jedem Request neu prüft. Schlüssel ist der SHA-256-Hash des Tokens (das Token selbst wird
+ * nicht im Speicher gehalten). Ein Eintrag gilt bis zur Ablaufzeit des Tokens, höchstens max-ttl.
+ * Ungültige Tokens werden nicht gecacht.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private record Entry(VerifiedToken token, Instant validUntil) {
+    }
+
+    private final JwtValidator jwtValidator;
+    private final Clock clock;
+    private final int maxSize;
+    private final Duration maxTtl;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VerifiedTokenCache(
+            JwtValidator jwtValidator,
+            @Value("${jwt.cache.max-size:10000}") int maxSize,
+            @Value("${jwt.cache.max-ttl-seconds:3600}") long maxTtlSeconds
+    ) {
+        this(jwtValidator, Clock.systemUTC(), maxSize, maxTtlSeconds);
+    }
+
+    VerifiedTokenCache(JwtValidator jwtValidator, Clock clock, int maxSize, long maxTtlSeconds) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("jwt.cache.max-size darf nicht negativ sein: " + maxSize);
+        }
+        if (maxTtlSeconds < 1) {
+            throw new IllegalArgumentException("jwt.cache.max-ttl-seconds muss mindestens 1 sein: " + maxTtlSeconds);
+        }
+        this.jwtValidator = jwtValidator;
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+    }
+
+    /**
+     * Geprüfte Claims aus dem Cache; bei einem Fehltreffer wird das Token genau einmal geprüft.
+     * max-size 0 schaltet den Cache ab.
+     *
+     * @return leer, wenn das Token ungültig oder abgelaufen ist
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (maxSize == 0) {
+            return jwtValidator.verify(token);
+        }
+        Instant now = clock.instant();
+        String key = hash(token);
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            if (now.isBefore(cached.validUntil())) {
+                return Optional.of(cached.token());
+            }
+            entries.remove(key, cached);
+        }
+
+        Optional<VerifiedToken> verified = jwtValidator.verify(token);
+        verified.ifPresent(verifiedToken -> put(key, verifiedToken, now));
+        return verified;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void put(String key, VerifiedToken token, Instant now) {
+        Instant validUntil = now.plus(maxTtl);
+        if (token.expiresAt() != null && token.expiresAt().isBefore(validUntil)) {
+            validUntil = token.expiresAt();
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, new Entry(token, validUntil));
+    }
+
+    /**
+     * Entfernt abgelaufene Einträge; reicht das nicht, beliebige weitere, bis wieder Platz ist.
+     */
+    private void evict(Instant now) {
+        entries.values().removeIf(entry -> !now.isBefore(entry.validUntil()));
+        var iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 ist in jeder JVM vorhanden
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ch.ffhs.authentification_service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogResponseCacheFilterTest {
+
+    private static final String BODY = "{\"vaccineTypes\":[{\"name\":\"MMR\"}]}";
+
+    private CatalogResponseCache cache;
+    private CatalogResponseCacheFilter filter;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CatalogResponseCache(100, 300);
+        filter = new CatalogResponseCacheFilter(cache);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    private GatewayFilterChain upstream(HttpStatus status, String body, String catalogVersion) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (catalogVersion != null) {
+                response.getHeaders().set(CatalogResponseCacheFilter.CATALOG_VERSION_HEADER, catalogVersion);
+            }
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    private MockServerWebExchange get(String path, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request.build());
+    }
+
+    @Test
+    void filter_servesSecondRequestFromCache_withEtag() {
+        MockServerWebExchange first = get("/api/v1/vaccine-types", null);
+        filter.filter(first, upstream(HttpStatus.OK, BODY, "1")).block();
+
+        MockServerWebExchange second = get("/api/v1/vaccine-types", null);
+        filter.filter(second, upstream(HttpStatus.OK, BODY, "1")).block();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(BODY, second.getResponse().getBodyAsString().block());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        assertEquals("no-cache, private", second.getResponse().getHeaders().getCacheControl());
+        assertNull(first.getResponse().getHeaders().getFirst(CatalogResponseCacheFilter.CATALOG_VERSION_HEADER));
+    }
+
+    @Test
+    void filter_answersMatchingIfNoneMatch_withNotModified() {
+        MockServerWebExchange first = get("/api/v1/age-categories", null);
+        filter.filter(first, upstream(HttpStatus.OK, BODY, "1")).block();
+        String etag = first.getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidation = get("/api/v1/age-categories", "W/" + etag);
+        filter.filter(revalidation, upstream(HttpStatus.OK, BODY, "1")).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidation.getResponse().getStatusCode());
+        assertEquals("", revalidation.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_answersMatchingIfNoneMatch_onCacheMiss() {
+        String etag = CatalogResponseCache.etagFor(BODY.getBytes(StandardCharsets.UTF_8));
+
+        MockServerWebExchange exchange = get("/api/v1/immunization-plans", etag);
+        filter.filter(exchange, upstream(HttpStatus.OK, BODY, "1")).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+        assertEquals(etag, exchange.getResponse().getHeaders().getETag());
+    }
+
+    @Test
+    void filter_dropsCache_whenCoreReportsNewCatalogVersion() {
+        filter.filter(get("/api/v1/vaccine-types", null), upstream(HttpStatus.OK, BODY, "1")).block();
+
+        // Beliebige andere Antwort des Core Backends mit neuer Version
+        filter.filter(get("/api/v1/immunization-records", null), upstream(HttpStatus.OK, "[]", "2")).block();
+        filter.filter(get("/api/v1/vaccine-types", null), upstream(HttpStatus.OK, BODY, "2")).block();
+
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_dropsCache_afterSuccessfulCatalogWrite() {
+        filter.filter(get("/api/v1/active-substances", null), upstream(HttpStatus.OK, BODY, "1")).block();
+
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/active-substances").build());
+        filter.filter(write, upstream(HttpStatus.CREATED, "{}", "1")).block();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void filter_keepsCache_afterFailedCatalogWrite() {
+        filter.filter(get("/api/v1/active-substances", null), upstream(HttpStatus.OK, BODY, "1")).block();
+
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/active-substances").build());
+        filter.filter(write, upstream(HttpStatus.FORBIDDEN, "{}", "1")).block();
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void filter_doesNotCacheErrorResponses() {
+        filter.filter(get("/api/v1/vaccine-types/unknown", null), upstream(HttpStatus.NOT_FOUND, "{}", "1")).block();
+        filter.filter(get("/api/v1/vaccine-types/unknown", null), upstream(HttpStatus.NOT_FOUND, "{}", "1")).block();
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void filter_passesNonCatalogRequestsThrough() {
+        MockServerWebExchange exchange = get("/api/v1/immunization-records", null);
+        filter.filter(exchange, upstream(HttpStatus.OK, "[]", "1")).block();
+
+        assertEquals("[]", exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getETag());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,146 @@
+package ch.ffhs.authentification_service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogResponseCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-10-15T12:00:00Z");
+    private static final byte[] BODY = "{\"vaccineTypes\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+    }
+
+    @Test
+    void isCatalogPath_matchesCatalogEndpointsOnly() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 300);
+
+        assertTrue(cache.isCatalogPath("/api/v1/vaccine-types"));
+        assertTrue(cache.isCatalogPath("/api/v1/immunization-plans/by-age-category/123"));
+        assertTrue(cache.isCatalogPath("/api/v1/age-categories/abc"));
+        assertTrue(cache.isCatalogPath("/api/v1/active-substances"));
+        assertFalse(cache.isCatalogPath("/api/v1/immunization-records"));
+        assertFalse(cache.isCatalogPath("/api/v1/vaccine-types-archive"));
+    }
+
+    @Test
+    void isCatalogPath_falseWhenDisabled() {
+        assertFalse(new CatalogResponseCache(clock, 0, 300).isCatalogPath("/api/v1/vaccine-types"));
+    }
+
+    @Test
+    void put_and_get_returnEntryWithStableEtag() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 300);
+        cache.observeVersion("1");
+
+        CachedResponse stored = cache.put("/api/v1/vaccine-types", BODY, MediaType.APPLICATION_JSON, "1");
+
+        assertSame(stored, cache.get("/api/v1/vaccine-types").orElseThrow());
+        assertEquals(CatalogResponseCache.etagFor(BODY), stored.etag());
+        assertTrue(stored.etag().startsWith("\"") && stored.etag().endsWith("\""));
+    }
+
+    @Test
+    void get_expiresEntry_afterTtl() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 30);
+        cache.put("/api/v1/vaccine-types", BODY, MediaType.APPLICATION_JSON, null);
+
+        clock.advance(Duration.ofSeconds(30));
+
+        assertTrue(cache.get("/api/v1/vaccine-types").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void observeVersion_clearsCache_onlyWhenVersionChanges() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 300);
+        cache.observeVersion("1");
+        cache.put("/api/v1/vaccine-types", BODY, MediaType.APPLICATION_JSON, "1");
+
+        cache.observeVersion("1");
+        cache.observeVersion(null);
+        assertEquals(1, cache.size());
+
+        cache.observeVersion("2");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_dropsResponse_fromOutdatedVersion() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 300);
+        cache.observeVersion("2");
+
+        cache.put("/api/v1/vaccine-types", BODY, MediaType.APPLICATION_JSON, "1");
+
+        assertTrue(cache.get("/api/v1/vaccine-types").isEmpty());
+    }
+
+    @Test
+    void put_evictsEntries_whenFull() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 2, 300);
+        cache.put("/a", BODY, MediaType.APPLICATION_JSON, null);
+        cache.put("/b", BODY, MediaType.APPLICATION_JSON, null);
+        cache.put("/c", BODY, MediaType.APPLICATION_JSON, null);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("/c").isPresent());
+    }
+
+    @Test
+    void invalidate_removesAllEntries() {
+        CatalogResponseCache cache = new CatalogResponseCache(clock, 10, 300);
+        cache.put("/a", BODY, MediaType.APPLICATION_JSON, null);
+
+        cache.invalidate();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void constructor_rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogResponseCache(-1, 300));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogResponseCache(10, 0));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
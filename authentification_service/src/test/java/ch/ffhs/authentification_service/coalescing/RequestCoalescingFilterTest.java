@@ -0,0 +1,143 @@
+package ch.ffhs.authentification_service.coalescing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingFilterTest {
+
+    private static final String BODY = "{\"ageCategories\":[]}";
+
+    private RequestCoalescingFilter filter;
+    private AtomicInteger upstreamCalls;
+    private Sinks.Empty<Void> release;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestCoalescingFilter(new String[]{"/api/v1/age-categories/**", " /api/v1/vaccine-types/** "});
+        upstreamCalls = new AtomicInteger();
+        release = Sinks.empty();
+    }
+
+    /**
+     * Upstream, der erst antwortet, wenn {@link #release} ausgelöst wird.
+     */
+    private GatewayFilterChain upstream(HttpStatus status) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(status);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+
+    private static MockServerWebExchange get(String path, String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token).build());
+    }
+
+    @Test
+    void filter_mergesConcurrentIdenticalRequests_intoOneUpstreamCall() throws Exception {
+        MockServerWebExchange first = get("/api/v1/age-categories", "alice");
+        MockServerWebExchange second = get("/api/v1/age-categories", "bob");
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+
+        CompletableFuture<Void> leader = filter.filter(first, chain).toFuture();
+        CompletableFuture<Void> follower = filter.filter(second, chain).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(leader, follower).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(BODY, first.getResponse().getBodyAsString().block());
+        assertEquals(BODY, second.getResponse().getBodyAsString().block());
+        assertEquals(HttpStatus.OK, second.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void filter_doesNotMergeDifferentQueries() throws Exception {
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+
+        CompletableFuture<Void> a = filter.filter(get("/api/v1/vaccine-types?page=1", "alice"), chain).toFuture();
+        CompletableFuture<Void> b = filter.filter(get("/api/v1/vaccine-types?page=2", "alice"), chain).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(a, b).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_letsWaitersCallUpstream_whenLeaderFails() throws Exception {
+        MockServerWebExchange second = get("/api/v1/age-categories", "bob");
+        GatewayFilterChain chain = upstream(HttpStatus.SERVICE_UNAVAILABLE);
+
+        CompletableFuture<Void> leader = filter.filter(get("/api/v1/age-categories", "alice"), chain).toFuture();
+        CompletableFuture<Void> follower = filter.filter(second, chain).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(leader, follower).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void filter_doesNotMergeSequentialRequests() {
+        release.tryEmitEmpty();
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+
+        filter.filter(get("/api/v1/age-categories", "alice"), chain).block();
+        filter.filter(get("/api/v1/age-categories", "alice"), chain).block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void filter_ignoresPathsNotConfigured_andNonGetRequests() throws Exception {
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+
+        CompletableFuture<Void> a = filter.filter(get("/api/v1/immunization-records", "alice"), chain).toFuture();
+        CompletableFuture<Void> b = filter.filter(get("/api/v1/immunization-records", "alice"), chain).toFuture();
+        CompletableFuture<Void> c = filter.filter(MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/v1/age-categories").build()), chain).toFuture();
+        CompletableFuture<Void> d = filter.filter(MockServerWebExchange.from(
+                MockServerHttpRequest.post("/api/v1/age-categories").build()), chain).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(a, b, c, d).get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, upstreamCalls.get());
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void filter_isDisabled_withoutConfiguredPaths() throws Exception {
+        RequestCoalescingFilter disabled = new RequestCoalescingFilter(new String[]{""});
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+
+        CompletableFuture<Void> a = disabled.filter(get("/api/v1/age-categories", "alice"), chain).toFuture();
+        CompletableFuture<Void> b = disabled.filter(get("/api/v1/age-categories", "bob"), chain).toFuture();
+        release.tryEmitEmpty();
+        CompletableFuture.allOf(a, b).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, upstreamCalls.get());
+    }
+}
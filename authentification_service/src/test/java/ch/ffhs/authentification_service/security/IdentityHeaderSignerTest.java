@@ -0,0 +1,61 @@
+package ch.ffhs.authentification_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHeaderSignerTest {
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF"; // 32 chars
+    private static final Instant NOW = Instant.parse("2025-03-01T10:00:00Z");
+
+    private final IdentityHeaderSigner signer = new IdentityHeaderSigner(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void apply_sets_signed_identity_headers() {
+        HttpHeaders headers = new HttpHeaders();
+
+        signer.apply(headers, new VerifiedToken("alice", "1111-2222", null));
+
+        assertEquals("1111-2222", headers.getFirst(IdentityHeaderSigner.USER_ID_HEADER));
+        assertEquals("alice", headers.getFirst(IdentityHeaderSigner.USERNAME_HEADER));
+        assertEquals(String.valueOf(NOW.getEpochSecond()), headers.getFirst(IdentityHeaderSigner.TIMESTAMP_HEADER));
+        assertEquals(signer.sign("1111-2222", "alice", String.valueOf(NOW.getEpochSecond())),
+                headers.getFirst(IdentityHeaderSigner.SIGNATURE_HEADER));
+    }
+
+    @Test
+    void apply_without_user_id_only_strips_headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdentityHeaderSigner.USERNAME_HEADER, "admin");
+        headers.set(IdentityHeaderSigner.SIGNATURE_HEADER, "forged");
+
+        signer.apply(headers, new VerifiedToken("alice", null, null));
+
+        assertFalse(headers.containsKey(IdentityHeaderSigner.USERNAME_HEADER));
+        assertFalse(headers.containsKey(IdentityHeaderSigner.SIGNATURE_HEADER));
+    }
+
+    @Test
+    void sign_depends_on_every_field_and_secret() {
+        String base = signer.sign("1111-2222", "alice", "100");
+        IdentityHeaderSigner other = new IdentityHeaderSigner("ZYXWVUTSRQPONMLKJIHGFEDCBAzyxwvu", Clock.systemUTC());
+
+        assertEquals(base, signer.sign("1111-2222", "alice", "100"));
+        assertNotEquals(base, signer.sign("1111-2223", "alice", "100"));
+        assertNotEquals(base, signer.sign("1111-2222", "admin", "100"));
+        assertNotEquals(base, signer.sign("1111-2222", "alice", "101"));
+        assertNotEquals(base, other.sign("1111-2222", "alice", "100"));
+        assertFalse(base.contains("="));
+    }
+
+    @Test
+    void constructor_with_short_secret_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeaderSigner("short-secret"));
+    }
+}
@@ -0,0 +1,75 @@
+package ch.ffhs.authentification_service.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Date;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Last durch die WebFlux-Filterkette mit echtem Token: CPU-Zeit pro Request ohne Cache (eine
+ * Signaturprüfung pro Request) und mit Cache (eine Prüfung pro Token).
+ * Läuft nur mit gesetzter Umgebungsvariable, z.B. BENCHMARK_THROUGHPUT=true
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_THROUGHPUT", matches = ".+")
+class JwtAuthenticationFilterLoadTest {
+
+    private static final String SECRET = "01234567890123456789012345678901";
+    private static final int WARMUP = 2_000;
+    private static final int REQUESTS = 20_000;
+
+    @Test
+    void cachedVerification_savesCpuPerRequest() {
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", "1111-2222")
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        JwtValidator uncachedValidator = spy(new JwtValidator(SECRET));
+        long uncachedNanos = cpuNanosPerRequest(new VerifiedTokenCache(uncachedValidator, 0, 3600), token);
+
+        JwtValidator cachedValidator = spy(new JwtValidator(SECRET));
+        long cachedNanos = cpuNanosPerRequest(new VerifiedTokenCache(cachedValidator, 10_000, 3600), token);
+
+        verify(uncachedValidator, times(WARMUP + REQUESTS)).verify(token);
+        verify(cachedValidator, times(1)).verify(token);
+        log.info("JWT-Filter: ohne Cache {} ns CPU/Request, mit Cache {} ns CPU/Request ({} ns gespart)",
+                uncachedNanos, cachedNanos, uncachedNanos - cachedNanos);
+    }
+
+    private long cpuNanosPerRequest(VerifiedTokenCache cache, String token) {
+        WebTestClient client = WebTestClient.bindToWebHandler(exchange -> Mono.empty())
+                .webFilter(new JwtAuthenticationFilter(cache, new IdentityHeaderSigner(SECRET)))
+                .build();
+        for (int i = 0; i < WARMUP; i++) {
+            send(client, token);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            send(client, token);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / REQUESTS;
+    }
+
+    private void send(WebTestClient client, String token) {
+        client.get().uri("/api/v1/secure")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -9,18 +9,28 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class JwtAuthenticationFilterTest {
 
-    private JwtValidator jwtValidator;
+    private static final String IDENTITY_SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF"; // 32 chars
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private IdentityHeaderSigner identityHeaderSigner;
     private JwtAuthenticationFilter filter;
 
     @BeforeEach
     void setUp() {
-        jwtValidator = mock(JwtValidator.class);
-        filter = new JwtAuthenticationFilter(jwtValidator);
+        verifiedTokenCache = mock(VerifiedTokenCache.class);
+        identityHeaderSigner = new IdentityHeaderSigner(IDENTITY_SECRET);
+        filter = new JwtAuthenticationFilter(verifiedTokenCache, identityHeaderSigner);
     }
 
     @Test
@@ -54,11 +64,66 @@ class JwtAuthenticationFilterTest {
         MockServerHttpRequest req = MockServerHttpRequest.get("/api/v1/secure").header(HttpHeaders.AUTHORIZATION, token).build();
         ServerWebExchange exchange = MockServerWebExchange.from(req);
 
-        when(jwtValidator.isValid("badtoken")).thenReturn(false);
+        when(verifiedTokenCache.verify("badtoken")).thenReturn(Optional.empty());
 
         WebFilterChain mockChain = (exchange1) -> Mono.empty();
         Mono<Void> result = filter.filter(exchange, mockChain);
         result.block();
         assertEquals(401, exchange.getResponse().getStatusCode().value());
     }
+
+    @Test
+    void filter_passes_valid_token_after_single_verification() {
+        MockServerHttpRequest req = MockServerHttpRequest.get("/api/v1/secure")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer goodtoken").build();
+        ServerWebExchange exchange = MockServerWebExchange.from(req);
+        when(verifiedTokenCache.verify("goodtoken")).thenReturn(Optional.of(new VerifiedToken("alice", "u-1", null)));
+
+        AtomicBoolean forwarded = new AtomicBoolean();
+        WebFilterChain mockChain = (exchange1) -> Mono.fromRunnable(() -> forwarded.set(true));
+        filter.filter(exchange, mockChain).block();
+
+        assertTrue(forwarded.get());
+        assertNull(exchange.getResponse().getStatusCode());
+        verify(verifiedTokenCache, times(1)).verify("goodtoken");
+    }
+
+    @Test
+    void filter_forwards_signed_identity_and_drops_client_headers() {
+        String userId = UUID.randomUUID().toString();
+        MockServerHttpRequest req = MockServerHttpRequest.get("/api/v1/secure")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer goodtoken")
+                .header(IdentityHeaderSigner.USERNAME_HEADER, "admin")
+                .header(IdentityHeaderSigner.SIGNATURE_HEADER, "forged")
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(req);
+        when(verifiedTokenCache.verify("goodtoken")).thenReturn(Optional.of(new VerifiedToken("alice", userId, null)));
+
+        AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+        WebFilterChain mockChain = (exchange1) -> Mono.fromRunnable(() -> forwarded.set(exchange1.getRequest().getHeaders()));
+        filter.filter(exchange, mockChain).block();
+
+        HttpHeaders headers = forwarded.get();
+        String timestamp = headers.getFirst(IdentityHeaderSigner.TIMESTAMP_HEADER);
+        assertEquals(userId, headers.getFirst(IdentityHeaderSigner.USER_ID_HEADER));
+        assertEquals(List.of("alice"), headers.get(IdentityHeaderSigner.USERNAME_HEADER));
+        assertEquals(identityHeaderSigner.sign(userId, "alice", timestamp),
+                headers.getFirst(IdentityHeaderSigner.SIGNATURE_HEADER));
+    }
+
+    @Test
+    void filter_strips_identity_headers_on_public_paths() {
+        MockServerHttpRequest req = MockServerHttpRequest.get("/api/v1/auth/login")
+                .header(IdentityHeaderSigner.USER_ID_HEADER, UUID.randomUUID().toString())
+                .header(IdentityHeaderSigner.USERNAME_HEADER, "admin")
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(req);
+
+        AtomicReference<HttpHeaders> forwarded = new AtomicReference<>();
+        WebFilterChain mockChain = (exchange1) -> Mono.fromRunnable(() -> forwarded.set(exchange1.getRequest().getHeaders()));
+        filter.filter(exchange, mockChain).block();
+
+        assertFalse(forwarded.get().containsKey(IdentityHeaderSigner.USER_ID_HEADER));
+        assertFalse(forwarded.get().containsKey(IdentityHeaderSigner.USERNAME_HEADER));
+    }
 }
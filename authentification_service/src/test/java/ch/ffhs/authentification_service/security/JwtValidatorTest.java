@@ -6,6 +6,8 @@ import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
 
 import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,6 +52,56 @@ class JwtValidatorTest {
         assertEquals("bob", validator.extractUsername(token));
     }
 
+    @Test
+    void verify_reads_userid_claim_written_by_core_backend() {
+        String secret = "01234567890123456789012345678901";
+        JwtValidator validator = new JwtValidator(secret);
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .claim("username", "alice")
+                .claim("userid", "3333-4444")
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals("3333-4444", validator.verify(token).orElseThrow().userId());
+        assertEquals("3333-4444", validator.extractUserId(token));
+    }
+
+    @Test
+    void verify_returns_claims_and_expiry_for_valid_token() {
+        String secret = "01234567890123456789012345678901";
+        JwtValidator validator = new JwtValidator(secret);
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 600) * 1000);
+
+        String token = Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", "1111-2222")
+                .setExpiration(expiration)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals(Optional.of(new VerifiedToken("alice", "1111-2222", expiration.toInstant())), validator.verify(token));
+    }
+
+    @Test
+    void verify_returns_empty_for_expired_or_malformed_token() {
+        String secret = "01234567890123456789012345678901";
+        JwtValidator validator = new JwtValidator(secret);
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+
+        String expired = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals(Optional.empty(), validator.verify(expired));
+        assertEquals(Optional.empty(), validator.verify("not-a-token"));
+    }
+
     @Test
     void isValid_returns_false_for_malformed_token() {
         String secret = "01234567890123456789012345678901";
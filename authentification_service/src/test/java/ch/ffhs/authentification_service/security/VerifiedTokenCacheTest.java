@@ -0,0 +1,143 @@
+package ch.ffhs.authentification_service.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-10-15T12:00:00Z");
+
+    private JwtValidator jwtValidator;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        jwtValidator = mock(JwtValidator.class);
+        clock = new MutableClock(NOW);
+    }
+
+    @Test
+    void verify_checksSignatureOnlyOnce_forRepeatedToken() {
+        VerifiedToken alice = new VerifiedToken("alice", "u-1", NOW.plusSeconds(600));
+        when(jwtValidator.verify("token")).thenReturn(Optional.of(alice));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 10, 3600);
+
+        assertEquals(Optional.of(alice), cache.verify("token"));
+        assertEquals(Optional.of(alice), cache.verify("token"));
+
+        verify(jwtValidator, times(1)).verify("token");
+    }
+
+    @Test
+    void verify_reverifies_afterTokenExpiry() {
+        when(jwtValidator.verify("token"))
+                .thenReturn(Optional.of(new VerifiedToken("alice", "u-1", NOW.plusSeconds(60))))
+                .thenReturn(Optional.empty());
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 10, 3600);
+        cache.verify("token");
+
+        clock.advance(Duration.ofSeconds(60));
+
+        assertEquals(Optional.empty(), cache.verify("token"));
+        verify(jwtValidator, times(2)).verify("token");
+    }
+
+    @Test
+    void verify_capsEntryLifetime_atMaxTtl() {
+        // Token ohne exp
+        when(jwtValidator.verify("token")).thenReturn(Optional.of(new VerifiedToken("alice", "u-1", null)));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 10, 30);
+        cache.verify("token");
+
+        clock.advance(Duration.ofSeconds(29));
+        cache.verify("token");
+        clock.advance(Duration.ofSeconds(1));
+        cache.verify("token");
+
+        verify(jwtValidator, times(2)).verify("token");
+    }
+
+    @Test
+    void verify_doesNotCacheInvalidTokens() {
+        when(jwtValidator.verify("bad")).thenReturn(Optional.empty());
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 10, 3600);
+
+        cache.verify("bad");
+        cache.verify("bad");
+
+        verify(jwtValidator, times(2)).verify("bad");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void verify_staysWithinMaxSize_andDropsExpiredEntriesFirst() {
+        when(jwtValidator.verify("short")).thenReturn(Optional.of(new VerifiedToken("a", "1", NOW.plusSeconds(10))));
+        when(jwtValidator.verify("long")).thenReturn(Optional.of(new VerifiedToken("b", "2", NOW.plusSeconds(600))));
+        when(jwtValidator.verify("new")).thenReturn(Optional.of(new VerifiedToken("c", "3", NOW.plusSeconds(600))));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 2, 3600);
+        cache.verify("short");
+        cache.verify("long");
+
+        clock.advance(Duration.ofSeconds(10));
+        cache.verify("new");
+        cache.verify("long");
+
+        assertEquals(2, cache.size());
+        verify(jwtValidator, times(1)).verify("long");
+    }
+
+    @Test
+    void verify_withMaxSizeZero_alwaysVerifies() {
+        when(jwtValidator.verify("token")).thenReturn(Optional.of(new VerifiedToken("alice", "u-1", null)));
+        VerifiedTokenCache cache = new VerifiedTokenCache(jwtValidator, clock, 0, 3600);
+
+        cache.verify("token");
+        cache.verify("token");
+
+        verify(jwtValidator, times(2)).verify("token");
+    }
+
+    @Test
+    void constructor_rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new VerifiedTokenCache(jwtValidator, clock, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new VerifiedTokenCache(jwtValidator, clock, 1, 0));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.service.implementation.catalog.AgeCategoryIndex;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogAgeCategory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht den {@link AgeCategoryIndex} mit den bisherigen linearen Scans über alle Alterskategorien
+ * ("welche Kategorie enthält Tag N" und "welche Kategorien überlappen [N-365, N+90]")
+ * bei wachsender Katalog-Grösse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgeCategoryIndexBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"8", "64", "512", "4096"})
+    public int categoryCount;
+
+    private List<CatalogAgeCategory> categories;
+    private AgeCategoryIndex index;
+    private int[] queryAges;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        categories = new ArrayList<>(categoryCount);
+        int min = 0;
+        for (int i = 0; i < categoryCount - 1; i++) {
+            int width = 30 + random.nextInt(365);
+            categories.add(new CatalogAgeCategory(UUID.randomUUID(), "Kategorie " + i, min, min + width - 1));
+            min += width;
+        }
+        categories.add(new CatalogAgeCategory(UUID.randomUUID(), "Offen", min, null));
+        categories.sort(Comparator.comparingInt(CatalogAgeCategory::ageMinDays));
+        index = AgeCategoryIndex.of(categories);
+
+        int maxAge = min + 365;
+        queryAges = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryAges[i] = random.nextInt(maxAge);
+        }
+    }
+
+    private int nextAge() {
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return queryAges[cursor];
+    }
+
+    @Benchmark
+    public CatalogAgeCategory containing_linearScan() {
+        int ageDays = nextAge();
+        return categories.stream()
+                .filter(cat -> ageDays >= cat.ageMinDays()
+                        && (cat.ageMaxDays() == null || ageDays <= cat.ageMaxDays()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public int containing_index() {
+        return index.findContaining(nextAge());
+    }
+
+    @Benchmark
+    public void overlapping_linearScan(Blackhole blackhole) {
+        int currentAgeDays = nextAge();
+        for (CatalogAgeCategory category : categories) {
+            blackhole.consume(isAgeCategoryRelevant(category, currentAgeDays));
+        }
+    }
+
+    @Benchmark
+    public BitSet overlapping_index() {
+        int currentAgeDays = nextAge();
+        return index.overlapping(currentAgeDays - 365, currentAgeDays + 90);
+    }
+
+    // Bisherige Logik aus ImmunizationScheduleServiceImpl
+    private static boolean isAgeCategoryRelevant(CatalogAgeCategory category, int currentAgeDays) {
+        if (currentAgeDays < category.ageMinDays()) {
+            return (category.ageMinDays() - currentAgeDays) <= 90;
+        }
+        if (category.ageMaxDays() == null) {
+            return true;
+        }
+        return currentAgeDays <= category.ageMaxDays() + 365;
+    }
+}
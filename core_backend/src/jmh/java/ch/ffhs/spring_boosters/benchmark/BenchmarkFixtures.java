@@ -0,0 +1,157 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.controller.entity.VaccineType;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Synthetische Stammdaten und Benutzerdaten für die Benchmarks. Alle Generatoren sind über
+ * einen festen Seed deterministisch, damit Läufe vergleichbar bleiben.
+ */
+final class BenchmarkFixtures {
+
+    static final long SEED = 42L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Katalog-Rohdaten: Alterskategorien lückenlos à 5 Jahre (die letzte offen), Impfpläne
+     * gleichmässig auf die Kategorien verteilt mit je einer Serie von 1-3 Dosen, Folge-Regeln
+     * nur von kleinerem zu grösserem Plan-Index (azyklisch).
+     */
+    record CatalogData(List<AgeCategory> ageCategories,
+                       List<VaccineType> vaccineTypes,
+                       List<ImmunizationPlan> plans,
+                       List<ImmunizationPlanSeries> series,
+                       List<FollowUpRule> rules) {
+
+        ImmunizationCatalog toCatalog() {
+            return ImmunizationCatalog.of(1L, plans, series, ageCategories, vaccineTypes, rules);
+        }
+    }
+
+    static CatalogData catalog(int categoryCount, int planCount, int ruleCount, Random random) {
+        List<AgeCategory> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            AgeCategory category = new AgeCategory();
+            category.setId(UUID.randomUUID());
+            category.setName("Kategorie " + i);
+            category.setAgeMinDays(i * 1825);
+            category.setAgeMaxDays(i == categoryCount - 1 ? null : i * 1825 + 1824);
+            categories.add(category);
+        }
+
+        List<VaccineType> vaccineTypes = new ArrayList<>();
+        List<ImmunizationPlan> plans = new ArrayList<>(planCount);
+        List<ImmunizationPlanSeries> series = new ArrayList<>(planCount);
+        for (int i = 0; i < planCount; i++) {
+            VaccineType vaccineType = new VaccineType("Impfstoff " + i, "V" + i);
+            vaccineType.setId(UUID.randomUUID());
+            vaccineTypes.add(vaccineType);
+
+            ImmunizationPlan plan = new ImmunizationPlan();
+            plan.setId(UUID.randomUUID());
+            plan.setName("Plan " + i);
+            plan.setVaccineTypeId(vaccineType.getId());
+            plan.setAgeCategoryId(categories.get(i % categoryCount).getId());
+            plans.add(plan);
+
+            ImmunizationPlanSeries planSeries = new ImmunizationPlanSeries();
+            planSeries.setId(UUID.randomUUID());
+            planSeries.setImmunizationPlanId(plan.getId());
+            planSeries.setRequiredDoses(1 + random.nextInt(3));
+            series.add(planSeries);
+        }
+
+        List<FollowUpRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount && planCount > 1; i++) {
+            int from = random.nextInt(planCount - 1);
+            int to = from + 1 + random.nextInt(planCount - from - 1);
+            FollowUpRule rule = new FollowUpRule(plans.get(from).getId(), plans.get(to).getId(), null, 1);
+            rule.setId(UUID.randomUUID());
+            rule.setMinIntervalDaysSinceLast(30 + random.nextInt(3650));
+            rules.add(rule);
+        }
+
+        return new CatalogData(categories, vaccineTypes, plans, series, rules);
+    }
+
+    static User user(int ageDays, LocalDate today) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("benchmark-" + ageDays);
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setBirthDate(today.minusDays(ageDays));
+        return user;
+    }
+
+    static List<User> users(int count, LocalDate today, Random random) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(random.nextInt(30000), today));
+        }
+        return users;
+    }
+
+    /**
+     * Projektions-Zeilen für zufällig gewählte, verschiedene Pläne des Katalogs.
+     */
+    static List<PendingImmunization> pendingRows(User user, CatalogData catalog, int startedPlans, Random random) {
+        List<ImmunizationPlan> shuffled = new ArrayList<>(catalog.plans());
+        Collections.shuffle(shuffled, random);
+        List<PendingImmunization> rows = new ArrayList<>(startedPlans);
+        for (ImmunizationPlan plan : shuffled.subList(0, Math.min(startedPlans, shuffled.size()))) {
+            PendingImmunization row = new PendingImmunization(user.getId(), plan.getId());
+            row.setCompletedDoses(1);
+            row.setRequiredDoses(3);
+            row.setLastAdministeredOn(user.getBirthDate().plusDays(random.nextInt(365)));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static List<ImmunizationRecord> records(User user, CatalogData catalog, int count, Random random) {
+        List<ImmunizationRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int planIndex = random.nextInt(catalog.plans().size());
+            ImmunizationPlan plan = catalog.plans().get(planIndex);
+            VaccineType vaccineType = catalog.vaccineTypes().get(planIndex);
+            ImmunizationRecord record = new ImmunizationRecord(user.getId(), UUID.randomUUID(), vaccineType.getId(),
+                    user.getBirthDate().plusDays(random.nextInt(10000)), 1 + random.nextInt(3));
+            record.setImmunizationPlanId(plan.getId());
+            record.setVaccineType(vaccineType);
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * In-Memory-Repository als dynamischer Proxy: nur die übergebenen Methoden (per Name) sind
+     * implementiert, alle anderen werfen. Der Proxy-Aufwand ist gegenüber einem DB-Roundtrip vernachlässigbar.
+     */
+    static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            if (method.getName().equals("toString")) {
+                return type.getSimpleName() + "(benchmark)";
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,133 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder.PlanProgress;
+import ch.ffhs.spring_boosters.service.implementation.catalog.FollowUpRuleGraph;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Auswertung der Folge-Regeln pro Benutzer: einmal nur der Graph-Durchlauf
+ * ({@link FollowUpRuleGraph#computeNextDue}), einmal der komplette Impfplan über den
+ * {@link ImmunizationScheduleBuilder}. Katalog mit 300 Impfplänen und wachsender Anzahl Regeln,
+ * Benutzer mit 20 begonnenen Plänen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FollowUpRuleGraphBenchmark {
+
+    private static final int PLAN_COUNT = 300;
+    private static final int STARTED_PLANS = 20;
+
+    @Param({"100", "500", "2000"})
+    public int ruleCount;
+
+    private ImmunizationCatalog catalog;
+    private ImmunizationScheduleBuilder builder;
+    private User user;
+    private Map<UUID, PlanProgress> progressByPlan;
+    private LocalDate today;
+
+    private int[] completedDoses;
+    private int[] lastAgeDays;
+    private int[] nextDueAgeDays;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        List<AgeCategory> categories = new ArrayList<>();
+        int min = 0;
+        for (int i = 0; i < 20; i++) {
+            AgeCategory category = new AgeCategory();
+            category.setId(UUID.randomUUID());
+            category.setName("Kategorie " + i);
+            category.setAgeMinDays(min);
+            category.setAgeMaxDays(i == 19 ? null : min + 1824);
+            categories.add(category);
+            min += 1825;
+        }
+
+        List<ImmunizationPlan> plans = new ArrayList<>(PLAN_COUNT);
+        List<ImmunizationPlanSeries> series = new ArrayList<>(PLAN_COUNT);
+        for (int i = 0; i < PLAN_COUNT; i++) {
+            ImmunizationPlan plan = new ImmunizationPlan();
+            plan.setId(UUID.randomUUID());
+            plan.setName("Plan " + i);
+            plan.setVaccineTypeId(UUID.randomUUID());
+            plan.setAgeCategoryId(categories.get(i % categories.size()).getId());
+            plans.add(plan);
+
+            ImmunizationPlanSeries planSeries = new ImmunizationPlanSeries();
+            planSeries.setId(UUID.randomUUID());
+            planSeries.setImmunizationPlanId(plan.getId());
+            planSeries.setRequiredDoses(1 + random.nextInt(3));
+            series.add(planSeries);
+        }
+
+        // Kanten nur von kleinerem zu grösserem Index, damit der Graph azyklisch bleibt
+        List<FollowUpRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            int from = random.nextInt(PLAN_COUNT - 1);
+            int to = from + 1 + random.nextInt(PLAN_COUNT - from - 1);
+            FollowUpRule rule = new FollowUpRule(plans.get(from).getId(), plans.get(to).getId(), null, 1);
+            rule.setId(UUID.randomUUID());
+            rule.setMinIntervalDaysSinceLast(30 + random.nextInt(3650));
+            if (random.nextBoolean()) {
+                rule.setTargetMaxAgeDays(36500);
+            }
+            rules.add(rule);
+        }
+
+        catalog = ImmunizationCatalog.of(1L, plans, series, categories, List.of(), rules);
+        builder = new ImmunizationScheduleBuilder();
+        today = LocalDate.now();
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("benchmark");
+        user.setBirthDate(today.minusDays(12000));
+
+        FollowUpRuleGraph graph = catalog.getFollowUpRuleGraph();
+        completedDoses = new int[graph.planCount()];
+        lastAgeDays = new int[graph.planCount()];
+        nextDueAgeDays = new int[graph.planCount()];
+        Arrays.fill(lastAgeDays, FollowUpRuleGraph.NONE);
+
+        progressByPlan = new HashMap<>();
+        for (int i = 0; i < STARTED_PLANS; i++) {
+            ImmunizationPlan plan = plans.get(random.nextInt(PLAN_COUNT));
+            int lastAge = random.nextInt(12000);
+            progressByPlan.put(plan.getId(), new PlanProgress(1, user.getBirthDate().plusDays(lastAge)));
+
+            int ordinal = graph.ordinalOf(plan.getId());
+            completedDoses[ordinal] = 1;
+            lastAgeDays[ordinal] = lastAge;
+        }
+    }
+
+    @Benchmark
+    public int[] computeNextDue() {
+        catalog.getFollowUpRuleGraph().computeNextDue(completedDoses, lastAgeDays, nextDueAgeDays);
+        return nextDueAgeDays;
+    }
+
+    @Benchmark
+    public ImmunizationScheduleDto buildSchedule() {
+        return builder.build(user, progressByPlan, catalog, today);
+    }
+}
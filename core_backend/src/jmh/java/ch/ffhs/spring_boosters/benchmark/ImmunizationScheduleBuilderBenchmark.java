@@ -0,0 +1,91 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder.PlanProgress;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Berechnung des Impfplans eines Benutzers ohne Folge-Regeln, abhängig von der Anzahl
+ * begonnener Pläne. Die Allokation pro Aufruf liefert der GC-Profiler
+ * (gc.alloc.rate.norm, im jmh-Profil standardmässig aktiv).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImmunizationScheduleBuilderBenchmark {
+
+    private static final int PLAN_COUNT = 200;
+
+    @Param({"1", "10", "50"})
+    public int startedPlans;
+
+    private final ImmunizationScheduleBuilder builder = new ImmunizationScheduleBuilder();
+    private ImmunizationCatalog catalog;
+    private User user;
+    private Map<UUID, PlanProgress> progressByPlan;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        today = LocalDate.now();
+
+        List<AgeCategory> categories = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AgeCategory category = new AgeCategory();
+            category.setId(UUID.randomUUID());
+            category.setName("Kategorie " + i);
+            category.setAgeMinDays(i * 30);
+            category.setAgeMaxDays(i == 9 ? null : i * 30 + 400);
+            categories.add(category);
+        }
+
+        List<ImmunizationPlan> plans = new ArrayList<>(PLAN_COUNT);
+        List<ImmunizationPlanSeries> series = new ArrayList<>(PLAN_COUNT);
+        for (int i = 0; i < PLAN_COUNT; i++) {
+            ImmunizationPlan plan = new ImmunizationPlan();
+            plan.setId(UUID.randomUUID());
+            plan.setName("Plan " + i);
+            plan.setVaccineTypeId(UUID.randomUUID());
+            plan.setAgeCategoryId(categories.get(random.nextInt(categories.size())).getId());
+            plans.add(plan);
+
+            ImmunizationPlanSeries planSeries = new ImmunizationPlanSeries();
+            planSeries.setId(UUID.randomUUID());
+            planSeries.setImmunizationPlanId(plan.getId());
+            planSeries.setRequiredDoses(3);
+            series.add(planSeries);
+        }
+        catalog = ImmunizationCatalog.of(1L, plans, series, categories, List.of(), List.of());
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("benchmark");
+        user.setBirthDate(today.minusDays(200));
+
+        // Begonnene, nicht abgeschlossene Pläne: alle landen im Ergebnis, sofern die Kategorie relevant ist
+        progressByPlan = new HashMap<>();
+        Collections.shuffle(plans, random);
+        for (int i = 0; i < startedPlans; i++) {
+            progressByPlan.put(plans.get(i).getId(), new PlanProgress(1 + random.nextInt(2), today.minusDays(30)));
+        }
+    }
+
+    @Benchmark
+    public ImmunizationScheduleDto build() {
+        return builder.build(user, progressByPlan, catalog, today);
+    }
+}
@@ -0,0 +1,94 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleServiceImpl;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Impfplan-Berechnung über {@link ImmunizationScheduleServiceImpl} mit In-Memory-Repositories:
+ * einzeln pro Benutzer und als Batch. Misst den Service ohne Datenbank, also Katalog-Zugriff,
+ * Gruppierung der Projektion und Builder.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImmunizationScheduleServiceBenchmark {
+
+    private static final int USER_COUNT = 1000;
+
+    @Param({"50", "300"})
+    public int planCount;
+
+    @Param({"5", "25"})
+    public int startedPlansPerUser;
+
+    private ImmunizationScheduleServiceImpl service;
+    private List<UUID> userIds;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        LocalDate today = LocalDate.now();
+
+        BenchmarkFixtures.CatalogData catalogData = BenchmarkFixtures.catalog(20, planCount, planCount, random);
+        ImmunizationCatalog catalog = catalogData.toCatalog();
+
+        List<User> users = BenchmarkFixtures.users(USER_COUNT, today, random);
+        Map<UUID, User> usersById = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<UUID, List<PendingImmunization>> rowsByUser = new HashMap<>();
+        for (User user : users) {
+            rowsByUser.put(user.getId(), BenchmarkFixtures.pendingRows(user, catalogData, startedPlansPerUser, random));
+        }
+        userIds = List.copyOf(usersById.keySet());
+
+        UserRepository userRepository = BenchmarkFixtures.repository(UserRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(usersById.get((UUID) args[0])),
+                "findAllById", args -> idsOf(args[0]).stream().map(usersById::get).filter(Objects::nonNull).toList()));
+        PendingImmunizationRepository pendingRepository = BenchmarkFixtures.repository(PendingImmunizationRepository.class, Map.of(
+                "findByUserId", args -> rowsByUser.getOrDefault((UUID) args[0], List.of()),
+                "findByUserIdIn", args -> idsOf(args[0]).stream()
+                        .flatMap(id -> rowsByUser.getOrDefault(id, List.of()).stream())
+                        .toList()));
+        ImmunizationCatalogService catalogService = BenchmarkFixtures.repository(ImmunizationCatalogService.class, Map.of(
+                "getCatalog", args -> catalog,
+                "refresh", args -> catalog));
+
+        service = new ImmunizationScheduleServiceImpl(userRepository, pendingRepository, catalogService,
+                new ImmunizationScheduleBuilder());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<UUID> idsOf(Object ids) {
+        return ids instanceof Collection<?> collection ? (Collection<UUID>) collection : List.of();
+    }
+
+    @Benchmark
+    public ImmunizationScheduleDto singleUser() throws UserNotFoundException {
+        cursor = (cursor + 1) % userIds.size();
+        return service.getPendingImmunizations(userIds.get(cursor));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USER_COUNT)
+    public List<ImmunizationScheduleDto> batchOfAllUsers() {
+        return service.getPendingImmunizations(userIds);
+    }
+}
@@ -0,0 +1,59 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-Auswertung pro Request: jeder Controller-Aufruf liest Benutzer-ID bzw. Benutzername
+ * aus dem JWT, wobei jedes Mal Schlüssel, Parser und Signaturprüfung neu anfallen.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenReaderBenchmark {
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF";
+
+    private JwtTokenReader jwtTokenReader;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenReader = new JwtTokenReader();
+        ReflectionTestUtils.setField(jwtTokenReader, "secret", SECRET);
+
+        token = Jwts.builder()
+                .setSubject("benchmark")
+                .claim("username", "benchmark")
+                .claim("userid", UUID.randomUUID().toString())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return jwtTokenReader.getClaims(token);
+    }
+
+    @Benchmark
+    public String getUserId() {
+        return jwtTokenReader.getUserId(token);
+    }
+
+    @Benchmark
+    public String getUsername() {
+        return jwtTokenReader.getUsername(token);
+    }
+}
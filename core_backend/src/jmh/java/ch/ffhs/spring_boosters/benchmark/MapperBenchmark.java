@@ -0,0 +1,66 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordDto;
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordWithNameRecordDto;
+import ch.ffhs.spring_boosters.controller.dto.VaccineTypeListDto;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.controller.entity.VaccineType;
+import ch.ffhs.spring_boosters.controller.mapper.ImmunizationPlanMapper;
+import ch.ffhs.spring_boosters.controller.mapper.ImmunizationRecordMapper;
+import ch.ffhs.spring_boosters.controller.mapper.UserMapper;
+import ch.ffhs.spring_boosters.controller.mapper.VaccineTypeMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-zu-DTO-Mapping der Listen-Endpunkte (Impfungen eines Benutzers, Impfstoffe).
+ * Ein Aufruf mappt die ganze Liste; die Allokationen pro Element zeigt der GC-Profiler.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int recordCount;
+
+    private ImmunizationRecordMapper immunizationRecordMapper;
+    private VaccineTypeMapper vaccineTypeMapper;
+    private List<ImmunizationRecord> records;
+    private List<VaccineType> vaccineTypes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        BenchmarkFixtures.CatalogData catalogData = BenchmarkFixtures.catalog(20, recordCount, 0, random);
+        User user = BenchmarkFixtures.user(30000, LocalDate.now());
+
+        vaccineTypeMapper = new VaccineTypeMapper();
+        immunizationRecordMapper = new ImmunizationRecordMapper(new UserMapper(), vaccineTypeMapper, new ImmunizationPlanMapper());
+        records = BenchmarkFixtures.records(user, catalogData, recordCount, random);
+        vaccineTypes = catalogData.vaccineTypes();
+    }
+
+    @Benchmark
+    public List<ImmunizationRecordDto> recordsToDto() {
+        return immunizationRecordMapper.toDtoList(records);
+    }
+
+    @Benchmark
+    public List<ImmunizationRecordWithNameRecordDto> recordsToDtoWithName() {
+        return immunizationRecordMapper.toDtoListWithName(records);
+    }
+
+    @Benchmark
+    public VaccineTypeListDto vaccineTypesToDto() {
+        return vaccineTypeMapper.vaccineTypeListDto(vaccineTypes);
+    }
+}
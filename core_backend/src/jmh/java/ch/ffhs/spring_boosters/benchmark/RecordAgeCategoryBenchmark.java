@@ -0,0 +1,77 @@
+package ch.ffhs.spring_boosters.benchmark;
+
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.PendingImmunizationService;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationRecordServiceImpl;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Erfassen einer Impfung ohne Datenbank: Alter bei der Impfung berechnen, Alterskategorie
+ * im Katalog suchen und passenden Impfplan zuordnen. Repositories und Projektion sind
+ * In-Memory-Stubs, gemessen wird nur die Zuordnungslogik im Service.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordAgeCategoryBenchmark {
+
+    private static final int CATEGORY_COUNT = 20;
+    private static final int CATEGORY_SPAN_DAYS = 1825;
+    private static final int RECORD_COUNT = 1024;
+
+    @Param({"50", "300"})
+    public int planCount;
+
+    private ImmunizationRecordServiceImpl service;
+    private ImmunizationRecord[] records;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        BenchmarkFixtures.CatalogData catalogData = BenchmarkFixtures.catalog(CATEGORY_COUNT, planCount, 0, random);
+        ImmunizationCatalog catalog = catalogData.toCatalog();
+        User user = BenchmarkFixtures.user(CATEGORY_COUNT * CATEGORY_SPAN_DAYS, LocalDate.now());
+
+        // Impfdatum jeweils innerhalb der Alterskategorie des Plans, damit immer ein Plan gefunden wird
+        records = new ImmunizationRecord[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            int planIndex = random.nextInt(planCount);
+            ImmunizationPlan plan = catalogData.plans().get(planIndex);
+            int ageDays = (planIndex % CATEGORY_COUNT) * CATEGORY_SPAN_DAYS + random.nextInt(CATEGORY_SPAN_DAYS);
+            records[i] = new ImmunizationRecord(user.getId(), UUID.randomUUID(), plan.getVaccineTypeId(),
+                    user.getBirthDate().plusDays(ageDays), 1);
+        }
+
+        UserRepository userRepository = BenchmarkFixtures.repository(UserRepository.class, Map.of(
+                "findById", args -> Optional.of(user)));
+        ImmunizationRecordRepository recordRepository = BenchmarkFixtures.repository(ImmunizationRecordRepository.class, Map.of(
+                "save", args -> args[0]));
+        ImmunizationCatalogService catalogService = BenchmarkFixtures.repository(ImmunizationCatalogService.class, Map.of(
+                "getCatalog", args -> catalog,
+                "refresh", args -> catalog));
+        PendingImmunizationService pendingService = BenchmarkFixtures.repository(PendingImmunizationService.class, Map.of(
+                "recordAdded", args -> null));
+
+        service = new ImmunizationRecordServiceImpl(recordRepository, userRepository, catalogService, pendingService);
+    }
+
+    @Benchmark
+    public ImmunizationRecord createImmunizationRecord() {
+        cursor = (cursor + 1) & (RECORD_COUNT - 1);
+        return service.createImmunizationRecord(records[cursor]);
+    }
+}
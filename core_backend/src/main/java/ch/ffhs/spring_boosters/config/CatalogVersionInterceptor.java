@@ -0,0 +1,30 @@
+package ch.ffhs.spring_boosters.config;
+
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Schreibt die Version des Impf-Katalogs in jede Antwort. Das Gateway verwirft seine gecachten
+ * Katalog-Antworten, sobald es eine andere Version sieht.
+ */
+@Component
+public class CatalogVersionInterceptor implements HandlerInterceptor {
+
+    public static final String CATALOG_VERSION_HEADER = "X-Catalog-Version";
+
+    private final ImmunizationCatalogService immunizationCatalogService;
+
+    public CatalogVersionInterceptor(ImmunizationCatalogService immunizationCatalogService) {
+        this.immunizationCatalogService = immunizationCatalogService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Vor dem Handler setzen: danach kann die Antwort bereits geschrieben sein
+        response.setHeader(CATALOG_VERSION_HEADER, String.valueOf(immunizationCatalogService.currentVersion()));
+        return true;
+    }
+}
@@ -1,12 +1,14 @@
 package ch.ffhs.spring_boosters.config;
 
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.util.UUID;
 
 @Component
 public class JwtTokenReader {
@@ -14,13 +16,11 @@ public class JwtTokenReader {
     @Value("${jwt.secret:}")
     private String secret;
 
+    // Schlüssel und Parser werden einmal aufgebaut; der Parser ist threadsicher
+    private volatile JwtParser parser;
+
     public Claims getClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parser()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser().parseSignedClaims(token).getPayload();
     }
 
     public String getUserId(String token) {
@@ -30,4 +30,26 @@ public class JwtTokenReader {
     public String getUsername(String token) {
         return getClaims(token).get("username", String.class);
     }
-}
\ No newline at end of file
+
+    /**
+     * User-ID und Username mit einer einzigen Signaturprüfung. Die User-ID ist null, wenn das
+     * Token keinen userid-Claim enthält.
+     */
+    public AuthenticatedUser getPrincipal(String token) {
+        Claims claims = getClaims(token);
+        String userId = claims.get("userid", String.class);
+        return new AuthenticatedUser(userId != null ? UUID.fromString(userId) : null,
+                claims.get("username", String.class));
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+}
@@ -1,14 +1,57 @@
 package ch.ffhs.spring_boosters.config;
 
+import ch.ffhs.spring_boosters.security.AdminUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.AuthenticatedUserArgumentResolver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
-public class WebConfig {
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver;
+    private final AdminUserArgumentResolver adminUserArgumentResolver;
+    private final CatalogVersionInterceptor catalogVersionInterceptor;
+
+    public WebConfig(AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver,
+                     AdminUserArgumentResolver adminUserArgumentResolver,
+                     CatalogVersionInterceptor catalogVersionInterceptor) {
+        this.authenticatedUserArgumentResolver = authenticatedUserArgumentResolver;
+        this.adminUserArgumentResolver = adminUserArgumentResolver;
+        this.catalogVersionInterceptor = catalogVersionInterceptor;
+    }
 
+    /**
+     * RestTemplate für Aufrufe des Notification-Service. Ohne Timeouts würde ein hängender
+     * Notification-Service den Outbox-Relay unbegrenzt blockieren.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${notification.service.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${notification.service.read-timeout-ms:60000}") long readTimeoutMs
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(connectTimeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authenticatedUserArgumentResolver);
+        resolvers.add(adminUserArgumentResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogVersionInterceptor);
     }
 }
@@ -1,18 +1,25 @@
 package ch.ffhs.spring_boosters.controller;
 
-import ch.ffhs.spring_boosters.config.JwtTokenReader;
 import ch.ffhs.spring_boosters.controller.dto.*;
 import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
 import ch.ffhs.spring_boosters.controller.mapper.ImmunizationRecordMapper;
+import ch.ffhs.spring_boosters.security.AdminUser;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationRecordNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationRecordExportService;
 import ch.ffhs.spring_boosters.service.ImmunizationRecordService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,17 +33,37 @@ public class ImmunizationRecordController {
 
     private final ImmunizationRecordService immunizationRecordService;
     private final ImmunizationRecordMapper immunizationRecordMapper;
-    private final JwtTokenReader jwtTokenReader;
+    private final ImmunizationRecordExportService immunizationRecordExportService;
 
     @GetMapping
     public ResponseEntity<List<ImmunizationRecordWithNameRecordDto>> getAllImmunizationRecords(
-            @RequestHeader(value = "Authorization", required = false) String authToken
+            AuthenticatedUser caller
     ) {
-        List<ImmunizationRecord> immunizationRecords = immunizationRecordService.getAllImmunizationRecords(getUserIdFromToken(authToken));
+        List<ImmunizationRecord> immunizationRecords = immunizationRecordService.getAllImmunizationRecords(caller.userId());
         List<ImmunizationRecordWithNameRecordDto> immunizationRecordDtos = immunizationRecordMapper.toDtoListWithName(immunizationRecords);
         return ResponseEntity.ok(immunizationRecordDtos);
     }
 
+    /**
+     * Export aller Impfungen als NDJSON oder CSV (nur ADMIN). Die Zeilen werden direkt aus dem
+     * DB-Cursor in die Response geschrieben, ohne Entities oder Listen aufzubauen.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportImmunizationRecords(
+            AdminUser admin,
+            @Valid ImmunizationRecordExportRequestDto request) {
+        ExportFormatEnum format = request.toEnum();
+        StreamingResponseBody body = out -> immunizationRecordExportService.exportImmunizationRecords(format, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("immunization-records." + format.getValue())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ImmunizationRecordDto> getImmunizationRecordById(
         @PathVariable UUID id) throws ImmunizationRecordNotFoundException {
@@ -48,8 +75,8 @@ public class ImmunizationRecordController {
     @PostMapping
     public ResponseEntity<ImmunizationRecordDto> createImmunizationRecord(
         @Valid @RequestBody ImmunizationRecordCreateDto createDto,
-        @RequestHeader("Authorization") String authToken) {
-        ImmunizationRecord immunizationRecord = immunizationRecordMapper.fromCreateDto(createDto, getUserIdFromToken(authToken));
+        AuthenticatedUser caller) {
+        ImmunizationRecord immunizationRecord = immunizationRecordMapper.fromCreateDto(createDto, caller.userId());
         ImmunizationRecord createdImmunizationRecord = immunizationRecordService.createImmunizationRecord(immunizationRecord);
         ImmunizationRecordDto immunizationRecordDto = immunizationRecordMapper.toDto(createdImmunizationRecord);
         return ResponseEntity.status(HttpStatus.CREATED).body(immunizationRecordDto);
@@ -59,8 +86,8 @@ public class ImmunizationRecordController {
     public ResponseEntity<ImmunizationRecordDto> updateImmunizationRecord(
         @PathVariable UUID id,
         @Valid @RequestBody ImmunizationRecordUpdateDto updateDto,
-        @RequestHeader("Authorization") String authToken) throws ImmunizationRecordNotFoundException {
-        ImmunizationRecord immunizationRecord = immunizationRecordMapper.fromUpdateDto(updateDto, getUserIdFromToken(authToken), id);
+        AuthenticatedUser caller) throws ImmunizationRecordNotFoundException {
+        ImmunizationRecord immunizationRecord = immunizationRecordMapper.fromUpdateDto(updateDto, caller.userId(), id);
         ImmunizationRecord updatedImmunizationRecord = immunizationRecordService.updateImmunizationRecord(id, immunizationRecord);
         ImmunizationRecordDto immunizationRecordDto = immunizationRecordMapper.toDto(updatedImmunizationRecord);
         return ResponseEntity.ok(immunizationRecordDto);
@@ -69,10 +96,10 @@ public class ImmunizationRecordController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteImmunizationRecord(
         @PathVariable UUID id,
-        @RequestHeader("Authorization") String authToken) throws ImmunizationRecordNotFoundException {
+        AuthenticatedUser caller) throws ImmunizationRecordNotFoundException {
 
         try {
-            immunizationRecordService.deleteImmunizationRecord(getUserIdFromToken(authToken), id);
+            immunizationRecordService.deleteImmunizationRecord(caller.userId(), id);
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
@@ -106,10 +133,10 @@ public class ImmunizationRecordController {
 
     @GetMapping("/myVaccinations")
     public ResponseEntity<List<ImmunizationRecordDto>> getMyImmunizationRecords(
-            @RequestHeader("Authorization") String authToken
+            AuthenticatedUser caller
     ) {
         try {
-            List<ImmunizationRecord> immunizationRecords = immunizationRecordService.getImmunizationRecordsByUser(getUserIdFromToken(authToken));
+            List<ImmunizationRecord> immunizationRecords = immunizationRecordService.getImmunizationRecordsByUser(caller.userId());
             List<ImmunizationRecordDto> immunizationRecordDtos = immunizationRecordMapper.toDtoList(immunizationRecords);
             return ResponseEntity.ok(immunizationRecordDtos);
         } catch (IllegalArgumentException e) {
@@ -131,9 +158,4 @@ public class ImmunizationRecordController {
         );
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
-
-    private UUID getUserIdFromToken(String authToken) {
-        String token = authToken.replace("Bearer ", "");
-        return UUID.fromString(jwtTokenReader.getUserId(token));
-    }
 }
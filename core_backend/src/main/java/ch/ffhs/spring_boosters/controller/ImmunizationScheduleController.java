@@ -1,20 +1,32 @@
 package ch.ffhs.spring_boosters.controller;
 
-import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationForecastRequestDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordScheduleSummaryDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationSchedulRecordSortedByPriorityDto;
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleBatchRequestDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.controller.dto.PriorityRequestDto;
+import ch.ffhs.spring_boosters.security.AdminUser;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationForecastService;
 import ch.ffhs.spring_boosters.service.ImmunizationScheduleService;
-import ch.ffhs.spring_boosters.service.UserService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
 import ch.ffhs.spring_boosters.service.implementation.enumerator.PriorityEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -23,25 +35,18 @@ import java.util.UUID;
 public class ImmunizationScheduleController {
 
     private final ImmunizationScheduleService immunizationScheduleService;
-    private final UserService userService;
-    private final JwtTokenReader jwtTokenReader;
+    private final ImmunizationForecastService immunizationForecastService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/pending")
-    public ResponseEntity<ImmunizationScheduleDto> getOwnPendingImmunizations(@RequestHeader("Authorization") String authToken) throws UserNotFoundException {
-        String username = extractUsernameFromJwt(authToken);
-
-        UUID userId = userService.findByUsername(username).getId();
-        ImmunizationScheduleDto schedule = immunizationScheduleService.getPendingImmunizations(userId);
+    public ResponseEntity<ImmunizationScheduleDto> getOwnPendingImmunizations(AuthenticatedUser caller) throws UserNotFoundException {
+        ImmunizationScheduleDto schedule = immunizationScheduleService.getPendingImmunizations(caller.userId());
         return ResponseEntity.ok(schedule);
-
     }
 
     @GetMapping("/pending/summary")
-    public ResponseEntity<ImmunizationRecordScheduleSummaryDto> getOwnPendingImmunizationsSummary(@RequestHeader("Authorization") String authToken) throws UserNotFoundException {
-        String username = extractUsernameFromJwt(authToken);
-
-            UUID userId = userService.findByUsername(username).getId();
-            ImmunizationScheduleDto schedule = immunizationScheduleService.getPendingImmunizations(userId);
+    public ResponseEntity<ImmunizationRecordScheduleSummaryDto> getOwnPendingImmunizationsSummary(AuthenticatedUser caller) throws UserNotFoundException {
+        ImmunizationScheduleDto schedule = immunizationScheduleService.getPendingImmunizations(caller.userId());
 
         ImmunizationRecordScheduleSummaryDto summary = new ImmunizationRecordScheduleSummaryDto(
                 schedule.getTotalPending(),
@@ -55,10 +60,10 @@ public class ImmunizationScheduleController {
 
     @GetMapping("/pending/{priority}")
     public ResponseEntity<ImmunizationSchedulRecordSortedByPriorityDto> getOwnImmunizationSchedule(
-            @RequestHeader("Authorization") String authToken,
+            AuthenticatedUser caller,
             @PathVariable @Valid PriorityRequestDto priority, Sort sort) throws UserNotFoundException {
 
-        UUID userId = extractUserIdFromJwt(authToken);
+        UUID userId = caller.userId();
         PriorityEnum priorityEnum = priority.toEnum();
 
         ImmunizationSchedulRecordSortedByPriorityDto sortedSchedule =
@@ -67,13 +72,39 @@ public class ImmunizationScheduleController {
         return ResponseEntity.ok(sortedSchedule);
     }
 
-    private String extractUsernameFromJwt(String authToken) {
-        String token = authToken.replace("Bearer ", "");
-        return jwtTokenReader.getUsername(token);
+    @PostMapping("/pending/batch")
+    public ResponseEntity<List<ImmunizationScheduleDto>> getPendingImmunizationsBatch(
+            AdminUser admin,
+            @RequestBody @Valid ImmunizationScheduleBatchRequestDto request) {
+        List<ImmunizationScheduleDto> schedules = immunizationScheduleService.getPendingImmunizations(request.userIds());
+        return ResponseEntity.ok(schedules);
     }
 
-    private UUID extractUserIdFromJwt(String authToken) {
-        String token = authToken.replace("Bearer ", "");
-        return UUID.fromString(jwtTokenReader.getUserId(token));
+    /**
+     * Prognose der fälligen Dosen pro Tag bzw. Woche und Impfstoff für die nächsten Monate.
+     * Die Zeitreihe wird als NDJSON (ein Punkt pro Zeile) direkt aus dem DB-Cursor geschrieben.
+     */
+    @GetMapping(value = "/forecast", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getDueForecast(
+            AdminUser admin,
+            @Valid ImmunizationForecastRequestDto request) {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusMonths(request.monthsOrDefault());
+        ForecastGranularityEnum granularity = request.toEnum();
+
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                immunizationForecastService.streamDueForecast(from, to, granularity, point -> {
+                    try {
+                        writer.write(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
@@ -1,9 +1,9 @@
 package ch.ffhs.spring_boosters.controller;
 
-import ch.ffhs.spring_boosters.config.JwtTokenReader;
 import ch.ffhs.spring_boosters.controller.dto.*;
 import ch.ffhs.spring_boosters.controller.entity.User;
 import ch.ffhs.spring_boosters.controller.mapper.UserMapper;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
 import ch.ffhs.spring_boosters.service.Exception.UserAlreadyExistException;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
 import ch.ffhs.spring_boosters.service.UserService;
@@ -18,7 +18,6 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -28,7 +27,6 @@ public class UserController {
 
     private final UserService userService;
     private final UserMapper userMapper;
-    private final JwtTokenReader jwtTokenReader;
 
     @PostMapping("/register")
     public ResponseEntity<UserDto> registerUser(
@@ -72,31 +70,22 @@ public class UserController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<UserDto> getCurrentUser( @RequestHeader("Authorization") String authToken) {
+    public ResponseEntity<UserDto> getCurrentUser(AuthenticatedUser caller) {
         try {
-            User user = userService.findById(getUserIdFromToken(authToken));
+            User user = userService.findById(caller.userId());
             UserDto userDto = userMapper.userToDto(user);
 
             return ResponseEntity.ok(userDto);
 
         } catch (UserNotFoundException exception) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
     @DeleteMapping()
-    public ResponseEntity<Void> deleteUser( @RequestHeader("Authorization") String authToken) throws UserNotFoundException {
-        try {
-            String token = authToken.replace("Bearer ", "");
-            UUID userId = UUID.fromString(jwtTokenReader.getUserId(token));
-
-            userService.deleteUser(userId);
-            return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException exception) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-        }
+    public ResponseEntity<Void> deleteUser(AuthenticatedUser caller) throws UserNotFoundException {
+        userService.deleteUser(caller.userId());
+        return ResponseEntity.noContent().build();
     }
 
 
@@ -116,9 +105,4 @@ public class UserController {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
-
-    private UUID getUserIdFromToken(String authToken) {
-        String token = authToken.replace("Bearer ", "");
-        return UUID.fromString(jwtTokenReader.getUserId(token));
-    }
 }
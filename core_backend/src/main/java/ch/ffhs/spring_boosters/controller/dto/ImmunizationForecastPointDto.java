@@ -0,0 +1,12 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record ImmunizationForecastPointDto(
+        LocalDate periodStart,
+        UUID vaccineTypeId,
+        String vaccineTypeName,
+        long dueDoses,
+        long userCount
+) {}
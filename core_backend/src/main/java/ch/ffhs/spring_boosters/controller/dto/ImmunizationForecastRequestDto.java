@@ -0,0 +1,29 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+public record ImmunizationForecastRequestDto(
+        @Min(value = 1, message = "months must be at least 1")
+        @Max(value = 24, message = "months must be at most 24")
+        Integer months,
+
+        @Pattern(
+                regexp = "day|week",
+                flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "granularity must be one of: day, week"
+        )
+        String granularity
+) {
+    private static final int DEFAULT_MONTHS = 6;
+
+    public int monthsOrDefault() {
+        return months != null ? months : DEFAULT_MONTHS;
+    }
+
+    public ForecastGranularityEnum toEnum() {
+        return granularity != null ? ForecastGranularityEnum.fromValue(granularity) : ForecastGranularityEnum.WEEK;
+    }
+}
@@ -0,0 +1,18 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record ImmunizationRecordExportDto(
+        UUID id,
+        UUID userId,
+        UUID vaccineTypeId,
+        String vaccineTypeName,
+        UUID immunizationPlanId,
+        String immunizationPlanName,
+        LocalDate administeredOn,
+        Integer doseOrderClaimed,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {}
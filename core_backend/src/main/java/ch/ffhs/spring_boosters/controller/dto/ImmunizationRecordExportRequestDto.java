@@ -0,0 +1,17 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
+import jakarta.validation.constraints.Pattern;
+
+public record ImmunizationRecordExportRequestDto(
+        @Pattern(
+                regexp = "ndjson|csv",
+                flags = Pattern.Flag.CASE_INSENSITIVE,
+                message = "format must be one of: ndjson, csv"
+        )
+        String format
+) {
+    public ExportFormatEnum toEnum() {
+        return format != null ? ExportFormatEnum.fromValue(format) : ExportFormatEnum.NDJSON;
+    }
+}
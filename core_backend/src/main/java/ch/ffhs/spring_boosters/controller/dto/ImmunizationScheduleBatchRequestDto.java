@@ -0,0 +1,14 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ImmunizationScheduleBatchRequestDto(
+        @NotEmpty(message = "At least one user ID is required")
+        @Size(max = 5000, message = "At most 5000 user IDs per request")
+        List<@NotNull UUID> userIds
+) {}
@@ -0,0 +1,9 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+public record NotificationEmailBatchItemResultDto(
+        int index,
+        String recipientEmail,
+        boolean success,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import java.util.List;
+
+public record NotificationEmailBatchRequestDto(
+        List<NotificationEmailRequestDto> requests,
+        // Ein Idempotency-Key pro E-Mail, damit der Notification-Service Wiederholungen erkennt
+        List<String> idempotencyKeys
+) {
+}
@@ -0,0 +1,12 @@
+package ch.ffhs.spring_boosters.controller.dto;
+
+import java.util.List;
+
+public record NotificationEmailBatchResponseDto(
+        int total,
+        int succeeded,
+        int failed,
+        List<NotificationEmailBatchItemResultDto> results,
+        String timestamp
+) {
+}
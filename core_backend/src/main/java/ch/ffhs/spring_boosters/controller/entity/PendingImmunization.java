@@ -0,0 +1,121 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Materialisierte Projektion: Stand eines Benutzers pro begonnenem oder durch eine Folge-Regel
+ * fällig gewordenem Impfplan. Wird bei jeder Änderung an immunization_record im selben Request nachgeführt,
+ * due_date und priority zusätzlich täglich neu berechnet.
+ */
+@Entity
+@Table(name = "pending_immunization", schema = "spring_boosters")
+@IdClass(PendingImmunizationId.class)
+public class PendingImmunization {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Column(name = "immunization_plan_id")
+    private UUID immunizationPlanId;
+
+    @Column(name = "completed_doses", nullable = false)
+    private int completedDoses;
+
+    @Column(name = "required_doses", nullable = false)
+    private int requiredDoses;
+
+    @Column(name = "last_administered_on")
+    private LocalDate lastAdministeredOn;
+
+    // Nächste Fälligkeit oder null, wenn nichts mehr offen ist
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    // PriorityEnum-Name oder null, wenn die Fälligkeit ausserhalb des Vorschau-Fensters liegt
+    @Column(name = "priority")
+    private String priority;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // Constructors
+    public PendingImmunization() {}
+
+    public PendingImmunization(UUID userId, UUID immunizationPlanId) {
+        this.userId = userId;
+        this.immunizationPlanId = immunizationPlanId;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getImmunizationPlanId() {
+        return immunizationPlanId;
+    }
+
+    public void setImmunizationPlanId(UUID immunizationPlanId) {
+        this.immunizationPlanId = immunizationPlanId;
+    }
+
+    public int getCompletedDoses() {
+        return completedDoses;
+    }
+
+    public void setCompletedDoses(int completedDoses) {
+        this.completedDoses = completedDoses;
+    }
+
+    public int getRequiredDoses() {
+        return requiredDoses;
+    }
+
+    public void setRequiredDoses(int requiredDoses) {
+        this.requiredDoses = requiredDoses;
+    }
+
+    public LocalDate getLastAdministeredOn() {
+        return lastAdministeredOn;
+    }
+
+    public void setLastAdministeredOn(LocalDate lastAdministeredOn) {
+        this.lastAdministeredOn = lastAdministeredOn;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
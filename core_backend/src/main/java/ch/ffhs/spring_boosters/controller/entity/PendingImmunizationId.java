@@ -0,0 +1,51 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+public class PendingImmunizationId implements Serializable {
+
+    private UUID userId;
+    private UUID immunizationPlanId;
+
+    // Constructors
+    public PendingImmunizationId() {}
+
+    public PendingImmunizationId(UUID userId, UUID immunizationPlanId) {
+        this.userId = userId;
+        this.immunizationPlanId = immunizationPlanId;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getImmunizationPlanId() {
+        return immunizationPlanId;
+    }
+
+    public void setImmunizationPlanId(UUID immunizationPlanId) {
+        this.immunizationPlanId = immunizationPlanId;
+    }
+
+    // equals and hashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PendingImmunizationId that = (PendingImmunizationId) o;
+        return Objects.equals(userId, that.userId) &&
+               Objects.equals(immunizationPlanId, that.immunizationPlanId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, immunizationPlanId);
+    }
+}
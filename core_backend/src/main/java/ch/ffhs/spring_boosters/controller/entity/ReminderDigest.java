@@ -0,0 +1,58 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Digest der zuletzt versendeten Impf-Erinnerung eines Benutzers.
+ */
+@Entity
+@Table(name = "reminder_digest", schema = "spring_boosters")
+public class ReminderDigest {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "digest", nullable = false)
+    private long digest;
+
+    @Column(name = "last_sent_at", nullable = false)
+    private OffsetDateTime lastSentAt;
+
+    // Constructors
+    public ReminderDigest() {}
+
+    public ReminderDigest(UUID userId, long digest, OffsetDateTime lastSentAt) {
+        this.userId = userId;
+        this.digest = digest;
+        this.lastSentAt = lastSentAt;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public long getDigest() {
+        return digest;
+    }
+
+    public void setDigest(long digest) {
+        this.digest = digest;
+    }
+
+    public OffsetDateTime getLastSentAt() {
+        return lastSentAt;
+    }
+
+    public void setLastSentAt(OffsetDateTime lastSentAt) {
+        this.lastSentAt = lastSentAt;
+    }
+}
@@ -0,0 +1,143 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderOutboxStatusEnum;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Erinnerung in der Outbox: serialisierte E-Mail-Anfrage an den Notification-Service
+ * plus Zustand der Zustellversuche.
+ */
+@Entity
+@Table(name = "reminder_outbox", schema = "spring_boosters")
+public class ReminderOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // NotificationEmailRequestDto als JSON
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReminderOutboxStatusEnum status = ReminderOutboxStatusEnum.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+
+    // Digest des Inhalts, wird nach erfolgreichem Versand in reminder_digest gespeichert
+    @Column(name = "digest")
+    private Long digest;
+
+    // Constructors
+    public ReminderOutboxEntry() {}
+
+    public ReminderOutboxEntry(UUID userId, String payload, OffsetDateTime nextAttemptAt, Long digest) {
+        this.userId = userId;
+        this.payload = payload;
+        this.nextAttemptAt = nextAttemptAt;
+        this.digest = digest;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public ReminderOutboxStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReminderOutboxStatusEnum status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public OffsetDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(OffsetDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OffsetDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(OffsetDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public Long getDigest() {
+        return digest;
+    }
+
+    public void setDigest(Long digest) {
+        this.digest = digest;
+    }
+}
@@ -0,0 +1,86 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderRunStatusEnum;
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Erinnerungs-Lauf für einen Stichtag. Die Arbeit ist auf {@link ReminderRunShard}s verteilt.
+ */
+@Entity
+@Table(name = "reminder_run", schema = "spring_boosters")
+public class ReminderRun {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "run_key", nullable = false, unique = true)
+    private String runKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReminderRunStatusEnum status;
+
+    @Column(name = "shard_count", nullable = false)
+    private int shardCount;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+
+    // Constructors
+    public ReminderRun() {}
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getRunKey() {
+        return runKey;
+    }
+
+    public void setRunKey(String runKey) {
+        this.runKey = runKey;
+    }
+
+    public ReminderRunStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReminderRunStatusEnum status) {
+        this.status = status;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public OffsetDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(OffsetDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
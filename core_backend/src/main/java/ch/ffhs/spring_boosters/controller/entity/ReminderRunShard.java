@@ -0,0 +1,186 @@
+package ch.ffhs.spring_boosters.controller.entity;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderRunStatusEnum;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Teil eines Erinnerungs-Laufs: alle Benutzer mit lower_bound <= id <= upper_bound.
+ * last_user_id ist der Checkpoint nach dem letzten vollständig verarbeiteten Chunk,
+ * lease_owner/lease_until der Knoten, der den Shard gerade bearbeitet.
+ */
+@Entity
+@Table(name = "reminder_run_shard", schema = "spring_boosters")
+public class ReminderRunShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(name = "lower_bound", nullable = false)
+    private UUID lowerBound;
+
+    @Column(name = "upper_bound", nullable = false)
+    private UUID upperBound;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReminderRunStatusEnum status = ReminderRunStatusEnum.PENDING;
+
+    @Column(name = "last_user_id")
+    private UUID lastUserId;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private OffsetDateTime leaseUntil;
+
+    @Column(name = "processed", nullable = false)
+    private int processed;
+
+    @Column(name = "enqueued", nullable = false)
+    private int enqueued;
+
+    @Column(name = "skipped", nullable = false)
+    private int skipped;
+
+    @Column(name = "failed", nullable = false)
+    private int failed;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // Constructors
+    public ReminderRunShard() {}
+
+    public ReminderRunShard(UUID runId, int shardNo, UUID lowerBound, UUID upperBound) {
+        this.runId = runId;
+        this.shardNo = shardNo;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getRunId() {
+        return runId;
+    }
+
+    public void setRunId(UUID runId) {
+        this.runId = runId;
+    }
+
+    public int getShardNo() {
+        return shardNo;
+    }
+
+    public void setShardNo(int shardNo) {
+        this.shardNo = shardNo;
+    }
+
+    public UUID getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(UUID lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    public UUID getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(UUID upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public ReminderRunStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReminderRunStatusEnum status) {
+        this.status = status;
+    }
+
+    public UUID getLastUserId() {
+        return lastUserId;
+    }
+
+    public void setLastUserId(UUID lastUserId) {
+        this.lastUserId = lastUserId;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public OffsetDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(OffsetDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    public int getEnqueued() {
+        return enqueued;
+    }
+
+    public void setEnqueued(int enqueued) {
+        this.enqueued = enqueued;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(OffsetDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,6 +1,8 @@
 package ch.ffhs.spring_boosters.controller.exception;
 
 import ch.ffhs.spring_boosters.controller.dto.ExceptionMessageBodyDto;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthenticatedException;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthorizedException;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
@@ -71,6 +73,38 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(UserNotAuthenticatedException.class)
+    public ResponseEntity<ExceptionMessageBodyDto> handleUserNotAuthenticatedException(
+            Exception ex,
+            HttpServletRequest request) {
+
+        ExceptionMessageBodyDto errorResponse = new ExceptionMessageBodyDto(
+                LocalDateTime.now(),
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+    }
+
+    @ExceptionHandler(UserNotAuthorizedException.class)
+    public ResponseEntity<ExceptionMessageBodyDto> handleUserNotAuthorizedException(
+            Exception ex,
+            HttpServletRequest request) {
+
+        ExceptionMessageBodyDto errorResponse = new ExceptionMessageBodyDto(
+                LocalDateTime.now(),
+                HttpStatus.FORBIDDEN.value(),
+                "Forbidden",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ExceptionMessageBodyDto> handleGenericException(
             Exception ex,
@@ -4,8 +4,11 @@ import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
 import ch.ffhs.spring_boosters.controller.entity.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,5 +42,15 @@ public interface ImmunizationRecordRepository extends JpaRepository<Immunization
 
     boolean existsByUserIdAndId(UUID userId, UUID id);
 
+    @Query("SELECT COUNT(r) AS completedDoses, MAX(r.administeredOn) AS lastAdministeredOn " +
+           "FROM ImmunizationRecord r WHERE r.userId = :userId AND r.immunizationPlanId = :planId")
+    DoseSummary summarizeDoses(@Param("userId") UUID userId, @Param("planId") UUID planId);
+
     UUID user(User user);
+
+    interface DoseSummary {
+        Long getCompletedDoses();
+
+        LocalDate getLastAdministeredOn();
+    }
 }
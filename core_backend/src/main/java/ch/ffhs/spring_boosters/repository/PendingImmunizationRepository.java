@@ -0,0 +1,69 @@
+package ch.ffhs.spring_boosters.repository;
+
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunizationId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface PendingImmunizationRepository extends JpaRepository<PendingImmunization, PendingImmunizationId> {
+
+    List<PendingImmunization> findByUserId(UUID userId);
+
+    List<PendingImmunization> findByUserIdIn(Collection<UUID> userIds);
+
+    Slice<PendingImmunization> findAllBy(Pageable pageable);
+
+    /**
+     * Fällige Dosen pro Zeitraum und Impfstoff, mengenbasiert über die Projektion.
+     * due_date enthält bereits birth_date + age_min_days bzw. die Fälligkeit aus den Folge-Regeln,
+     * unabhängig vom Vorschau-Fenster der Priorität; abgeschlossene Zeilen haben kein due_date.
+     *
+     * @param unit Einheit für date_trunc ("day" oder "week")
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            SELECT CAST(CASE :unit
+                            WHEN 'week' THEN date_trunc('week', CAST(GREATEST(p.due_date, :fromDate) AS timestamp))
+                            ELSE date_trunc('day', CAST(GREATEST(p.due_date, :fromDate) AS timestamp))
+                        END AS date) AS "periodStart",
+                   vt.id AS "vaccineTypeId",
+                   vt.name AS "vaccineTypeName",
+                   SUM(GREATEST(p.required_doses - p.completed_doses, 1)) AS "dueDoses",
+                   COUNT(DISTINCT p.user_id) AS "userCount"
+            FROM spring_boosters.pending_immunization p
+                     JOIN spring_boosters.immunization_plan ip ON ip.id = p.immunization_plan_id
+                     JOIN spring_boosters.vaccine_type vt ON vt.id = ip.vaccine_type_id
+            WHERE p.due_date < :toDate
+            GROUP BY 1, vt.id, vt.name
+            ORDER BY 1, vt.name
+            """, nativeQuery = true)
+    Stream<DueForecastRow> streamDueForecast(@Param("unit") String unit,
+                                             @Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate);
+
+    interface DueForecastRow {
+        LocalDate getPeriodStart();
+
+        UUID getVaccineTypeId();
+
+        String getVaccineTypeName();
+
+        Long getDueDoses();
+
+        Long getUserCount();
+    }
+}
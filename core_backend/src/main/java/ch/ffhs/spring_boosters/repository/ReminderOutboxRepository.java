@@ -0,0 +1,40 @@
+package ch.ffhs.spring_boosters.repository;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderOutboxEntry;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderOutboxStatusEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface ReminderOutboxRepository extends JpaRepository<ReminderOutboxEntry, UUID> {
+
+    /**
+     * Sperrt bis zu {@code limit} fällige Einträge für die laufende Transaktion. Bereits von einer
+     * anderen Instanz gesperrte Zeilen werden übersprungen, mehrere Relays arbeiten so auf
+     * disjunkten Einträgen.
+     */
+    @Query(value = """
+            SELECT * FROM spring_boosters.reminder_outbox
+            WHERE status = 'PENDING'
+              AND next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<ReminderOutboxEntry> lockDueEntries(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /**
+     * Die Benutzer unter {@code userIds}, die einen Eintrag im übergebenen Status haben.
+     */
+    @Query("SELECT DISTINCT e.userId FROM ReminderOutboxEntry e WHERE e.status = :status AND e.userId IN :userIds")
+    Set<UUID> findUserIdsByStatus(@Param("status") ReminderOutboxStatusEnum status,
+                                  @Param("userIds") Collection<UUID> userIds);
+}
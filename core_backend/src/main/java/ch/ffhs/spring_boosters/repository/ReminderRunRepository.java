@@ -0,0 +1,52 @@
+package ch.ffhs.spring_boosters.repository;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderRunStatusEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReminderRunRepository extends JpaRepository<ReminderRun, UUID> {
+
+    Optional<ReminderRun> findByRunKey(String runKey);
+
+    List<ReminderRun> findByStatusOrderByStartedAtAsc(ReminderRunStatusEnum status);
+
+    /**
+     * Legt den Lauf an, falls es für den run_key noch keinen gibt. Starten mehrere Knoten
+     * gleichzeitig, wartet das Insert auf die Transaktion des ersten und fügt dann nichts ein.
+     *
+     * @return 1, wenn der Lauf angelegt wurde, sonst 0
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO spring_boosters.reminder_run (id, run_key, status, shard_count, started_at)
+            VALUES (:id, :runKey, 'RUNNING', :shardCount, :startedAt)
+            ON CONFLICT (run_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("runKey") String runKey,
+                       @Param("shardCount") int shardCount,
+                       @Param("startedAt") OffsetDateTime startedAt);
+
+    /**
+     * Schliesst den Lauf ab, sobald alle Shards abgeschlossen sind.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ReminderRun r SET r.status = :completed, r.completedAt = :now
+            WHERE r.id = :id AND r.status <> :completed
+              AND NOT EXISTS (SELECT s FROM ReminderRunShard s WHERE s.runId = r.id AND s.status <> :completed)
+            """)
+    int completeIfAllShardsCompleted(@Param("id") UUID id,
+                                     @Param("completed") ReminderRunStatusEnum completed,
+                                     @Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,59 @@
+package ch.ffhs.spring_boosters.repository;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReminderRunShardRepository extends JpaRepository<ReminderRunShard, UUID> {
+
+    /**
+     * Sperrt den nächsten offenen Shard ohne gültige Lease. Shards, die gerade ein anderer
+     * Knoten übernimmt, werden übersprungen.
+     */
+    @Query(value = """
+            SELECT * FROM spring_boosters.reminder_run_shard
+            WHERE run_id = :runId
+              AND status <> 'COMPLETED'
+              AND (lease_until IS NULL OR lease_until < :now)
+            ORDER BY shard_no
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<ReminderRunShard> lockClaimableShard(@Param("runId") UUID runId, @Param("now") OffsetDateTime now);
+
+    /**
+     * Checkpoint nach einem vollständig verarbeiteten Chunk, verlängert zugleich die Lease.
+     * Greift nur, solange der Knoten die Lease noch hält.
+     *
+     * @return 1 bei Erfolg, 0 wenn die Lease inzwischen an einen anderen Knoten ging
+     */
+    @Modifying
+    @Query("""
+            UPDATE ReminderRunShard s
+            SET s.lastUserId = :lastUserId,
+                s.processed = s.processed + :processed,
+                s.enqueued = s.enqueued + :enqueued,
+                s.skipped = s.skipped + :skipped,
+                s.failed = s.failed + :failed,
+                s.leaseUntil = :leaseUntil,
+                s.updatedAt = :now
+            WHERE s.id = :id AND s.leaseOwner = :owner
+            """)
+    int checkpoint(@Param("id") UUID id,
+                   @Param("owner") String owner,
+                   @Param("lastUserId") UUID lastUserId,
+                   @Param("processed") int processed,
+                   @Param("enqueued") int enqueued,
+                   @Param("skipped") int skipped,
+                   @Param("failed") int failed,
+                   @Param("leaseUntil") OffsetDateTime leaseUntil,
+                   @Param("now") OffsetDateTime now);
+}
@@ -1,10 +1,15 @@
 package ch.ffhs.spring_boosters.repository;
 
 import ch.ffhs.spring_boosters.controller.entity.User;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,8 +21,32 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findById(UUID id);
 
+    /**
+     * Sperrt den Benutzer bis Transaktionsende; serialisiert Änderungen an seiner Projektion.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> lockAllById(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT u.role FROM User u WHERE u.id = :id")
+    Optional<String> findRoleById(@Param("id") UUID id);
+
     boolean existsByUsername(String username);
 
-    @Query("SELECT u FROM User u WHERE u.role = ?1")
-    Optional<List<User>> findAllByRole(String role);
+    boolean existsByRole(String role);
+
+    /**
+     * Erster Chunk eines id-Bereichs (Shard) für die Keyset-Paginierung nach id, Grenzen inklusive.
+     */
+    List<User> findByRoleAndIdBetweenOrderByIdAsc(String role, UUID lowerBound, UUID upperBound, Limit limit);
+
+    /**
+     * Folge-Chunk: Benutzer des Bereichs mit grösserer id als der letzte des vorherigen Chunks.
+     */
+    List<User> findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(String role, UUID afterId, UUID upperBound,
+                                                                       Limit limit);
 }
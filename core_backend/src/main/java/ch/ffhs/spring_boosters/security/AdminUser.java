@@ -0,0 +1,12 @@
+package ch.ffhs.spring_boosters.security;
+
+import java.util.UUID;
+
+/**
+ * Aufrufer mit Rolle ADMIN. Als Parameter einer Controller-Methode ersetzt er die Rollenprüfung:
+ * die Methode wird nur aufgerufen, wenn der Aufrufer die Rolle hat.
+ */
+public record AdminUser(UUID userId, String username) {
+
+    public static final String ROLE = "ADMIN";
+}
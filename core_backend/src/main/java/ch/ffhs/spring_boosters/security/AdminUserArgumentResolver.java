@@ -0,0 +1,48 @@
+package ch.ffhs.spring_boosters.security;
+
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthenticatedException;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthorizedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Löst {@link AdminUser}-Parameter auf: den Aufrufer über den {@link AuthenticatedUserArgumentResolver},
+ * die Rolle über eine Abfrage der Rollen-Spalte per id (ohne den Benutzer zu laden).
+ */
+@Component
+public class AdminUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver;
+    private final UserRepository userRepository;
+
+    public AdminUserArgumentResolver(AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver,
+                                     UserRepository userRepository) {
+        this.authenticatedUserArgumentResolver = authenticatedUserArgumentResolver;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AdminUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public AdminUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                     NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws UserNotAuthenticatedException, UserNotAuthorizedException {
+        AuthenticatedUser caller = authenticatedUserArgumentResolver.resolveArgument(parameter, mavContainer,
+                webRequest, binderFactory);
+        boolean admin = userRepository.findRoleById(caller.userId())
+                .map(AdminUser.ROLE::equals)
+                .orElse(false);
+        if (!admin) {
+            throw UserNotAuthorizedException.forRole(caller.username(), AdminUser.ROLE);
+        }
+        return new AdminUser(caller.userId(), caller.username());
+    }
+}
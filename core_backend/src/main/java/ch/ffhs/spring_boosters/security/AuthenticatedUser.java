@@ -0,0 +1,10 @@
+package ch.ffhs.spring_boosters.security;
+
+import java.util.UUID;
+
+/**
+ * Aufrufer eines Requests, einmal pro Request aus den Identitäts-Headern des Gateways oder
+ * aus dem JWT aufgelöst. Wird Controller-Methoden als Parameter übergeben.
+ */
+public record AuthenticatedUser(UUID userId, String username) {
+}
@@ -0,0 +1,91 @@
+package ch.ffhs.spring_boosters.security;
+
+import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthenticatedException;
+import io.jsonwebtoken.JwtException;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Löst {@link AuthenticatedUser}-Parameter von Controller-Methoden auf: bevorzugt aus den
+ * signierten Identitäts-Headern des Gateways (ohne JWT-Prüfung), sonst aus dem Bearer-Token.
+ * Tokens ohne userid-Claim werden über den Username aufgelöst. Das Ergebnis wird als Request-Attribut gehalten und pro Request nur einmal ermittelt.
+ */
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    static final String REQUEST_ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final IdentityHeaderVerifier identityHeaderVerifier;
+    private final JwtTokenReader jwtTokenReader;
+    private final UserRepository userRepository;
+
+    public AuthenticatedUserArgumentResolver(IdentityHeaderVerifier identityHeaderVerifier, JwtTokenReader jwtTokenReader,
+                                             UserRepository userRepository) {
+        this.identityHeaderVerifier = identityHeaderVerifier;
+        this.jwtTokenReader = jwtTokenReader;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthenticatedUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws UserNotAuthenticatedException {
+        Object resolved = webRequest.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved instanceof AuthenticatedUser user) {
+            return user;
+        }
+        AuthenticatedUser user = resolve(webRequest);
+        webRequest.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    private AuthenticatedUser resolve(NativeWebRequest webRequest) throws UserNotAuthenticatedException {
+        Optional<AuthenticatedUser> fromGateway = identityHeaderVerifier.verify(
+                webRequest.getHeader(IdentityHeaderVerifier.USER_ID_HEADER),
+                webRequest.getHeader(IdentityHeaderVerifier.USERNAME_HEADER),
+                webRequest.getHeader(IdentityHeaderVerifier.TIMESTAMP_HEADER),
+                webRequest.getHeader(IdentityHeaderVerifier.SIGNATURE_HEADER));
+        if (fromGateway.isPresent()) {
+            return fromGateway.get();
+        }
+
+        // Direkter Aufruf ohne Gateway (z.B. lokal oder intern): JWT selbst prüfen
+        String authHeader = webRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new UserNotAuthenticatedException();
+        }
+        AuthenticatedUser principal;
+        try {
+            principal = jwtTokenReader.getPrincipal(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UserNotAuthenticatedException("Invalid token: " + e.getMessage());
+        }
+        if (principal.userId() != null) {
+            return principal;
+        }
+        if (principal.username() == null) {
+            throw new UserNotAuthenticatedException("Invalid token: no userid or username claim");
+        }
+        // Ältere Tokens ohne userid-Claim: einmalige Abfrage über den Username
+        return userRepository.findByUsername(principal.username())
+                .map(User::getId)
+                .map(userId -> new AuthenticatedUser(userId, principal.username()))
+                .orElseThrow(() -> new UserNotAuthenticatedException("Unknown user: " + principal.username()));
+    }
+}
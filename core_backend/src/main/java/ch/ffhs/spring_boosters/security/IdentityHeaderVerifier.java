@@ -0,0 +1,102 @@
+package ch.ffhs.spring_boosters.security;
+
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Prüft die Identitäts-Header, die das Gateway nach der JWT-Prüfung setzt. Die Signatur ist ein
+ * HMAC-SHA256 über Version, User-ID, Username und Zeitstempel (gleiches Format wie
+ * IdentityHeaderSigner im Gateway); ältere Signaturen als max-age werden abgelehnt.
+ */
+@Component
+public class IdentityHeaderVerifier {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USERNAME_HEADER = "X-Username";
+    public static final String TIMESTAMP_HEADER = "X-Identity-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Identity-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+
+    private final SecretKeySpec key;
+    private final long maxAgeSeconds;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public IdentityHeaderVerifier(
+            @Value("${identity.header.secret}") String secret,
+            @Value("${identity.header.max-age-seconds:60}") long maxAgeSeconds
+    ) {
+        this(secret, maxAgeSeconds, Clock.systemUTC());
+    }
+
+    IdentityHeaderVerifier(String secret, long maxAgeSeconds, Clock clock) {
+        byte[] keyBytes = secret.startsWith("base64:")
+                ? Decoders.BASE64.decode(secret.substring(7))
+                : secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < 32) {
+            throw new IllegalArgumentException("identity.header.secret ist zu kurz (<256 Bit). Verwende mindestens 32 Byte.");
+        }
+        if (maxAgeSeconds < 1) {
+            throw new IllegalArgumentException("identity.header.max-age-seconds muss mindestens 1 sein: " + maxAgeSeconds);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.clock = clock;
+        // Mac ist nicht threadsicher, ein initialisiertes Exemplar pro Thread
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @return der Aufrufer, wenn alle Header vorhanden, die Signatur gültig und nicht zu alt ist
+     */
+    public Optional<AuthenticatedUser> verify(String userId, String username, String timestamp, String signature) {
+        if (userId == null || username == null || timestamp == null || signature == null) {
+            return Optional.empty();
+        }
+        try {
+            long issuedAt = Long.parseLong(timestamp);
+            if (Math.abs(clock.instant().getEpochSecond() - issuedAt) > maxAgeSeconds) {
+                return Optional.empty();
+            }
+            byte[] expected = sign(userId, username, timestamp);
+            byte[] actual = Base64.getUrlDecoder().decode(signature);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(UUID.fromString(userId), username));
+        } catch (IllegalArgumentException e) {
+            // Zeitstempel, Signatur oder User-ID nicht lesbar
+            return Optional.empty();
+        }
+    }
+
+    byte[] sign(String userId, String username, String timestamp) {
+        String payload = VERSION + "\n" + userId + "\n" + username + "\n" + timestamp;
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ch.ffhs.spring_boosters.service.Exception;
+
+public class UserNotAuthenticatedException extends Exception {
+
+    public UserNotAuthenticatedException() {
+        super("User not authenticated");
+    }
+
+    public UserNotAuthenticatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package ch.ffhs.spring_boosters.service.Exception;
+
+public class UserNotAuthorizedException extends Exception {
+
+    public UserNotAuthorizedException() {
+        super("User not authorized");
+    }
+
+    public UserNotAuthorizedException(String message) {
+        super(message);
+    }
+
+    public static UserNotAuthorizedException forRole(String username, String role) {
+        return new UserNotAuthorizedException(
+                String.format("User '%s' requires role '%s'", username, role)
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+
+public interface ImmunizationCatalogService {
+    /**
+     * Liefert den aktuellen Katalog-Snapshot. Beim ersten Zugriff wird er aus der DB aufgebaut.
+     */
+    ImmunizationCatalog getCatalog();
+
+    /**
+     * Baut den Katalog neu auf und ersetzt den bisherigen Snapshot atomar, sofern sich der Inhalt
+     * geändert hat; sonst bleiben Snapshot und Version erhalten.
+     * Muss nach jeder Schreiboperation auf den Stammdaten aufgerufen werden.
+     */
+    ImmunizationCatalog refresh();
+
+    /**
+     * Version des aktuellen Snapshots, ohne ihn zu laden; 0, solange noch keiner aufgebaut wurde.
+     */
+    long currentVersion();
+}
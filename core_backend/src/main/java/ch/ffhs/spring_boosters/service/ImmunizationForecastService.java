@@ -0,0 +1,18 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationForecastPointDto;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface ImmunizationForecastService {
+    /**
+     * Liefert die Anzahl fälliger Dosen pro Zeitraum und Impfstoff im Intervall [from, to).
+     * Die Aggregation läuft vollständig in der Datenbank, die Punkte werden in Zeitreihen-
+     * Reihenfolge an den Consumer übergeben, ohne die Ergebnismenge im Speicher zu halten.
+     * Bereits überfällige Dosen zählen zum ersten Zeitraum.
+     */
+    void streamDueForecast(LocalDate from, LocalDate to, ForecastGranularityEnum granularity,
+                           Consumer<ImmunizationForecastPointDto> consumer);
+}
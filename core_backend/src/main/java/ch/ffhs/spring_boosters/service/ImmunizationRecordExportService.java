@@ -0,0 +1,14 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ImmunizationRecordExportService {
+    /**
+     * Schreibt alle Impfungen im gewünschten Format in den Stream, Zeile für Zeile direkt
+     * aus einem Forward-only-Cursor. Der Speicherbedarf ist unabhängig von der Anzahl Impfungen.
+     */
+    void exportImmunizationRecords(ExportFormatEnum format, OutputStream out) throws IOException;
+}
@@ -5,6 +5,8 @@ import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
 import ch.ffhs.spring_boosters.service.implementation.enumerator.PriorityEnum;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface ImmunizationScheduleService {
@@ -13,6 +15,13 @@ public interface ImmunizationScheduleService {
      * basierend auf Alter, bereits erfassten Impfungen und Impfplänen
      */
     ImmunizationScheduleDto getPendingImmunizations(UUID userId) throws UserNotFoundException;
+
+    /**
+     * Berechnet die ausstehenden Impfungen für mehrere Benutzer mit mengenbasierten Queries.
+     * Unbekannte Benutzer-IDs werden übersprungen, die Reihenfolge folgt der Eingabe.
+     */
+    List<ImmunizationScheduleDto> getPendingImmunizations(Collection<UUID> userIds);
+
     ImmunizationSchedulRecordSortedByPriorityDto getImmunizationRecordsByUserIdAndFilterByDueStatus(UUID userId, PriorityEnum priorityEnum);
 }
 
@@ -0,0 +1,26 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+
+import java.util.UUID;
+
+public interface PendingImmunizationService {
+
+    /**
+     * Führt die Projektion nach dem Erfassen einer Impfung nach (Dosen des Plans neu gezählt).
+     * Muss in derselben Transaktion wie das Speichern der Impfung laufen.
+     */
+    void recordAdded(ImmunizationRecord immunizationRecord);
+
+    /**
+     * Berechnet die Zeile für Benutzer und Impfplan nach Änderung oder Löschung einer Impfung neu.
+     */
+    void recordChanged(UUID userId, UUID immunizationPlanId);
+
+    /**
+     * Aktualisiert die zeitabhängigen Felder (Fälligkeit, Priorität) aller Zeilen.
+     *
+     * @return Anzahl verarbeiteter Zeilen
+     */
+    int refreshPriorities();
+}
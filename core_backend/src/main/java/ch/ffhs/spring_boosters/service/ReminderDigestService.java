@@ -0,0 +1,30 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public interface ReminderDigestService {
+
+    /**
+     * 64-Bit-Digest des Erinnerungs-Inhalts: Impfplan, Priorität, Grund und Fälligkeit jeder
+     * ausstehenden Impfung, unabhängig von der Reihenfolge.
+     */
+    long digest(ImmunizationScheduleDto schedule);
+
+    /**
+     * Benutzer, deren Erinnerung versendet werden soll: noch nie versendet, Inhalt geändert
+     * oder letzter Versand älter als das Wiederholungs-Intervall.
+     *
+     * @param digestsByUser aktueller Digest pro Benutzer-id
+     * @return Teilmenge der übergebenen Benutzer-ids
+     */
+    Set<UUID> findDue(Map<UUID, Long> digestsByUser);
+
+    /**
+     * Speichert Digest und Versandzeitpunkt erfolgreich versendeter Erinnerungen.
+     */
+    void recordSent(Map<UUID, Long> digestsByUser);
+}
@@ -0,0 +1,28 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailRequestDto;
+
+import java.util.Map;
+import java.util.UUID;
+
+public interface ReminderOutboxService {
+
+    /**
+     * Legt die Erinnerungen in einer Transaktion in der Outbox ab. Versendet werden sie
+     * asynchron vom Relay, der nach erfolgreichem Versand den Digest speichert. Benutzer mit einem
+     * noch offenen Eintrag werden übersprungen.
+     *
+     * @param requestsByUser E-Mail-Anfrage pro Benutzer-id
+     * @param digestsByUser  Digest des Inhalts pro Benutzer-id ({@link ReminderDigestService#digest})
+     * @return Anzahl abgelegter Einträge
+     */
+    int enqueue(Map<UUID, NotificationEmailRequestDto> requestsByUser, Map<UUID, Long> digestsByUser);
+
+    /**
+     * Versendet einen Batch fälliger Einträge an den Notification-Service. Fehlgeschlagene
+     * Einträge werden mit exponentiellem Backoff erneut eingeplant.
+     *
+     * @return Anzahl verarbeiteter Einträge (0, wenn nichts fällig ist)
+     */
+    int relayBatch();
+}
@@ -0,0 +1,39 @@
+package ch.ffhs.spring_boosters.service;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReminderRunService {
+
+    /**
+     * Liefert den Lauf zum run_key und legt ihn samt Shards an, falls es ihn noch nicht gibt.
+     * Auf mehreren Knoten gleichzeitig aufgerufen, entsteht genau ein Lauf.
+     */
+    ReminderRun startRun(String runKey);
+
+    /**
+     * Offene Läufe, deren Shards noch übernommen werden können (auch nach Absturz eines Knotens).
+     */
+    List<ReminderRun> findRunningRuns();
+
+    /**
+     * Übernimmt den nächsten freien Shard des Laufs für den Knoten und setzt die Lease.
+     */
+    Optional<ReminderRunShard> claimShard(UUID runId, String owner);
+
+    /**
+     * Speichert den Fortschritt nach einem Chunk und verlängert die Lease.
+     *
+     * @return false, wenn der Knoten die Lease verloren hat und den Shard abgeben muss
+     */
+    boolean checkpoint(UUID shardId, String owner, UUID lastUserId, int processed, int enqueued, int skipped, int failed);
+
+    /**
+     * Schliesst den Shard ab und den Lauf, sobald alle Shards abgeschlossen sind.
+     */
+    void completeShard(UUID shardId, String owner);
+}
@@ -1,8 +1,15 @@
 package ch.ffhs.spring_boosters.service;
 
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.implementation.ReminderRunReport;
 
 public interface ReminderService {
 
-    void sendReminders() throws UserNotFoundException;
+    /**
+     * Legt Erinnerungen für alle Benutzer mit ausstehenden Impfungen in der Outbox ab.
+     * Versendet werden sie vom Outbox-Relay.
+     *
+     * @return Zusammenfassung des Laufs (verarbeitet, abgelegt, fehlgeschlagen, Durchsatz)
+     */
+    ReminderRunReport sendReminders() throws UserNotFoundException;
 }
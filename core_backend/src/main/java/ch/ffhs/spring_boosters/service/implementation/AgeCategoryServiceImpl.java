@@ -3,6 +3,7 @@ package ch.ffhs.spring_boosters.service.implementation;
 import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
 import ch.ffhs.spring_boosters.repository.AgeCategoryRepository;
 import ch.ffhs.spring_boosters.service.AgeCategoryService;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
 import ch.ffhs.spring_boosters.service.Exception.AgeCategoryAlreadyExistsException;
 import ch.ffhs.spring_boosters.service.Exception.AgeCategoryNotFoundException;
 import lombok.AllArgsConstructor;
@@ -16,6 +17,7 @@ import java.util.UUID;
 public class AgeCategoryServiceImpl implements AgeCategoryService {
 
     private final AgeCategoryRepository ageCategoryRepository;
+    private final ImmunizationCatalogService immunizationCatalogService;
 
     @Override
     public List<AgeCategory> getAllAgeCategories() {
@@ -33,7 +35,9 @@ public class AgeCategoryServiceImpl implements AgeCategoryService {
         if (ageCategoryRepository.existsByName(ageCategory.getName())) {
             throw new AgeCategoryAlreadyExistsException("Age category with name '" + ageCategory.getName() + "' already exists");
         }
-        return ageCategoryRepository.save(ageCategory);
+        AgeCategory saved = ageCategoryRepository.save(ageCategory);
+        immunizationCatalogService.refresh();
+        return saved;
     }
 
     @Override
@@ -50,7 +54,9 @@ public class AgeCategoryServiceImpl implements AgeCategoryService {
         existingAgeCategory.setAgeMinDays(ageCategory.getAgeMinDays());
         existingAgeCategory.setAgeMaxDays(ageCategory.getAgeMaxDays());
 
-        return ageCategoryRepository.save(existingAgeCategory);
+        AgeCategory saved = ageCategoryRepository.save(existingAgeCategory);
+        immunizationCatalogService.refresh();
+        return saved;
     }
 
     @Override
@@ -59,5 +65,6 @@ public class AgeCategoryServiceImpl implements AgeCategoryService {
             throw new AgeCategoryNotFoundException("Age category with id " + id + " not found");
         }
         ageCategoryRepository.deleteById(id);
+        immunizationCatalogService.refresh();
     }
 }
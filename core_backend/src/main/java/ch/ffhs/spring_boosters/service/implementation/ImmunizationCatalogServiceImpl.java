@@ -0,0 +1,92 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.repository.*;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@Slf4j
+public class ImmunizationCatalogServiceImpl implements ImmunizationCatalogService {
+
+    private final ImmunizationPlanRepository immunizationPlanRepository;
+    private final ImmunizationPlanSeriesRepository immunizationPlanSeriesRepository;
+    private final AgeCategoryRepository ageCategoryRepository;
+    private final VaccineTypeRepository vaccineTypeRepository;
+    private final FollowUpRuleRepository followUpRuleRepository;
+
+    private final AtomicReference<ImmunizationCatalog> current = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public ImmunizationCatalogServiceImpl(
+            ImmunizationPlanRepository immunizationPlanRepository,
+            ImmunizationPlanSeriesRepository immunizationPlanSeriesRepository,
+            AgeCategoryRepository ageCategoryRepository,
+            VaccineTypeRepository vaccineTypeRepository,
+            FollowUpRuleRepository followUpRuleRepository
+    ) {
+        this.immunizationPlanRepository = immunizationPlanRepository;
+        this.immunizationPlanSeriesRepository = immunizationPlanSeriesRepository;
+        this.ageCategoryRepository = ageCategoryRepository;
+        this.vaccineTypeRepository = vaccineTypeRepository;
+        this.followUpRuleRepository = followUpRuleRepository;
+    }
+
+    @Override
+    public ImmunizationCatalog getCatalog() {
+        ImmunizationCatalog catalog = current.get();
+        if (catalog != null) {
+            return catalog;
+        }
+        synchronized (this) {
+            catalog = current.get();
+            return catalog != null ? catalog : refresh();
+        }
+    }
+
+    /**
+     * Lädt die Stammdaten neu. Eine neue Version (und damit ein Leeren der Gateway-Caches) gibt es nur,
+     * wenn sich der Inhalt geändert hat; sonst bleibt der bisherige Snapshot bestehen.
+     */
+    @Override
+    public synchronized ImmunizationCatalog refresh() {
+        ImmunizationCatalog previous = current.get();
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(
+                versionSequence.get() + 1,
+                immunizationPlanRepository.findAll(),
+                immunizationPlanSeriesRepository.findAll(),
+                ageCategoryRepository.findAll(),
+                vaccineTypeRepository.findAll(),
+                followUpRuleRepository.findAll()
+        );
+        if (previous != null && previous.getContentHash() == catalog.getContentHash()) {
+            log.debug("Impf-Katalog unveraendert, Version {} bleibt", previous.getVersion());
+            return previous;
+        }
+        versionSequence.incrementAndGet();
+        current.set(catalog);
+        log.info("Impf-Katalog Version {} geladen ({} Impfpläne, {} Alterskategorien)",
+                catalog.getVersion(), catalog.getPlans().size(), catalog.getAgeCategories().size());
+        return catalog;
+    }
+
+    @Override
+    public long currentVersion() {
+        ImmunizationCatalog catalog = current.get();
+        return catalog != null ? catalog.getVersion() : 0;
+    }
+
+    /**
+     * Periodischer Neuaufbau, damit weitere Instanzen Änderungen anderer Knoten übernehmen.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${catalog.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+}
@@ -0,0 +1,45 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationForecastPointDto;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository.DueForecastRow;
+import ch.ffhs.spring_boosters.service.ImmunizationForecastService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor
+public class ImmunizationForecastServiceImpl implements ImmunizationForecastService {
+
+    private final PendingImmunizationRepository pendingImmunizationRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamDueForecast(LocalDate from, LocalDate to, ForecastGranularityEnum granularity,
+                                  Consumer<ImmunizationForecastPointDto> consumer) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Zeitraum ist leer: " + from + " bis " + to);
+        }
+
+        // Der Stream hält Cursor und Verbindung offen, bis er geschlossen wird
+        try (Stream<DueForecastRow> rows = pendingImmunizationRepository.streamDueForecast(granularity.getValue(), from, to)) {
+            rows.map(this::toDto).forEach(consumer);
+        }
+    }
+
+    private ImmunizationForecastPointDto toDto(DueForecastRow row) {
+        return new ImmunizationForecastPointDto(
+                row.getPeriodStart(),
+                row.getVaccineTypeId(),
+                row.getVaccineTypeName(),
+                row.getDueDoses(),
+                row.getUserCount()
+        );
+    }
+}
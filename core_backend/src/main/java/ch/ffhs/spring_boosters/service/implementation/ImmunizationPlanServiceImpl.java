@@ -4,6 +4,7 @@ import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
 import ch.ffhs.spring_boosters.repository.ImmunizationPlanRepository;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationPlanAlreadyExistsException;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationPlanNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
 import ch.ffhs.spring_boosters.service.ImmunizationPlanService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,7 @@ import java.util.UUID;
 public class ImmunizationPlanServiceImpl implements ImmunizationPlanService {
 
     private final ImmunizationPlanRepository immunizationPlanRepository;
+    private final ImmunizationCatalogService immunizationCatalogService;
 
     @Override
     public List<ImmunizationPlan> getAllImmunizationPlans() {
@@ -33,7 +35,9 @@ public class ImmunizationPlanServiceImpl implements ImmunizationPlanService {
         if (immunizationPlanRepository.existsByName(immunizationPlan.getName())) {
             throw new ImmunizationPlanAlreadyExistsException("Immunization plan with name '" + immunizationPlan.getName() + "' already exists");
         }
-        return immunizationPlanRepository.save(immunizationPlan);
+        ImmunizationPlan saved = immunizationPlanRepository.save(immunizationPlan);
+        immunizationCatalogService.refresh();
+        return saved;
     }
 
     @Override
@@ -50,7 +54,9 @@ public class ImmunizationPlanServiceImpl implements ImmunizationPlanService {
         existingPlan.setVaccineTypeId(immunizationPlan.getVaccineTypeId());
         existingPlan.setAgeCategoryId(immunizationPlan.getAgeCategoryId());
 
-        return immunizationPlanRepository.save(existingPlan);
+        ImmunizationPlan saved = immunizationPlanRepository.save(existingPlan);
+        immunizationCatalogService.refresh();
+        return saved;
     }
 
     @Override
@@ -59,6 +65,7 @@ public class ImmunizationPlanServiceImpl implements ImmunizationPlanService {
             throw new ImmunizationPlanNotFoundException("Immunization plan with id " + id + " not found");
         }
         immunizationPlanRepository.deleteById(id);
+        immunizationCatalogService.refresh();
     }
 
     @Override
@@ -0,0 +1,146 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordExportDto;
+import ch.ffhs.spring_boosters.service.ImmunizationRecordExportService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Service
+@AllArgsConstructor
+public class ImmunizationRecordExportServiceImpl implements ImmunizationRecordExportService {
+
+    // Ohne ORDER BY: eine Sortierung über die ganze Tabelle würde den Cursor erst nach dem Sortieren liefern
+    private static final String EXPORT_SQL = """
+            SELECT r.id, r.user_id, r.vaccine_type_id, vt.name AS vaccine_type_name,
+                   r.immunization_plan_id, ip.name AS immunization_plan_name,
+                   r.administered_on, r.dose_order_claimed, r.created_at, r.updated_at
+            FROM spring_boosters.immunization_record r
+                     JOIN spring_boosters.vaccine_type vt ON vt.id = r.vaccine_type_id
+                     JOIN spring_boosters.immunization_plan ip ON ip.id = r.immunization_plan_id
+            """;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String CSV_HEADER = "id,userId,vaccineTypeId,vaccineTypeName,immunizationPlanId,"
+            + "immunizationPlanName,administeredOn,doseOrderClaimed,createdAt,updatedAt";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Die read-only Transaktion ist nötig, damit PostgreSQL die Fetch Size als Cursor umsetzt
+     * (nur bei autocommit=false); sonst lädt der Treiber die komplette Ergebnismenge.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportImmunizationRecords(ExportFormatEnum format, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON -> exportNdjson(out);
+            case CSV -> exportCsv(out);
+        }
+    }
+
+    private void exportNdjson(OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            streamRecords(record -> {
+                try {
+                    writer.write(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        streamRecords(record -> {
+            try {
+                writeCsvLine(writer, record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void streamRecords(Consumer<ImmunizationRecordExportDto> consumer) throws IOException {
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet)));
+        } catch (UncheckedIOException e) {
+            // Schreibfehler, z.B. Client hat abgebrochen; der Cursor wurde vom JdbcTemplate bereits geschlossen
+            throw e.getCause();
+        }
+    }
+
+    private ImmunizationRecordExportDto mapRow(ResultSet rs) throws SQLException {
+        return new ImmunizationRecordExportDto(
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("vaccine_type_id", UUID.class),
+                rs.getString("vaccine_type_name"),
+                rs.getObject("immunization_plan_id", UUID.class),
+                rs.getString("immunization_plan_name"),
+                rs.getObject("administered_on", LocalDate.class),
+                rs.getObject("dose_order_claimed", Integer.class),
+                rs.getObject("created_at", OffsetDateTime.class),
+                rs.getObject("updated_at", OffsetDateTime.class)
+        );
+    }
+
+    private void writeCsvLine(Writer writer, ImmunizationRecordExportDto record) throws IOException {
+        writer.write(String.valueOf(record.id()));
+        writer.write(',');
+        writer.write(String.valueOf(record.userId()));
+        writer.write(',');
+        writer.write(String.valueOf(record.vaccineTypeId()));
+        writer.write(',');
+        writer.write(csvField(record.vaccineTypeName()));
+        writer.write(',');
+        writer.write(String.valueOf(record.immunizationPlanId()));
+        writer.write(',');
+        writer.write(csvField(record.immunizationPlanName()));
+        writer.write(',');
+        writer.write(String.valueOf(record.administeredOn()));
+        writer.write(',');
+        writer.write(record.doseOrderClaimed() != null ? record.doseOrderClaimed().toString() : "");
+        writer.write(',');
+        writer.write(record.createdAt() != null ? record.createdAt().toString() : "");
+        writer.write(',');
+        writer.write(record.updatedAt() != null ? record.updatedAt().toString() : "");
+        writer.write('\n');
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
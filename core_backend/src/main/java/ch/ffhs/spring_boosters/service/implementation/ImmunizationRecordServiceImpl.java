@@ -1,14 +1,15 @@
 package ch.ffhs.spring_boosters.service.implementation;
 
-import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
-import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
 import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
-import ch.ffhs.spring_boosters.repository.AgeCategoryRepository;
-import ch.ffhs.spring_boosters.repository.ImmunizationPlanRepository;
 import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
 import ch.ffhs.spring_boosters.repository.UserRepository;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationRecordNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
 import ch.ffhs.spring_boosters.service.ImmunizationRecordService;
+import ch.ffhs.spring_boosters.service.PendingImmunizationService;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogAgeCategory;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogPlan;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,9 +22,9 @@ import java.util.UUID;
 public class ImmunizationRecordServiceImpl implements ImmunizationRecordService {
 
     private final ImmunizationRecordRepository immunizationRecordRepository;
-    private final ImmunizationPlanRepository immunizationPlanRepository;
     private final UserRepository userRepository;
-    private final AgeCategoryRepository ageCategoryRepository;
+    private final ImmunizationCatalogService immunizationCatalogService;
+    private final PendingImmunizationService pendingImmunizationService;
 
     @Override
     public List<ImmunizationRecord> getAllImmunizationRecords(UUID userId) {
@@ -37,27 +38,41 @@ public class ImmunizationRecordServiceImpl implements ImmunizationRecordService
     }
 
     @Override
+    @Transactional
     public ImmunizationRecord createImmunizationRecord(ImmunizationRecord immunizationRecord) {
 
-        AgeCategory ageCategoryOfVaccination = calcAgeOfUserWhenVaccination(immunizationRecord);
+        ImmunizationCatalog catalog = immunizationCatalogService.getCatalog();
+        CatalogAgeCategory ageCategoryOfVaccination = calcAgeOfUserWhenVaccination(immunizationRecord, catalog);
+
+        if (ageCategoryOfVaccination == null) {
+            throw new IllegalStateException("Keine passende Alterskategorie für immunizationRecord id=" + immunizationRecord.getId());
+        }
 
-        List<ImmunizationPlan> plans = immunizationPlanRepository.findByVaccineTypeIdAndAgeCategoryId(immunizationRecord.getVaccineTypeId(), ageCategoryOfVaccination.getId());
-        ImmunizationPlan matched = plans.stream()
+        List<CatalogPlan> plans = catalog.findPlans(immunizationRecord.getVaccineTypeId(), ageCategoryOfVaccination.id());
+        CatalogPlan matched = plans.stream()
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("Kein passender ImmunizationPlan für vaccineTypeId=" + immunizationRecord.getVaccineTypeId()));
 
-        immunizationRecord.setImmunizationPlanId(matched.getId());
-        return immunizationRecordRepository.save(immunizationRecord);
+        immunizationRecord.setImmunizationPlanId(matched.id());
+        ImmunizationRecord saved = immunizationRecordRepository.save(immunizationRecord);
+
+        // Projektion in derselben Transaktion nachführen
+        pendingImmunizationService.recordAdded(saved);
+        return saved;
     }
 
     @Override
+    @Transactional
     public ImmunizationRecord updateImmunizationRecord(UUID id, ImmunizationRecord immunizationRecord) throws ImmunizationRecordNotFoundException {
         ImmunizationRecord existingRecord = getImmunizationRecordById(immunizationRecord.getId());
 
         existingRecord.setAdministeredOn(immunizationRecord.getAdministeredOn());
         existingRecord.setDoseOrderClaimed(immunizationRecord.getDoseOrderClaimed());
 
-        return immunizationRecordRepository.save(existingRecord);
+        ImmunizationRecord saved = immunizationRecordRepository.save(existingRecord);
+
+        pendingImmunizationService.recordChanged(saved.getUserId(), saved.getImmunizationPlanId());
+        return saved;
     }
 
     @Override
@@ -68,6 +83,9 @@ public class ImmunizationRecordServiceImpl implements ImmunizationRecordService
                         "Immunization record with id: " + immunizationRecordId + " not found"));
 
         immunizationRecordRepository.delete(record);
+
+        // Die Zählabfrage löst den Flush des Deletes aus (FlushMode AUTO)
+        pendingImmunizationService.recordChanged(record.getUserId(), record.getImmunizationPlanId());
     }
 
 
@@ -86,7 +104,7 @@ public class ImmunizationRecordServiceImpl implements ImmunizationRecordService
         return immunizationRecordRepository.findByUserIdAndVaccineTypeId(userId, vaccineTypeId);
     }
 
-    private AgeCategory calcAgeOfUserWhenVaccination(ImmunizationRecord immunizationRecord) {
+    private CatalogAgeCategory calcAgeOfUserWhenVaccination(ImmunizationRecord immunizationRecord, ImmunizationCatalog catalog) {
 
         if (immunizationRecord.getAdministeredOn() == null) {
             throw new IllegalArgumentException("administeredOn ist null für immunizationRecord id=" + immunizationRecord.getId());
@@ -107,10 +125,6 @@ public class ImmunizationRecordServiceImpl implements ImmunizationRecordService
 
         int ageDays = Math.toIntExact(ageDaysLong);
 
-        return ageCategoryRepository.findAll().stream()
-                .filter(cat -> ageDays >= cat.getAgeMinDays()
-                        && (cat.getAgeMaxDays() == null || ageDays <= cat.getAgeMaxDays()))
-                .findFirst()
-                .orElse(null);
+        return catalog.findAgeCategoryContaining(ageDays);
     }
 }
@@ -0,0 +1,242 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.service.implementation.catalog.AgeCategoryIndex;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogAgeCategory;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogPlan;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogVaccineType;
+import ch.ffhs.spring_boosters.service.implementation.catalog.FollowUpRuleGraph;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.PriorityEnum;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Zustandslose Berechnung des Impfplans. Wird vom Schedule-Service (Lesepfad) und von der
+ * Pending-Immunization-Projektion (Fälligkeit/Priorität) gemeinsam verwendet.
+ * Intern wird mit {@link PriorityEnum} und Plan-/Kategorie-Ordinalzahlen gerechnet,
+ * die deutschen Bezeichnungen entstehen erst beim Befüllen der DTOs.
+ */
+@Component
+public class ImmunizationScheduleBuilder {
+
+    // Relevant ist eine Kategorie, die in den nächsten 90 Tagen beginnt, aktuell gilt
+    // oder vor höchstens 365 Tagen geendet hat (Grace Period). Offene Kategorien enden nie.
+    private static final int GRACE_PERIOD_DAYS = 365;
+    private static final int LOOKAHEAD_DAYS = 90;
+    private static final int DUE_SOON_DAYS = 30;
+
+    private static final Comparator<PendingImmunizationDto> BY_AGE_MIN_DAYS =
+            Comparator.comparingInt(PendingImmunizationDto::getAgeMinDays);
+
+    /**
+     * Stand eines begonnenen Impfplans: abgeschlossene Dosen und Datum der letzten Impfung.
+     */
+    public record PlanProgress(int completedDoses, LocalDate lastAdministeredOn) {
+    }
+
+    /**
+     * Baut den Impfplan eines Benutzers aus dem Stand pro begonnenem Impfplan.
+     * Folge-Regeln können zusätzlich noch nicht begonnene Pläne fällig machen.
+     */
+    public ImmunizationScheduleDto build(User user,
+                                         Map<UUID, PlanProgress> progressByPlan,
+                                         ImmunizationCatalog catalog,
+                                         LocalDate today) {
+        LocalDate birthDate = user.getBirthDate();
+        int currentAgeDays = (int) ChronoUnit.DAYS.between(birthDate, today);
+
+        if (progressByPlan.isEmpty()) {
+            return schedule(user, currentAgeDays, List.of(), 0, 0, 0);
+        }
+
+        int planCount = catalog.getFollowUpRuleGraph().planCount();
+        int[] completedByOrdinal = new int[planCount];
+        int[] nextDueAgeDays = new int[planCount];
+        computeRuleDue(birthDate, progressByPlan, catalog.getFollowUpRuleGraph(), completedByOrdinal, nextDueAgeDays);
+
+        AgeCategoryIndex ageCategoryIndex = catalog.getAgeCategoryIndex();
+        int relevantFrom = currentAgeDays - GRACE_PERIOD_DAYS;
+        int relevantTo = currentAgeDays + LOOKAHEAD_DAYS;
+
+        // Ein Topf pro Priorität (Reihenfolge der Enum-Konstanten); die Grössen sind zugleich die Zähler
+        List<List<PendingImmunizationDto>> byPriority = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        for (int planOrdinal = 0; planOrdinal < planCount; planOrdinal++) {
+            int completedDoses = completedByOrdinal[planOrdinal];
+            int ruleDueAgeDays = nextDueAgeDays[planOrdinal];
+            boolean followUp = ruleDueAgeDays != FollowUpRuleGraph.NONE;
+            if (completedDoses == 0 && !followUp) {
+                continue;
+            }
+            // Regel-Fälligkeiten haben kein eigenes Alters-Fenster: später als die Vorschau fällt weg
+            if (followUp && ruleDueAgeDays > relevantTo) {
+                continue;
+            }
+
+            int ageCategoryOrdinal = catalog.getAgeCategoryOrdinal(planOrdinal);
+            if (ageCategoryOrdinal < 0 || !ageCategoryIndex.overlaps(ageCategoryOrdinal, relevantFrom, relevantTo)) {
+                continue;
+            }
+
+            CatalogPlan plan = catalog.getPlan(planOrdinal);
+            int requiredDoses = plan.requiredDoses();
+
+            // Abgeschlossene Pläne bleiben nur offen, wenn eine Regel eine Auffrischung verlangt
+            if (completedDoses >= requiredDoses && !followUp) {
+                continue;
+            }
+
+            CatalogAgeCategory ageCategory = ageCategoryIndex.get(ageCategoryOrdinal);
+            CatalogVaccineType vaccineType = catalog.getVaccineType(plan.vaccineTypeId());
+            int nextDueDays = followUp ? ruleDueAgeDays : ageCategory.ageMinDays();
+            boolean overdue = isOverdue(ageCategory, currentAgeDays);
+            PriorityEnum priority = determinePriority(overdue, currentAgeDays, nextDueDays);
+
+            byPriority.get(priority.ordinal()).add(PendingImmunizationDto.builder()
+                    .immunizationPlanId(plan.id())
+                    .immunizationPlanName(plan.name())
+                    .vaccineTypeId(vaccineType != null ? vaccineType.id() : null)
+                    .vaccineTypeName(vaccineType != null ? vaccineType.name() : "Unbekannt")
+                    .vaccineTypeCode(vaccineType != null ? vaccineType.code() : null)
+                    .ageCategoryName(ageCategory.name())
+                    .ageMinDays(ageCategory.ageMinDays())
+                    .ageMaxDays(ageCategory.ageMaxDays())
+                    .reason(determineReason(completedDoses, requiredDoses, followUp))
+                    .recommendedDoses(requiredDoses)
+                    .completedDoses(completedDoses)
+                    .missingDoses(Math.max(requiredDoses - completedDoses, 1))
+                    .isOverdue(overdue)
+                    .priority(priority.getLabel())
+                    .dueDate(birthDate.plusDays(nextDueDays))
+                    .build());
+        }
+
+        List<PendingImmunizationDto> overdue = byPriority.get(PriorityEnum.OVERDUE.ordinal());
+        List<PendingImmunizationDto> dueSoon = byPriority.get(PriorityEnum.DUE_SOON.ordinal());
+        List<PendingImmunizationDto> upcoming = byPriority.get(PriorityEnum.UPCOMING.ordinal());
+
+        List<PendingImmunizationDto> pendingImmunizations = new ArrayList<>(overdue.size() + dueSoon.size() + upcoming.size());
+        for (List<PendingImmunizationDto> bucket : byPriority) {
+            bucket.sort(BY_AGE_MIN_DAYS);
+            pendingImmunizations.addAll(bucket);
+        }
+
+        return schedule(user, currentAgeDays, pendingImmunizations, overdue.size(), dueSoon.size(), upcoming.size());
+    }
+
+    /**
+     * Nächste Fälligkeit pro Impfplan nach denselben Regeln wie {@link #build}, aber ohne das
+     * Vorschau-Fenster des Lesepfads: auch Kategorien, die erst in Jahren beginnen, und
+     * Auffrischungen weit in der Zukunft sind enthalten. Abgeschlossene Pläne ohne fällige
+     * Auffrischung und Kategorien, die vor mehr als der Grace Period geendet haben, fehlen.
+     */
+    public Map<UUID, LocalDate> nextDueDates(User user,
+                                             Map<UUID, PlanProgress> progressByPlan,
+                                             ImmunizationCatalog catalog,
+                                             LocalDate today) {
+        if (progressByPlan.isEmpty()) {
+            return Map.of();
+        }
+
+        LocalDate birthDate = user.getBirthDate();
+        int currentAgeDays = (int) ChronoUnit.DAYS.between(birthDate, today);
+        int planCount = catalog.getFollowUpRuleGraph().planCount();
+        int[] completedByOrdinal = new int[planCount];
+        int[] nextDueAgeDays = new int[planCount];
+        computeRuleDue(birthDate, progressByPlan, catalog.getFollowUpRuleGraph(), completedByOrdinal, nextDueAgeDays);
+
+        AgeCategoryIndex ageCategoryIndex = catalog.getAgeCategoryIndex();
+        int relevantFrom = currentAgeDays - GRACE_PERIOD_DAYS;
+        Map<UUID, LocalDate> dueByPlan = new HashMap<>();
+
+        for (int planOrdinal = 0; planOrdinal < planCount; planOrdinal++) {
+            int completedDoses = completedByOrdinal[planOrdinal];
+            int ruleDueAgeDays = nextDueAgeDays[planOrdinal];
+            boolean followUp = ruleDueAgeDays != FollowUpRuleGraph.NONE;
+            if (completedDoses == 0 && !followUp) {
+                continue;
+            }
+
+            int ageCategoryOrdinal = catalog.getAgeCategoryOrdinal(planOrdinal);
+            if (ageCategoryOrdinal < 0 || !ageCategoryIndex.overlaps(ageCategoryOrdinal, relevantFrom, Integer.MAX_VALUE)) {
+                continue;
+            }
+
+            CatalogPlan plan = catalog.getPlan(planOrdinal);
+            if (completedDoses >= plan.requiredDoses() && !followUp) {
+                continue;
+            }
+
+            int nextDueDays = followUp ? ruleDueAgeDays : ageCategoryIndex.get(ageCategoryOrdinal).ageMinDays();
+            dueByPlan.put(plan.id(), birthDate.plusDays(nextDueDays));
+        }
+        return dueByPlan;
+    }
+
+    /**
+     * Überträgt den Stand pro Plan auf Ordinalzahlen und wertet die Folge-Regeln aus.
+     */
+    private void computeRuleDue(LocalDate birthDate, Map<UUID, PlanProgress> progressByPlan, FollowUpRuleGraph ruleGraph,
+                                int[] completedByOrdinal, int[] nextDueAgeDays) {
+        int[] lastAgeDaysByOrdinal = new int[ruleGraph.planCount()];
+        Arrays.fill(lastAgeDaysByOrdinal, FollowUpRuleGraph.NONE);
+
+        for (Map.Entry<UUID, PlanProgress> entry : progressByPlan.entrySet()) {
+            int ordinal = ruleGraph.ordinalOf(entry.getKey());
+            if (ordinal < 0) {
+                continue;
+            }
+            PlanProgress progress = entry.getValue();
+            completedByOrdinal[ordinal] = progress.completedDoses();
+            if (progress.lastAdministeredOn() != null) {
+                lastAgeDaysByOrdinal[ordinal] = (int) ChronoUnit.DAYS.between(birthDate, progress.lastAdministeredOn());
+            }
+        }
+        ruleGraph.computeNextDue(completedByOrdinal, lastAgeDaysByOrdinal, nextDueAgeDays);
+    }
+
+    private ImmunizationScheduleDto schedule(User user, int currentAgeDays, List<PendingImmunizationDto> pendingImmunizations,
+                                             int overdueCount, int dueSoonCount, int upcomingCount) {
+        return ImmunizationScheduleDto.builder()
+                .userId(user.getId())
+                .username(user.getUsername())
+                .birthDate(user.getBirthDate())
+                .currentAgeDays(currentAgeDays)
+                .pendingImmunizations(pendingImmunizations)
+                .totalPending(pendingImmunizations.size())
+                .overdueCount(overdueCount)
+                .dueSoonCount(dueSoonCount)
+                .upcomingDueCount(upcomingCount)
+                .build();
+    }
+
+    private boolean isOverdue(CatalogAgeCategory category, int currentAgeDays) {
+        return category.ageMaxDays() != null && currentAgeDays > category.ageMaxDays();
+    }
+
+    private String determineReason(int completedDoses, int requiredDoses, boolean followUp) {
+        if (completedDoses == 0 && !followUp) {
+            return "Grundimmunisierung";
+        } else if (completedDoses > 0 && completedDoses < requiredDoses) {
+            return "Fortsetzung Grundimmunisierung";
+        } else {
+            return "Auffrischung";
+        }
+    }
+
+    private PriorityEnum determinePriority(boolean overdue, int currentAgeDays, int nextDueAgeDays) {
+        if (overdue) {
+            return PriorityEnum.OVERDUE;
+        }
+
+        // Nächste Dosis laut Folge-Regel, sonst Beginn der Alterskategorie. Beide liegen höchstens
+        // LOOKAHEAD_DAYS entfernt (Relevanz-Prüfung der Kategorie bzw. Fenster für Regel-Fälligkeiten).
+        return nextDueAgeDays - currentAgeDays <= DUE_SOON_DAYS ? PriorityEnum.DUE_SOON : PriorityEnum.UPCOMING;
+    }
+}
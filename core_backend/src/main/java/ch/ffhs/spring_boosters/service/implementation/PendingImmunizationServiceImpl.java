@@ -0,0 +1,188 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunizationId;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.PendingImmunizationService;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder.PlanProgress;
+import ch.ffhs.spring_boosters.service.implementation.catalog.CatalogPlan;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.PriorityEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class PendingImmunizationServiceImpl implements PendingImmunizationService {
+
+    private static final int REFRESH_PAGE_SIZE = 500;
+
+    private final PendingImmunizationRepository pendingImmunizationRepository;
+    private final ImmunizationRecordRepository immunizationRecordRepository;
+    private final UserRepository userRepository;
+    private final ImmunizationCatalogService immunizationCatalogService;
+    private final ImmunizationScheduleBuilder immunizationScheduleBuilder;
+    private final TransactionTemplate transactionTemplate;
+
+    public PendingImmunizationServiceImpl(
+            PendingImmunizationRepository pendingImmunizationRepository,
+            ImmunizationRecordRepository immunizationRecordRepository,
+            UserRepository userRepository,
+            ImmunizationCatalogService immunizationCatalogService,
+            ImmunizationScheduleBuilder immunizationScheduleBuilder,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.pendingImmunizationRepository = pendingImmunizationRepository;
+        this.immunizationRecordRepository = immunizationRecordRepository;
+        this.userRepository = userRepository;
+        this.immunizationCatalogService = immunizationCatalogService;
+        this.immunizationScheduleBuilder = immunizationScheduleBuilder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public void recordAdded(ImmunizationRecord immunizationRecord) {
+        // Aus den Impfungen neu zählen statt +1: gleichzeitige Einträge verlieren so keine Dosis
+        recordChanged(immunizationRecord.getUserId(), immunizationRecord.getImmunizationPlanId());
+    }
+
+    @Override
+    @Transactional
+    public void recordChanged(UUID userId, UUID immunizationPlanId) {
+        // Sperre vor dem Zählen: eine parallele Transaktion sieht danach die bereits committete Impfung
+        User user = userRepository.lockById(userId)
+                .orElseThrow(() -> new IllegalStateException("Kein User gefunden mit id=" + userId));
+        PendingImmunizationId id = new PendingImmunizationId(userId, immunizationPlanId);
+        ImmunizationRecordRepository.DoseSummary summary = immunizationRecordRepository.summarizeDoses(userId, immunizationPlanId);
+        long completedDoses = summary != null && summary.getCompletedDoses() != null ? summary.getCompletedDoses() : 0;
+
+        if (completedDoses == 0) {
+            pendingImmunizationRepository.findById(id).ifPresent(pendingImmunizationRepository::delete);
+            reevaluateUser(user, null);
+            return;
+        }
+
+        PendingImmunization row = pendingImmunizationRepository.findById(id)
+                .orElseGet(() -> new PendingImmunization(userId, immunizationPlanId));
+        row.setCompletedDoses(Math.toIntExact(completedDoses));
+        row.setLastAdministeredOn(summary.getLastAdministeredOn());
+
+        reevaluateUser(user, pendingImmunizationRepository.save(row));
+    }
+
+    @Override
+    public int refreshPriorities() {
+        ImmunizationCatalog catalog = immunizationCatalogService.getCatalog();
+        LocalDate today = LocalDate.now();
+        int processed = 0;
+        int pageNumber = 0;
+        boolean hasNext = true;
+
+        // Seitenweise in eigenen Transaktionen, damit der Persistence Context klein bleibt
+        while (hasNext) {
+            PageRequest page = PageRequest.of(pageNumber++, REFRESH_PAGE_SIZE, Sort.by("userId", "immunizationPlanId"));
+            Slice<PendingImmunization> rows = transactionTemplate.execute(status -> {
+                Slice<PendingImmunization> slice = pendingImmunizationRepository.findAllBy(page);
+                List<UUID> userIds = slice.stream().map(PendingImmunization::getUserId).distinct().toList();
+                // Gleiche Sperre wie recordChanged, sonst überschreibt der Refresh frisch gezählte Dosen
+                List<User> users = userRepository.lockAllById(userIds);
+
+                // Folge-Regeln verknüpfen Pläne, daher immer alle Zeilen eines Benutzers gemeinsam auswerten
+                Map<UUID, List<PendingImmunization>> rowsByUser = pendingImmunizationRepository.findByUserIdIn(userIds).stream()
+                        .collect(Collectors.groupingBy(PendingImmunization::getUserId));
+                for (User user : users) {
+                    evaluate(user, rowsByUser.getOrDefault(user.getId(), List.of()), catalog, today);
+                }
+                return slice;
+            });
+
+            if (rows == null) {
+                break;
+            }
+            processed += rows.getNumberOfElements();
+            hasNext = rows.hasNext();
+        }
+
+        return processed;
+    }
+
+    @Scheduled(cron = "${pending-immunization.refresh-cron:0 30 1 * * *}")
+    public void scheduledRefresh() {
+        int processed = refreshPriorities();
+        log.info("Pending-Immunization-Projektion aktualisiert: {} Zeilen", processed);
+    }
+
+    private void reevaluateUser(User user, PendingImmunization changedRow) {
+        List<PendingImmunization> rows = new ArrayList<>(pendingImmunizationRepository.findByUserId(user.getId()));
+        if (changedRow != null && !rows.contains(changedRow)) {
+            rows.add(changedRow);
+        }
+
+        // Geänderte Werte der übrigen (verwalteten) Zeilen schreibt das Dirty Checking beim Commit
+        evaluate(user, rows, immunizationCatalogService.getCatalog(), LocalDate.now());
+    }
+
+    private void evaluate(User user, List<PendingImmunization> rows, ImmunizationCatalog catalog, LocalDate today) {
+        Map<UUID, PlanProgress> progressByPlan = new HashMap<>(rows.size() * 2);
+        for (PendingImmunization row : rows) {
+            progressByPlan.put(row.getImmunizationPlanId(), new PlanProgress(row.getCompletedDoses(), row.getLastAdministeredOn()));
+        }
+
+        // Gleiche Regeln wie der Lesepfad, einmal pro Benutzer
+        ImmunizationScheduleDto schedule = immunizationScheduleBuilder.build(user, progressByPlan, catalog, today);
+        Map<UUID, PendingImmunizationDto> pendingByPlan = schedule.getPendingImmunizations().stream()
+                .collect(Collectors.toMap(PendingImmunizationDto::getImmunizationPlanId, Function.identity()));
+        // due_date unabhängig vom Vorschau-Fenster, damit die Prognose beliebig weit vorausschauen kann
+        Map<UUID, LocalDate> dueByPlan = immunizationScheduleBuilder.nextDueDates(user, progressByPlan, catalog, today);
+
+        for (PendingImmunization row : rows) {
+            CatalogPlan plan = catalog.getPlan(row.getImmunizationPlanId());
+            row.setRequiredDoses(plan != null ? plan.requiredDoses() : row.getRequiredDoses());
+            apply(row, dueByPlan.get(row.getImmunizationPlanId()), pendingByPlan.get(row.getImmunizationPlanId()));
+        }
+
+        // Von Folge-Regeln fällig gemachte, noch nicht begonnene Pläne bekommen eine eigene Zeile
+        for (Map.Entry<UUID, LocalDate> due : dueByPlan.entrySet()) {
+            if (progressByPlan.containsKey(due.getKey())) {
+                continue;
+            }
+            PendingImmunization row = new PendingImmunization(user.getId(), due.getKey());
+            row.setRequiredDoses(catalog.getPlan(due.getKey()).requiredDoses());
+            apply(row, due.getValue(), pendingByPlan.get(due.getKey()));
+            pendingImmunizationRepository.save(row);
+        }
+    }
+
+    /**
+     * due_date ist die nächste Fälligkeit oder null, wenn nichts mehr offen ist; priority ist nur
+     * innerhalb des Vorschau-Fensters des Lesepfads gesetzt.
+     */
+    private void apply(PendingImmunization row, LocalDate dueDate, PendingImmunizationDto pending) {
+        row.setDueDate(dueDate);
+        row.setPriority(pending != null ? PriorityEnum.fromLabel(pending.getPriority()).name() : null);
+    }
+}
@@ -0,0 +1,111 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderDigest;
+import ch.ffhs.spring_boosters.repository.ReminderDigestRepository;
+import ch.ffhs.spring_boosters.service.ReminderDigestService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Erkennt unveränderte Impf-Erinnerungen. Pro Benutzer wird nur ein 64-Bit-Digest des Inhalts
+ * gespeichert; ändert sich der Impfplan nicht, wird die Erinnerung erst nach resend-after-days
+ * wieder versendet (Standard: monatlich statt wöchentlich).
+ */
+@Service
+public class ReminderDigestServiceImpl implements ReminderDigestService {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ReminderDigestRepository reminderDigestRepository;
+    private final Duration resendAfter;
+
+    public ReminderDigestServiceImpl(
+            ReminderDigestRepository reminderDigestRepository,
+            @Value("${reminder.digest.resend-after-days:28}") int resendAfterDays
+    ) {
+        if (resendAfterDays < 0) {
+            throw new IllegalArgumentException("reminder.digest.resend-after-days darf nicht negativ sein: " + resendAfterDays);
+        }
+        this.reminderDigestRepository = reminderDigestRepository;
+        this.resendAfter = Duration.ofDays(resendAfterDays);
+    }
+
+    @Override
+    public long digest(ImmunizationScheduleDto schedule) {
+        List<PendingImmunizationDto> pending = schedule.getPendingImmunizations();
+        // Summe der Einträge: unabhängig von der Sortierung innerhalb gleicher Priorität
+        long digest = mix(pending.size());
+        for (PendingImmunizationDto immunization : pending) {
+            long hash = FNV_OFFSET_BASIS;
+            hash = fnv(hash, String.valueOf(immunization.getImmunizationPlanId()));
+            hash = fnv(hash, immunization.getPriority());
+            hash = fnv(hash, immunization.getReason());
+            hash = fnv(hash, String.valueOf(immunization.getDueDate()));
+            digest += mix(hash);
+        }
+        return digest;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<UUID> findDue(Map<UUID, Long> digestsByUser) {
+        Set<UUID> due = new HashSet<>(digestsByUser.keySet());
+        OffsetDateTime resendBefore = OffsetDateTime.now().minus(resendAfter);
+        for (ReminderDigest stored : reminderDigestRepository.findAllById(digestsByUser.keySet())) {
+            if (stored.getDigest() == digestsByUser.get(stored.getUserId())
+                    && stored.getLastSentAt().isAfter(resendBefore)) {
+                due.remove(stored.getUserId());
+            }
+        }
+        return due;
+    }
+
+    @Override
+    @Transactional
+    public void recordSent(Map<UUID, Long> digestsByUser) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<UUID, Long> missing = new HashMap<>(digestsByUser);
+        // Vorhandene Zeilen werden per Dirty Checking aktualisiert
+        for (ReminderDigest stored : reminderDigestRepository.findAllById(digestsByUser.keySet())) {
+            stored.setDigest(missing.remove(stored.getUserId()));
+            stored.setLastSentAt(now);
+        }
+        List<ReminderDigest> created = new ArrayList<>(missing.size());
+        missing.forEach((userId, digest) -> created.add(new ReminderDigest(userId, digest, now)));
+        if (!created.isEmpty()) {
+            reminderDigestRepository.saveAll(created);
+        }
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+            }
+        }
+        // Trennzeichen, damit ("ab", "c") und ("a", "bc") verschieden sind
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+
+    // Finalizer von SplitMix64: verteilt die Bits, bevor die Einträge addiert werden
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,325 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchItemResultDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchRequestDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchResponseDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailRequestDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderOutboxEntry;
+import ch.ffhs.spring_boosters.repository.ReminderOutboxRepository;
+import ch.ffhs.spring_boosters.service.ReminderDigestService;
+import ch.ffhs.spring_boosters.service.ReminderOutboxService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderOutboxStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outbox für Impf-Erinnerungen. Der Relay sperrt fällige Einträge in einer kurzen Transaktion mit
+ * FOR UPDATE SKIP LOCKED und belegt sie per next_attempt_at für die Lease-Dauer. Der Versand über
+ * /send-batch läuft ausserhalb jeder Transaktion, das Ergebnis wird danach in einer zweiten kurzen
+ * Transaktion geschrieben. Bricht der Prozess dazwischen ab, werden die Einträge nach Ablauf der
+ * Lease erneut übergeben; die ID des Eintrags als Idempotency-Key verhindert innerhalb der TTL des
+ * Notification-Service einen zweiten Versand.
+ * Mit dem Ergebnis wird auch der Digest der versendeten Erinnerungen gespeichert; solange ein Eintrag
+ * offen ist, legt der Erinnerungs-Lauf für denselben Benutzer keinen zweiten an. Endgültig
+ * fehlgeschlagene Einträge hinterlassen keinen Digest und werden beim nächsten Lauf neu abgelegt.
+ * Antwortet der Notification-Service mit 429, werden die Einträge ohne Fehlversuch um
+ * Retry-After zurückgestellt und der Relay pausiert so lange. Mit 409 (Idempotency-Key noch in
+ * Bearbeitung) werden sie ebenfalls ohne Fehlversuch zurückgestellt, der Relay läuft aber weiter.
+ */
+@Service
+@Slf4j
+public class ReminderOutboxServiceImpl implements ReminderOutboxService {
+
+    static final String IDEMPOTENCY_KEY_PREFIX = "reminder-outbox:";
+
+    private final ReminderOutboxRepository reminderOutboxRepository;
+    private final ReminderDigestService reminderDigestService;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String notificationServiceBatchUrl;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private volatile OffsetDateTime throttledUntil = OffsetDateTime.MIN;
+
+    public ReminderOutboxServiceImpl(
+            ReminderOutboxRepository reminderOutboxRepository,
+            ReminderDigestService reminderDigestService,
+            RestTemplate restTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${notification.service.host}") String host,
+            @Value("${notification.service.port}") int port,
+            @Value("${notification.service.batch-path:/api/v1/email/send-batch}") String batchPath,
+            @Value("${reminder.outbox.batch-size:200}") int batchSize,
+            @Value("${reminder.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${reminder.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+            @Value("${reminder.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+            @Value("${reminder.outbox.lease-ms:300000}") long leaseMs
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("reminder.outbox.batch-size muss mindestens 1 sein: " + batchSize);
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("reminder.outbox.max-attempts muss mindestens 1 sein: " + maxAttempts);
+        }
+        if (leaseMs < 1) {
+            throw new IllegalArgumentException("reminder.outbox.lease-ms muss positiv sein: " + leaseMs);
+        }
+        this.reminderOutboxRepository = reminderOutboxRepository;
+        this.reminderDigestService = reminderDigestService;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.notificationServiceBatchUrl = "http://" + host + ":" + port + batchPath;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    @Override
+    @Transactional
+    public int enqueue(Map<UUID, NotificationEmailRequestDto> requestsByUser, Map<UUID, Long> digestsByUser) {
+        OffsetDateTime now = OffsetDateTime.now();
+        // Noch nicht versendete Erinnerung: kein zweiter Eintrag. Gleichzeitige Läufe für denselben
+        // Benutzer scheitern am Unique-Index auf offene Einträge statt doppelt zu versenden.
+        Set<UUID> open = reminderOutboxRepository.findUserIdsByStatus(ReminderOutboxStatusEnum.PENDING,
+                requestsByUser.keySet());
+        List<ReminderOutboxEntry> entries = new ArrayList<>(requestsByUser.size());
+        requestsByUser.forEach((userId, request) -> {
+            if (!open.contains(userId)) {
+                entries.add(new ReminderOutboxEntry(userId, toJson(request), now, digestsByUser.get(userId)));
+            }
+        });
+        if (!entries.isEmpty()) {
+            reminderOutboxRepository.saveAll(entries);
+        }
+        return entries.size();
+    }
+
+    @Override
+    public int relayBatch() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ReminderOutboxEntry> entries = transactionTemplate.execute(status -> {
+            List<ReminderOutboxEntry> due = reminderOutboxRepository.lockDueEntries(now, batchSize);
+            // Lease: bis zum Ablauf holt kein anderer Relay die Einträge, auch wenn die Sperre schon frei ist
+            due.forEach(entry -> entry.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+        if (entries == null || entries.isEmpty()) {
+            return 0;
+        }
+
+        // Ohne Transaktion: während /send-batch hält der Relay weder Sperren noch eine DB-Verbindung
+        deliver(entries);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reminderOutboxRepository.saveAll(entries);
+            recordDigests(entries);
+        });
+        return entries.size();
+    }
+
+    /**
+     * Leert die Outbox Batch für Batch. Der nächste Batch wird erst nach der Antwort auf den
+     * vorherigen geholt, das Tempo bestimmt also der Notification-Service.
+     */
+    @Scheduled(fixedDelayString = "${reminder.outbox.relay-interval-ms:10000}")
+    public void scheduledRelay() {
+        int total = 0;
+        int relayed;
+        do {
+            if (isThrottled()) {
+                break;
+            }
+            relayed = relayBatch();
+            total += relayed;
+        } while (relayed == batchSize);
+
+        if (total > 0) {
+            log.info("Reminder-Outbox: {} Eintraege verarbeitet", total);
+        }
+    }
+
+    private void deliver(List<ReminderOutboxEntry> entries) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ReminderOutboxEntry> deliverable = new ArrayList<>(entries.size());
+        List<NotificationEmailRequestDto> requests = new ArrayList<>(entries.size());
+        List<String> idempotencyKeys = new ArrayList<>(entries.size());
+        for (ReminderOutboxEntry entry : entries) {
+            try {
+                requests.add(objectMapper.readValue(entry.getPayload(), NotificationEmailRequestDto.class));
+                idempotencyKeys.add(IDEMPOTENCY_KEY_PREFIX + entry.getId());
+                deliverable.add(entry);
+            } catch (JsonProcessingException e) {
+                markFailed(entry, "Payload nicht lesbar: " + e.getOriginalMessage());
+            }
+        }
+        if (deliverable.isEmpty()) {
+            return;
+        }
+
+        NotificationEmailBatchResponseDto response;
+        try {
+            response = restTemplate.postForObject(notificationServiceBatchUrl,
+                    new NotificationEmailBatchRequestDto(requests, idempotencyKeys), NotificationEmailBatchResponseDto.class);
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            // Versandrate des SMTP-Hosts ausgeschöpft: nichts wurde versendet, kein Fehlversuch
+            Duration retryAfter = retryAfterOf(ex);
+            throttledUntil = now.plus(retryAfter);
+            log.info("Reminder-Outbox: Notification-Service drosselt, {} Eintraege um {} s zurueckgestellt",
+                    deliverable.size(), retryAfter.toSeconds());
+            deliverable.forEach(entry -> {
+                entry.setLastError(ex.getStatusCode() + ": Versandrate ausgeschoepft");
+                entry.setNextAttemptAt(now.plus(retryAfter));
+            });
+            return;
+        } catch (HttpClientErrorException.Conflict ex) {
+            // Ein Idempotency-Key wird noch versendet (z.B. nach Timeout dieses Relays): das Ergebnis
+            // gibt es nach Retry-After, bis dahin ohne Fehlversuch zurückstellen
+            Duration retryAfter = retryAfterOf(ex);
+            log.info("Reminder-Outbox: Versand noch in Bearbeitung, {} Eintraege um {} s zurueckgestellt",
+                    deliverable.size(), retryAfter.toSeconds());
+            deliverable.forEach(entry -> {
+                entry.setLastError(ex.getStatusCode() + ": Versand noch in Bearbeitung");
+                entry.setNextAttemptAt(now.plus(retryAfter));
+            });
+            return;
+        } catch (HttpClientErrorException ex) {
+            // 4xx: die Anfrage selbst ist ungültig. Einzeln nachsenden, damit ein fehlerhafter
+            // Eintrag nicht den ganzen Batch blockiert; ein einzelner Eintrag ist endgültig fehlgeschlagen.
+            if (deliverable.size() > 1) {
+                log.warn("Reminder-Outbox: Batch mit {} Eintraegen abgelehnt ({}), versende einzeln",
+                        deliverable.size(), ex.getStatusCode());
+                deliverable.forEach(entry -> deliver(List.of(entry)));
+            } else {
+                markFailed(deliverable.getFirst(), ex.getStatusCode() + ": " + ex.getResponseBodyAsString());
+            }
+            return;
+        } catch (RestClientException ex) {
+            log.warn("Reminder-Outbox: Notification-Service nicht erreichbar, {} Eintraege neu eingeplant: {}",
+                    deliverable.size(), ex.getMessage());
+            deliverable.forEach(entry -> scheduleRetry(entry, ex.getMessage(), now));
+            return;
+        }
+
+        String[] errors = new String[deliverable.size()];
+        boolean[] succeeded = new boolean[deliverable.size()];
+        if (response != null && response.results() != null) {
+            for (NotificationEmailBatchItemResultDto result : response.results()) {
+                if (result.index() >= 0 && result.index() < deliverable.size()) {
+                    succeeded[result.index()] = result.success();
+                    errors[result.index()] = result.message();
+                }
+            }
+        }
+
+        for (int i = 0; i < deliverable.size(); i++) {
+            ReminderOutboxEntry entry = deliverable.get(i);
+            if (succeeded[i]) {
+                entry.setStatus(ReminderOutboxStatusEnum.SENT);
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setSentAt(now);
+                entry.setLastError(null);
+            } else {
+                scheduleRetry(entry, errors[i] != null ? errors[i] : "Kein Ergebnis vom Notification-Service", now);
+            }
+        }
+    }
+
+    private void recordDigests(List<ReminderOutboxEntry> entries) {
+        Map<UUID, Long> sentDigests = new HashMap<>();
+        for (ReminderOutboxEntry entry : entries) {
+            if (entry.getStatus() == ReminderOutboxStatusEnum.SENT && entry.getDigest() != null) {
+                sentDigests.put(entry.getUserId(), entry.getDigest());
+            }
+        }
+        if (!sentDigests.isEmpty()) {
+            reminderDigestService.recordSent(sentDigests);
+        }
+    }
+
+    private void scheduleRetry(ReminderOutboxEntry entry, String error, OffsetDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            markFailed(entry, error);
+            return;
+        }
+        entry.setAttempts(attempts);
+        entry.setLastError(error);
+        entry.setNextAttemptAt(now.plus(backoff(attempts)));
+    }
+
+    private void markFailed(ReminderOutboxEntry entry, String error) {
+        entry.setStatus(ReminderOutboxStatusEnum.FAILED);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastError(error);
+        log.error("Reminder-E-Mail fuer User {} nach {} Versuchen aufgegeben: {}",
+                entry.getUserId(), entry.getAttempts(), error);
+    }
+
+    boolean isThrottled() {
+        return OffsetDateTime.now().isBefore(throttledUntil);
+    }
+
+    /**
+     * Retry-After in Sekunden aus der Antwort; fehlt der Header oder ist er kein Sekundenwert,
+     * gilt initial-backoff.
+     */
+    private Duration retryAfterOf(HttpClientErrorException ex) {
+        String header = ex.getResponseHeaders() != null ? ex.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (header != null) {
+            try {
+                return Duration.ofSeconds(Math.max(1, Long.parseLong(header.trim())));
+            } catch (NumberFormatException ignored) {
+                // HTTP-Datum wird nicht ausgewertet
+            }
+        }
+        return initialBackoff;
+    }
+
+    /**
+     * initial-backoff * 2^(Versuch - 1), begrenzt auf max-backoff.
+     */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private String toJson(NotificationEmailRequestDto request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import java.time.Duration;
+
+/**
+ * Ergebnis eines Erinnerungs-Laufs: verarbeitete Benutzer, davon in die Outbox gelegt, übersprungen
+ * (nichts ausstehend) und fehlgeschlagen.
+ */
+public record ReminderRunReport(int processed, int enqueued, int skipped, int failed, Duration duration) {
+
+    /**
+     * Verarbeitete Benutzer pro Sekunde.
+     */
+    public double throughput() {
+        long millis = Math.max(duration.toMillis(), 1);
+        return processed * 1000.0 / millis;
+    }
+}
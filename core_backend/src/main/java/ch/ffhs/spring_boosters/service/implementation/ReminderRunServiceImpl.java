@@ -0,0 +1,136 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
+import ch.ffhs.spring_boosters.repository.ReminderRunRepository;
+import ch.ffhs.spring_boosters.repository.ReminderRunShardRepository;
+import ch.ffhs.spring_boosters.service.ReminderRunService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderRunStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistenter Zustand der Erinnerungs-Läufe. Ein Lauf wird in shard-count Bereiche der
+ * Benutzer-id aufgeteilt (gleich breite Bereiche der oberen 32 Bit; bei zufälligen UUIDs also
+ * gleich viele Benutzer pro Shard). Jede Methode läuft in einer eigenen kurzen Transaktion,
+ * Sperren werden nur beim Übernehmen eines Shards gehalten.
+ */
+@Service
+@Slf4j
+public class ReminderRunServiceImpl implements ReminderRunService {
+
+    private static final long PREFIX_RANGE = 1L << 32;
+
+    private final ReminderRunRepository reminderRunRepository;
+    private final ReminderRunShardRepository reminderRunShardRepository;
+    private final int shardCount;
+    private final Duration lease;
+
+    public ReminderRunServiceImpl(
+            ReminderRunRepository reminderRunRepository,
+            ReminderRunShardRepository reminderRunShardRepository,
+            @Value("${reminder.run.shard-count:8}") int shardCount,
+            @Value("${reminder.run.lease-ms:300000}") long leaseMs
+    ) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("reminder.run.shard-count muss mindestens 1 sein: " + shardCount);
+        }
+        this.reminderRunRepository = reminderRunRepository;
+        this.reminderRunShardRepository = reminderRunShardRepository;
+        this.shardCount = shardCount;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    @Override
+    @Transactional
+    public ReminderRun startRun(String runKey) {
+        UUID runId = UUID.randomUUID();
+        if (reminderRunRepository.insertIfAbsent(runId, runKey, shardCount, OffsetDateTime.now()) == 1) {
+            List<ReminderRunShard> shards = new ArrayList<>(shardCount);
+            for (int shardNo = 0; shardNo < shardCount; shardNo++) {
+                shards.add(new ReminderRunShard(runId, shardNo, lowerBound(shardNo, shardCount), upperBound(shardNo, shardCount)));
+            }
+            reminderRunShardRepository.saveAll(shards);
+            log.info("Reminder-Lauf {} mit {} Shards angelegt", runKey, shardCount);
+        }
+        return reminderRunRepository.findByRunKey(runKey)
+                .orElseThrow(() -> new IllegalStateException("Reminder-Lauf nicht gefunden: " + runKey));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReminderRun> findRunningRuns() {
+        return reminderRunRepository.findByStatusOrderByStartedAtAsc(ReminderRunStatusEnum.RUNNING);
+    }
+
+    @Override
+    @Transactional
+    public Optional<ReminderRunShard> claimShard(UUID runId, String owner) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Optional<ReminderRunShard> claimed = reminderRunShardRepository.lockClaimableShard(runId, now);
+        claimed.ifPresent(shard -> {
+            if (shard.getLeaseOwner() != null && !owner.equals(shard.getLeaseOwner())) {
+                log.warn("Reminder-Shard {} von {} uebernommen, fortgesetzt ab User {}",
+                        shard.getShardNo(), shard.getLeaseOwner(), shard.getLastUserId());
+            }
+            shard.setStatus(ReminderRunStatusEnum.RUNNING);
+            shard.setLeaseOwner(owner);
+            shard.setLeaseUntil(now.plus(lease));
+        });
+        return claimed;
+    }
+
+    @Override
+    @Transactional
+    public boolean checkpoint(UUID shardId, String owner, UUID lastUserId,
+                              int processed, int enqueued, int skipped, int failed) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return reminderRunShardRepository.checkpoint(shardId, owner, lastUserId,
+                processed, enqueued, skipped, failed, now.plus(lease), now) == 1;
+    }
+
+    @Override
+    @Transactional
+    public void completeShard(UUID shardId, String owner) {
+        ReminderRunShard shard = reminderRunShardRepository.findById(shardId)
+                .orElseThrow(() -> new IllegalStateException("Reminder-Shard nicht gefunden: " + shardId));
+        if (!owner.equals(shard.getLeaseOwner())) {
+            log.warn("Reminder-Shard {} nicht abgeschlossen: Lease gehoert {}", shard.getShardNo(), shard.getLeaseOwner());
+            return;
+        }
+        shard.setStatus(ReminderRunStatusEnum.COMPLETED);
+        shard.setLeaseOwner(null);
+        shard.setLeaseUntil(null);
+        reminderRunShardRepository.flush();
+
+        if (reminderRunRepository.completeIfAllShardsCompleted(shard.getRunId(), ReminderRunStatusEnum.COMPLETED,
+                OffsetDateTime.now()) == 1) {
+            log.info("Reminder-Lauf {} abgeschlossen", shard.getRunId());
+        }
+    }
+
+    /**
+     * Kleinste id des Shards: obere 32 Bit = shardNo * 2^32 / shardCount, Rest 0.
+     */
+    static UUID lowerBound(int shardNo, int shardCount) {
+        long prefix = shardNo * PREFIX_RANGE / shardCount;
+        return new UUID(prefix << 32, 0L);
+    }
+
+    /**
+     * Grösste id des Shards (inklusive): eins unter der Untergrenze des nächsten Shards.
+     */
+    static UUID upperBound(int shardNo, int shardCount) {
+        long nextPrefix = (shardNo + 1) * PREFIX_RANGE / shardCount;
+        return new UUID(((nextPrefix - 1) << 32) | 0xFFFFFFFFL, -1L);
+    }
+}
@@ -4,18 +4,39 @@ import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.controller.dto.NotificationEmailRequestDto;
 import ch.ffhs.spring_boosters.controller.dto.NotificationVaccinationDto;
 import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
 import ch.ffhs.spring_boosters.controller.entity.User;
 import ch.ffhs.spring_boosters.repository.UserRepository;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ReminderDigestService;
+import ch.ffhs.spring_boosters.service.ReminderOutboxService;
+import ch.ffhs.spring_boosters.service.ReminderRunService;
 import ch.ffhs.spring_boosters.service.ReminderService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderDispatchModeEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
@@ -23,59 +44,278 @@ public class ReminderServiceImpl implements ReminderService {
 
     private final UserRepository userRepository;
     private final ImmunizationScheduleServiceImpl immunizationScheduleService;
-    private final RestTemplate restTemplate;
+    private final ReminderOutboxService reminderOutboxService;
+    private final ReminderRunService reminderRunService;
+    private final ReminderDigestService reminderDigestService;
 
-    private final String notificationServiceUrl;
+    private final String nodeId;
+    private final int dispatchConcurrency;
+    private final int chunkSize;
+    private final ReminderDispatchModeEnum dispatchMode;
+    private final int batchSize;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
     public ReminderServiceImpl(
             UserRepository userRepository,
             ImmunizationScheduleServiceImpl immunizationScheduleService,
-            RestTemplate restTemplate,
-            @Value("${notification.service.host}") String host,
-            @Value("${notification.service.port}") int port,
-            @Value("${notification.service.path}") String path
+            ReminderOutboxService reminderOutboxService,
+            ReminderRunService reminderRunService,
+            ReminderDigestService reminderDigestService,
+            @Value("${reminder.run.node-id:}") String nodeId,
+            @Value("${reminder.dispatch.concurrency:16}") int dispatchConcurrency,
+            @Value("${reminder.dispatch.chunk-size:500}") int chunkSize,
+            @Value("${reminder.dispatch.mode:SINGLE}") ReminderDispatchModeEnum dispatchMode,
+            @Value("${reminder.dispatch.batch-size:200}") int batchSize
     ) {
+        if (dispatchConcurrency < 1) {
+            throw new IllegalArgumentException("reminder.dispatch.concurrency muss mindestens 1 sein: " + dispatchConcurrency);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("reminder.dispatch.chunk-size muss mindestens 1 sein: " + chunkSize);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("reminder.dispatch.batch-size muss mindestens 1 sein: " + batchSize);
+        }
         this.userRepository = userRepository;
         this.immunizationScheduleService = immunizationScheduleService;
-        this.restTemplate = restTemplate;
-        this.notificationServiceUrl = "http://" + host + ":" + port + path;
+        this.reminderOutboxService = reminderOutboxService;
+        this.reminderRunService = reminderRunService;
+        this.reminderDigestService = reminderDigestService;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.dispatchConcurrency = dispatchConcurrency;
+        this.chunkSize = chunkSize;
+        this.dispatchMode = dispatchMode;
+        this.batchSize = batchSize;
     }
 
+    /**
+     * Startet den Lauf des Tages bzw. schliesst sich ihm an. Der Lauf ist in Shards (Bereiche der
+     * Benutzer-id) aufgeteilt, die jeder Knoten über eine Lease übernimmt: mehrere Replikas teilen
+     * sich so die Arbeit, und ein zweiter Aufruf am selben Tag versendet nichts doppelt.
+     *
+     * @return Zusammenfassung der auf diesem Knoten verarbeiteten Benutzer
+     */
     @Override
     @Scheduled(cron = "${reminder.cron.expression:0 0 10 ? * SUN}")
-    public void sendReminders() throws UserNotFoundException {
+    public ReminderRunReport sendReminders() throws UserNotFoundException {
+        if (!userRepository.existsByRole("USER")) {
+            throw new UserNotFoundException("No users with role USER found");
+        }
+
+        ReminderRun run = reminderRunService.startRun(LocalDate.now().toString());
+        return work(List.of(run));
+    }
+
+    /**
+     * Übernimmt Shards offener Läufe, deren Lease abgelaufen ist, z.B. weil der bearbeitende
+     * Knoten neu gestartet wurde. Der Shard wird ab dem letzten Checkpoint fortgesetzt.
+     */
+    @Scheduled(fixedDelayString = "${reminder.run.resume-interval-ms:60000}")
+    public void resumeReminderRuns() {
+        List<ReminderRun> runs = reminderRunService.findRunningRuns();
+        if (!runs.isEmpty()) {
+            work(runs);
+        }
+    }
+
+    /**
+     * Verarbeitet jeden Benutzer in einem eigenen virtuellen Thread. Die Semaphore begrenzt die
+     * gleichzeitig laufenden Benutzer (Impfplan-Abfrage plus Schreiben in die Outbox),
+     * damit der Connection-Pool nicht ausgeschöpft wird.
+     * Fehler bei einem Benutzer brechen den Lauf nicht ab.
+     * Die Benutzer eines Shards werden per Keyset-Paginierung (nach id) in Chunks geladen, sodass
+     * nie alle Benutzer gleichzeitig im Speicher liegen. Nach jedem vollständig verarbeiteten Chunk
+     * wird der Checkpoint gespeichert; nach einem Absturz wird höchstens dieser Chunk wiederholt.
+     * Im Modus BATCH verarbeitet ein Thread jeweils bis zu batch-size Benutzer: Impfpläne
+     * mengenbasiert berechnen und alle Erinnerungen in einer Transaktion in die Outbox schreiben.
+     * Den Versand an den Notification-Service übernimmt der Relay im {@link ReminderOutboxServiceImpl}.
+     * Erinnerungen, deren Inhalt sich seit dem letzten Versand nicht geändert hat, werden
+     * übersprungen, bis das Wiederholungs-Intervall abgelaufen ist ({@link ReminderDigestServiceImpl}).
+     * Der Digest wird mit dem Outbox-Eintrag abgelegt und erst nach erfolgreichem Versand gespeichert.
+     */
+    private ReminderRunReport work(List<ReminderRun> runs) {
+        long startedAt = System.nanoTime();
+        Semaphore permits = new Semaphore(dispatchConcurrency);
+        RunProgress progress = new RunProgress();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ReminderRun run : runs) {
+                Optional<ReminderRunShard> shard;
+                while (!Thread.currentThread().isInterrupted()
+                        && (shard = reminderRunService.claimShard(run.getId(), nodeId)).isPresent()) {
+                    processShard(shard.get(), executor, permits, progress);
+                }
+            }
+        }
+
+        ReminderRunReport report = new ReminderRunReport(progress.processed.get(), progress.enqueued.get(),
+                progress.skipped.get(), progress.failed.get(), Duration.ofNanos(System.nanoTime() - startedAt));
+        log.info("Reminder-Lauf beendet: {} verarbeitet, {} in Outbox, {} uebersprungen, {} fehlgeschlagen in {} ms ({} Benutzer/s)",
+                report.processed(), report.enqueued(), report.skipped(), report.failed(),
+                report.duration().toMillis(), String.format("%.1f", report.throughput()));
+        return report;
+    }
+
+    private void processShard(ReminderRunShard shard, ExecutorService executor, Semaphore permits, RunProgress progress) {
+        UUID afterId = shard.getLastUserId();
+        List<User> chunk = nextChunk(shard, afterId);
+        while (!chunk.isEmpty()) {
+            RunProgress chunkProgress = new RunProgress();
+            if (!dispatchChunk(chunk, executor, permits, chunkProgress)) {
+                log.warn("Reminder-Lauf unterbrochen in Shard {} nach User {}", shard.getShardNo(), afterId);
+                progress.add(chunkProgress);
+                return;
+            }
+            progress.add(chunkProgress);
+
+            afterId = chunk.getLast().getId();
+            if (!reminderRunService.checkpoint(shard.getId(), nodeId, afterId, chunkProgress.processed.get(),
+                    chunkProgress.enqueued.get(), chunkProgress.skipped.get(), chunkProgress.failed.get())) {
+                log.warn("Lease fuer Reminder-Shard {} verloren, Abbruch nach User {}", shard.getShardNo(), afterId);
+                return;
+            }
+            chunk = chunk.size() < chunkSize ? List.of() : nextChunk(shard, afterId);
+        }
+        reminderRunService.completeShard(shard.getId(), nodeId);
+    }
 
-        List<User> users = userRepository.findAllByRole("USER")
-                .orElseThrow(() -> new UserNotFoundException("No users with role USER found"));
+    /**
+     * Verteilt den Chunk auf virtuelle Threads und wartet, bis alle Benutzer verarbeitet sind,
+     * damit der anschliessende Checkpoint nur Erledigtes abdeckt.
+     *
+     * @return false, wenn der Thread unterbrochen wurde
+     */
+    private boolean dispatchChunk(List<User> chunk, ExecutorService executor, Semaphore permits, RunProgress progress) {
+        int unitSize = dispatchMode == ReminderDispatchModeEnum.BATCH ? batchSize : 1;
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int from = 0; from < chunk.size(); from += unitSize) {
+                List<User> unit = chunk.subList(from, Math.min(from + unitSize, chunk.size()));
+                permits.acquire();
+                tasks.add(executor.submit(() -> {
+                    try {
+                        if (dispatchMode == ReminderDispatchModeEnum.BATCH) {
+                            enqueueBatch(unit, progress);
+                        } else {
+                            enqueueSingle(unit.getFirst(), progress);
+                        }
+                    } finally {
+                        progress.processed.addAndGet(unit.size());
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Die Tasks fangen alle Fehler selbst ab
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Nächster Chunk des Shards nach der übergebenen id. Ohne umgebende Transaktion läuft jede
+     * Abfrage in einem eigenen Persistence Context, der danach geschlossen wird: die Entities sind
+     * sofort detached und werden mit dem Chunk freigegeben.
+     */
+    private List<User> nextChunk(ReminderRunShard shard, UUID afterId) {
+        Limit limit = Limit.of(chunkSize);
+        return afterId == null
+                ? userRepository.findByRoleAndIdBetweenOrderByIdAsc("USER", shard.getLowerBound(), shard.getUpperBound(), limit)
+                : userRepository.findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc("USER", afterId,
+                shard.getUpperBound(), limit);
+    }
 
-        for (User user : users) {
+    private void enqueueSingle(User user, RunProgress progress) {
+        try {
             ImmunizationScheduleDto schedule =
                     immunizationScheduleService.getPendingImmunizations(user.getId());
 
-            if (schedule == null || schedule.getPendingImmunizations() == null
-                    || schedule.getPendingImmunizations().isEmpty()) {
-                continue;
+            if (!hasPending(schedule)) {
+                progress.skipped.incrementAndGet();
+                return;
             }
 
-            if (schedule.getTotalPending() != null && schedule.getTotalPending() == 0) {
-                continue;
+            Map<UUID, Long> digest = Map.of(user.getId(), reminderDigestService.digest(schedule));
+            if (reminderDigestService.findDue(digest).isEmpty()) {
+                progress.skipped.incrementAndGet();
+                log.debug("Reminder fuer User {} unveraendert, uebersprungen", user.getId());
+                return;
             }
 
             NotificationEmailRequestDto emailRequest = mapToEmailRequest(user, schedule);
 
-            try {
-                restTemplate.postForEntity(notificationServiceUrl, emailRequest, Void.class);
-                log.info("Reminder-E-Mail fuer User {} ({}) gesendet",
-                        user.getId(), user.getEmail());
-            } catch (Exception ex) {
-                log.error("Fehler beim Senden der Reminder-E-Mail fuer User {}: {}",
-                        user.getId(), ex.getMessage(), ex);
+            if (reminderOutboxService.enqueue(Map.of(user.getId(), emailRequest), digest) == 0) {
+                progress.skipped.incrementAndGet();
+                log.debug("Reminder fuer User {} noch in Outbox, uebersprungen", user.getId());
+                return;
             }
+            progress.enqueued.incrementAndGet();
+            log.debug("Reminder-E-Mail fuer User {} in Outbox abgelegt", user.getId());
+        } catch (Exception ex) {
+            progress.failed.incrementAndGet();
+            log.error("Fehler beim Erstellen der Reminder-E-Mail fuer User {}: {}",
+                    user.getId(), ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Impfpläne mengenbasiert berechnen und alle Erinnerungen in einer Transaktion ablegen.
+     * Schlägt das fehl, zählen alle Benutzer der Gruppe als fehlgeschlagen.
+     */
+    private void enqueueBatch(List<User> users, RunProgress progress) {
+        Map<UUID, NotificationEmailRequestDto> requestsByUser = new LinkedHashMap<>();
+        int enqueued = 0;
+        try {
+            Map<UUID, ImmunizationScheduleDto> schedulesByUser = new HashMap<>();
+            for (ImmunizationScheduleDto schedule : immunizationScheduleService.getPendingImmunizations(
+                    users.stream().map(User::getId).toList())) {
+                schedulesByUser.put(schedule.getUserId(), schedule);
+            }
+            Map<UUID, Long> digestsByUser = new HashMap<>();
+            for (User user : users) {
+                ImmunizationScheduleDto schedule = schedulesByUser.get(user.getId());
+                if (hasPending(schedule)) {
+                    digestsByUser.put(user.getId(), reminderDigestService.digest(schedule));
+                }
+            }
+            if (!digestsByUser.isEmpty()) {
+                Set<UUID> due = reminderDigestService.findDue(digestsByUser);
+                for (User user : users) {
+                    if (due.contains(user.getId())) {
+                        requestsByUser.put(user.getId(), mapToEmailRequest(user, schedulesByUser.get(user.getId())));
+                    }
+                }
+                digestsByUser.keySet().retainAll(due);
+            }
+            if (!requestsByUser.isEmpty()) {
+                enqueued = reminderOutboxService.enqueue(requestsByUser, digestsByUser);
+            }
+        } catch (Exception ex) {
+            progress.failed.addAndGet(users.size());
+            log.error("Fehler beim Erstellen der Reminder-E-Mails fuer {} Benutzer ab User {}: {}",
+                    users.size(), users.getFirst().getId(), ex.getMessage(), ex);
+            return;
+        }
+
+        progress.enqueued.addAndGet(enqueued);
+        progress.skipped.addAndGet(users.size() - enqueued);
+    }
+
+    private boolean hasPending(ImmunizationScheduleDto schedule) {
+        if (schedule == null || schedule.getPendingImmunizations() == null
+                || schedule.getPendingImmunizations().isEmpty()) {
+            return false;
+        }
+        return schedule.getTotalPending() == null || schedule.getTotalPending() != 0;
+    }
+
     private NotificationEmailRequestDto mapToEmailRequest(User user, ImmunizationScheduleDto schedule) {
 
         String subject = "Impf-Erinnerung \u2013 ausstehende Impfungen";
@@ -106,4 +346,21 @@ public class ReminderServiceImpl implements ReminderService {
                 description
         );
     }
+
+    /**
+     * Zähler eines Laufs, werden von den virtuellen Threads parallel erhöht.
+     */
+    private static final class RunProgress {
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger enqueued = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private void add(RunProgress other) {
+            processed.addAndGet(other.processed.get());
+            enqueued.addAndGet(other.enqueued.get());
+            skipped.addAndGet(other.skipped.get());
+            failed.addAndGet(other.failed.get());
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.*;
+
+/**
+ * Intervall-Index über die Altersbereiche [ageMinDays, ageMaxDays] der Alterskategorien.
+ * Die Grenzen liegen in aufsteigend nach ageMinDays sortierten int-Arrays, offene Kategorien
+ * (ageMaxDays == null) werden als Integer.MAX_VALUE abgelegt. Zusätzlich wird das laufende
+ * Maximum der Obergrenzen gehalten, damit beide Abfragen per Binärsuche einsteigen können.
+ * Die Position einer Kategorie im Index ist ihre Ordinalzahl.
+ */
+public final class AgeCategoryIndex {
+
+    private static final int OPEN_END = Integer.MAX_VALUE;
+
+    private final CatalogAgeCategory[] categories;
+    private final int[] minDays;
+    private final int[] maxDays;
+    private final int[] prefixMaxDays;
+    private final Map<UUID, Integer> ordinalsById;
+
+    private AgeCategoryIndex(List<CatalogAgeCategory> ageCategories) {
+        List<CatalogAgeCategory> sorted = new ArrayList<>(ageCategories);
+        sorted.sort(Comparator.comparingInt(CatalogAgeCategory::ageMinDays));
+
+        int size = sorted.size();
+        this.categories = sorted.toArray(new CatalogAgeCategory[0]);
+        this.minDays = new int[size];
+        this.maxDays = new int[size];
+        this.prefixMaxDays = new int[size];
+
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        int runningMax = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            CatalogAgeCategory category = categories[i];
+            minDays[i] = category.ageMinDays();
+            maxDays[i] = category.ageMaxDays() != null ? category.ageMaxDays() : OPEN_END;
+            runningMax = Math.max(runningMax, maxDays[i]);
+            prefixMaxDays[i] = runningMax;
+            ordinals.put(category.id(), i);
+        }
+        this.ordinalsById = Map.copyOf(ordinals);
+    }
+
+    public static AgeCategoryIndex of(List<CatalogAgeCategory> ageCategories) {
+        return new AgeCategoryIndex(ageCategories);
+    }
+
+    public int size() {
+        return categories.length;
+    }
+
+    public CatalogAgeCategory get(int ordinal) {
+        return categories[ordinal];
+    }
+
+    /**
+     * Ordinalzahl der Kategorie oder -1, falls die ID nicht im Katalog ist.
+     */
+    public int ordinalOf(UUID ageCategoryId) {
+        Integer ordinal = ageCategoryId != null ? ordinalsById.get(ageCategoryId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Liefert die Ordinalzahl der Kategorie, die den Alterstag enthält, oder -1.
+     * Bei überlappenden Kategorien gewinnt jene mit dem kleinsten ageMinDays. O(log n).
+     */
+    public int findContaining(int ageDays) {
+        int lastCandidate = lastWithMinAtMost(ageDays);
+        if (lastCandidate < 0) {
+            return -1;
+        }
+        // Erste Position, deren Obergrenze den Tag erreicht: dort ist prefixMax erstmals >= ageDays
+        int first = firstWithPrefixMaxAtLeast(ageDays);
+        return first <= lastCandidate ? first : -1;
+    }
+
+    /**
+     * Alle Kategorien, deren Bereich [fromDay, toDay] schneidet, als Bitmenge über die Ordinalzahlen.
+     * Einstieg und Ende per Binärsuche, dazwischen werden nur Kandidaten geprüft
+     * (O(log n + k) bei nicht verschachtelten Bereichen).
+     */
+    public BitSet overlapping(int fromDay, int toDay) {
+        BitSet result = new BitSet(categories.length);
+        int last = lastWithMinAtMost(toDay);
+        for (int i = firstWithPrefixMaxAtLeast(fromDay); i <= last; i++) {
+            if (maxDays[i] >= fromDay) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Prüft in O(1), ob der Bereich der Kategorie [fromDay, toDay] schneidet.
+     */
+    public boolean overlaps(int ordinal, int fromDay, int toDay) {
+        return minDays[ordinal] <= toDay && maxDays[ordinal] >= fromDay;
+    }
+
+    private int lastWithMinAtMost(int day) {
+        int low = 0;
+        int high = minDays.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (minDays[mid] <= day) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private int firstWithPrefixMaxAtLeast(int day) {
+        int low = 0;
+        int high = prefixMaxDays.length - 1;
+        int result = prefixMaxDays.length;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (prefixMaxDays[mid] >= day) {
+                result = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.UUID;
+
+/**
+ * Unveränderliche Sicht auf eine {@link ch.ffhs.spring_boosters.controller.entity.AgeCategory}.
+ * ageMaxDays == null bedeutet offene Kategorie.
+ */
+public record CatalogAgeCategory(
+        UUID id,
+        String name,
+        int ageMinDays,
+        Integer ageMaxDays
+) {
+}
@@ -0,0 +1,16 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.UUID;
+
+public record CatalogFollowUpRule(
+        UUID id,
+        UUID fromPlanId,
+        UUID toPlanId,
+        UUID requiredSeriesId,
+        int minCompletedDoses,
+        Integer targetMinAgeDays,
+        Integer targetMaxAgeDays,
+        Integer minIntervalDaysSinceLast,
+        Integer preferredAgeDays
+) {
+}
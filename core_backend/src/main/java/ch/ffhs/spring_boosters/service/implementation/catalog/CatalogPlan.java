@@ -0,0 +1,18 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unveränderliche Sicht auf einen {@link ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan}
+ * inklusive seiner Serien. requiredDoses ist die Summe der benötigten Dosen aller Serien.
+ */
+public record CatalogPlan(
+        UUID id,
+        String name,
+        UUID vaccineTypeId,
+        UUID ageCategoryId,
+        List<CatalogPlanSeries> series,
+        int requiredDoses
+) {
+}
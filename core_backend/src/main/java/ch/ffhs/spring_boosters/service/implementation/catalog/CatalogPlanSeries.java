@@ -0,0 +1,11 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.UUID;
+
+public record CatalogPlanSeries(
+        UUID id,
+        UUID immunizationPlanId,
+        String seriesName,
+        int requiredDoses
+) {
+}
@@ -0,0 +1,10 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import java.util.UUID;
+
+public record CatalogVaccineType(
+        UUID id,
+        String name,
+        String code
+) {
+}
@@ -0,0 +1,224 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Kompilierte Folge-Regeln als gerichteter azyklischer Graph über die Impfpläne.
+ * Knoten sind die Pläne (Ordinalzahl = Position im Katalog), Kanten die Regeln from_plan -> to_plan
+ * in CSR-Form (Start-Offsets plus parallele int-Arrays). Alle Zeitangaben sind Alterstage
+ * relativ zum Geburtsdatum; fehlende Werte werden als {@link #NONE} abgelegt.
+ * Regeln mit from_plan == to_plan beschreiben den Abstand zwischen Dosen desselben Plans,
+ * gelten nur bis zum Abschluss der Serie und sind vom Zyklus-Check ausgenommen.
+ */
+@Slf4j
+public final class FollowUpRuleGraph {
+
+    /**
+     * Markiert einen fehlenden Tag (keine Impfung bzw. keine Fälligkeit).
+     */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private final UUID[] planIds;
+    private final Map<UUID, Integer> ordinalsByPlanId;
+    private final int[] requiredDoses;
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final int[] edgeMinDoses;
+    private final int[] edgeMinInterval;
+    private final int[] edgeTargetMinAge;
+    private final int[] edgeTargetMaxAge;
+    private final int[] edgePreferredAge;
+
+    private FollowUpRuleGraph(UUID[] planIds, Map<UUID, Integer> ordinalsByPlanId, int[] requiredDoses,
+                              int[] edgeStart, int[] edgeTarget, int[] edgeMinDoses, int[] edgeMinInterval,
+                              int[] edgeTargetMinAge, int[] edgeTargetMaxAge, int[] edgePreferredAge) {
+        this.planIds = planIds;
+        this.ordinalsByPlanId = ordinalsByPlanId;
+        this.requiredDoses = requiredDoses;
+        this.edgeStart = edgeStart;
+        this.edgeTarget = edgeTarget;
+        this.edgeMinDoses = edgeMinDoses;
+        this.edgeMinInterval = edgeMinInterval;
+        this.edgeTargetMinAge = edgeTargetMinAge;
+        this.edgeTargetMaxAge = edgeTargetMaxAge;
+        this.edgePreferredAge = edgePreferredAge;
+    }
+
+    /**
+     * Kompiliert die Regeln. Regeln auf unbekannte Pläne werden ignoriert; eine Regel, die
+     * (ohne Selbst-Kanten) einen Zyklus schliessen würde, wird protokolliert und übersprungen,
+     * damit eine fehlerhafte Zeile nicht den ganzen Katalog unbrauchbar macht.
+     */
+    public static FollowUpRuleGraph compile(Collection<CatalogPlan> plans, List<CatalogFollowUpRule> rules) {
+        int planCount = plans.size();
+        UUID[] planIds = new UUID[planCount];
+        int[] requiredDoses = new int[planCount];
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        Map<UUID, Integer> seriesDoses = new HashMap<>();
+        int ordinal = 0;
+        for (CatalogPlan plan : plans) {
+            planIds[ordinal] = plan.id();
+            requiredDoses[ordinal] = plan.requiredDoses();
+            ordinals.put(plan.id(), ordinal++);
+            for (CatalogPlanSeries series : plan.series()) {
+                seriesDoses.put(series.id(), series.requiredDoses());
+            }
+        }
+
+        List<CatalogFollowUpRule> validRules = new ArrayList<>(rules.size());
+        int[] outDegree = new int[planCount];
+        List<List<Integer>> successors = new ArrayList<>(planCount);
+        for (int i = 0; i < planCount; i++) {
+            successors.add(new ArrayList<>());
+        }
+        for (CatalogFollowUpRule rule : rules) {
+            Integer from = rule.fromPlanId() != null ? ordinals.get(rule.fromPlanId()) : null;
+            Integer to = rule.toPlanId() != null ? ordinals.get(rule.toPlanId()) : null;
+            if (from == null || to == null) {
+                continue;
+            }
+            if (!from.equals(to)) {
+                if (reaches(successors, to, from)) {
+                    log.warn("Folge-Regel {} ({} -> {}) schliesst einen Zyklus und wird ignoriert",
+                            rule.id(), rule.fromPlanId(), rule.toPlanId());
+                    continue;
+                }
+                successors.get(from).add(to);
+            }
+            validRules.add(rule);
+            outDegree[from]++;
+        }
+
+        int edgeCount = validRules.size();
+        int[] edgeStart = new int[planCount + 1];
+        for (int i = 0; i < planCount; i++) {
+            edgeStart[i + 1] = edgeStart[i] + outDegree[i];
+        }
+
+        int[] fill = Arrays.copyOf(edgeStart, planCount);
+        int[] edgeTarget = new int[edgeCount];
+        int[] edgeMinDoses = new int[edgeCount];
+        int[] edgeMinInterval = new int[edgeCount];
+        int[] edgeTargetMinAge = new int[edgeCount];
+        int[] edgeTargetMaxAge = new int[edgeCount];
+        int[] edgePreferredAge = new int[edgeCount];
+
+        for (CatalogFollowUpRule rule : validRules) {
+            int from = ordinals.get(rule.fromPlanId());
+            int to = ordinals.get(rule.toPlanId());
+            int e = fill[from]++;
+
+            // Eine geforderte Serie muss vollständig sein, zusätzlich zur Mindestanzahl Dosen
+            int seriesThreshold = rule.requiredSeriesId() != null
+                    ? seriesDoses.getOrDefault(rule.requiredSeriesId(), 0)
+                    : 0;
+
+            edgeTarget[e] = to;
+            edgeMinDoses[e] = Math.max(Math.max(rule.minCompletedDoses(), seriesThreshold), 1);
+            edgeMinInterval[e] = rule.minIntervalDaysSinceLast() != null ? rule.minIntervalDaysSinceLast() : 0;
+            edgeTargetMinAge[e] = orNone(rule.targetMinAgeDays());
+            edgeTargetMaxAge[e] = orNone(rule.targetMaxAgeDays());
+            edgePreferredAge[e] = orNone(rule.preferredAgeDays());
+        }
+
+        return new FollowUpRuleGraph(planIds, Map.copyOf(ordinals), requiredDoses, edgeStart, edgeTarget,
+                edgeMinDoses, edgeMinInterval, edgeTargetMinAge, edgeTargetMaxAge, edgePreferredAge);
+    }
+
+    /**
+     * Tiefensuche über die bereits angenommenen Kanten: ist target von start aus erreichbar?
+     */
+    private static boolean reaches(List<List<Integer>> successors, int start, int target) {
+        boolean[] visited = new boolean[successors.size()];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == target) {
+                return true;
+            }
+            if (!visited[node]) {
+                visited[node] = true;
+                successors.get(node).forEach(stack::push);
+            }
+        }
+        return false;
+    }
+
+    private static int orNone(Integer value) {
+        return value != null ? value : NONE;
+    }
+
+    public int planCount() {
+        return planIds.length;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Ordinalzahl des Plans oder -1, falls er nicht im Katalog ist.
+     */
+    public int ordinalOf(UUID planId) {
+        Integer ordinal = planId != null ? ordinalsByPlanId.get(planId) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public UUID planId(int ordinal) {
+        return planIds[ordinal];
+    }
+
+    /**
+     * Berechnet in einem Durchlauf über alle Kanten für jeden Plan den frühesten Alterstag der
+     * nächsten Dosis, der sich aus den Regeln ergibt. Jede Kante liest nur den Stand ihres
+     * Ausgangs- und Zielplans, eine bestimmte Reihenfolge ist daher nicht nötig.
+     * Eine Regel greift, sobald der Ausgangsplan genügend Dosen hat; fällig ist sie nach
+     * max(letzte Impfung + Mindestabstand, Zielalter min, bevorzugtes Alter), sofern das
+     * Zielalter max nicht überschritten wird. Greifen mehrere Regeln, gewinnt die früheste.
+     * Wurde der Zielplan am oder nach der letzten Impfung des Ausgangsplans bereits verabreicht,
+     * gilt die Auffrischung als erhalten und die Regel greift nicht. Selbst-Kanten greifen nur,
+     * solange die Serie des Plans noch nicht vollständig ist.
+     *
+     * @param completedDoses abgeschlossene Dosen pro Plan-Ordinalzahl
+     * @param lastAgeDays    Alterstag der letzten Impfung pro Plan-Ordinalzahl oder {@link #NONE}
+     * @param nextDueAgeDays Ausgabe: Alterstag der nächsten Dosis oder {@link #NONE}
+     */
+    public void computeNextDue(int[] completedDoses, int[] lastAgeDays, int[] nextDueAgeDays) {
+        Arrays.fill(nextDueAgeDays, NONE);
+        for (int node = 0; node < planIds.length; node++) {
+            int completed = completedDoses[node];
+            int last = lastAgeDays[node];
+            if (completed == 0 || last == NONE) {
+                continue;
+            }
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                if (completed < edgeMinDoses[e]) {
+                    continue;
+                }
+                int target = edgeTarget[e];
+                if (target == node && completed >= requiredDoses[node]) {
+                    continue;
+                }
+                if (target != node && lastAgeDays[target] != NONE && lastAgeDays[target] >= last) {
+                    continue;
+                }
+                int due = last + edgeMinInterval[e];
+                if (edgeTargetMinAge[e] != NONE && edgeTargetMinAge[e] > due) {
+                    due = edgeTargetMinAge[e];
+                }
+                if (edgePreferredAge[e] != NONE && edgePreferredAge[e] > due) {
+                    due = edgePreferredAge[e];
+                }
+                if (edgeTargetMaxAge[e] != NONE && due > edgeTargetMaxAge[e]) {
+                    continue;
+                }
+                if (nextDueAgeDays[target] == NONE || due < nextDueAgeDays[target]) {
+                    nextDueAgeDays[target] = due;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.VaccineType;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Unveränderlicher, versionierter Snapshot der Impf-Stammdaten (Impfpläne, Serien,
+ * Alterskategorien, Impfstoff-Typen und Folge-Regeln).
+ * Wird einmalig aus der DB aufgebaut und bei Änderungen als Ganzes ersetzt,
+ * damit Lesepfade ohne Katalog-Queries auskommen.
+ */
+public final class ImmunizationCatalog {
+
+    private final long version;
+    private final long contentHash;
+    private final Instant builtAt;
+    private final Map<UUID, CatalogPlan> plansById;
+    private final Map<UUID, CatalogAgeCategory> ageCategoriesById;
+    private final Map<UUID, CatalogVaccineType> vaccineTypesById;
+    private final Map<PlanKey, List<CatalogPlan>> plansByVaccineTypeAndAgeCategory;
+    private final Map<UUID, List<CatalogFollowUpRule>> followUpRulesByFromPlan;
+    private final List<CatalogAgeCategory> ageCategories;
+    private final AgeCategoryIndex ageCategoryIndex;
+    private final List<CatalogFollowUpRule> followUpRules;
+    private final FollowUpRuleGraph followUpRuleGraph;
+    private final CatalogPlan[] plansByOrdinal;
+    private final int[] ageCategoryOrdinalsByPlan;
+
+    private ImmunizationCatalog(long version,
+                                long contentHash,
+                                List<CatalogPlan> plans,
+                                List<CatalogAgeCategory> ageCategories,
+                                List<CatalogVaccineType> vaccineTypes,
+                                List<CatalogFollowUpRule> followUpRules) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.builtAt = Instant.now();
+
+        Map<UUID, CatalogPlan> planMap = new LinkedHashMap<>();
+        Map<PlanKey, List<CatalogPlan>> planKeyMap = new HashMap<>();
+        for (CatalogPlan plan : plans) {
+            planMap.put(plan.id(), plan);
+            planKeyMap.computeIfAbsent(new PlanKey(plan.vaccineTypeId(), plan.ageCategoryId()), k -> new ArrayList<>())
+                    .add(plan);
+        }
+        planKeyMap.replaceAll((k, v) -> List.copyOf(v));
+        this.plansById = Collections.unmodifiableMap(planMap);
+        this.plansByVaccineTypeAndAgeCategory = Map.copyOf(planKeyMap);
+
+        // Aufsteigend nach Mindestalter, damit Abfragen deterministisch die jüngste passende Kategorie liefern
+        List<CatalogAgeCategory> sortedCategories = new ArrayList<>(ageCategories);
+        sortedCategories.sort(Comparator.comparingInt(CatalogAgeCategory::ageMinDays));
+        this.ageCategories = List.copyOf(sortedCategories);
+        this.ageCategoryIndex = AgeCategoryIndex.of(sortedCategories);
+
+        Map<UUID, CatalogAgeCategory> categoryMap = new HashMap<>();
+        for (CatalogAgeCategory category : sortedCategories) {
+            categoryMap.put(category.id(), category);
+        }
+        this.ageCategoriesById = Map.copyOf(categoryMap);
+
+        Map<UUID, CatalogVaccineType> vaccineTypeMap = new HashMap<>();
+        for (CatalogVaccineType vaccineType : vaccineTypes) {
+            vaccineTypeMap.put(vaccineType.id(), vaccineType);
+        }
+        this.vaccineTypesById = Map.copyOf(vaccineTypeMap);
+
+        Map<UUID, List<CatalogFollowUpRule>> ruleMap = new HashMap<>();
+        for (CatalogFollowUpRule rule : followUpRules) {
+            if (rule.fromPlanId() != null) {
+                ruleMap.computeIfAbsent(rule.fromPlanId(), k -> new ArrayList<>()).add(rule);
+            }
+        }
+        ruleMap.replaceAll((k, v) -> List.copyOf(v));
+        this.followUpRulesByFromPlan = Map.copyOf(ruleMap);
+        this.followUpRules = List.copyOf(followUpRules);
+        this.followUpRuleGraph = FollowUpRuleGraph.compile(planMap.values(), this.followUpRules);
+
+        // Plan-Ordinalzahlen wie im Regel-Graphen, mit vorab aufgelöster Alterskategorie
+        this.plansByOrdinal = planMap.values().toArray(new CatalogPlan[0]);
+        this.ageCategoryOrdinalsByPlan = new int[plansByOrdinal.length];
+        for (int i = 0; i < plansByOrdinal.length; i++) {
+            ageCategoryOrdinalsByPlan[i] = ageCategoryIndex.ordinalOf(plansByOrdinal[i].ageCategoryId());
+        }
+    }
+
+    /**
+     * Baut den Katalog aus bereits geladenen Entities auf. Es werden nur die Spalten-Felder gelesen,
+     * Lazy-Relationen der Entities werden nicht angefasst.
+     */
+    public static ImmunizationCatalog of(long version,
+                                         List<ImmunizationPlan> plans,
+                                         List<ImmunizationPlanSeries> series,
+                                         List<AgeCategory> ageCategories,
+                                         List<VaccineType> vaccineTypes,
+                                         List<FollowUpRule> followUpRules) {
+        List<CatalogPlanSeries> catalogSeries = new ArrayList<>(series.size());
+        Map<UUID, List<CatalogPlanSeries>> seriesByPlan = new HashMap<>();
+        for (ImmunizationPlanSeries s : series) {
+            CatalogPlanSeries planSeries = new CatalogPlanSeries(s.getId(), s.getImmunizationPlanId(), s.getSeriesName(),
+                    s.getRequiredDoses() != null ? s.getRequiredDoses() : 0);
+            catalogSeries.add(planSeries);
+            seriesByPlan.computeIfAbsent(s.getImmunizationPlanId(), k -> new ArrayList<>()).add(planSeries);
+        }
+
+        List<CatalogPlan> catalogPlans = new ArrayList<>(plans.size());
+        List<List<Object>> planColumns = new ArrayList<>(plans.size());
+        for (ImmunizationPlan plan : plans) {
+            planColumns.add(Arrays.asList(plan.getId(), plan.getName(), plan.getVaccineTypeId(), plan.getAgeCategoryId()));
+            List<CatalogPlanSeries> planSeries = List.copyOf(seriesByPlan.getOrDefault(plan.getId(), List.of()));
+            int requiredDoses = planSeries.stream().mapToInt(CatalogPlanSeries::requiredDoses).sum();
+            catalogPlans.add(new CatalogPlan(plan.getId(), plan.getName(), plan.getVaccineTypeId(),
+                    plan.getAgeCategoryId(), planSeries, requiredDoses));
+        }
+
+        List<CatalogAgeCategory> catalogCategories = ageCategories.stream()
+                .map(c -> new CatalogAgeCategory(c.getId(), c.getName(),
+                        c.getAgeMinDays() != null ? c.getAgeMinDays() : 0, c.getAgeMaxDays()))
+                .toList();
+
+        List<CatalogVaccineType> catalogVaccineTypes = vaccineTypes.stream()
+                .map(v -> new CatalogVaccineType(v.getId(), v.getName(), v.getCode()))
+                .toList();
+
+        List<CatalogFollowUpRule> catalogRules = followUpRules.stream()
+                .map(r -> new CatalogFollowUpRule(r.getId(), r.getFromPlanId(), r.getToPlanId(),
+                        r.getRequiredSeriesId(),
+                        r.getMinCompletedDoses() != null ? r.getMinCompletedDoses() : 0,
+                        r.getTargetMinAgeDays(), r.getTargetMaxAgeDays(),
+                        r.getMinIntervalDaysSinceLast(), r.getPreferredAgeDays()))
+                .toList();
+
+        long contentHash = contentHash(planColumns, catalogSeries, catalogCategories, catalogVaccineTypes, catalogRules);
+        return new ImmunizationCatalog(version, contentHash, catalogPlans, catalogCategories, catalogVaccineTypes,
+                catalogRules);
+    }
+
+    /**
+     * Summe der gemischten hashCodes aller Zeilen: unabhängig von der Reihenfolge, in der findAll()
+     * sie liefert. Die Pläne gehen ohne ihre Serien-Liste ein, deren Reihenfolge ebenfalls zufällig ist.
+     */
+    private static long contentHash(Collection<?>... tables) {
+        long hash = 0;
+        for (int table = 0; table < tables.length; table++) {
+            for (Object row : tables[table]) {
+                hash += mix(((long) table << 32) | (row.hashCode() & 0xffffffffL));
+            }
+        }
+        return hash;
+    }
+
+    // Finalizer von SplitMix64: verteilt die Bits, bevor die Zeilen addiert werden
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Hash über den Inhalt der Stammdaten; gleicher Inhalt ergibt innerhalb der JVM denselben Wert.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public Collection<CatalogPlan> getPlans() {
+        return plansById.values();
+    }
+
+    public CatalogPlan getPlan(UUID planId) {
+        return planId != null ? plansById.get(planId) : null;
+    }
+
+    /**
+     * Plan zur Ordinalzahl aus {@link #getFollowUpRuleGraph()}.
+     */
+    public CatalogPlan getPlan(int planOrdinal) {
+        return plansByOrdinal[planOrdinal];
+    }
+
+    /**
+     * Ordinalzahl der Alterskategorie des Plans im {@link AgeCategoryIndex} oder -1.
+     */
+    public int getAgeCategoryOrdinal(int planOrdinal) {
+        return ageCategoryOrdinalsByPlan[planOrdinal];
+    }
+
+    public List<CatalogPlan> findPlans(UUID vaccineTypeId, UUID ageCategoryId) {
+        return plansByVaccineTypeAndAgeCategory.getOrDefault(new PlanKey(vaccineTypeId, ageCategoryId), List.of());
+    }
+
+    /**
+     * Alle Alterskategorien, aufsteigend nach ageMinDays sortiert.
+     */
+    public List<CatalogAgeCategory> getAgeCategories() {
+        return ageCategories;
+    }
+
+    public AgeCategoryIndex getAgeCategoryIndex() {
+        return ageCategoryIndex;
+    }
+
+    /**
+     * Kategorie, in die der Alterstag fällt (kleinstes ageMinDays gewinnt), oder null.
+     */
+    public CatalogAgeCategory findAgeCategoryContaining(int ageDays) {
+        int ordinal = ageCategoryIndex.findContaining(ageDays);
+        return ordinal >= 0 ? ageCategoryIndex.get(ordinal) : null;
+    }
+
+    public CatalogAgeCategory getAgeCategory(UUID ageCategoryId) {
+        return ageCategoryId != null ? ageCategoriesById.get(ageCategoryId) : null;
+    }
+
+    public CatalogVaccineType getVaccineType(UUID vaccineTypeId) {
+        return vaccineTypeId != null ? vaccineTypesById.get(vaccineTypeId) : null;
+    }
+
+    public List<CatalogFollowUpRule> getFollowUpRules() {
+        return followUpRules;
+    }
+
+    public List<CatalogFollowUpRule> getFollowUpRulesFrom(UUID fromPlanId) {
+        return followUpRulesByFromPlan.getOrDefault(fromPlanId, List.of());
+    }
+
+    /**
+     * Folge-Regeln als kompilierter Graph; die Plan-Ordinalzahlen folgen der Reihenfolge von {@link #getPlans()}.
+     */
+    public FollowUpRuleGraph getFollowUpRuleGraph() {
+        return followUpRuleGraph;
+    }
+
+    private record PlanKey(UUID vaccineTypeId, UUID ageCategoryId) {
+    }
+}
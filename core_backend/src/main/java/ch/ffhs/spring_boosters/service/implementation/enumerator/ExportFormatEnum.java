@@ -0,0 +1,35 @@
+package ch.ffhs.spring_boosters.service.implementation.enumerator;
+
+public enum ExportFormatEnum {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String value;
+    private final String contentType;
+
+    ExportFormatEnum(String value, String contentType) {
+        this.value = value;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Wird zugleich als Dateiendung des Exports verwendet.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormatEnum fromValue(String value) {
+        for (ExportFormatEnum f : values()) {
+            if (f.value.equalsIgnoreCase(value)) {
+                return f;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + value);
+    }
+}
@@ -0,0 +1,27 @@
+package ch.ffhs.spring_boosters.service.implementation.enumerator;
+
+public enum ForecastGranularityEnum {
+
+    DAY("day"),
+    WEEK("week");
+
+    // Entspricht zugleich der Einheit für date_trunc in PostgreSQL
+    private final String value;
+
+    ForecastGranularityEnum(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static ForecastGranularityEnum fromValue(String value) {
+        for (ForecastGranularityEnum g : values()) {
+            if (g.value.equalsIgnoreCase(value)) {
+                return g;
+            }
+        }
+        throw new IllegalArgumentException("Unknown granularity: " + value);
+    }
+}
@@ -2,20 +2,30 @@ package ch.ffhs.spring_boosters.service.implementation.enumerator;
 
 public enum PriorityEnum {
 
-    OVERDUE("overdue"),
-    DUE_SOON("due-soon"),
-    UPCOMING("upcoming");
+    // Reihenfolge der Konstanten = Sortierreihenfolge im Impfplan
+    OVERDUE("overdue", "Überfällig"),
+    DUE_SOON("due-soon", "Termin vereinbaren"),
+    UPCOMING("upcoming", "Bald fällig");
 
     private final String value;
+    private final String label;
 
-    PriorityEnum(String value) {
+    PriorityEnum(String value, String label) {
         this.value = value;
+        this.label = label;
     }
 
     public String getValue() {
         return value;
     }
 
+    /**
+     * Deutsche Bezeichnung, wie sie in den Schedule-DTOs und Erinnerungs-E-Mails erscheint.
+     */
+    public String getLabel() {
+        return label;
+    }
+
     public static PriorityEnum fromValue(String value) {
         for (PriorityEnum p : values()) {
             if (p.value.equalsIgnoreCase(value)) {
@@ -24,4 +34,13 @@ public enum PriorityEnum {
         }
         throw new IllegalArgumentException("Unknown priority: " + value);
     }
-}
\ No newline at end of file
+
+    public static PriorityEnum fromLabel(String label) {
+        for (PriorityEnum p : values()) {
+            if (p.label.equals(label)) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Unknown priority label: " + label);
+    }
+}
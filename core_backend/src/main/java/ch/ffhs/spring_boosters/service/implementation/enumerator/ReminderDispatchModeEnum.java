@@ -0,0 +1,11 @@
+package ch.ffhs.spring_boosters.service.implementation.enumerator;
+
+/**
+ * Verarbeitung im Erinnerungs-Lauf: SINGLE berechnet den Impfplan pro Benutzer und schreibt
+ * jede Erinnerung einzeln in die Outbox, BATCH berechnet die Impfpläne mengenbasiert und
+ * schreibt bis zu batch-size Erinnerungen in einer Transaktion.
+ */
+public enum ReminderDispatchModeEnum {
+    SINGLE,
+    BATCH
+}
@@ -0,0 +1,11 @@
+package ch.ffhs.spring_boosters.service.implementation.enumerator;
+
+/**
+ * Zustand eines Outbox-Eintrags. PENDING wird vom Relay versendet (auch nach Fehlschlägen mit Backoff),
+ * SENT ist zugestellt, FAILED hat die maximale Anzahl Versuche erreicht.
+ */
+public enum ReminderOutboxStatusEnum {
+    PENDING,
+    SENT,
+    FAILED
+}
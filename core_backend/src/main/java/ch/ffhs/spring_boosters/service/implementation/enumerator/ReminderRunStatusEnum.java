@@ -0,0 +1,10 @@
+package ch.ffhs.spring_boosters.service.implementation.enumerator;
+
+/**
+ * Zustand eines Erinnerungs-Laufs bzw. eines seiner Shards.
+ */
+public enum ReminderRunStatusEnum {
+    PENDING,
+    RUNNING,
+    COMPLETED
+}
@@ -0,0 +1,8 @@
+-- Zuletzt versendeter Inhalt der Impf-Erinnerung pro Benutzer als 64-Bit-Digest (Impfplan, Priorität,
+-- Grund, Fälligkeit). Unveränderte Erinnerungen werden erst nach reminder.digest.resend-after-days erneut versendet.
+CREATE TABLE IF NOT EXISTS reminder_digest (
+    user_id UUID PRIMARY KEY,
+    digest BIGINT NOT NULL,
+    last_sent_at TIMESTAMPTZ NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
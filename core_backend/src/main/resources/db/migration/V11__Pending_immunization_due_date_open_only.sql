@@ -0,0 +1,22 @@
+-- due_date ist ab jetzt die nächste Fälligkeit unabhängig vom Vorschau-Fenster der Priorität und
+-- null, sobald nichts mehr offen ist. Die Prognose filtert deshalb auf due_date statt auf priority.
+-- Bisher nicht priorisierte Zeilen werden hier bereinigt: abgeschlossene Pläne und Kategorien,
+-- die vor mehr als einem Jahr geendet haben (Grace Period). Auffrischungen aus Folge-Regeln
+-- ergänzt der nächste tägliche Lauf.
+UPDATE pending_immunization p
+SET due_date = NULL
+WHERE p.priority IS NULL
+  AND (p.completed_doses >= p.required_doses
+    OR EXISTS (SELECT 1
+               FROM users u
+                        JOIN immunization_plan ip ON ip.id = p.immunization_plan_id
+                        JOIN age_category ac ON ac.id = ip.age_category_id
+               WHERE u.id = p.user_id
+                 AND ac.age_max_days IS NOT NULL
+                 AND u.birth_date + ac.age_max_days + 365 < CURRENT_DATE));
+
+DROP INDEX IF EXISTS idx_pending_immunization_forecast;
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_forecast
+    ON pending_immunization (due_date)
+    INCLUDE (immunization_plan_id, user_id, required_doses, completed_doses)
+    WHERE due_date IS NOT NULL;
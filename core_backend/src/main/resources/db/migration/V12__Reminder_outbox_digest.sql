@@ -0,0 +1,16 @@
+-- Digest der Erinnerung pro Outbox-Eintrag: der Relay speichert ihn erst nach erfolgreichem Versand in
+-- reminder_digest. Pro Benutzer höchstens ein offener Eintrag, damit ein weiterer Lauf eine noch nicht
+-- versendete Erinnerung nicht ein zweites Mal ablegt.
+ALTER TABLE reminder_outbox ADD COLUMN IF NOT EXISTS digest BIGINT;
+
+-- Bestehende Doppelte: nur der neueste offene Eintrag pro Benutzer bleibt PENDING
+UPDATE reminder_outbox o
+SET status = 'FAILED', last_error = 'Durch neueren Eintrag ersetzt'
+WHERE o.status = 'PENDING'
+  AND EXISTS (SELECT 1
+              FROM reminder_outbox n
+              WHERE n.user_id = o.user_id
+                AND n.status = 'PENDING'
+                AND (n.created_at, n.id) > (o.created_at, o.id));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_reminder_outbox_pending_user ON reminder_outbox(user_id) WHERE status = 'PENDING';
@@ -0,0 +1,38 @@
+-- Materialisierte Projektion: Stand pro Benutzer und begonnenem Impfplan.
+-- Wird von der Anwendung bei jeder Änderung an immunization_record nachgeführt,
+-- due_date und priority werden zusätzlich täglich neu berechnet.
+CREATE TABLE IF NOT EXISTS pending_immunization (
+    user_id UUID NOT NULL,
+    immunization_plan_id UUID NOT NULL,
+    completed_doses INT NOT NULL,
+    required_doses INT NOT NULL,
+    last_administered_on DATE,
+    due_date DATE,
+    priority TEXT,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, immunization_plan_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (immunization_plan_id) REFERENCES immunization_plan(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_due_date ON pending_immunization(due_date);
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_priority ON pending_immunization(priority);
+
+-- Initiale Befüllung aus den vorhandenen Impfungen; priority wird beim ersten täglichen Lauf gesetzt
+INSERT INTO pending_immunization (user_id, immunization_plan_id, completed_doses, required_doses,
+                                  last_administered_on, due_date, priority)
+SELECT r.user_id,
+       r.immunization_plan_id,
+       COUNT(*),
+       COALESCE((SELECT SUM(s.required_doses)
+                 FROM immunization_plan_series s
+                 WHERE s.immunization_plan_id = r.immunization_plan_id), 0),
+       MAX(r.administered_on),
+       MAX(u.birth_date) + MAX(ac.age_min_days),
+       NULL
+FROM immunization_record r
+         JOIN users u ON u.id = r.user_id
+         JOIN immunization_plan ip ON ip.id = r.immunization_plan_id
+         JOIN age_category ac ON ac.id = ip.age_category_id
+GROUP BY r.user_id, r.immunization_plan_id
+ON CONFLICT (user_id, immunization_plan_id) DO NOTHING;
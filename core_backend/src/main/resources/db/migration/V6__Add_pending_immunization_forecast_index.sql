@@ -0,0 +1,6 @@
+-- Deckender Index für die Fälligkeits-Prognose: nur offene Zeilen, sortiert nach due_date.
+-- Die Aggregation kommt so mit einem Index-Only-Scan aus, ohne die Tabelle zu lesen.
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_forecast
+    ON pending_immunization (due_date)
+    INCLUDE (immunization_plan_id, user_id, required_doses, completed_doses)
+    WHERE priority IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Keyset-Paginierung des Erinnerungs-Laufs: WHERE role = ? AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_users_role_id ON users(role, id);
@@ -0,0 +1,17 @@
+-- Transaktionale Outbox für Impf-Erinnerungen: der Erinnerungs-Lauf legt die E-Mail-Anfragen hier ab,
+-- der Relay versendet sie in Batches an den Notification-Service (at-least-once, mit Backoff).
+CREATE TABLE IF NOT EXISTS reminder_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    payload TEXT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMPTZ,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Relay: WHERE status = 'PENDING' AND next_attempt_at <= now() ORDER BY next_attempt_at ... FOR UPDATE SKIP LOCKED
+CREATE INDEX IF NOT EXISTS idx_reminder_outbox_pending ON reminder_outbox(next_attempt_at) WHERE status = 'PENDING';
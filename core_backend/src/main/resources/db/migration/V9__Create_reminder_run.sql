@@ -0,0 +1,32 @@
+-- Erinnerungs-Läufe mit Shards: ein Lauf pro Stichtag (run_key), aufgeteilt in Bereiche der Benutzer-id.
+-- Knoten übernehmen Shards per FOR UPDATE SKIP LOCKED und einer Lease; last_user_id ist der Checkpoint,
+-- ab dem ein abgebrochener Shard fortgesetzt wird.
+CREATE TABLE IF NOT EXISTS reminder_run (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    run_key TEXT NOT NULL UNIQUE,
+    status TEXT NOT NULL,
+    shard_count INT NOT NULL,
+    started_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMPTZ
+);
+
+CREATE TABLE IF NOT EXISTS reminder_run_shard (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    run_id UUID NOT NULL,
+    shard_no INT NOT NULL,
+    lower_bound UUID NOT NULL,
+    upper_bound UUID NOT NULL,
+    status TEXT NOT NULL,
+    last_user_id UUID,
+    lease_owner TEXT,
+    lease_until TIMESTAMPTZ,
+    processed INT NOT NULL DEFAULT 0,
+    enqueued INT NOT NULL DEFAULT 0,
+    skipped INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (run_id, shard_no),
+    FOREIGN KEY (run_id) REFERENCES reminder_run(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_reminder_run_status ON reminder_run(status);
@@ -0,0 +1,24 @@
+package ch.ffhs.spring_boosters.config;
+
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogVersionInterceptorTest {
+
+    @Test
+    void preHandle_writesCurrentCatalogVersion() {
+        ImmunizationCatalogService catalogService = mock(ImmunizationCatalogService.class);
+        when(catalogService.currentVersion()).thenReturn(7L);
+        CatalogVersionInterceptor interceptor = new CatalogVersionInterceptor(catalogService);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), response, new Object()));
+        assertEquals("7", response.getHeader(CatalogVersionInterceptor.CATALOG_VERSION_HEADER));
+        verify(catalogService, never()).getCatalog();
+    }
+}
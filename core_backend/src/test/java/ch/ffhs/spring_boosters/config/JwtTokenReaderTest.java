@@ -1,5 +1,6 @@
 package ch.ffhs.spring_boosters.config;
 
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -33,7 +34,7 @@ class JwtTokenReaderTest {
         return Jwts.builder()
                 .setSubject(username)
                 .claim("username", username)
-                .claim("userid", userId.toString())
+                .claim("userid", userId != null ? userId.toString() : null)
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -57,6 +58,37 @@ class JwtTokenReaderTest {
         assertEquals(username, jwtTokenReader.getUsername(token));
     }
 
+    @Test
+    void getPrincipal_withValidToken_returnsUserIdAndUsername() {
+        ReflectionTestUtils.setField(jwtTokenReader, "secret", SECRET);
+        UUID userId = UUID.randomUUID();
+        String token = createToken(SECRET, "principal", userId);
+
+        AuthenticatedUser principal = jwtTokenReader.getPrincipal(token);
+
+        assertEquals(userId, principal.userId());
+        assertEquals("principal", principal.username());
+    }
+
+    @Test
+    void getPrincipal_withoutUserIdClaim_returnsUsernameOnly() {
+        ReflectionTestUtils.setField(jwtTokenReader, "secret", SECRET);
+        String token = createToken(SECRET, "legacy", null);
+
+        AuthenticatedUser principal = jwtTokenReader.getPrincipal(token);
+
+        assertNull(principal.userId());
+        assertEquals("legacy", principal.username());
+    }
+
+    @Test
+    void getPrincipal_withForeignSignature_throws() {
+        ReflectionTestUtils.setField(jwtTokenReader, "secret", SECRET);
+        String token = createToken("ZYXWVUTSRQPONMLKJIHGFEDCBAzyxwvu", "intruder", UUID.randomUUID());
+
+        assertThrows(io.jsonwebtoken.security.SignatureException.class, () -> jwtTokenReader.getPrincipal(token));
+    }
+
     @Test
     void getClaims_withMalformedToken_throws() {
         ReflectionTestUtils.setField(jwtTokenReader, "secret", SECRET);
@@ -1,6 +1,11 @@
 package ch.ffhs.spring_boosters.controller;
 
 import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.security.AdminUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
+import ch.ffhs.spring_boosters.security.AuthenticatedUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.IdentityHeaderVerifier;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordCreateDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationRecordUpdateDto;
@@ -8,7 +13,9 @@ import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
 import ch.ffhs.spring_boosters.controller.exception.GlobalExceptionHandler;
 import ch.ffhs.spring_boosters.controller.mapper.ImmunizationRecordMapper;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationRecordNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationRecordExportService;
 import ch.ffhs.spring_boosters.service.ImmunizationRecordService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,12 +25,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import java.time.LocalDate;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.hasSize;
@@ -32,12 +43,17 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class ImmunizationRecordControllerTest {
 
+    private static final String IDENTITY_SECRET = "0123456789abcdef0123456789abcdef";
+
     @Mock
     private ImmunizationRecordService immunizationRecordService;
 
@@ -47,15 +63,26 @@ class ImmunizationRecordControllerTest {
     @Mock
     private JwtTokenReader jwtTokenReader;
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ImmunizationRecordExportService immunizationRecordExportService;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        ImmunizationRecordController controller = new ImmunizationRecordController(immunizationRecordService, immunizationRecordMapper, jwtTokenReader);
+        ImmunizationRecordController controller = new ImmunizationRecordController(immunizationRecordService, immunizationRecordMapper,
+                immunizationRecordExportService);
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
         validator.afterPropertiesSet();
+        AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver = new AuthenticatedUserArgumentResolver(
+                new IdentityHeaderVerifier(IDENTITY_SECRET, 60), jwtTokenReader, userRepository);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(authenticatedUserArgumentResolver,
+                        new AdminUserArgumentResolver(authenticatedUserArgumentResolver, userRepository))
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .setValidator(validator)
                 .build();
@@ -127,7 +154,7 @@ class ImmunizationRecordControllerTest {
         ImmunizationRecord createdEntity = sampleEntity(id, userId, vt, UUID.randomUUID(), date, 1);
         ImmunizationRecordDto responseDto = sampleDto(id, date, 1);
 
-        when(jwtTokenReader.getUserId("testToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("testToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         when(immunizationRecordMapper.fromCreateDto(any(ImmunizationRecordCreateDto.class), eq(userId))).thenReturn(entityFromDto);
         when(immunizationRecordService.createImmunizationRecord(entityFromDto)).thenReturn(createdEntity);
         when(immunizationRecordMapper.toDto(createdEntity)).thenReturn(responseDto);
@@ -153,7 +180,7 @@ class ImmunizationRecordControllerTest {
         ImmunizationRecord updatedEntity = sampleEntity(id, userId, vt, UUID.randomUUID(), date, 2);
         ImmunizationRecordDto responseDto = sampleDto(id, date, 2);
 
-        when(jwtTokenReader.getUserId("testToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("testToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         when(immunizationRecordMapper.fromUpdateDto(any(ImmunizationRecordUpdateDto.class), eq(userId), any(UUID.class))).thenReturn(entityFromDto);
         when(immunizationRecordService.updateImmunizationRecord(eq(id), eq(entityFromDto))).thenReturn(updatedEntity);
         when(immunizationRecordMapper.toDto(updatedEntity)).thenReturn(responseDto);
@@ -174,7 +201,7 @@ class ImmunizationRecordControllerTest {
         ImmunizationRecordUpdateDto updateDto = sampleUpdateDto(LocalDate.now(), 1);
         ImmunizationRecord entityFromDto = sampleEntity(null, userId, UUID.randomUUID(), UUID.randomUUID(), LocalDate.now(), 1);
 
-        when(jwtTokenReader.getUserId("testToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("testToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         when(immunizationRecordMapper.fromUpdateDto(any(ImmunizationRecordUpdateDto.class), eq(userId), any(UUID.class))).thenReturn(entityFromDto);
         when(immunizationRecordService.updateImmunizationRecord(eq(id), eq(entityFromDto)))
                 .thenThrow(new ImmunizationRecordNotFoundException("Not found"));
@@ -194,7 +221,7 @@ class ImmunizationRecordControllerTest {
         UUID userId = UUID.randomUUID();
         String token = "Bearer fakeToken";
 
-        when(jwtTokenReader.getUserId("fakeToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("fakeToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         doNothing().when(immunizationRecordService).deleteImmunizationRecord(userId, id);
 
         mockMvc.perform(delete("/api/v1/immunization-records/" + id).header("Authorization", token))
@@ -207,7 +234,7 @@ class ImmunizationRecordControllerTest {
         UUID userId = UUID.randomUUID();
         String token = "Bearer fakeToken";
 
-        when(jwtTokenReader.getUserId("fakeToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("fakeToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         doThrow(new ImmunizationRecordNotFoundException("Not found")).when(immunizationRecordService).deleteImmunizationRecord(userId, id);
 
         mockMvc.perform(delete("/api/v1/immunization-records/" + id).header("Authorization", token))
@@ -216,14 +243,14 @@ class ImmunizationRecordControllerTest {
     }
 
     @Test
-    void deleteImmunizationRecord_invalidToken_returnsBadRequest() throws Exception {
+    void deleteImmunizationRecord_invalidToken_returnsUnauthorized() throws Exception {
         UUID id = UUID.randomUUID();
         String token = "Bearer badToken";
 
-        when(jwtTokenReader.getUserId("badToken")).thenReturn("not-a-uuid");
+        when(jwtTokenReader.getPrincipal("badToken")).thenThrow(new IllegalArgumentException("Invalid UUID string: not-a-uuid"));
 
         mockMvc.perform(delete("/api/v1/immunization-records/" + id).header("Authorization", token))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -281,7 +308,7 @@ class ImmunizationRecordControllerTest {
         UUID id = UUID.randomUUID();
         String token = "Bearer myToken";
 
-        when(jwtTokenReader.getUserId("myToken")).thenReturn(userId.toString());
+        when(jwtTokenReader.getPrincipal("myToken")).thenReturn(new AuthenticatedUser(userId, "user"));
         ImmunizationRecord entity = sampleEntity(id, userId, UUID.randomUUID(), UUID.randomUUID(), LocalDate.now(), 1);
         ImmunizationRecordDto dto = sampleDto(id, LocalDate.now(), 1);
 
@@ -294,12 +321,59 @@ class ImmunizationRecordControllerTest {
     }
 
     @Test
-    void getMyImmunizationRecords_invalidToken_badRequest() throws Exception {
+    void getMyImmunizationRecords_invalidToken_unauthorized() throws Exception {
         String token = "Bearer bad";
-        when(jwtTokenReader.getUserId("bad")).thenReturn("not-a-uuid");
+        when(jwtTokenReader.getPrincipal("bad")).thenThrow(new IllegalArgumentException("Invalid UUID string: not-a-uuid"));
 
         mockMvc.perform(get("/api/v1/immunization-records/myVaccinations").header("Authorization", token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void exportImmunizationRecords_asAdmin_streamsCsv() throws Exception {
+        UUID adminId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(immunizationRecordExportService).exportImmunizationRecords(eq(ExportFormatEnum.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/immunization-records/export")
+                        .header("Authorization", "Bearer adminToken")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"immunization-records.csv\""))
+                .andExpect(content().string("id\n"));
+    }
+
+    @Test
+    void exportImmunizationRecords_asUser_returnsForbidden() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("userToken")).thenReturn(new AuthenticatedUser(userId, "alice"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of("USER"));
+
+        mockMvc.perform(get("/api/v1/immunization-records/export")
+                        .header("Authorization", "Bearer userToken"))
+                .andExpect(status().isForbidden());
+
+        verify(immunizationRecordExportService, never()).exportImmunizationRecords(any(), any());
+    }
+
+    @Test
+    void exportImmunizationRecords_unknownFormat_returnsBadRequest() throws Exception {
+        UUID adminId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+        mockMvc.perform(get("/api/v1/immunization-records/export")
+                        .header("Authorization", "Bearer adminToken")
+                        .param("format", "xml"))
                 .andExpect(status().isBadRequest());
     }
 }
-
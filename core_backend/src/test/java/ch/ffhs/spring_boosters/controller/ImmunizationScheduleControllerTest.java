@@ -1,59 +1,93 @@
 package ch.ffhs.spring_boosters.controller;
 
 import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.security.AdminUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
+import ch.ffhs.spring_boosters.security.AuthenticatedUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.IdentityHeaderVerifier;
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationForecastPointDto;
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleBatchRequestDto;
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.controller.exception.GlobalExceptionHandler;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationForecastService;
 import ch.ffhs.spring_boosters.service.ImmunizationScheduleService;
-import ch.ffhs.spring_boosters.service.UserService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class ImmunizationScheduleControllerTest {
 
+    private static final String IDENTITY_SECRET = "0123456789abcdef0123456789abcdef";
+
     @Mock
     private ImmunizationScheduleService immunizationScheduleService;
 
     @Mock
-    private UserService userService;
+    private JwtTokenReader jwtTokenReader;
 
     @Mock
-    private JwtTokenReader jwtTokenReader;
+    private UserRepository userRepository;
+
+    @Mock
+    private ImmunizationForecastService immunizationForecastService;
 
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        ImmunizationScheduleController controller = new ImmunizationScheduleController(immunizationScheduleService, userService, jwtTokenReader);
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        ImmunizationScheduleController controller = new ImmunizationScheduleController(immunizationScheduleService,
+                immunizationForecastService, objectMapper);
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
         validator.afterPropertiesSet();
+        AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver = new AuthenticatedUserArgumentResolver(
+                new IdentityHeaderVerifier(IDENTITY_SECRET, 60), jwtTokenReader, userRepository);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(authenticatedUserArgumentResolver,
+                        new AdminUserArgumentResolver(authenticatedUserArgumentResolver, userRepository))
                 .setValidator(validator)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
-
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
     }
 
     private ImmunizationScheduleDto sampleSchedule(UUID userId, String username, int currentAgeDays, int totalPending, int high, int medium, int low) {
@@ -69,8 +103,7 @@ class ImmunizationScheduleControllerTest {
 
         ImmunizationScheduleDto schedule = sampleSchedule(userId, username, 100, 5, 2, 2, 1);
 
-        when(jwtTokenReader.getUsername(token)).thenReturn(username);
-        when(userService.findByUsername(username)).thenReturn(new ch.ffhs.spring_boosters.controller.entity.User() {{ setId(userId); }});
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(userId, username));
         when(immunizationScheduleService.getPendingImmunizations(userId)).thenReturn(schedule);
 
         mockMvc.perform(get("/api/v1/immunization-schedule/pending").header("Authorization", tokenHeader))
@@ -85,8 +118,9 @@ class ImmunizationScheduleControllerTest {
         String token = "token123";
         String username = "bob";
 
-        when(jwtTokenReader.getUsername(token)).thenReturn(username);
-        when(userService.findByUsername(username)).thenThrow(new UserNotFoundException("User not found"));
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(userId, username));
+        when(immunizationScheduleService.getPendingImmunizations(userId)).thenThrow(new UserNotFoundException("User not found"));
 
         mockMvc.perform(get("/api/v1/immunization-schedule/pending").header("Authorization", tokenHeader))
                 .andExpect(status().isNotFound())
@@ -102,8 +136,7 @@ class ImmunizationScheduleControllerTest {
 
         ImmunizationScheduleDto schedule = sampleSchedule(userId, username, 200, 8, 3, 3, 2);
 
-        when(jwtTokenReader.getUsername(token)).thenReturn(username);
-        when(userService.findByUsername(username)).thenReturn(new ch.ffhs.spring_boosters.controller.entity.User() {{ setId(userId); }});
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(userId, username));
         when(immunizationScheduleService.getPendingImmunizations(userId)).thenReturn(schedule);
 
         mockMvc.perform(get("/api/v1/immunization-schedule/pending/summary").header("Authorization", tokenHeader))
@@ -118,11 +151,124 @@ class ImmunizationScheduleControllerTest {
         String token = "tokenXYZ";
         String username = "dave";
 
-        when(jwtTokenReader.getUsername(token)).thenReturn(username);
-        when(userService.findByUsername(username)).thenThrow(new UserNotFoundException("User not found"));
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(userId, username));
+        when(immunizationScheduleService.getPendingImmunizations(userId)).thenThrow(new UserNotFoundException("User not found"));
 
         mockMvc.perform(get("/api/v1/immunization-schedule/pending/summary").header("Authorization", tokenHeader))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.status", is(404)));
     }
+
+    @Test
+    void getPendingImmunizationsBatch_asAdmin_returnsSchedules() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID adminId = UUID.randomUUID();
+
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+        when(immunizationScheduleService.getPendingImmunizations(List.of(first, second))).thenReturn(List.of(
+                sampleSchedule(first, "u1", 100, 1, 1, 0, 0),
+                sampleSchedule(second, "u2", 200, 0, 0, 0, 0)));
+
+        mockMvc.perform(post("/api/v1/immunization-schedule/pending/batch")
+                        .header("Authorization", "Bearer adminToken")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ImmunizationScheduleBatchRequestDto(List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].username", is("u1")));
+    }
+
+    @Test
+    void getPendingImmunizationsBatch_asUser_returnsForbidden() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(jwtTokenReader.getPrincipal("userToken")).thenReturn(new AuthenticatedUser(userId, "alice"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of("USER"));
+
+        mockMvc.perform(post("/api/v1/immunization-schedule/pending/batch")
+                        .header("Authorization", "Bearer userToken")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ImmunizationScheduleBatchRequestDto(List.of(UUID.randomUUID())))))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status", is(403)));
+
+        verify(immunizationScheduleService, never()).getPendingImmunizations(anyCollection());
+    }
+
+    @Test
+    void getPendingImmunizationsBatch_emptyIds_returnsBadRequest() throws Exception {
+        UUID adminId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+        mockMvc.perform(post("/api/v1/immunization-schedule/pending/batch")
+                        .header("Authorization", "Bearer adminToken")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ImmunizationScheduleBatchRequestDto(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDueForecast_asAdmin_streamsNdjson() throws Exception {
+        UUID adminId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+
+        UUID vaccineTypeId = UUID.randomUUID();
+        LocalDate monday = LocalDate.of(2026, 1, 5);
+        doAnswer(invocation -> {
+            Consumer<ImmunizationForecastPointDto> consumer = invocation.getArgument(3);
+            consumer.accept(new ImmunizationForecastPointDto(monday, vaccineTypeId, "MMR", 12, 10));
+            consumer.accept(new ImmunizationForecastPointDto(monday.plusWeeks(1), vaccineTypeId, "MMR", 3, 3));
+            return null;
+        }).when(immunizationForecastService).streamDueForecast(any(LocalDate.class), any(LocalDate.class),
+                eq(ForecastGranularityEnum.DAY), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/immunization-schedule/forecast")
+                        .header("Authorization", "Bearer adminToken")
+                        .param("months", "3")
+                        .param("granularity", "day"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String expected = objectMapper.writeValueAsString(new ImmunizationForecastPointDto(monday, vaccineTypeId, "MMR", 12, 10))
+                + "\n" + objectMapper.writeValueAsString(new ImmunizationForecastPointDto(monday.plusWeeks(1), vaccineTypeId, "MMR", 3, 3));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expected));
+
+        LocalDate today = LocalDate.now();
+        verify(immunizationForecastService).streamDueForecast(eq(today), eq(today.plusMonths(3)),
+                eq(ForecastGranularityEnum.DAY), any(Consumer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getDueForecast_asUser_returnsForbidden() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("userToken")).thenReturn(new AuthenticatedUser(userId, "alice"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of("USER"));
+
+        mockMvc.perform(get("/api/v1/immunization-schedule/forecast")
+                        .header("Authorization", "Bearer userToken"))
+                .andExpect(status().isForbidden());
+
+        verify(immunizationForecastService, never()).streamDueForecast(any(), any(), any(), any(Consumer.class));
+    }
+
+    @Test
+    void getDueForecast_invalidParameters_returnsBadRequest() throws Exception {
+        UUID adminId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("adminToken")).thenReturn(new AuthenticatedUser(adminId, "admin"));
+        when(userRepository.findRoleById(adminId)).thenReturn(Optional.of("ADMIN"));
+        mockMvc.perform(get("/api/v1/immunization-schedule/forecast")
+                        .header("Authorization", "Bearer adminToken")
+                        .param("months", "48")
+                        .param("granularity", "year"))
+                .andExpect(status().isBadRequest());
+    }
 }
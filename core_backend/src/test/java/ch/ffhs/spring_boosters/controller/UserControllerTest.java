@@ -1,6 +1,10 @@
 package ch.ffhs.spring_boosters.controller;
 
 import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.security.AuthenticatedUser;
+import ch.ffhs.spring_boosters.security.AuthenticatedUserArgumentResolver;
+import ch.ffhs.spring_boosters.security.IdentityHeaderVerifier;
 import ch.ffhs.spring_boosters.controller.dto.UserDto;
 import ch.ffhs.spring_boosters.controller.dto.UserLoginDto;
 import ch.ffhs.spring_boosters.controller.dto.UserRegistrationDto;
@@ -34,6 +38,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
 
+    private static final String IDENTITY_SECRET = "0123456789abcdef0123456789abcdef";
+
     @Mock
     private UserService userService;
 
@@ -43,16 +49,21 @@ class UserControllerTest {
     @Mock
     private JwtTokenReader jwtTokenReader;
 
+    @Mock
+    private UserRepository userRepository;
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        UserController controller = new UserController(userService, userMapper, jwtTokenReader);
+        UserController controller = new UserController(userService, userMapper);
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
         validator.afterPropertiesSet();
 
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new AuthenticatedUserArgumentResolver(
+                        new IdentityHeaderVerifier(IDENTITY_SECRET, 60), jwtTokenReader, userRepository))
                 .setValidator(validator)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -182,7 +193,7 @@ class UserControllerTest {
         User user = sampleUser(id, "alice");
         UserDto dto = sampleUserDto(id, "alice");
 
-        when(jwtTokenReader.getUserId(token)).thenReturn(id.toString());
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(id, "user"));
         when(userService.findById(id)).thenReturn(user);
         when(userMapper.userToDto(user)).thenReturn(dto);
 
@@ -198,7 +209,7 @@ class UserControllerTest {
         String tokenHeader = "Bearer tok";
         String token = "tok";
 
-        when(jwtTokenReader.getUserId(token)).thenReturn(id.toString());
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(id, "user"));
         when(userService.findById(id)).thenThrow(new UserNotFoundException("Not found"));
 
         mockMvc.perform(get("/api/v1/auth/me").header("Authorization", tokenHeader))
@@ -206,14 +217,14 @@ class UserControllerTest {
     }
 
     @Test
-    void getCurrentUser_invalidToken_returnsBadRequest() throws Exception {
+    void getCurrentUser_invalidToken_returnsUnauthorized() throws Exception {
         String tokenHeader = "Bearer bad";
         String token = "bad";
 
-        when(jwtTokenReader.getUserId(token)).thenReturn("not-a-uuid");
+        when(jwtTokenReader.getPrincipal(token)).thenThrow(new IllegalArgumentException("Invalid UUID string: not-a-uuid"));
 
         mockMvc.perform(get("/api/v1/auth/me").header("Authorization", tokenHeader))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
@@ -222,7 +233,7 @@ class UserControllerTest {
         String tokenHeader = "Bearer tt";
         String token = "tt";
 
-        when(jwtTokenReader.getUserId(token)).thenReturn(id.toString());
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(id, "user"));
         doNothing().when(userService).deleteUser(id);
 
         mockMvc.perform(delete("/api/v1/auth").header("Authorization", tokenHeader))
@@ -235,7 +246,7 @@ class UserControllerTest {
         String tokenHeader = "Bearer tt";
         String token = "tt";
 
-        when(jwtTokenReader.getUserId(token)).thenReturn(id.toString());
+        when(jwtTokenReader.getPrincipal(token)).thenReturn(new AuthenticatedUser(id, "user"));
         doThrow(new UserNotFoundException("Not found")).when(userService).deleteUser(id);
 
         mockMvc.perform(delete("/api/v1/auth").header("Authorization", tokenHeader))
@@ -244,13 +255,13 @@ class UserControllerTest {
     }
 
     @Test
-    void deleteUser_invalidToken_returnsBadRequest() throws Exception {
+    void deleteUser_invalidToken_returnsUnauthorized() throws Exception {
         String tokenHeader = "Bearer bad";
         String token = "bad";
 
-        when(jwtTokenReader.getUserId(token)).thenReturn("not-a-uuid");
+        when(jwtTokenReader.getPrincipal(token)).thenThrow(new IllegalArgumentException("Invalid UUID string: not-a-uuid"));
 
         mockMvc.perform(delete("/api/v1/auth").header("Authorization", tokenHeader))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isUnauthorized());
     }
 }
@@ -292,20 +292,20 @@ public class ImmunizationRecordIntegrationTest {
     }
 
     @Test
-    @DisplayName("Get my vaccinations with invalid token returns 400")
+    @DisplayName("Get my vaccinations with invalid token returns 401")
     void getMyVaccinations_invalidToken() {
         String token = "Bearer bad.token.value";
         ResponseEntity<Map> resp = restTemplate.exchange("/api/v1/immunization-records/myVaccinations", HttpMethod.GET, new HttpEntity<>(authorizationHeader(token)), Map.class);
-        Assertions.assertFalse(resp.getStatusCode().is4xxClientError(), "Should return 4xx error for invalid token");
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode(), "Should return 401 for invalid token");
     }
 
     @Test
-    @DisplayName("Delete with invalid token returns 400")
+    @DisplayName("Delete with invalid token returns 401")
     void deleteInvalidToken() {
         UUID id = UUID.randomUUID();
         String token = "Bearer bad.token";
         ResponseEntity<Void> resp = restTemplate.exchange("/api/v1/immunization-records/" + id, HttpMethod.DELETE, new HttpEntity<>(null, authorizationHeader(token)), Void.class);
-        Assertions.assertFalse(resp.getStatusCode().is4xxClientError(), "Should return 4xx error for invalid token");
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode(), "Should return 401 for invalid token");
     }
 
     @Test
@@ -335,8 +335,7 @@ public class ImmunizationRecordIntegrationTest {
             LocalDate date = LocalDate.of(2020, 1, 1).plusDays(i);
             ImmunizationRecordCreateDto dto = new ImmunizationRecordCreateDto(vt, date, i + 1);
             ResponseEntity<ImmunizationRecordDto> resp = restTemplate.postForEntity("/api/v1/immunization-records", dto, ImmunizationRecordDto.class);
-            Assertions.assertFalse(resp.getStatusCode().is2xxSuccessful() || resp.getStatusCode().is4xxClientError(),
-                "Status should be 2xx or 4xx");
+            Assertions.assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode(), "Create without token should return 401");
         }
 
         ResponseEntity<ImmunizationRecordDto[]> list = restTemplate.getForEntity("/api/v1/immunization-records/by-user/" + user, ImmunizationRecordDto[].class);
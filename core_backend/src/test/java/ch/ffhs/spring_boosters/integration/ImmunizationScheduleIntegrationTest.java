@@ -129,7 +129,7 @@ public class ImmunizationScheduleIntegrationTest {
                 "/api/v1/immunization-schedule/pending",
                 String.class
         );
-        assertFalse(resp.getStatusCode().is4xxClientError(), "Missing auth should return 4xx");
+        assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode(), "Missing auth should return 401");
     }
 
     @Test
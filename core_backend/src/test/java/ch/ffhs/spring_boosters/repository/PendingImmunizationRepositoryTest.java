@@ -0,0 +1,106 @@
+package ch.ffhs.spring_boosters.repository;
+
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository.DueForecastRow;
+import ch.ffhs.spring_boosters.test.TestFlywayInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prüft die native Prognose-Abfrage gegen das per Flyway migrierte Schema (eigene H2-Datenbank,
+ * damit die Integrationstests ihre Daten behalten).
+ */
+@DataJpaTest
+@ContextConfiguration(initializers = {TestFlywayInitializer.class})
+@ActiveProfiles("integrationtest")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:pendingforecastdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+class PendingImmunizationRepositoryTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 7); // Montag
+    private static final LocalDate TO = LocalDate.of(2030, 2, 4);
+
+    @Autowired
+    private PendingImmunizationRepository repository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImmunizationPlanRepository planRepository;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        // Von der Migration befüllte Zeilen der Seed-Daten ausblenden
+        repository.deleteAll();
+        userId = userRepository.findByUsername("john.doe").orElseThrow().getId();
+    }
+
+    private UUID planId(String name) {
+        return planRepository.findByName(name).orElseThrow().getId();
+    }
+
+    private void row(String planName, int completed, int required, LocalDate dueDate, String priority) {
+        PendingImmunization row = new PendingImmunization(userId, planId(planName));
+        row.setCompletedDoses(completed);
+        row.setRequiredDoses(required);
+        row.setDueDate(dueDate);
+        row.setPriority(priority);
+        repository.saveAndFlush(row);
+    }
+
+    private List<DueForecastRow> forecast(String unit) {
+        try (Stream<DueForecastRow> rows = repository.streamDueForecast(unit, FROM, TO)) {
+            return rows.toList();
+        }
+    }
+
+    @Test
+    void streamDueForecast_usesDueDate_independentOfPriority_andIncludesFollowUpRows() {
+        // Offene Grundimmunisierung ausserhalb des Vorschau-Fensters (keine Priorität)
+        row("MMR Impfung - Kleinkinder (1-2 Jahre)", 1, 2, FROM.plusDays(2), null);
+        // Nur durch eine Folge-Regel fällig, noch keine Dosis
+        row("MMR Impfung - Vorschulkinder (3-5 Jahre)", 0, 2, FROM.plusDays(3), "UPCOMING");
+        // Abgeschlossen: kein due_date
+        row("6-fach Impfung - Saeuglinge (2-11 Monate)", 3, 3, null, null);
+        // Nach dem Zeitraum fällig
+        row("6-fach Impfung - Kleinkinder (1-2 Jahre)", 1, 3, TO.plusDays(1), null);
+
+        List<DueForecastRow> rows = forecast("week");
+
+        assertEquals(1, rows.size());
+        DueForecastRow mmr = rows.get(0);
+        // Wochenbeginn: PostgreSQL Montag, H2 je nach Locale Sonntag
+        assertFalse(mmr.getPeriodStart().isAfter(FROM));
+        assertTrue(mmr.getPeriodStart().isAfter(FROM.minusWeeks(1)));
+        assertEquals("MMR (Masern-Mumps-Röteln)", mmr.getVaccineTypeName());
+        assertEquals(3L, mmr.getDueDoses());
+        assertEquals(1L, mmr.getUserCount());
+    }
+
+    @Test
+    void streamDueForecast_putsOverdueRowsIntoFirstPeriod() {
+        row("6-fach Impfung - Kleinkinder (1-2 Jahre)", 2, 3, FROM.minusDays(30), "OVERDUE");
+        row("MMR Impfung - Kleinkinder (1-2 Jahre)", 1, 2, FROM.plusDays(8), null);
+
+        List<DueForecastRow> rows = forecast("day");
+
+        assertEquals(List.of(FROM, FROM.plusDays(8)), rows.stream().map(DueForecastRow::getPeriodStart).toList());
+        assertEquals(1L, rows.get(0).getDueDoses());
+    }
+}
@@ -5,10 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +44,47 @@ class UserRepositoryTest {
 
         assertTrue(repository.existsByUsername("jdoe"));
     }
+
+    @Test
+    void keysetPagingByRoleAndIdRange_returnsEveryUserOnce() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .passwordHash("pw")
+                    .birthDate(LocalDate.of(1990, 1, 1))
+                    .role("USER")
+                    .build());
+        }
+        repository.save(User.builder()
+                .username("admin")
+                .email("admin@example.com")
+                .passwordHash("pw")
+                .birthDate(LocalDate.of(1980, 1, 1))
+                .role("ADMIN")
+                .build());
+
+        // Zwei Shards (id-Bereiche), jeweils in Chunks à 2 Benutzer
+        List<User> collected = new ArrayList<>();
+        UUID[][] ranges = {
+                {new UUID(0L, 0L), new UUID(0x7FFFFFFFFFFFFFFFL, -1L)},
+                {new UUID(Long.MIN_VALUE, 0L), new UUID(-1L, -1L)}
+        };
+        for (UUID[] range : ranges) {
+            List<User> chunk = repository.findByRoleAndIdBetweenOrderByIdAsc("USER", range[0], range[1], Limit.of(2));
+            while (!chunk.isEmpty()) {
+                assertTrue(chunk.size() <= 2);
+                collected.addAll(chunk);
+                UUID lastId = chunk.get(chunk.size() - 1).getId();
+                chunk = repository.findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc("USER", lastId, range[1], Limit.of(2));
+            }
+        }
+
+        assertEquals(5, collected.size());
+        assertTrue(collected.stream().allMatch(u -> "USER".equals(u.getRole())));
+        // Jeder Benutzer genau einmal (UUID.compareTo sortiert anders als die DB, daher kein Reihenfolge-Vergleich)
+        assertEquals(5, collected.stream().map(User::getId).distinct().count());
+        assertTrue(repository.existsByRole("USER"));
+        assertFalse(repository.existsByRole("GUEST"));
+    }
 }
@@ -0,0 +1,84 @@
+package ch.ffhs.spring_boosters.security;
+
+import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthenticatedException;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthorizedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserArgumentResolverTest {
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF"; // 32 chars
+
+    @Mock
+    private JwtTokenReader jwtTokenReader;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AdminUserArgumentResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver = new AuthenticatedUserArgumentResolver(
+                new IdentityHeaderVerifier(SECRET, 60), jwtTokenReader, userRepository);
+        resolver = new AdminUserArgumentResolver(authenticatedUserArgumentResolver, userRepository);
+    }
+
+    private ServletWebRequest requestWithToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        return new ServletWebRequest(request);
+    }
+
+    @Test
+    void resolveArgument_admin_returnsAdminWithoutLoadingUser() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(new AuthenticatedUser(userId, "admin"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of("ADMIN"));
+
+        assertEquals(new AdminUser(userId, "admin"), resolver.resolveArgument(null, null, requestWithToken(), null));
+        verify(userRepository, never()).findByUsername(any());
+        verify(userRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void resolveArgument_otherRole_throwsNotAuthorized() {
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(new AuthenticatedUser(userId, "alice"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.of("USER"));
+
+        assertThrows(UserNotAuthorizedException.class,
+                () -> resolver.resolveArgument(null, null, requestWithToken(), null));
+    }
+
+    @Test
+    void resolveArgument_unknownUser_throwsNotAuthorized() {
+        UUID userId = UUID.randomUUID();
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(new AuthenticatedUser(userId, "ghost"));
+        when(userRepository.findRoleById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotAuthorizedException.class,
+                () -> resolver.resolveArgument(null, null, requestWithToken(), null));
+    }
+
+    @Test
+    void resolveArgument_withoutCredentials_throwsNotAuthenticated() {
+        assertThrows(UserNotAuthenticatedException.class,
+                () -> resolver.resolveArgument(null, null, new ServletWebRequest(new MockHttpServletRequest()), null));
+        verifyNoInteractions(userRepository);
+    }
+}
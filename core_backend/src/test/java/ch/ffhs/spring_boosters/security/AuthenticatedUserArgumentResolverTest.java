@@ -0,0 +1,146 @@
+package ch.ffhs.spring_boosters.security;
+
+import ch.ffhs.spring_boosters.config.JwtTokenReader;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.Exception.UserNotAuthenticatedException;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticatedUserArgumentResolverTest {
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF"; // 32 chars
+
+    @Mock
+    private JwtTokenReader jwtTokenReader;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private IdentityHeaderVerifier verifier;
+    private AuthenticatedUserArgumentResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new IdentityHeaderVerifier(SECRET, 60);
+        resolver = new AuthenticatedUserArgumentResolver(verifier, jwtTokenReader, userRepository);
+    }
+
+    private void addIdentityHeaders(MockHttpServletRequest request, UUID userId, String username) {
+        String timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        request.addHeader(IdentityHeaderVerifier.USER_ID_HEADER, userId.toString());
+        request.addHeader(IdentityHeaderVerifier.USERNAME_HEADER, username);
+        request.addHeader(IdentityHeaderVerifier.TIMESTAMP_HEADER, timestamp);
+        request.addHeader(IdentityHeaderVerifier.SIGNATURE_HEADER, Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(verifier.sign(userId.toString(), username, timestamp)));
+    }
+
+    @Test
+    void resolveArgument_withSignedHeaders_skipsJwtParsing() throws Exception {
+        UUID userId = UUID.randomUUID();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        addIdentityHeaders(request, userId, "alice");
+        request.addHeader("Authorization", "Bearer token");
+
+        AuthenticatedUser caller = resolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+
+        assertEquals(new AuthenticatedUser(userId, "alice"), caller);
+        verifyNoInteractions(jwtTokenReader);
+    }
+
+    @Test
+    void resolveArgument_withoutHeaders_fallsBackToJwt() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "bob");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(principal);
+
+        assertEquals(principal, resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void resolveArgument_tokenWithoutUserId_resolvesIdByUsername() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(new AuthenticatedUser(null, "carol"));
+        when(userRepository.findByUsername("carol")).thenReturn(Optional.of(user));
+
+        assertEquals(new AuthenticatedUser(user.getId(), "carol"),
+                resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void resolveArgument_tokenWithoutUserId_unknownUsername_throws() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(new AuthenticatedUser(null, "ghost"));
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotAuthenticatedException.class,
+                () -> resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void resolveArgument_withForgedHeaders_fallsBackToJwt() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "bob");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(IdentityHeaderVerifier.USER_ID_HEADER, UUID.randomUUID().toString());
+        request.addHeader(IdentityHeaderVerifier.USERNAME_HEADER, "admin");
+        request.addHeader(IdentityHeaderVerifier.TIMESTAMP_HEADER, String.valueOf(System.currentTimeMillis() / 1000));
+        request.addHeader(IdentityHeaderVerifier.SIGNATURE_HEADER, "forged");
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(principal);
+
+        assertEquals(principal, resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void resolveArgument_calledTwice_resolvesOncePerRequest() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "bob");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtTokenReader.getPrincipal("token")).thenReturn(principal);
+        ServletWebRequest webRequest = new ServletWebRequest(request);
+
+        resolver.resolveArgument(null, null, webRequest, null);
+        resolver.resolveArgument(null, null, webRequest, null);
+
+        verify(jwtTokenReader, times(1)).getPrincipal(anyString());
+        assertEquals(principal, request.getAttribute(AuthenticatedUserArgumentResolver.REQUEST_ATTRIBUTE));
+    }
+
+    @Test
+    void resolveArgument_withoutCredentials_throws() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertThrows(UserNotAuthenticatedException.class,
+                () -> resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void resolveArgument_withInvalidToken_throws() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer broken");
+        when(jwtTokenReader.getPrincipal("broken")).thenThrow(new MalformedJwtException("broken"));
+
+        assertThrows(UserNotAuthenticatedException.class,
+                () -> resolver.resolveArgument(null, null, new ServletWebRequest(request), null));
+    }
+}
@@ -0,0 +1,99 @@
+package ch.ffhs.spring_boosters.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentityHeaderVerifierTest {
+
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyzABCDEF"; // 32 chars
+    private static final Instant NOW = Instant.parse("2025-03-01T10:00:00Z");
+
+    private final IdentityHeaderVerifier verifier =
+            new IdentityHeaderVerifier(SECRET, 60, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private String signature(String userId, String username, String timestamp) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(verifier.sign(userId, username, timestamp));
+    }
+
+    @Test
+    void verify_withValidSignature_returnsCaller() {
+        UUID userId = UUID.randomUUID();
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+
+        Optional<AuthenticatedUser> caller = verifier.verify(userId.toString(), "alice", timestamp,
+                signature(userId.toString(), "alice", timestamp));
+
+        assertTrue(caller.isPresent());
+        assertEquals(userId, caller.get().userId());
+        assertEquals("alice", caller.get().username());
+    }
+
+    @Test
+    void verify_withTamperedUsername_returnsEmpty() {
+        String userId = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+
+        assertTrue(verifier.verify(userId, "admin", timestamp, signature(userId, "alice", timestamp)).isEmpty());
+    }
+
+    @Test
+    void verify_withSignatureFromOtherSecret_returnsEmpty() {
+        IdentityHeaderVerifier other = new IdentityHeaderVerifier("ZYXWVUTSRQPONMLKJIHGFEDCBAzyxwvu", 60,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        String userId = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+        String foreign = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(other.sign(userId, "alice", timestamp));
+
+        assertTrue(verifier.verify(userId, "alice", timestamp, foreign).isEmpty());
+    }
+
+    @Test
+    void verify_withExpiredTimestamp_returnsEmpty() {
+        String userId = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(NOW.minusSeconds(61).getEpochSecond());
+
+        assertTrue(verifier.verify(userId, "alice", timestamp, signature(userId, "alice", timestamp)).isEmpty());
+    }
+
+    @Test
+    void verify_withMissingHeader_returnsEmpty() {
+        String userId = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+
+        assertTrue(verifier.verify(userId, "alice", timestamp, null).isEmpty());
+        assertTrue(verifier.verify(null, "alice", timestamp, signature(userId, "alice", timestamp)).isEmpty());
+    }
+
+    @Test
+    void verify_withUnreadableValues_returnsEmpty() {
+        String timestamp = String.valueOf(NOW.getEpochSecond());
+
+        assertTrue(verifier.verify("not-a-uuid", "alice", timestamp, signature("not-a-uuid", "alice", timestamp)).isEmpty());
+        assertTrue(verifier.verify(UUID.randomUUID().toString(), "alice", "yesterday", "abc").isEmpty());
+        assertTrue(verifier.verify(UUID.randomUUID().toString(), "alice", timestamp, "%%%").isEmpty());
+    }
+
+    @Test
+    void constructor_withBase64Secret_works() {
+        String secret = "base64:" + Base64.getEncoder().encodeToString(SECRET.getBytes(StandardCharsets.UTF_8));
+
+        assertDoesNotThrow(() -> new IdentityHeaderVerifier(secret, 60));
+    }
+
+    @Test
+    void constructor_withShortSecretOrInvalidMaxAge_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeaderVerifier("short-secret", 60));
+        assertThrows(IllegalArgumentException.class, () -> new IdentityHeaderVerifier(SECRET, 0));
+    }
+}
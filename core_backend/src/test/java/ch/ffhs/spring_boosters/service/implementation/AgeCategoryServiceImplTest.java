@@ -4,6 +4,7 @@ import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
 import ch.ffhs.spring_boosters.repository.AgeCategoryRepository;
 import ch.ffhs.spring_boosters.service.Exception.AgeCategoryAlreadyExistsException;
 import ch.ffhs.spring_boosters.service.Exception.AgeCategoryNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -24,6 +25,9 @@ class AgeCategoryServiceImplTest {
     @Mock
     private AgeCategoryRepository repository;
 
+    @Mock
+    private ImmunizationCatalogService catalogService;
+
     @InjectMocks
     private AgeCategoryServiceImpl service;
 
@@ -68,6 +72,7 @@ class AgeCategoryServiceImplTest {
         when(repository.existsByName("Adult")).thenReturn(true);
 
         assertThrows(AgeCategoryAlreadyExistsException.class, () -> service.createAgeCategory(c));
+        verify(catalogService, never()).refresh();
     }
 
     @Test
@@ -79,6 +84,7 @@ class AgeCategoryServiceImplTest {
 
         var saved = service.createAgeCategory(c);
         assertEquals("Youth", saved.getName());
+        verify(catalogService).refresh();
     }
 
     @Test
@@ -119,6 +125,7 @@ class AgeCategoryServiceImplTest {
         assertEquals("Updated", res.getName());
         assertEquals(1, res.getAgeMinDays());
         assertEquals(200, res.getAgeMaxDays());
+        verify(catalogService).refresh();
     }
 
     @Test
@@ -128,6 +135,7 @@ class AgeCategoryServiceImplTest {
 
         service.deleteAgeCategory(id);
         verify(repository).deleteById(id);
+        verify(catalogService).refresh();
     }
 
     @Test
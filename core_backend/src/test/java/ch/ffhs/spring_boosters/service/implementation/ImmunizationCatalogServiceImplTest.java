@@ -0,0 +1,155 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.repository.*;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImmunizationCatalogServiceImplTest {
+
+    @Mock
+    private ImmunizationPlanRepository planRepository;
+
+    @Mock
+    private ImmunizationPlanSeriesRepository seriesRepository;
+
+    @Mock
+    private AgeCategoryRepository ageCategoryRepository;
+
+    @Mock
+    private VaccineTypeRepository vaccineTypeRepository;
+
+    @Mock
+    private FollowUpRuleRepository followUpRuleRepository;
+
+    @InjectMocks
+    private ImmunizationCatalogServiceImpl service;
+
+    @Test
+    void getCatalog_buildsOnce_andReusesSnapshot() {
+        stubEmptyRepositories();
+
+        ImmunizationCatalog first = service.getCatalog();
+        ImmunizationCatalog second = service.getCatalog();
+
+        assertSame(first, second);
+        verify(planRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_swapsSnapshot_andIncrementsVersion_whenContentChanged() {
+        stubEmptyRepositories();
+        ImmunizationCatalog first = service.getCatalog();
+
+        when(ageCategoryRepository.findAll()).thenReturn(List.of(ageCategory("Erwachsene", 6570)));
+        ImmunizationCatalog refreshed = service.refresh();
+
+        assertNotSame(first, refreshed);
+        assertEquals(first.getVersion() + 1, refreshed.getVersion());
+        assertSame(refreshed, service.getCatalog());
+    }
+
+    @Test
+    void refresh_keepsSnapshotAndVersion_whenContentUnchanged() {
+        AgeCategory infant = ageCategory("Säugling", 0);
+        AgeCategory adult = ageCategory("Erwachsene", 6570);
+        stubEmptyRepositories();
+        when(ageCategoryRepository.findAll()).thenReturn(List.of(infant, adult));
+        ImmunizationCatalog first = service.getCatalog();
+
+        // Gleicher Inhalt in anderer Reihenfolge
+        when(ageCategoryRepository.findAll()).thenReturn(List.of(adult, infant));
+        ImmunizationCatalog refreshed = service.refresh();
+
+        assertSame(first, refreshed);
+        assertEquals(first.getVersion(), service.currentVersion());
+
+        // Geänderte Spalte ergibt eine neue Version
+        adult.setAgeMaxDays(36500);
+        assertEquals(first.getVersion() + 1, service.refresh().getVersion());
+    }
+
+    @Test
+    void currentVersion_isZeroUntilLoaded_andFollowsRefresh() {
+        assertEquals(0, service.currentVersion());
+        verifyNoInteractions(planRepository);
+
+        stubEmptyRepositories();
+        ImmunizationCatalog refreshed = service.refresh();
+
+        assertEquals(refreshed.getVersion(), service.currentVersion());
+    }
+
+    @Test
+    void refresh_compilesPlansWithSeriesAndSortedAgeCategories() {
+        AgeCategory adult = new AgeCategory();
+        adult.setId(UUID.randomUUID());
+        adult.setName("Erwachsene");
+        adult.setAgeMinDays(6570);
+
+        AgeCategory infant = new AgeCategory();
+        infant.setId(UUID.randomUUID());
+        infant.setName("Säugling");
+        infant.setAgeMinDays(0);
+        infant.setAgeMaxDays(365);
+
+        UUID vaccineTypeId = UUID.randomUUID();
+        ImmunizationPlan plan = new ImmunizationPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setName("Grundimmunisierung");
+        plan.setVaccineTypeId(vaccineTypeId);
+        plan.setAgeCategoryId(infant.getId());
+
+        ImmunizationPlanSeries s1 = new ImmunizationPlanSeries();
+        s1.setId(UUID.randomUUID());
+        s1.setImmunizationPlanId(plan.getId());
+        s1.setRequiredDoses(2);
+        ImmunizationPlanSeries s2 = new ImmunizationPlanSeries();
+        s2.setId(UUID.randomUUID());
+        s2.setImmunizationPlanId(plan.getId());
+        s2.setRequiredDoses(1);
+
+        when(planRepository.findAll()).thenReturn(List.of(plan));
+        when(seriesRepository.findAll()).thenReturn(List.of(s1, s2));
+        when(ageCategoryRepository.findAll()).thenReturn(List.of(adult, infant));
+        when(vaccineTypeRepository.findAll()).thenReturn(List.of());
+        when(followUpRuleRepository.findAll()).thenReturn(List.of());
+
+        ImmunizationCatalog catalog = service.refresh();
+
+        assertEquals(3, catalog.getPlan(plan.getId()).requiredDoses());
+        assertEquals(2, catalog.getPlan(plan.getId()).series().size());
+        assertEquals("Säugling", catalog.getAgeCategories().get(0).name());
+        assertEquals(1, catalog.findPlans(vaccineTypeId, infant.getId()).size());
+        assertTrue(catalog.findPlans(vaccineTypeId, adult.getId()).isEmpty());
+    }
+
+    private AgeCategory ageCategory(String name, int ageMinDays) {
+        AgeCategory category = new AgeCategory();
+        category.setId(UUID.randomUUID());
+        category.setName(name);
+        category.setAgeMinDays(ageMinDays);
+        return category;
+    }
+
+    private void stubEmptyRepositories() {
+        when(planRepository.findAll()).thenReturn(List.of());
+        when(seriesRepository.findAll()).thenReturn(List.of());
+        when(ageCategoryRepository.findAll()).thenReturn(List.of());
+        when(vaccineTypeRepository.findAll()).thenReturn(List.of());
+        when(followUpRuleRepository.findAll()).thenReturn(List.of());
+    }
+}
@@ -0,0 +1,99 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationForecastPointDto;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository.DueForecastRow;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ForecastGranularityEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImmunizationForecastServiceImplTest {
+
+    @Mock
+    private PendingImmunizationRepository pendingImmunizationRepository;
+
+    @InjectMocks
+    private ImmunizationForecastServiceImpl immunizationForecastService;
+
+    private static DueForecastRow row(LocalDate periodStart, UUID vaccineTypeId, String name, long dueDoses, long userCount) {
+        return new DueForecastRow() {
+            @Override
+            public LocalDate getPeriodStart() {
+                return periodStart;
+            }
+
+            @Override
+            public UUID getVaccineTypeId() {
+                return vaccineTypeId;
+            }
+
+            @Override
+            public String getVaccineTypeName() {
+                return name;
+            }
+
+            @Override
+            public Long getDueDoses() {
+                return dueDoses;
+            }
+
+            @Override
+            public Long getUserCount() {
+                return userCount;
+            }
+        };
+    }
+
+    @Test
+    void streamDueForecast_mapsRowsInOrder_andClosesStream() {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = from.plusMonths(6);
+        UUID mmr = UUID.randomUUID();
+        UUID tetanus = UUID.randomUUID();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Stream<DueForecastRow> rows = Stream.of(
+                row(LocalDate.of(2025, 12, 29), mmr, "MMR", 7, 5),
+                row(LocalDate.of(2025, 12, 29), tetanus, "Tetanus", 2, 2),
+                row(LocalDate.of(2026, 1, 5), mmr, "MMR", 1, 1)
+        ).onClose(() -> closed.set(true));
+        when(pendingImmunizationRepository.streamDueForecast("week", from, to)).thenReturn(rows);
+
+        List<ImmunizationForecastPointDto> points = new ArrayList<>();
+        immunizationForecastService.streamDueForecast(from, to, ForecastGranularityEnum.WEEK, points::add);
+
+        assertEquals(3, points.size());
+        assertEquals(new ImmunizationForecastPointDto(LocalDate.of(2025, 12, 29), mmr, "MMR", 7, 5), points.get(0));
+        assertEquals("Tetanus", points.get(1).vaccineTypeName());
+        assertEquals(LocalDate.of(2026, 1, 5), points.get(2).periodStart());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamDueForecast_emptyRange_throws() {
+        LocalDate day = LocalDate.of(2026, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> immunizationForecastService.streamDueForecast(day, day, ForecastGranularityEnum.DAY, point -> {}));
+
+        verify(pendingImmunizationRepository, never()).streamDueForecast(anyString(), any(), any());
+    }
+}
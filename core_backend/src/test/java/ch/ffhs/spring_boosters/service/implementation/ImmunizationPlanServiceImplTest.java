@@ -4,6 +4,7 @@ import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
 import ch.ffhs.spring_boosters.repository.ImmunizationPlanRepository;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationPlanAlreadyExistsException;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationPlanNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -23,6 +24,9 @@ class ImmunizationPlanServiceImplTest {
     @Mock
     private ImmunizationPlanRepository repository;
 
+    @Mock
+    private ImmunizationCatalogService catalogService;
+
     @InjectMocks
     private ImmunizationPlanServiceImpl service;
 
@@ -80,6 +84,7 @@ class ImmunizationPlanServiceImplTest {
         var saved = service.createImmunizationPlan(p);
         assertNotNull(saved.getId());
         assertEquals("NewP", saved.getName());
+        verify(catalogService).refresh();
     }
 
     @Test
@@ -114,6 +119,7 @@ class ImmunizationPlanServiceImplTest {
 
         var res = service.updateImmunizationPlan(id, update);
         assertEquals("Updated", res.getName());
+        verify(catalogService).refresh();
     }
 
     @Test
@@ -122,6 +128,7 @@ class ImmunizationPlanServiceImplTest {
         when(repository.existsById(id)).thenReturn(true);
         service.deleteImmunizationPlan(id);
         verify(repository).deleteById(id);
+        verify(catalogService).refresh();
     }
 
     @Test
@@ -0,0 +1,103 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ExportFormatEnum;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImmunizationRecordExportServiceImplTest {
+
+    private EmbeddedDatabase database;
+    private ObjectMapper objectMapper;
+    private ImmunizationRecordExportServiceImpl exportService;
+
+    private final UUID vaccineTypeId = UUID.randomUUID();
+    private final UUID planId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE SCHEMA spring_boosters");
+        jdbcTemplate.execute("CREATE TABLE spring_boosters.vaccine_type (id UUID PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE spring_boosters.immunization_plan (id UUID PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("""
+                CREATE TABLE spring_boosters.immunization_record (
+                    id UUID PRIMARY KEY, user_id UUID, vaccine_type_id UUID, immunization_plan_id UUID,
+                    administered_on DATE, dose_order_claimed INT,
+                    created_at TIMESTAMP WITH TIME ZONE, updated_at TIMESTAMP WITH TIME ZONE)
+                """);
+        jdbcTemplate.update("INSERT INTO spring_boosters.vaccine_type VALUES (?, ?)", vaccineTypeId, "Masern, Mumps \"MMR\"");
+        jdbcTemplate.update("INSERT INTO spring_boosters.immunization_plan VALUES (?, ?)", planId, "Grundimmunisierung");
+        jdbcTemplate.update("INSERT INTO spring_boosters.immunization_record VALUES (?, ?, ?, ?, DATE '2025-03-01', 1, "
+                + "TIMESTAMP WITH TIME ZONE '2025-03-01 10:00:00+01', TIMESTAMP WITH TIME ZONE '2025-03-01 10:00:00+01')",
+                UUID.randomUUID(), userId, vaccineTypeId, planId);
+        jdbcTemplate.update("INSERT INTO spring_boosters.immunization_record VALUES (?, ?, ?, ?, DATE '2025-04-01', NULL, NULL, NULL)",
+                UUID.randomUUID(), userId, vaccineTypeId, planId);
+
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ImmunizationRecordExportServiceImpl(jdbcTemplate, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void export_ndjson_writesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportImmunizationRecords(ExportFormatEnum.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            assertEquals(userId.toString(), node.get("userId").asText());
+            assertEquals("Grundimmunisierung", node.get("immunizationPlanName").asText());
+        }
+    }
+
+    @Test
+    void export_csv_writesHeaderAndEscapesFields() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportImmunizationRecords(ExportFormatEnum.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,userId,vaccineTypeId,vaccineTypeName"));
+        assertTrue(lines[1].contains(",\"Masern, Mumps \"\"MMR\"\"\","));
+        assertTrue(lines[1].contains(",2025-03-01,1,") || lines[2].contains(",2025-03-01,1,"));
+        assertTrue(lines[1].endsWith(",2025-04-01,,,") || lines[2].endsWith(",2025-04-01,,,"));
+    }
+
+    @Test
+    void csvField_quotesOnlyWhenNeeded() {
+        assertEquals("MMR", ImmunizationRecordExportServiceImpl.csvField("MMR"));
+        assertEquals("\"a,b\"", ImmunizationRecordExportServiceImpl.csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", ImmunizationRecordExportServiceImpl.csvField("say \"hi\""));
+        assertEquals("", ImmunizationRecordExportServiceImpl.csvField(null));
+    }
+}
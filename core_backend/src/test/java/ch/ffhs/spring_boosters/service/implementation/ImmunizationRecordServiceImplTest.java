@@ -4,11 +4,12 @@ import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
 import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
 import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
 import ch.ffhs.spring_boosters.controller.entity.User;
-import ch.ffhs.spring_boosters.repository.AgeCategoryRepository;
-import ch.ffhs.spring_boosters.repository.ImmunizationPlanRepository;
 import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
 import ch.ffhs.spring_boosters.repository.UserRepository;
 import ch.ffhs.spring_boosters.service.Exception.ImmunizationRecordNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.PendingImmunizationService;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -30,13 +31,13 @@ class ImmunizationRecordServiceImplTest {
     private ImmunizationRecordRepository recordRepository;
 
     @Mock
-    private ImmunizationPlanRepository planRepository;
+    private UserRepository userRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ImmunizationCatalogService catalogService;
 
     @Mock
-    private AgeCategoryRepository ageCategoryRepository;
+    private PendingImmunizationService pendingImmunizationService;
 
     @InjectMocks
     private ImmunizationRecordServiceImpl service;
@@ -98,8 +99,8 @@ class ImmunizationRecordServiceImplTest {
         plan.setAgeCategoryId(ageCategoryId);
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(ageCategoryRepository.findAll()).thenReturn(List.of(ageCategory));
-        when(planRepository.findByVaccineTypeIdAndAgeCategoryId(vt, ageCategoryId)).thenReturn(List.of(plan));
+        when(catalogService.getCatalog()).thenReturn(
+                ImmunizationCatalog.of(1L, List.of(plan), List.of(), List.of(ageCategory), List.of(), List.of()));
         when(recordRepository.save(any())).thenAnswer(i -> {
             ImmunizationRecord arg = i.getArgument(0);
             arg.setId(UUID.randomUUID());
@@ -109,6 +110,7 @@ class ImmunizationRecordServiceImplTest {
         var saved = service.createImmunizationRecord(rec);
         assertNotNull(saved.getId(), "Saved record should have an ID");
         assertEquals(plan.getId(), saved.getImmunizationPlanId(), "Should set immunizationPlanId");
+        verify(pendingImmunizationService).recordAdded(saved);
     }
 
     @Test
@@ -132,18 +134,23 @@ class ImmunizationRecordServiceImplTest {
         rec.setAdministeredOn(LocalDate.of(2020, 6, 15));
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(ageCategoryRepository.findAll()).thenReturn(List.of(ageCategory));
-        when(planRepository.findByVaccineTypeIdAndAgeCategoryId(vt, ageCategoryId)).thenReturn(List.of());
+        when(catalogService.getCatalog()).thenReturn(
+                ImmunizationCatalog.of(1L, List.of(), List.of(), List.of(ageCategory), List.of(), List.of()));
 
         assertThrows(IllegalStateException.class, () -> service.createImmunizationRecord(rec),
             "Should throw IllegalStateException when no plan is found");
+        verifyNoInteractions(pendingImmunizationService);
     }
 
     @Test
     void update_updatesFields() throws Exception {
         UUID id = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
         ImmunizationRecord existing = new ImmunizationRecord();
         existing.setId(id);
+        existing.setUserId(userId);
+        existing.setImmunizationPlanId(planId);
         existing.setDoseOrderClaimed(1);
 
         ImmunizationRecord update = new ImmunizationRecord();
@@ -156,18 +163,24 @@ class ImmunizationRecordServiceImplTest {
 
         var res = service.updateImmunizationRecord(id, update);
         assertEquals(2, res.getDoseOrderClaimed(), "Dose order should be updated to 2");
+        verify(pendingImmunizationService).recordChanged(userId, planId);
     }
 
     @Test
     void delete_found_deletes() throws Exception {
         UUID id = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
         ImmunizationRecord existing = new ImmunizationRecord();
         existing.setId(id);
+        existing.setUserId(userId);
+        existing.setImmunizationPlanId(planId);
 
         when(recordRepository.findById(id)).thenReturn(Optional.of(existing));
 
-        service.deleteImmunizationRecord(UUID.randomUUID(), id);
+        service.deleteImmunizationRecord(userId, id);
         verify(recordRepository).delete(existing);
+        verify(pendingImmunizationService).recordChanged(userId, planId);
     }
 
     @Test
@@ -0,0 +1,174 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.service.implementation.ImmunizationScheduleBuilder.PlanProgress;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImmunizationScheduleBuilderTest {
+
+    private final ImmunizationScheduleBuilder builder = new ImmunizationScheduleBuilder();
+    private final LocalDate today = LocalDate.of(2025, 6, 1);
+
+    private final List<ImmunizationPlan> plans = new ArrayList<>();
+    private final List<ImmunizationPlanSeries> series = new ArrayList<>();
+
+    private AgeCategory category(String name, int min, Integer max) {
+        AgeCategory category = new AgeCategory();
+        category.setId(UUID.randomUUID());
+        category.setName(name);
+        category.setAgeMinDays(min);
+        category.setAgeMaxDays(max);
+        return category;
+    }
+
+    private ImmunizationPlan plan(String name, AgeCategory category, int requiredDoses) {
+        ImmunizationPlan plan = new ImmunizationPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setName(name);
+        plan.setAgeCategoryId(category.getId());
+        plans.add(plan);
+
+        ImmunizationPlanSeries planSeries = new ImmunizationPlanSeries();
+        planSeries.setId(UUID.randomUUID());
+        planSeries.setImmunizationPlanId(plan.getId());
+        planSeries.setRequiredDoses(requiredDoses);
+        series.add(planSeries);
+        return plan;
+    }
+
+    private User user(int ageDays) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("u1");
+        user.setBirthDate(today.minusDays(ageDays));
+        return user;
+    }
+
+    @Test
+    void build_sortsByPriorityThenAge_andCountsWhileBuilding() {
+        // Alter 400 Tage
+        AgeCategory ended = category("Säugling früh", 0, 180);
+        AgeCategory current = category("Kleinkind", 365, 729);
+        AgeCategory upcoming = category("Kind", 450, 1000);
+        ImmunizationPlan endedPlan = plan("A", ended, 2);
+        ImmunizationPlan currentPlan = plan("B", current, 3);
+        ImmunizationPlan upcomingPlan = plan("C", upcoming, 2);
+        ImmunizationPlan completedPlan = plan("D", current, 1);
+
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(1L, plans, series,
+                List.of(ended, current, upcoming), List.of(), List.of());
+        Map<UUID, PlanProgress> progress = Map.of(
+                upcomingPlan.getId(), new PlanProgress(1, null),
+                currentPlan.getId(), new PlanProgress(1, null),
+                endedPlan.getId(), new PlanProgress(1, null),
+                completedPlan.getId(), new PlanProgress(1, null));
+
+        ImmunizationScheduleDto dto = builder.build(user(400), progress, catalog, today);
+
+        assertEquals(3, dto.getTotalPending());
+        assertEquals(List.of("A", "B", "C"), dto.getPendingImmunizations().stream()
+                .map(p -> p.getImmunizationPlanName()).toList());
+        assertEquals(List.of("Überfällig", "Termin vereinbaren", "Bald fällig"), dto.getPendingImmunizations().stream()
+                .map(p -> p.getPriority()).toList());
+        assertEquals(1, dto.getOverdueCount());
+        assertEquals(1, dto.getDueSoonCount());
+        assertEquals(1, dto.getUpcomingDueCount());
+        assertEquals("Unbekannt", dto.getPendingImmunizations().get(0).getVaccineTypeName());
+        assertEquals(today.minusDays(400).plusDays(450), dto.getPendingImmunizations().get(2).getDueDate());
+    }
+
+    @Test
+    void build_withoutProgress_returnsEmptySchedule() {
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(1L, List.of(), List.of(), List.of(), List.of(), List.of());
+
+        ImmunizationScheduleDto dto = builder.build(user(100), Map.of(), catalog, today);
+
+        assertEquals(100, dto.getCurrentAgeDays());
+        assertEquals(0, dto.getTotalPending());
+        assertTrue(dto.getPendingImmunizations().isEmpty());
+    }
+
+    @Test
+    void build_omitsBooster_alreadyReceivedAfterBaseSeries() {
+        // Alter 2000 Tage, Grundimmunisierung mit 400 Tagen, Auffrischung mit 1500 Tagen
+        AgeCategory child = category("Kind", 0, 3650);
+        ImmunizationPlan basePlan = plan("Grundimmunisierung", child, 1);
+        ImmunizationPlan boosterPlan = plan("Auffrischung", child, 1);
+        FollowUpRule rule = new FollowUpRule(basePlan.getId(), boosterPlan.getId(), null, 1);
+        rule.setId(UUID.randomUUID());
+        rule.setMinIntervalDaysSinceLast(365);
+
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(1L, plans, series,
+                List.of(child), List.of(), List.of(rule));
+        LocalDate birthDate = today.minusDays(2000);
+
+        ImmunizationScheduleDto withoutBooster = builder.build(user(2000), Map.of(
+                basePlan.getId(), new PlanProgress(1, birthDate.plusDays(400))), catalog, today);
+        ImmunizationScheduleDto withBooster = builder.build(user(2000), Map.of(
+                basePlan.getId(), new PlanProgress(1, birthDate.plusDays(400)),
+                boosterPlan.getId(), new PlanProgress(1, birthDate.plusDays(1500))), catalog, today);
+
+        assertEquals(List.of("Auffrischung"), withoutBooster.getPendingImmunizations().stream()
+                .map(p -> p.getImmunizationPlanName()).toList());
+        assertEquals(0, withBooster.getTotalPending());
+    }
+
+    @Test
+    void build_omitsRuleDueBeyondLookahead_butNextDueDatesKeepsIt() {
+        // Alter 2000 Tage, Auffrischung erst 10 Jahre nach der Grundimmunisierung mit 1900 Tagen
+        AgeCategory open = category("Ab Kindesalter", 0, null);
+        ImmunizationPlan basePlan = plan("Grundimmunisierung", open, 1);
+        ImmunizationPlan boosterPlan = plan("Auffrischung", open, 1);
+        FollowUpRule rule = new FollowUpRule(basePlan.getId(), boosterPlan.getId(), null, 1);
+        rule.setId(UUID.randomUUID());
+        rule.setMinIntervalDaysSinceLast(3650);
+
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(1L, plans, series,
+                List.of(open), List.of(), List.of(rule));
+        LocalDate birthDate = today.minusDays(2000);
+        Map<UUID, PlanProgress> progress = Map.of(
+                basePlan.getId(), new PlanProgress(1, birthDate.plusDays(1900)));
+
+        assertEquals(0, builder.build(user(2000), progress, catalog, today).getTotalPending());
+        assertEquals(Map.of(boosterPlan.getId(), birthDate.plusDays(5550)),
+                builder.nextDueDates(user(2000), progress, catalog, today));
+    }
+
+    @Test
+    void nextDueDates_ignoresLookahead_andOmitsCompletedOrExpiredPlans() {
+        // Alter 400 Tage
+        AgeCategory expired = category("Säugling", 0, 30);
+        AgeCategory current = category("Kleinkind", 365, 729);
+        AgeCategory later = category("Schulkind", 2190, 4015);
+        ImmunizationPlan expiredPlan = plan("A", expired, 2);
+        ImmunizationPlan completedPlan = plan("B", current, 1);
+        ImmunizationPlan laterPlan = plan("C", later, 2);
+
+        ImmunizationCatalog catalog = ImmunizationCatalog.of(1L, plans, series,
+                List.of(expired, current, later), List.of(), List.of());
+        Map<UUID, PlanProgress> progress = Map.of(
+                expiredPlan.getId(), new PlanProgress(1, null),
+                completedPlan.getId(), new PlanProgress(1, null),
+                laterPlan.getId(), new PlanProgress(1, null));
+        User user = user(400);
+
+        Map<UUID, LocalDate> dueDates = builder.nextDueDates(user, progress, catalog, today);
+
+        assertEquals(Map.of(laterPlan.getId(), user.getBirthDate().plusDays(2190)), dueDates);
+        assertEquals(0, builder.build(user, progress, catalog, today).getTotalPending());
+    }
+}
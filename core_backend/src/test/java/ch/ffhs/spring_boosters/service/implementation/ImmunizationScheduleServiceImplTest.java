@@ -2,17 +2,22 @@ package ch.ffhs.spring_boosters.service.implementation;
 
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
 import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
 import ch.ffhs.spring_boosters.controller.entity.User;
-import ch.ffhs.spring_boosters.repository.AgeCategoryRepository;
-import ch.ffhs.spring_boosters.repository.ImmunizationPlanRepository;
-import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
+import ch.ffhs.spring_boosters.controller.entity.VaccineType;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
 import ch.ffhs.spring_boosters.repository.UserRepository;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
@@ -21,7 +26,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,13 +39,13 @@ class ImmunizationScheduleServiceImplTest {
     private UserRepository userRepository;
 
     @Mock
-    private ImmunizationPlanRepository planRepository;
+    private PendingImmunizationRepository pendingImmunizationRepository;
 
     @Mock
-    private ImmunizationRecordRepository recordRepository;
+    private ImmunizationCatalogService catalogService;
 
-    @Mock
-    private AgeCategoryRepository ageCategoryRepository;
+    @Spy
+    private ImmunizationScheduleBuilder scheduleBuilder = new ImmunizationScheduleBuilder();
 
     @InjectMocks
     private ImmunizationScheduleServiceImpl service;
@@ -59,7 +67,7 @@ class ImmunizationScheduleServiceImplTest {
         user.setEmail("u1@example.com");
 
         when(userRepository.findById(u)).thenReturn(Optional.of(user));
-        when(recordRepository.findByUserId(u)).thenReturn(List.of());
+        when(pendingImmunizationRepository.findByUserId(u)).thenReturn(List.of());
 
         ImmunizationScheduleDto dto = service.getPendingImmunizations(u);
         assertEquals(0, dto.getTotalPending());
@@ -87,9 +95,173 @@ class ImmunizationScheduleServiceImplTest {
         plan.setVaccineType(null);
 
         when(userRepository.findById(u)).thenReturn(Optional.of(user));
-        when(recordRepository.findByUserId(u)).thenReturn(List.of());
+        when(pendingImmunizationRepository.findByUserId(u)).thenReturn(List.of());
 
         ImmunizationScheduleDto dto = service.getPendingImmunizations(u);
         assertEquals(u, dto.getUserId());
     }
+
+    @Test
+    void startedPlan_isResolvedFromCatalog() throws Exception {
+        UUID u = UUID.randomUUID();
+        User user = new User();
+        user.setId(u);
+        user.setUsername("u1");
+        user.setBirthDate(LocalDate.now().minusDays(10));
+
+        AgeCategory cat = new AgeCategory();
+        cat.setId(UUID.randomUUID());
+        cat.setName("Säugling");
+        cat.setAgeMinDays(0);
+        cat.setAgeMaxDays(365);
+
+        VaccineType vaccineType = new VaccineType();
+        vaccineType.setId(UUID.randomUUID());
+        vaccineType.setName("DTPa");
+
+        ImmunizationPlan plan = new ImmunizationPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setName("PlanA");
+        plan.setVaccineTypeId(vaccineType.getId());
+        plan.setAgeCategoryId(cat.getId());
+
+        ImmunizationPlanSeries series = new ImmunizationPlanSeries();
+        series.setId(UUID.randomUUID());
+        series.setImmunizationPlanId(plan.getId());
+        series.setRequiredDoses(3);
+
+        PendingImmunization row = new PendingImmunization(u, plan.getId());
+        row.setCompletedDoses(1);
+        row.setRequiredDoses(3);
+
+        when(userRepository.findById(u)).thenReturn(Optional.of(user));
+        when(pendingImmunizationRepository.findByUserId(u)).thenReturn(List.of(row));
+        when(catalogService.getCatalog()).thenReturn(ImmunizationCatalog.of(
+                1L, List.of(plan), List.of(series), List.of(cat), List.of(vaccineType), List.of()));
+
+        ImmunizationScheduleDto dto = service.getPendingImmunizations(u);
+        assertEquals(1, dto.getTotalPending());
+        assertEquals("DTPa", dto.getPendingImmunizations().get(0).getVaccineTypeName());
+        assertEquals(2, dto.getPendingImmunizations().get(0).getMissingDoses());
+    }
+
+    @Test
+    void followUpRule_makesBoosterDueAfterInterval() throws Exception {
+        UUID u = UUID.randomUUID();
+        User user = new User();
+        user.setId(u);
+        user.setUsername("u1");
+        user.setBirthDate(LocalDate.now().minusDays(400));
+
+        AgeCategory infant = new AgeCategory();
+        infant.setId(UUID.randomUUID());
+        infant.setName("Säugling");
+        infant.setAgeMinDays(0);
+        infant.setAgeMaxDays(364);
+
+        AgeCategory child = new AgeCategory();
+        child.setId(UUID.randomUUID());
+        child.setName("Kind");
+        child.setAgeMinDays(365);
+        child.setAgeMaxDays(4014);
+
+        ImmunizationPlan basePlan = new ImmunizationPlan();
+        basePlan.setId(UUID.randomUUID());
+        basePlan.setName("Grundimmunisierung");
+        basePlan.setAgeCategoryId(infant.getId());
+
+        ImmunizationPlan boosterPlan = new ImmunizationPlan();
+        boosterPlan.setId(UUID.randomUUID());
+        boosterPlan.setName("Auffrischung");
+        boosterPlan.setAgeCategoryId(child.getId());
+
+        ImmunizationPlanSeries baseSeries = new ImmunizationPlanSeries();
+        baseSeries.setId(UUID.randomUUID());
+        baseSeries.setImmunizationPlanId(basePlan.getId());
+        baseSeries.setRequiredDoses(1);
+
+        ImmunizationPlanSeries boosterSeries = new ImmunizationPlanSeries();
+        boosterSeries.setId(UUID.randomUUID());
+        boosterSeries.setImmunizationPlanId(boosterPlan.getId());
+        boosterSeries.setRequiredDoses(1);
+
+        FollowUpRule rule = new FollowUpRule(basePlan.getId(), boosterPlan.getId(), baseSeries.getId(), 1);
+        rule.setId(UUID.randomUUID());
+        rule.setMinIntervalDaysSinceLast(300);
+
+        PendingImmunization row = new PendingImmunization(u, basePlan.getId());
+        row.setCompletedDoses(1);
+        row.setLastAdministeredOn(user.getBirthDate().plusDays(100));
+
+        when(userRepository.findById(u)).thenReturn(Optional.of(user));
+        when(pendingImmunizationRepository.findByUserId(u)).thenReturn(List.of(row));
+        when(catalogService.getCatalog()).thenReturn(ImmunizationCatalog.of(
+                1L, List.of(basePlan, boosterPlan), List.of(baseSeries, boosterSeries),
+                List.of(infant, child), List.of(), List.of(rule)));
+
+        ImmunizationScheduleDto dto = service.getPendingImmunizations(u);
+
+        assertEquals(1, dto.getTotalPending());
+        assertEquals(boosterPlan.getId(), dto.getPendingImmunizations().get(0).getImmunizationPlanId());
+        assertEquals("Auffrischung", dto.getPendingImmunizations().get(0).getReason());
+        assertEquals(LocalDate.now(), dto.getPendingImmunizations().get(0).getDueDate());
+        assertEquals("Termin vereinbaren", dto.getPendingImmunizations().get(0).getPriority());
+    }
+
+    @Test
+    void batch_loadsUsersAndProjectionSetBased_andSkipsUnknownIds() {
+        AgeCategory cat = new AgeCategory();
+        cat.setId(UUID.randomUUID());
+        cat.setName("Säugling");
+        cat.setAgeMinDays(0);
+        cat.setAgeMaxDays(365);
+
+        ImmunizationPlan plan = new ImmunizationPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setName("PlanA");
+        plan.setVaccineTypeId(UUID.randomUUID());
+        plan.setAgeCategoryId(cat.getId());
+
+        ImmunizationPlanSeries series = new ImmunizationPlanSeries();
+        series.setId(UUID.randomUUID());
+        series.setImmunizationPlanId(plan.getId());
+        series.setRequiredDoses(2);
+
+        User withRecord = new User();
+        withRecord.setId(UUID.randomUUID());
+        withRecord.setUsername("u1");
+        withRecord.setBirthDate(LocalDate.now().minusDays(30));
+
+        User withoutRecord = new User();
+        withoutRecord.setId(UUID.randomUUID());
+        withoutRecord.setUsername("u2");
+        withoutRecord.setBirthDate(LocalDate.now().minusDays(60));
+
+        PendingImmunization row = new PendingImmunization(withRecord.getId(), plan.getId());
+        row.setCompletedDoses(1);
+        row.setRequiredDoses(2);
+
+        UUID unknown = UUID.randomUUID();
+        List<UUID> ids = List.of(withoutRecord.getId(), unknown, withRecord.getId());
+
+        when(catalogService.getCatalog()).thenReturn(ImmunizationCatalog.of(
+                1L, List.of(plan), List.of(series), List.of(cat), List.of(), List.of()));
+        when(userRepository.findAllById(ids)).thenReturn(List.of(withRecord, withoutRecord));
+        when(pendingImmunizationRepository.findByUserIdIn(ids)).thenReturn(List.of(row));
+
+        List<ImmunizationScheduleDto> schedules = service.getPendingImmunizations(ids);
+
+        assertEquals(2, schedules.size());
+        assertEquals("u2", schedules.get(0).getUsername());
+        assertEquals(0, schedules.get(0).getTotalPending());
+        assertEquals("u1", schedules.get(1).getUsername());
+        assertEquals(1, schedules.get(1).getTotalPending());
+        verify(userRepository, never()).findById(withRecord.getId());
+    }
+
+    @Test
+    void batch_emptyInput_returnsEmptyWithoutQueries() {
+        assertTrue(service.getPendingImmunizations(List.<UUID>of()).isEmpty());
+        verify(catalogService, never()).getCatalog();
+    }
 }
@@ -0,0 +1,266 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.entity.AgeCategory;
+import ch.ffhs.spring_boosters.controller.entity.FollowUpRule;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlan;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationPlanSeries;
+import ch.ffhs.spring_boosters.controller.entity.ImmunizationRecord;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunization;
+import ch.ffhs.spring_boosters.controller.entity.PendingImmunizationId;
+import ch.ffhs.spring_boosters.controller.entity.User;
+import ch.ffhs.spring_boosters.repository.ImmunizationRecordRepository;
+import ch.ffhs.spring_boosters.repository.PendingImmunizationRepository;
+import ch.ffhs.spring_boosters.repository.UserRepository;
+import ch.ffhs.spring_boosters.service.ImmunizationCatalogService;
+import ch.ffhs.spring_boosters.service.implementation.catalog.ImmunizationCatalog;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.PriorityEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PendingImmunizationServiceImplTest {
+
+    @Mock
+    private PendingImmunizationRepository pendingImmunizationRepository;
+
+    @Mock
+    private ImmunizationRecordRepository recordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ImmunizationCatalogService catalogService;
+
+    @Spy
+    private ImmunizationScheduleBuilder scheduleBuilder = new ImmunizationScheduleBuilder();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PendingImmunizationServiceImpl service;
+
+    private User user;
+    private AgeCategory category;
+    private ImmunizationPlan plan;
+    private ImmunizationPlanSeries planSeries;
+    private ImmunizationCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("u1");
+        user.setBirthDate(LocalDate.now().minusDays(10));
+
+        category = new AgeCategory();
+        category.setId(UUID.randomUUID());
+        category.setName("Säugling");
+        category.setAgeMinDays(0);
+        category.setAgeMaxDays(365);
+
+        plan = new ImmunizationPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setName("PlanA");
+        plan.setVaccineTypeId(UUID.randomUUID());
+        plan.setAgeCategoryId(category.getId());
+
+        planSeries = new ImmunizationPlanSeries();
+        planSeries.setId(UUID.randomUUID());
+        planSeries.setImmunizationPlanId(plan.getId());
+        planSeries.setRequiredDoses(3);
+
+        catalog = ImmunizationCatalog.of(1L, List.of(plan), List.of(planSeries), List.of(category), List.of(), List.of());
+    }
+
+    @Test
+    void recordAdded_newRow_isCreatedWithDueDateAndPriority() {
+        ImmunizationRecord record = new ImmunizationRecord(user.getId(), plan.getVaccineTypeId(), LocalDate.now());
+        record.setImmunizationPlanId(plan.getId());
+
+        when(recordRepository.summarizeDoses(user.getId(), plan.getId())).thenReturn(summary(1L, LocalDate.now()));
+        when(pendingImmunizationRepository.findById(new PendingImmunizationId(user.getId(), plan.getId())))
+                .thenReturn(Optional.empty());
+        when(pendingImmunizationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(pendingImmunizationRepository.findByUserId(user.getId())).thenReturn(List.of());
+        when(userRepository.lockById(user.getId())).thenReturn(Optional.of(user));
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        service.recordAdded(record);
+
+        ArgumentCaptor<PendingImmunization> captor = ArgumentCaptor.forClass(PendingImmunization.class);
+        verify(pendingImmunizationRepository).save(captor.capture());
+        PendingImmunization row = captor.getValue();
+        assertEquals(1, row.getCompletedDoses());
+        assertEquals(3, row.getRequiredDoses());
+        assertEquals(LocalDate.now(), row.getLastAdministeredOn());
+        assertEquals(user.getBirthDate(), row.getDueDate());
+        assertEquals(PriorityEnum.DUE_SOON.name(), row.getPriority());
+    }
+
+    @Test
+    void recordAdded_existingRow_recountsDosesUnderUserLock() {
+        PendingImmunization existing = new PendingImmunization(user.getId(), plan.getId());
+        existing.setCompletedDoses(1);
+        existing.setLastAdministeredOn(LocalDate.now());
+
+        ImmunizationRecord record = new ImmunizationRecord(user.getId(), plan.getVaccineTypeId(), LocalDate.now().minusDays(5));
+        record.setImmunizationPlanId(plan.getId());
+
+        // Eine parallel committete Impfung ist in der Zählung enthalten: 3 statt 1 + 1
+        when(recordRepository.summarizeDoses(user.getId(), plan.getId())).thenReturn(summary(3L, LocalDate.now()));
+        when(pendingImmunizationRepository.findById(new PendingImmunizationId(user.getId(), plan.getId())))
+                .thenReturn(Optional.of(existing));
+        when(pendingImmunizationRepository.save(existing)).thenReturn(existing);
+        when(pendingImmunizationRepository.findByUserId(user.getId())).thenReturn(List.of(existing));
+        when(userRepository.lockById(user.getId())).thenReturn(Optional.of(user));
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        service.recordAdded(record);
+
+        assertEquals(3, existing.getCompletedDoses());
+        assertEquals(LocalDate.now(), existing.getLastAdministeredOn());
+        InOrder inOrder = inOrder(userRepository, recordRepository);
+        inOrder.verify(userRepository).lockById(user.getId());
+        inOrder.verify(recordRepository).summarizeDoses(user.getId(), plan.getId());
+        verify(pendingImmunizationRepository).save(existing);
+    }
+
+    @Test
+    void recordChanged_noDosesLeft_deletesRow() {
+        PendingImmunization existing = new PendingImmunization(user.getId(), plan.getId());
+
+        when(recordRepository.summarizeDoses(user.getId(), plan.getId())).thenReturn(summary(0L, null));
+        when(pendingImmunizationRepository.findById(new PendingImmunizationId(user.getId(), plan.getId())))
+                .thenReturn(Optional.of(existing));
+        when(pendingImmunizationRepository.findByUserId(user.getId())).thenReturn(List.of());
+        when(userRepository.lockById(user.getId())).thenReturn(Optional.of(user));
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        service.recordChanged(user.getId(), plan.getId());
+
+        verify(pendingImmunizationRepository).delete(existing);
+        verify(pendingImmunizationRepository, never()).save(any());
+    }
+
+    @Test
+    void recordChanged_completedPlan_clearsPriority() {
+        PendingImmunization existing = new PendingImmunization(user.getId(), plan.getId());
+        existing.setCompletedDoses(2);
+        existing.setPriority(PriorityEnum.DUE_SOON.name());
+
+        when(recordRepository.summarizeDoses(user.getId(), plan.getId())).thenReturn(summary(3L, LocalDate.now()));
+        when(pendingImmunizationRepository.findById(new PendingImmunizationId(user.getId(), plan.getId())))
+                .thenReturn(Optional.of(existing));
+        when(pendingImmunizationRepository.save(existing)).thenReturn(existing);
+        when(pendingImmunizationRepository.findByUserId(user.getId())).thenReturn(List.of(existing));
+        when(userRepository.lockById(user.getId())).thenReturn(Optional.of(user));
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        service.recordChanged(user.getId(), plan.getId());
+
+        assertEquals(3, existing.getCompletedDoses());
+        assertNull(existing.getPriority());
+        assertNull(existing.getDueDate());
+        verify(pendingImmunizationRepository).save(existing);
+    }
+
+    @Test
+    void recordChanged_completedPlanWithFollowUpRule_createsRowForBooster() {
+        ImmunizationPlan booster = new ImmunizationPlan();
+        booster.setId(UUID.randomUUID());
+        booster.setName("Auffrischung");
+        booster.setAgeCategoryId(plan.getAgeCategoryId());
+        ImmunizationPlanSeries boosterSeries = new ImmunizationPlanSeries();
+        boosterSeries.setId(UUID.randomUUID());
+        boosterSeries.setImmunizationPlanId(booster.getId());
+        boosterSeries.setRequiredDoses(1);
+        FollowUpRule rule = new FollowUpRule(plan.getId(), booster.getId(), null, 3);
+        rule.setId(UUID.randomUUID());
+        rule.setMinIntervalDaysSinceLast(300);
+        catalog = ImmunizationCatalog.of(2L, List.of(plan, booster), List.of(planSeries, boosterSeries),
+                List.of(category), List.of(), List.of(rule));
+
+        PendingImmunization existing = new PendingImmunization(user.getId(), plan.getId());
+        existing.setCompletedDoses(2);
+
+        when(recordRepository.summarizeDoses(user.getId(), plan.getId())).thenReturn(summary(3L, LocalDate.now()));
+        when(pendingImmunizationRepository.findById(new PendingImmunizationId(user.getId(), plan.getId())))
+                .thenReturn(Optional.of(existing));
+        when(pendingImmunizationRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(pendingImmunizationRepository.findByUserId(user.getId())).thenReturn(List.of(existing));
+        when(userRepository.lockById(user.getId())).thenReturn(Optional.of(user));
+        when(catalogService.getCatalog()).thenReturn(catalog);
+
+        service.recordChanged(user.getId(), plan.getId());
+
+        ArgumentCaptor<PendingImmunization> captor = ArgumentCaptor.forClass(PendingImmunization.class);
+        verify(pendingImmunizationRepository, times(2)).save(captor.capture());
+        PendingImmunization boosterRow = captor.getAllValues().get(1);
+        assertEquals(booster.getId(), boosterRow.getImmunizationPlanId());
+        assertEquals(0, boosterRow.getCompletedDoses());
+        assertEquals(1, boosterRow.getRequiredDoses());
+        // Fälligkeit liegt ausserhalb des Vorschau-Fensters: due_date gesetzt, keine Priorität
+        assertEquals(LocalDate.now().plusDays(300), boosterRow.getDueDate());
+        assertNull(boosterRow.getPriority());
+        assertNull(existing.getDueDate());
+    }
+
+    @Test
+    void refreshPriorities_recomputesRowsPageByPage() {
+        PendingImmunization row = new PendingImmunization(user.getId(), plan.getId());
+        row.setCompletedDoses(1);
+
+        when(catalogService.getCatalog()).thenReturn(catalog);
+        when(pendingImmunizationRepository.findAllBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(row), PageRequest.of(0, 500), false));
+        when(pendingImmunizationRepository.findByUserIdIn(List.of(user.getId()))).thenReturn(List.of(row));
+        when(userRepository.lockAllById(List.of(user.getId()))).thenReturn(List.of(user));
+
+        int processed = service.refreshPriorities();
+
+        assertEquals(1, processed);
+        assertEquals(3, row.getRequiredDoses());
+        assertEquals(PriorityEnum.DUE_SOON.name(), row.getPriority());
+    }
+
+    private ImmunizationRecordRepository.DoseSummary summary(Long completedDoses, LocalDate lastAdministeredOn) {
+        return new ImmunizationRecordRepository.DoseSummary() {
+            @Override
+            public Long getCompletedDoses() {
+                return completedDoses;
+            }
+
+            @Override
+            public LocalDate getLastAdministeredOn() {
+                return lastAdministeredOn;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
+import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderDigest;
+import ch.ffhs.spring_boosters.repository.ReminderDigestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderDigestServiceImplTest {
+
+    private static final LocalDate DUE = LocalDate.of(2025, 11, 1);
+
+    @Mock
+    private ReminderDigestRepository digestRepository;
+
+    private ReminderDigestServiceImpl digestService;
+
+    private final UUID firstPlan = UUID.randomUUID();
+    private final UUID secondPlan = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        digestService = new ReminderDigestServiceImpl(digestRepository, 28);
+    }
+
+    @Test
+    void digest_isIndependentOfOrder() {
+        PendingImmunizationDto first = pending(firstPlan, "Überfällig", DUE);
+        PendingImmunizationDto second = pending(secondPlan, "Bald fällig", DUE.plusDays(10));
+
+        assertEquals(digestService.digest(schedule(first, second)), digestService.digest(schedule(second, first)));
+    }
+
+    @Test
+    void digest_changes_whenDueDatePriorityOrPlansChange() {
+        long digest = digestService.digest(schedule(pending(firstPlan, "Überfällig", DUE)));
+
+        assertNotEquals(digest, digestService.digest(schedule(pending(firstPlan, "Überfällig", DUE.plusDays(1)))));
+        assertNotEquals(digest, digestService.digest(schedule(pending(firstPlan, "Bald fällig", DUE))));
+        assertNotEquals(digest, digestService.digest(schedule(pending(secondPlan, "Überfällig", DUE))));
+        assertNotEquals(digest, digestService.digest(schedule(pending(firstPlan, "Überfällig", DUE),
+                pending(secondPlan, "Überfällig", DUE))));
+    }
+
+    @Test
+    void findDue_skipsOnlyUnchangedRecentlySentReminders() {
+        UUID neverSent = UUID.randomUUID();
+        UUID unchanged = UUID.randomUUID();
+        UUID changed = UUID.randomUUID();
+        UUID unchangedButOld = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        when(digestRepository.findAllById(anyIterable())).thenReturn(List.of(
+                new ReminderDigest(unchanged, 1L, now.minusDays(7)),
+                new ReminderDigest(changed, 1L, now.minusDays(7)),
+                new ReminderDigest(unchangedButOld, 1L, now.minusDays(29))));
+
+        Set<UUID> due = digestService.findDue(Map.of(neverSent, 1L, unchanged, 1L, changed, 2L, unchangedButOld, 1L));
+
+        assertEquals(Set.of(neverSent, changed, unchangedButOld), due);
+    }
+
+    @Test
+    void findDue_returnsAll_whenResendIntervalIsZero() {
+        ReminderDigestServiceImpl alwaysSend = new ReminderDigestServiceImpl(digestRepository, 0);
+        UUID userId = UUID.randomUUID();
+        when(digestRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(new ReminderDigest(userId, 1L, OffsetDateTime.now().minusSeconds(1))));
+
+        assertEquals(Set.of(userId), alwaysSend.findDue(Map.of(userId, 1L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordSent_updatesExistingAndCreatesMissingRows() {
+        UUID existingUser = UUID.randomUUID();
+        UUID newUser = UUID.randomUUID();
+        OffsetDateTime lastWeek = OffsetDateTime.now().minusDays(7);
+        ReminderDigest existing = new ReminderDigest(existingUser, 1L, lastWeek);
+        when(digestRepository.findAllById(anyIterable())).thenReturn(List.of(existing));
+
+        digestService.recordSent(Map.of(existingUser, 2L, newUser, 3L));
+
+        assertEquals(2L, existing.getDigest());
+        assertTrue(existing.getLastSentAt().isAfter(lastWeek));
+        ArgumentCaptor<List<ReminderDigest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(digestRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(newUser, captor.getValue().getFirst().getUserId());
+        assertEquals(3L, captor.getValue().getFirst().getDigest());
+    }
+
+    @Test
+    void constructor_rejectsNegativeResendInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderDigestServiceImpl(digestRepository, -1));
+    }
+
+    private ImmunizationScheduleDto schedule(PendingImmunizationDto... pending) {
+        ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
+        schedule.setPendingImmunizations(List.of(pending));
+        schedule.setTotalPending(pending.length);
+        return schedule;
+    }
+
+    private PendingImmunizationDto pending(UUID planId, String priority, LocalDate dueDate) {
+        PendingImmunizationDto pending = new PendingImmunizationDto();
+        pending.setImmunizationPlanId(planId);
+        pending.setPriority(priority);
+        pending.setReason("Auffrischung");
+        pending.setDueDate(dueDate);
+        return pending;
+    }
+}
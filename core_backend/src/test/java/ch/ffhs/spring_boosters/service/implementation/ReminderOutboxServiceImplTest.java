@@ -0,0 +1,338 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchItemResultDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchRequestDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailBatchResponseDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationEmailRequestDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationVaccinationDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderOutboxEntry;
+import ch.ffhs.spring_boosters.repository.ReminderOutboxRepository;
+import ch.ffhs.spring_boosters.service.ReminderDigestService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderOutboxStatusEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderOutboxServiceImplTest {
+
+    private static final String BATCH_URL = "http://host:8082/api/v1/email/send-batch";
+
+    @Mock
+    private ReminderOutboxRepository outboxRepository;
+
+    @Mock
+    private ReminderDigestService digestService;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReminderOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = createService(3);
+    }
+
+    private ReminderOutboxServiceImpl createService(int maxAttempts) {
+        return new ReminderOutboxServiceImpl(outboxRepository, digestService, restTemplate, objectMapper,
+                transactionManager, "host", 8082, "/api/v1/email/send-batch", 10, maxAttempts, 1000, 3000, 60000);
+    }
+
+    @Test
+    void enqueue_storesSerializedRequestPerUser() throws Exception {
+        UUID userId = UUID.randomUUID();
+        NotificationEmailRequestDto request = request("user@example.com");
+
+        int enqueued = outboxService.enqueue(Map.of(userId, request), Map.of(userId, 42L));
+
+        assertEquals(1, enqueued);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReminderOutboxEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(captor.capture());
+        ReminderOutboxEntry entry = captor.getValue().getFirst();
+        assertEquals(userId, entry.getUserId());
+        assertEquals(ReminderOutboxStatusEnum.PENDING, entry.getStatus());
+        assertNotNull(entry.getNextAttemptAt());
+        assertEquals(request, objectMapper.readValue(entry.getPayload(), NotificationEmailRequestDto.class));
+        assertEquals(42L, entry.getDigest());
+        // Der Digest gilt erst nach dem Versand als gespeichert
+        verifyNoInteractions(digestService);
+    }
+
+    @Test
+    void enqueue_skipsUserWithOpenEntry() {
+        UUID open = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        when(outboxRepository.findUserIdsByStatus(eq(ReminderOutboxStatusEnum.PENDING), anyCollection()))
+                .thenReturn(Set.of(open));
+
+        int enqueued = outboxService.enqueue(Map.of(open, request("a@example.com"), fresh, request("b@example.com")),
+                Map.of(open, 1L, fresh, 2L));
+
+        assertEquals(1, enqueued);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReminderOutboxEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(captor.capture());
+        assertEquals(List.of(fresh), captor.getValue().stream().map(ReminderOutboxEntry::getUserId).toList());
+    }
+
+    @Test
+    void relayBatch_returnsZero_whenNothingDue() {
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of());
+
+        assertEquals(0, outboxService.relayBatch());
+
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void relayBatch_marksSentAndSchedulesRetry_perItemResult() throws Exception {
+        ReminderOutboxEntry delivered = entry("a@example.com");
+        ReminderOutboxEntry rejected = entry("b@example.com");
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(delivered, rejected));
+        when(restTemplate.postForObject(eq(BATCH_URL), any(NotificationEmailBatchRequestDto.class),
+                eq(NotificationEmailBatchResponseDto.class)))
+                .thenReturn(new NotificationEmailBatchResponseDto(2, 1, 1, List.of(
+                        new NotificationEmailBatchItemResultDto(0, "a@example.com", true, "ok"),
+                        new NotificationEmailBatchItemResultDto(1, "b@example.com", false, "Mailbox voll")), null));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        assertEquals(2, outboxService.relayBatch());
+
+        assertEquals(ReminderOutboxStatusEnum.SENT, delivered.getStatus());
+        assertNotNull(delivered.getSentAt());
+        assertEquals(ReminderOutboxStatusEnum.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertEquals("Mailbox voll", rejected.getLastError());
+        assertFalse(rejected.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+        // Digest nur für den zugestellten Eintrag
+        verify(digestService).recordSent(Map.of(delivered.getUserId(), delivered.getDigest()));
+    }
+
+    @Test
+    void relayBatch_leasesEntries_andSendsOutsideTransaction() throws Exception {
+        ReminderOutboxEntry entry = entry("a@example.com");
+        OffsetDateTime before = OffsetDateTime.now();
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenAnswer(invocation -> {
+            // Beim Holen ist die Transaktion offen, der Versand hat noch nicht begonnen
+            verifyNoInteractions(restTemplate);
+            return List.of(entry);
+        });
+        when(restTemplate.postForObject(eq(BATCH_URL), any(NotificationEmailBatchRequestDto.class),
+                eq(NotificationEmailBatchResponseDto.class)))
+                .thenAnswer(invocation -> {
+                    // Lease gesetzt, Transaktion zum Holen bereits abgeschlossen
+                    assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(60)));
+                    verify(transactionManager, times(1)).commit(any());
+                    return new NotificationEmailBatchResponseDto(1, 1, 0, List.of(
+                            new NotificationEmailBatchItemResultDto(0, "a@example.com", true, "ok")), null);
+                });
+
+        outboxService.relayBatch();
+
+        InOrder inOrder = inOrder(transactionManager, restTemplate, outboxRepository);
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(restTemplate).postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class));
+        inOrder.verify(transactionManager).getTransaction(any(TransactionDefinition.class));
+        inOrder.verify(outboxRepository).saveAll(List.of(entry));
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(ReminderOutboxStatusEnum.SENT, entry.getStatus());
+    }
+
+    @Test
+    void relayBatch_sendsEntryIdAsIdempotencyKey() throws Exception {
+        ReminderOutboxEntry first = entry("a@example.com");
+        ReminderOutboxEntry second = entry("b@example.com");
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(first, second));
+        when(restTemplate.postForObject(eq(BATCH_URL), any(NotificationEmailBatchRequestDto.class),
+                eq(NotificationEmailBatchResponseDto.class)))
+                .thenReturn(new NotificationEmailBatchResponseDto(2, 2, 0, List.of(
+                        new NotificationEmailBatchItemResultDto(0, "a@example.com", true, "ok"),
+                        new NotificationEmailBatchItemResultDto(1, "b@example.com", true, "ok")), null));
+
+        outboxService.relayBatch();
+
+        ArgumentCaptor<NotificationEmailBatchRequestDto> captor = ArgumentCaptor.forClass(NotificationEmailBatchRequestDto.class);
+        verify(restTemplate).postForObject(eq(BATCH_URL), captor.capture(), eq(NotificationEmailBatchResponseDto.class));
+        assertEquals(List.of("reminder-outbox:" + first.getId(), "reminder-outbox:" + second.getId()),
+                captor.getValue().idempotencyKeys());
+    }
+
+    @Test
+    void relayBatch_retriesWholeBatchWithBackoff_whenServiceUnavailable() throws Exception {
+        ReminderOutboxEntry first = entry("a@example.com");
+        ReminderOutboxEntry second = entry("b@example.com");
+        second.setAttempts(1);
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(first, second));
+        when(restTemplate.postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        outboxService.relayBatch();
+
+        assertEquals(ReminderOutboxStatusEnum.PENDING, first.getStatus());
+        assertEquals(1, first.getAttempts());
+        assertFalse(first.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+        assertEquals(2, second.getAttempts());
+        assertFalse(second.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+    }
+
+    @Test
+    void relayBatch_marksFailed_afterMaxAttempts() throws Exception {
+        ReminderOutboxEntry entry = entry("a@example.com");
+        entry.setAttempts(2);
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(entry));
+        when(restTemplate.postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        outboxService.relayBatch();
+
+        assertEquals(ReminderOutboxStatusEnum.FAILED, entry.getStatus());
+        assertEquals(3, entry.getAttempts());
+        verifyNoInteractions(digestService);
+    }
+
+    @Test
+    void relayBatch_isolatesInvalidEntry_whenBatchIsRejected() throws Exception {
+        ReminderOutboxEntry valid = entry("a@example.com");
+        ReminderOutboxEntry invalid = entry("kein-email");
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(valid, invalid));
+        when(restTemplate.postForObject(anyString(), any(NotificationEmailBatchRequestDto.class),
+                eq(NotificationEmailBatchResponseDto.class)))
+                .thenAnswer(invocation -> {
+                    NotificationEmailBatchRequestDto batch = invocation.getArgument(1);
+                    if (batch.requests().stream().anyMatch(r -> !r.recipientEmail().contains("@"))) {
+                        throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+                    }
+                    return new NotificationEmailBatchResponseDto(1, 1, 0, List.of(
+                            new NotificationEmailBatchItemResultDto(0, "a@example.com", true, "ok")), null);
+                });
+
+        outboxService.relayBatch();
+
+        assertEquals(ReminderOutboxStatusEnum.SENT, valid.getStatus());
+        assertEquals(ReminderOutboxStatusEnum.FAILED, invalid.getStatus());
+        verify(restTemplate, times(3)).postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class));
+    }
+
+    @Test
+    void relayBatch_defersWithoutAttempt_whenRateLimited() throws Exception {
+        ReminderOutboxEntry first = entry("a@example.com");
+        ReminderOutboxEntry second = entry("b@example.com");
+        second.setAttempts(2);
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(first, second));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "120");
+        when(restTemplate.postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        headers, new byte[0], null));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        outboxService.relayBatch();
+
+        // Kein Einzelversand wie bei anderen 4xx und kein Fehlversuch
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class));
+        assertEquals(ReminderOutboxStatusEnum.PENDING, first.getStatus());
+        assertEquals(0, first.getAttempts());
+        assertEquals(2, second.getAttempts());
+        assertFalse(first.getNextAttemptAt().isBefore(before.plusSeconds(120)));
+        assertNotNull(first.getLastError());
+        assertTrue(outboxService.isThrottled());
+    }
+
+    @Test
+    void relayBatch_defersWithoutAttempt_whenKeyStillInProgress() throws Exception {
+        ReminderOutboxEntry entry = entry("a@example.com");
+        entry.setAttempts(1);
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(entry));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        when(restTemplate.postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", headers, new byte[0], null));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        outboxService.relayBatch();
+
+        // Weder Einzelversand noch Fehlversuch, und der Relay pausiert nicht
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class));
+        assertEquals(ReminderOutboxStatusEnum.PENDING, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+        assertFalse(outboxService.isThrottled());
+    }
+
+    @Test
+    void scheduledRelay_skips_whileThrottled() throws Exception {
+        when(outboxRepository.lockDueEntries(any(OffsetDateTime.class), eq(10))).thenReturn(List.of(entry("a@example.com")));
+        when(restTemplate.postForObject(anyString(), any(), eq(NotificationEmailBatchResponseDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        new HttpHeaders(), new byte[0], null));
+        outboxService.relayBatch();
+
+        outboxService.scheduledRelay();
+
+        // Ohne Retry-After gilt initial-backoff (1 s), in dieser Zeit wird nichts geholt
+        verify(outboxRepository, times(1)).lockDueEntries(any(OffsetDateTime.class), eq(10));
+    }
+
+    @Test
+    void backoff_doublesPerAttempt_andIsCapped() {
+        assertEquals(Duration.ofSeconds(1), outboxService.backoff(1));
+        assertEquals(Duration.ofSeconds(2), outboxService.backoff(2));
+        assertEquals(Duration.ofSeconds(3), outboxService.backoff(3));
+        assertEquals(Duration.ofSeconds(3), outboxService.backoff(40));
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveMaxAttempts() {
+        assertThrows(IllegalArgumentException.class, () -> createService(0));
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveLease() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderOutboxServiceImpl(outboxRepository, digestService,
+                restTemplate, objectMapper, transactionManager, "host", 8082, "/api/v1/email/send-batch", 10, 3, 1000, 3000, 0));
+    }
+
+    private ReminderOutboxEntry entry(String email) throws Exception {
+        ReminderOutboxEntry entry = new ReminderOutboxEntry(UUID.randomUUID(),
+                objectMapper.writeValueAsString(request(email)), OffsetDateTime.now(), (long) email.hashCode());
+        entry.setId(UUID.randomUUID());
+        return entry;
+    }
+
+    private NotificationEmailRequestDto request(String email) {
+        return new NotificationEmailRequestDto(email, "Test", "Impf-Erinnerung",
+                List.of(new NotificationVaccinationDto("Tetanus", "2025-12-31", "Überfällig", "Auffrischung")));
+    }
+}
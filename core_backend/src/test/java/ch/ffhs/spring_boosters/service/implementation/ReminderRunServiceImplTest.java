@@ -0,0 +1,128 @@
+package ch.ffhs.spring_boosters.service.implementation;
+
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
+import ch.ffhs.spring_boosters.repository.ReminderRunRepository;
+import ch.ffhs.spring_boosters.repository.ReminderRunShardRepository;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderRunStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderRunServiceImplTest {
+
+    @Mock
+    private ReminderRunRepository runRepository;
+
+    @Mock
+    private ReminderRunShardRepository shardRepository;
+
+    private ReminderRunServiceImpl runService;
+
+    @BeforeEach
+    void setUp() {
+        runService = new ReminderRunServiceImpl(runRepository, shardRepository, 4, 60000);
+    }
+
+    @Test
+    void shardBounds_coverWholeIdRangeWithoutGaps() {
+        assertEquals(new UUID(0L, 0L), ReminderRunServiceImpl.lowerBound(0, 4));
+        assertEquals(UUID.fromString("3fffffff-ffff-ffff-ffff-ffffffffffff"), ReminderRunServiceImpl.upperBound(0, 4));
+        assertEquals(UUID.fromString("40000000-0000-0000-0000-000000000000"), ReminderRunServiceImpl.lowerBound(1, 4));
+        assertEquals(UUID.fromString("c0000000-0000-0000-0000-000000000000"), ReminderRunServiceImpl.lowerBound(3, 4));
+        assertEquals(UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff"), ReminderRunServiceImpl.upperBound(3, 4));
+        assertEquals(ReminderRunServiceImpl.upperBound(0, 1), ReminderRunServiceImpl.upperBound(2, 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startRun_createsShards_whenRunIsNew() {
+        ReminderRun run = new ReminderRun();
+        when(runRepository.insertIfAbsent(any(UUID.class), eq("2025-10-19"), eq(4), any(OffsetDateTime.class))).thenReturn(1);
+        when(runRepository.findByRunKey("2025-10-19")).thenReturn(Optional.of(run));
+
+        assertSame(run, runService.startRun("2025-10-19"));
+
+        ArgumentCaptor<List<ReminderRunShard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(shardRepository).saveAll(captor.capture());
+        List<ReminderRunShard> shards = captor.getValue();
+        assertEquals(4, shards.size());
+        assertEquals(List.of(0, 1, 2, 3), shards.stream().map(ReminderRunShard::getShardNo).toList());
+        assertTrue(shards.stream().allMatch(s -> s.getStatus() == ReminderRunStatusEnum.PENDING));
+    }
+
+    @Test
+    void startRun_joinsExistingRun() {
+        ReminderRun run = new ReminderRun();
+        when(runRepository.insertIfAbsent(any(UUID.class), eq("2025-10-19"), eq(4), any(OffsetDateTime.class))).thenReturn(0);
+        when(runRepository.findByRunKey("2025-10-19")).thenReturn(Optional.of(run));
+
+        assertSame(run, runService.startRun("2025-10-19"));
+
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void claimShard_setsLease() {
+        UUID runId = UUID.randomUUID();
+        ReminderRunShard shard = new ReminderRunShard(runId, 2, UUID.randomUUID(), UUID.randomUUID());
+        when(shardRepository.lockClaimableShard(eq(runId), any(OffsetDateTime.class))).thenReturn(Optional.of(shard));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        Optional<ReminderRunShard> claimed = runService.claimShard(runId, "node-1");
+
+        assertTrue(claimed.isPresent());
+        assertEquals(ReminderRunStatusEnum.RUNNING, shard.getStatus());
+        assertEquals("node-1", shard.getLeaseOwner());
+        assertFalse(shard.getLeaseUntil().isBefore(before.plusSeconds(60)));
+    }
+
+    @Test
+    void completeShard_completesRun_whenOwnerHoldsLease() {
+        ReminderRunShard shard = new ReminderRunShard(UUID.randomUUID(), 0, UUID.randomUUID(), UUID.randomUUID());
+        shard.setId(UUID.randomUUID());
+        shard.setLeaseOwner("node-1");
+        when(shardRepository.findById(shard.getId())).thenReturn(Optional.of(shard));
+        when(runRepository.completeIfAllShardsCompleted(eq(shard.getRunId()), eq(ReminderRunStatusEnum.COMPLETED),
+                any(OffsetDateTime.class))).thenReturn(1);
+
+        runService.completeShard(shard.getId(), "node-1");
+
+        assertEquals(ReminderRunStatusEnum.COMPLETED, shard.getStatus());
+        assertNull(shard.getLeaseOwner());
+        verify(runRepository).completeIfAllShardsCompleted(eq(shard.getRunId()), eq(ReminderRunStatusEnum.COMPLETED),
+                any(OffsetDateTime.class));
+    }
+
+    @Test
+    void completeShard_ignoresShard_whenLeaseWasTakenOver() {
+        ReminderRunShard shard = new ReminderRunShard(UUID.randomUUID(), 0, UUID.randomUUID(), UUID.randomUUID());
+        shard.setId(UUID.randomUUID());
+        shard.setLeaseOwner("node-2");
+        when(shardRepository.findById(shard.getId())).thenReturn(Optional.of(shard));
+
+        runService.completeShard(shard.getId(), "node-1");
+
+        assertNotEquals(ReminderRunStatusEnum.COMPLETED, shard.getStatus());
+        verifyNoInteractions(runRepository);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveShardCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReminderRunServiceImpl(runRepository, shardRepository, 0, 60000));
+    }
+}
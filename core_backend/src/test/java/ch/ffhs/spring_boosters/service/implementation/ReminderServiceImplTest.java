@@ -2,22 +2,37 @@ package ch.ffhs.spring_boosters.service.implementation;
 
 import ch.ffhs.spring_boosters.controller.dto.ImmunizationScheduleDto;
 import ch.ffhs.spring_boosters.controller.dto.NotificationEmailRequestDto;
+import ch.ffhs.spring_boosters.controller.dto.NotificationVaccinationDto;
 import ch.ffhs.spring_boosters.controller.dto.PendingImmunizationDto;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRun;
+import ch.ffhs.spring_boosters.controller.entity.ReminderRunShard;
 import ch.ffhs.spring_boosters.controller.entity.User;
 import ch.ffhs.spring_boosters.repository.UserRepository;
 import ch.ffhs.spring_boosters.service.Exception.UserNotFoundException;
+import ch.ffhs.spring_boosters.service.ReminderDigestService;
+import ch.ffhs.spring_boosters.service.ReminderOutboxService;
+import ch.ffhs.spring_boosters.service.ReminderRunService;
+import ch.ffhs.spring_boosters.service.implementation.enumerator.ReminderDispatchModeEnum;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,7 +40,13 @@ class ReminderServiceImplTest {
 
     private UserRepository userRepository;
     private ImmunizationScheduleServiceImpl immunizationScheduleService;
-    private RestTemplate restTemplate;
+    private ReminderOutboxService reminderOutboxService;
+    private ReminderRunService reminderRunService;
+    private ReminderDigestService reminderDigestService;
+
+    private final ReminderRun run = new ReminderRun();
+    private final ReminderRunShard shard = new ReminderRunShard(UUID.randomUUID(), 0,
+            ReminderRunServiceImpl.lowerBound(0, 1), ReminderRunServiceImpl.upperBound(0, 1));
 
     private ReminderServiceImpl reminderService;
 
@@ -33,45 +54,63 @@ class ReminderServiceImplTest {
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
         immunizationScheduleService = Mockito.mock(ImmunizationScheduleServiceImpl.class);
-        restTemplate = Mockito.mock(RestTemplate.class);
+        reminderOutboxService = Mockito.mock(ReminderOutboxService.class);
+        reminderRunService = Mockito.mock(ReminderRunService.class);
+        reminderDigestService = Mockito.mock(ReminderDigestService.class);
+
+        // Ein Lauf mit einem Shard über alle ids, den dieser Knoten übernimmt
+        run.setId(shard.getRunId());
+        shard.setId(UUID.randomUUID());
+        when(userRepository.existsByRole("USER")).thenReturn(true);
+        when(reminderRunService.startRun(anyString())).thenReturn(run);
+        when(reminderRunService.claimShard(run.getId(), "node-1")).thenReturn(Optional.of(shard), Optional.empty());
+        when(reminderRunService.checkpoint(eq(shard.getId()), eq("node-1"), any(UUID.class),
+                anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(true);
+        // Standardmässig gelten alle Erinnerungen als geändert und werden abgelegt
+        when(reminderDigestService.findDue(anyMap())).thenAnswer(invocation -> invocation.<Map<UUID, Long>>getArgument(0).keySet());
+        when(reminderOutboxService.enqueue(anyMap(), anyMap())).thenAnswer(invocation -> invocation.<Map<?, ?>>getArgument(0).size());
 
         reminderService = new ReminderServiceImpl(
                 userRepository,
                 immunizationScheduleService,
-                restTemplate,
-                "notification-service-host",
-                8082,
-                "/api/v1/email/send"
+                reminderOutboxService,
+                reminderRunService,
+                reminderDigestService,
+                "node-1",
+                2,
+                500,
+                ReminderDispatchModeEnum.SINGLE,
+                200
         );
     }
 
     @Test
     void sendReminders_throwsUserNotFoundException_whenNoUsersFound() {
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.empty());
+        when(userRepository.existsByRole("USER")).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> reminderService.sendReminders());
 
-        verify(userRepository, times(1)).findAllByRole("USER");
-        verifyNoInteractions(immunizationScheduleService, restTemplate);
+        verify(userRepository, times(1)).existsByRole("USER");
+        verifyNoInteractions(immunizationScheduleService, reminderOutboxService, reminderRunService);
     }
 
     @Test
     void sendReminders_skipsUser_whenScheduleIsNull() throws Exception {
         User user = createUser();
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.of(List.of(user)));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
         when(immunizationScheduleService.getPendingImmunizations(user.getId()))
                 .thenReturn(null);
 
         reminderService.sendReminders();
 
         verify(immunizationScheduleService, times(1)).getPendingImmunizations(user.getId());
-        verifyNoInteractions(restTemplate);
+        verifyNoInteractions(reminderOutboxService);
     }
 
     @Test
     void sendReminders_skipsUser_whenPendingListIsNull() throws Exception {
         User user = createUser();
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.of(List.of(user)));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
 
         ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
         schedule.setPendingImmunizations(null);
@@ -82,13 +121,13 @@ class ReminderServiceImplTest {
         reminderService.sendReminders();
 
         verify(immunizationScheduleService, times(1)).getPendingImmunizations(user.getId());
-        verifyNoInteractions(restTemplate);
+        verifyNoInteractions(reminderOutboxService);
     }
 
     @Test
     void sendReminders_skipsUser_whenPendingListIsEmpty() throws Exception {
         User user = createUser();
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.of(List.of(user)));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
 
         ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
         schedule.setPendingImmunizations(Collections.emptyList());
@@ -99,13 +138,13 @@ class ReminderServiceImplTest {
         reminderService.sendReminders();
 
         verify(immunizationScheduleService, times(1)).getPendingImmunizations(user.getId());
-        verifyNoInteractions(restTemplate);
+        verifyNoInteractions(reminderOutboxService);
     }
 
     @Test
     void sendReminders_skipsUser_whenTotalPendingIsZero() throws Exception {
         User user = createUser();
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.of(List.of(user)));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
 
         ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
         schedule.setPendingImmunizations(List.of(createPendingImmunization()));
@@ -117,13 +156,13 @@ class ReminderServiceImplTest {
         reminderService.sendReminders();
 
         verify(immunizationScheduleService, times(1)).getPendingImmunizations(user.getId());
-        verifyNoInteractions(restTemplate);
+        verifyNoInteractions(reminderOutboxService);
     }
 
     @Test
-    void sendReminders_logsError_whenRestTemplateThrowsException() throws Exception {
+    void sendReminders_logsError_whenOutboxThrowsException() throws Exception {
         User user = createUser();
-        when(userRepository.findAllByRole("USER")).thenReturn(Optional.of(List.of(user)));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
 
         ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
         schedule.setPendingImmunizations(List.of(createPendingImmunization()));
@@ -133,12 +172,292 @@ class ReminderServiceImplTest {
                 .thenReturn(schedule);
 
         doThrow(new RuntimeException("Test error"))
-                .when(restTemplate).postForEntity(any(String.class), any(NotificationEmailRequestDto.class), eq(Void.class));
+                .when(reminderOutboxService).enqueue(anyMap(), anyMap());
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        verify(reminderOutboxService, times(1)).enqueue(anyMap(), anyMap());
+        assertEquals(1, report.failed());
+    }
+
+    @Test
+    void sendReminders_isolatesFailures_andReportsCounts() throws Exception {
+        User failing = createUser();
+        User skipped = createUser();
+        User notified = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(failing, skipped, notified));
+
+        ImmunizationScheduleDto emptySchedule = new ImmunizationScheduleDto();
+        emptySchedule.setPendingImmunizations(Collections.emptyList());
+        when(immunizationScheduleService.getPendingImmunizations(failing.getId()))
+                .thenThrow(new UserNotFoundException("gelöscht"));
+        when(immunizationScheduleService.getPendingImmunizations(skipped.getId())).thenReturn(emptySchedule);
+        when(immunizationScheduleService.getPendingImmunizations(notified.getId())).thenReturn(pendingSchedule());
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        assertEquals(3, report.processed());
+        assertEquals(1, report.enqueued());
+        assertEquals(1, report.skipped());
+        assertEquals(1, report.failed());
+        verify(reminderOutboxService, times(1)).enqueue(eq(Map.of(notified.getId(), expectedRequest(notified))), anyMap());
+    }
+
+    @Test
+    void sendReminders_skipsUnchangedReminder_andPassesDigestToOutbox() throws Exception {
+        User unchanged = createUser();
+        User changed = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(unchanged, changed));
+        when(immunizationScheduleService.getPendingImmunizations(any(UUID.class))).thenReturn(pendingSchedule());
+        when(reminderDigestService.digest(any(ImmunizationScheduleDto.class))).thenReturn(42L);
+        when(reminderDigestService.findDue(Map.of(unchanged.getId(), 42L))).thenReturn(Set.of());
+        when(reminderDigestService.findDue(Map.of(changed.getId(), 42L))).thenReturn(Set.of(changed.getId()));
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        assertEquals(1, report.enqueued());
+        assertEquals(1, report.skipped());
+        verify(reminderOutboxService, times(1)).enqueue(Map.of(changed.getId(), expectedRequest(changed)),
+                Map.of(changed.getId(), 42L));
+        // Gespeichert wird der Digest erst vom Relay nach dem Versand
+        verify(reminderDigestService, never()).recordSent(anyMap());
+    }
+
+    @Test
+    void sendReminders_countsUserWithOpenOutboxEntryAsSkipped() throws Exception {
+        User user = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(user));
+        when(immunizationScheduleService.getPendingImmunizations(user.getId())).thenReturn(pendingSchedule());
+        when(reminderOutboxService.enqueue(anyMap(), anyMap())).thenReturn(0);
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        assertEquals(0, report.enqueued());
+        assertEquals(1, report.skipped());
+    }
+
+    @Test
+    void sendReminders_respectsConcurrencyLimit() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            User user = createUser();
+            users.add(user);
+            when(immunizationScheduleService.getPendingImmunizations(user.getId())).thenReturn(pendingSchedule());
+        }
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(users);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(reminderOutboxService.enqueue(anyMap(), anyMap()))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return 1;
+                });
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        assertEquals(12, report.enqueued());
+        assertTrue(maxInFlight.get() <= 2, "max. gleichzeitige Aufrufe: " + maxInFlight.get());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 0, 500, ReminderDispatchModeEnum.SINGLE, 200));
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 0, ReminderDispatchModeEnum.SINGLE, 200));
+    }
+
+    @Test
+    void sendReminders_pagesUsersByKeyset() throws Exception {
+        ReminderServiceImpl chunkedService = new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 2, ReminderDispatchModeEnum.SINGLE, 200);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = createUser();
+            user.setId(new UUID(0, i + 1));
+            users.add(user);
+            when(immunizationScheduleService.getPendingImmunizations(user.getId())).thenReturn(pendingSchedule());
+        }
+        UUID lower = shard.getLowerBound();
+        UUID upper = shard.getUpperBound();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc("USER", lower, upper, Limit.of(2))).thenReturn(users.subList(0, 2));
+        when(userRepository.findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc("USER", users.get(1).getId(), upper, Limit.of(2)))
+                .thenReturn(users.subList(2, 4));
+        when(userRepository.findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc("USER", users.get(3).getId(), upper, Limit.of(2)))
+                .thenReturn(users.subList(4, 5));
+
+        ReminderRunReport report = chunkedService.sendReminders();
+
+        assertEquals(5, report.processed());
+        assertEquals(5, report.enqueued());
+        // Letzter Chunk ist nicht voll: keine weitere Abfrage
+        verify(userRepository, times(2)).findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                eq("USER"), any(UUID.class), eq(upper), any(Limit.class));
+        // Checkpoint nach jedem Chunk, danach Shard abgeschlossen
+        verify(reminderRunService).checkpoint(shard.getId(), "node-1", users.get(1).getId(), 2, 2, 0, 0);
+        verify(reminderRunService).checkpoint(shard.getId(), "node-1", users.get(3).getId(), 2, 2, 0, 0);
+        verify(reminderRunService).checkpoint(shard.getId(), "node-1", users.get(4).getId(), 1, 1, 0, 0);
+        verify(reminderRunService).completeShard(shard.getId(), "node-1");
+    }
+
+    @Test
+    void sendReminders_resumesShardAfterCheckpoint() throws Exception {
+        User resumed = createUser();
+        UUID checkpoint = UUID.randomUUID();
+        shard.setLastUserId(checkpoint);
+        when(userRepository.findByRoleAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                eq("USER"), eq(checkpoint), eq(shard.getUpperBound()), any(Limit.class))).thenReturn(List.of(resumed));
+        when(immunizationScheduleService.getPendingImmunizations(resumed.getId())).thenReturn(pendingSchedule());
+
+        ReminderRunReport report = reminderService.sendReminders();
+
+        assertEquals(1, report.processed());
+        verify(userRepository, never()).findByRoleAndIdBetweenOrderByIdAsc(anyString(), any(), any(), any());
+        verify(reminderRunService).completeShard(shard.getId(), "node-1");
+    }
+
+    @Test
+    void sendReminders_stopsShard_whenLeaseIsLost() throws Exception {
+        User user = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class)))
+                .thenReturn(List.of(user));
+        when(immunizationScheduleService.getPendingImmunizations(user.getId())).thenReturn(pendingSchedule());
+        when(reminderRunService.checkpoint(eq(shard.getId()), eq("node-1"), any(UUID.class),
+                anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(false);
 
         reminderService.sendReminders();
 
-        verify(restTemplate, times(1))
-                .postForEntity(any(String.class), any(NotificationEmailRequestDto.class), eq(Void.class));
+        verify(reminderRunService, never()).completeShard(any(), any());
+    }
+
+    @Test
+    void resumeReminderRuns_claimsShardsOfRunningRuns() throws Exception {
+        User user = createUser();
+        when(reminderRunService.findRunningRuns()).thenReturn(List.of(run));
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class)))
+                .thenReturn(List.of(user));
+        when(immunizationScheduleService.getPendingImmunizations(user.getId())).thenReturn(pendingSchedule());
+
+        reminderService.resumeReminderRuns();
+
+        verify(reminderRunService, never()).startRun(anyString());
+        verify(reminderOutboxService).enqueue(anyMap(), anyMap());
+        verify(reminderRunService).completeShard(shard.getId(), "node-1");
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 500,
+                ReminderDispatchModeEnum.BATCH, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendReminders_batchMode_enqueuesOncePerBatch() throws Exception {
+        ReminderServiceImpl batchService = new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 500,
+                ReminderDispatchModeEnum.BATCH, 2);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(createUser());
+        }
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(users);
+        when(immunizationScheduleService.getPendingImmunizations(anyCollection())).thenAnswer(invocation -> {
+            List<ImmunizationScheduleDto> schedules = new ArrayList<>();
+            for (Object id : invocation.<Collection<?>>getArgument(0)) {
+                // Dritter Benutzer hat nichts ausstehend
+                if (!id.equals(users.get(2).getId())) {
+                    ImmunizationScheduleDto schedule = pendingSchedule();
+                    schedule.setUserId((UUID) id);
+                    schedules.add(schedule);
+                }
+            }
+            return schedules;
+        });
+
+        ReminderRunReport report = batchService.sendReminders();
+
+        assertEquals(3, report.processed());
+        assertEquals(2, report.enqueued());
+        assertEquals(1, report.skipped());
+        assertEquals(0, report.failed());
+        ArgumentCaptor<Map<UUID, NotificationEmailRequestDto>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(reminderOutboxService, times(1)).enqueue(captor.capture(), anyMap());
+        assertEquals(Map.of(users.get(0).getId(), expectedRequest(users.get(0)),
+                users.get(1).getId(), expectedRequest(users.get(1))), captor.getValue());
+        verify(immunizationScheduleService, never()).getPendingImmunizations(any(UUID.class));
+    }
+
+    @Test
+    void sendReminders_batchMode_countsWholeBatchAsFailed_whenEnqueueFails() throws Exception {
+        ReminderServiceImpl batchService = new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 500,
+                ReminderDispatchModeEnum.BATCH, 10);
+        User first = createUser();
+        User second = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(first, second));
+        ImmunizationScheduleDto firstSchedule = pendingSchedule();
+        firstSchedule.setUserId(first.getId());
+        ImmunizationScheduleDto secondSchedule = pendingSchedule();
+        secondSchedule.setUserId(second.getId());
+        when(immunizationScheduleService.getPendingImmunizations(anyCollection()))
+                .thenReturn(List.of(firstSchedule, secondSchedule));
+        when(reminderOutboxService.enqueue(anyMap(), anyMap())).thenThrow(new RuntimeException("Connection refused"));
+
+        ReminderRunReport report = batchService.sendReminders();
+
+        assertEquals(2, report.processed());
+        assertEquals(0, report.enqueued());
+        assertEquals(2, report.failed());
+    }
+
+    @Test
+    void sendReminders_batchMode_enqueuesOnlyChangedReminders() throws Exception {
+        ReminderServiceImpl batchService = new ReminderServiceImpl(
+                userRepository, immunizationScheduleService, reminderOutboxService, reminderRunService, reminderDigestService, "node-1", 2, 500,
+                ReminderDispatchModeEnum.BATCH, 10);
+        User unchanged = createUser();
+        User changed = createUser();
+        when(userRepository.findByRoleAndIdBetweenOrderByIdAsc(eq("USER"), any(UUID.class), any(UUID.class), any(Limit.class))).thenReturn(List.of(unchanged, changed));
+        ImmunizationScheduleDto unchangedSchedule = pendingSchedule();
+        unchangedSchedule.setUserId(unchanged.getId());
+        ImmunizationScheduleDto changedSchedule = pendingSchedule();
+        changedSchedule.setUserId(changed.getId());
+        when(immunizationScheduleService.getPendingImmunizations(anyCollection()))
+                .thenReturn(List.of(unchangedSchedule, changedSchedule));
+        when(reminderDigestService.digest(any(ImmunizationScheduleDto.class))).thenReturn(7L);
+        when(reminderDigestService.findDue(Map.of(unchanged.getId(), 7L, changed.getId(), 7L))).thenReturn(Set.of(changed.getId()));
+
+        ReminderRunReport report = batchService.sendReminders();
+
+        assertEquals(1, report.enqueued());
+        assertEquals(1, report.skipped());
+        verify(reminderOutboxService, times(1)).enqueue(Map.of(changed.getId(), expectedRequest(changed)),
+                Map.of(changed.getId(), 7L));
+        verify(reminderDigestService, never()).recordSent(anyMap());
+    }
+
+    private NotificationEmailRequestDto expectedRequest(User user) {
+        PendingImmunizationDto pending = createPendingImmunization();
+        return new NotificationEmailRequestDto(user.getEmail(), user.getUsername(),
+                "Impf-Erinnerung \u2013 ausstehende Impfungen",
+                List.of(new NotificationVaccinationDto(pending.getVaccineTypeName(), pending.getDueDate().toString(),
+                        pending.getPriority(), pending.getReason())));
+    }
+
+    private ImmunizationScheduleDto pendingSchedule() {
+        ImmunizationScheduleDto schedule = new ImmunizationScheduleDto();
+        schedule.setPendingImmunizations(List.of(createPendingImmunization()));
+        schedule.setTotalPending(1);
+        return schedule;
     }
 
     private User createUser() {
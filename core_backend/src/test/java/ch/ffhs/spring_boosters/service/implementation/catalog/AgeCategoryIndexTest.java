@@ -0,0 +1,93 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgeCategoryIndexTest {
+
+    private final CatalogAgeCategory infant = new CatalogAgeCategory(UUID.randomUUID(), "Säugling", 0, 364);
+    private final CatalogAgeCategory child = new CatalogAgeCategory(UUID.randomUUID(), "Kind", 365, 4014);
+    private final CatalogAgeCategory teen = new CatalogAgeCategory(UUID.randomUUID(), "Jugendliche", 4015, 6569);
+    private final CatalogAgeCategory adult = new CatalogAgeCategory(UUID.randomUUID(), "Erwachsene", 6570, null);
+
+    private final AgeCategoryIndex index = AgeCategoryIndex.of(List.of(adult, teen, infant, child));
+
+    @Test
+    void ordinals_followAgeMinDays() {
+        assertEquals(0, index.ordinalOf(infant.id()));
+        assertEquals(3, index.ordinalOf(adult.id()));
+        assertEquals(-1, index.ordinalOf(UUID.randomUUID()));
+        assertSame(child, index.get(1));
+    }
+
+    @Test
+    void findContaining_returnsCategoryIncludingBounds() {
+        assertSame(infant, index.get(index.findContaining(0)));
+        assertSame(infant, index.get(index.findContaining(364)));
+        assertSame(child, index.get(index.findContaining(365)));
+        assertSame(adult, index.get(index.findContaining(30000)));
+        assertEquals(-1, index.findContaining(-1));
+    }
+
+    @Test
+    void findContaining_withGap_returnsMinusOne() {
+        AgeCategoryIndex gapped = AgeCategoryIndex.of(List.of(
+                new CatalogAgeCategory(UUID.randomUUID(), "A", 0, 100),
+                new CatalogAgeCategory(UUID.randomUUID(), "B", 200, 300)));
+
+        assertEquals(-1, gapped.findContaining(150));
+        assertEquals(-1, gapped.findContaining(301));
+    }
+
+    @Test
+    void findContaining_overlapping_prefersLowestMin() {
+        CatalogAgeCategory wide = new CatalogAgeCategory(UUID.randomUUID(), "Breit", 0, 1000);
+        CatalogAgeCategory narrow = new CatalogAgeCategory(UUID.randomUUID(), "Eng", 100, 200);
+        AgeCategoryIndex overlapping = AgeCategoryIndex.of(List.of(narrow, wide));
+
+        assertSame(wide, overlapping.get(overlapping.findContaining(150)));
+    }
+
+    @Test
+    void overlapping_includesUpcomingAndRecentlyEnded() {
+        // Alter 4000 Tage: Kind aktuell, Jugendliche beginnt in 15 Tagen
+        BitSet relevant = index.overlapping(4000 - 365, 4000 + 90);
+        assertFalse(relevant.get(index.ordinalOf(infant.id())));
+        assertTrue(relevant.get(index.ordinalOf(child.id())));
+        assertTrue(relevant.get(index.ordinalOf(teen.id())));
+        assertFalse(relevant.get(index.ordinalOf(adult.id())));
+
+        // Alter 700 Tage: Säugling vor 336 Tagen beendet -> noch in der Grace Period
+        BitSet afterInfant = index.overlapping(700 - 365, 700 + 90);
+        assertTrue(afterInfant.get(index.ordinalOf(infant.id())));
+    }
+
+    @Test
+    void overlapping_openEndedAlwaysRelevantOnceStarted() {
+        BitSet relevant = index.overlapping(40000 - 365, 40000 + 90);
+        assertEquals(1, relevant.cardinality());
+        assertTrue(relevant.get(index.ordinalOf(adult.id())));
+    }
+
+    @Test
+    void overlaps_agreesWithOverlapping() {
+        for (int age = 0; age < 30000; age += 97) {
+            BitSet relevant = index.overlapping(age - 365, age + 90);
+            for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+                assertEquals(relevant.get(ordinal), index.overlaps(ordinal, age - 365, age + 90), "age=" + age);
+            }
+        }
+    }
+
+    @Test
+    void emptyIndex_answersNothing() {
+        AgeCategoryIndex empty = AgeCategoryIndex.of(List.of());
+        assertEquals(-1, empty.findContaining(10));
+        assertTrue(empty.overlapping(0, 100).isEmpty());
+    }
+}
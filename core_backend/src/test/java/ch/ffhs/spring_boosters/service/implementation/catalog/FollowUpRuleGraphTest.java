@@ -0,0 +1,170 @@
+package ch.ffhs.spring_boosters.service.implementation.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FollowUpRuleGraphTest {
+
+    private static final int NONE = FollowUpRuleGraph.NONE;
+
+    private final CatalogPlanSeries baseSeries = new CatalogPlanSeries(UUID.randomUUID(), null, "Grundimmunisierung", 3);
+    private final CatalogPlan base = plan("Grundimmunisierung", List.of(baseSeries));
+    private final CatalogPlan booster = plan("Auffrischung", List.of());
+    private final CatalogPlan secondBooster = plan("Zweite Auffrischung", List.of());
+
+    private static CatalogPlan plan(String name, List<CatalogPlanSeries> series) {
+        return new CatalogPlan(UUID.randomUUID(), name, UUID.randomUUID(), UUID.randomUUID(), series,
+                series.stream().mapToInt(CatalogPlanSeries::requiredDoses).sum());
+    }
+
+    private static CatalogFollowUpRule rule(CatalogPlan from, CatalogPlan to, UUID seriesId, int minDoses,
+                                            Integer targetMin, Integer targetMax, Integer interval, Integer preferred) {
+        return new CatalogFollowUpRule(UUID.randomUUID(), from.id(), to.id(), seriesId, minDoses,
+                targetMin, targetMax, interval, preferred);
+    }
+
+    private int[] evaluate(FollowUpRuleGraph graph, int[] completed, int[] lastAgeDays) {
+        int[] nextDue = new int[graph.planCount()];
+        graph.computeNextDue(completed, lastAgeDays, nextDue);
+        return nextDue;
+    }
+
+    @Test
+    void compile_buildsEdgesOnlyForKnownPlans() {
+        CatalogPlan unknown = plan("Unbekannt", List.of());
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, booster, null, 1, null, null, 0, null),
+                rule(base, unknown, null, 1, null, null, 0, null)));
+
+        assertEquals(2, graph.planCount());
+        assertEquals(1, graph.edgeCount());
+        assertEquals(-1, graph.ordinalOf(unknown.id()));
+        assertEquals(booster.id(), graph.planId(graph.ordinalOf(booster.id())));
+    }
+
+    @Test
+    void compile_cycle_skipsClosingRule_insteadOfFailing() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, booster, null, 1, null, null, 180, null),
+                rule(booster, base, null, 1, null, null, 30, null)));
+        int b = graph.ordinalOf(base.id());
+        int t = graph.ordinalOf(booster.id());
+
+        assertEquals(1, graph.edgeCount());
+        int[] completed = new int[2];
+        int[] last = {NONE, NONE};
+        completed[b] = 1;
+        last[b] = 400;
+        completed[t] = 1;
+        last[t] = 300;
+        int[] nextDue = evaluate(graph, completed, last);
+        assertEquals(580, nextDue[t]);
+        assertEquals(NONE, nextDue[b]);
+    }
+
+    @Test
+    void compile_selfRule_isNoCycle() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, base, null, 1, null, null, 30, null),
+                rule(base, booster, null, 3, null, null, 3650, null)));
+
+        assertEquals(2, graph.edgeCount());
+    }
+
+    @Test
+    void computeNextDue_selfRule_appliesOnlyWhileSeriesIncomplete() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base), List.of(
+                rule(base, base, null, 1, null, null, 30, null)));
+
+        assertEquals(430, evaluate(graph, new int[]{2}, new int[]{400})[0]);
+        // Serie mit 3 Dosen abgeschlossen: keine weitere Dosis aus der Selbst-Regel
+        assertEquals(NONE, evaluate(graph, new int[]{3}, new int[]{430})[0]);
+    }
+
+    @Test
+    void computeNextDue_requiresCompletedSeries() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, booster, baseSeries.id(), 1, null, null, 180, null)));
+        int b = graph.ordinalOf(base.id());
+        int t = graph.ordinalOf(booster.id());
+
+        int[] completed = new int[2];
+        int[] last = {NONE, NONE};
+        completed[b] = 2;
+        last[b] = 400;
+        assertEquals(NONE, evaluate(graph, completed, last)[t]);
+
+        completed[b] = 3;
+        assertEquals(580, evaluate(graph, completed, last)[t]);
+    }
+
+    @Test
+    void computeNextDue_appliesTargetAgeAndPreferredAge() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, booster, null, 1, 1460, 2555, 30, 1825)));
+        int b = graph.ordinalOf(base.id());
+        int t = graph.ordinalOf(booster.id());
+
+        int[] completed = new int[2];
+        int[] last = {NONE, NONE};
+        completed[b] = 1;
+
+        last[b] = 500;
+        assertEquals(1825, evaluate(graph, completed, last)[t]);
+
+        last[b] = 2000;
+        assertEquals(2030, evaluate(graph, completed, last)[t]);
+
+        // Zielalter max überschritten: Regel greift nicht mehr
+        last[b] = 2600;
+        assertEquals(NONE, evaluate(graph, completed, last)[t]);
+    }
+
+    @Test
+    void computeNextDue_earliestRuleWins_andUnstartedPlansTriggerNothing() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster, secondBooster), List.of(
+                rule(base, booster, null, 1, null, null, 365, null),
+                rule(base, booster, null, 1, null, null, 180, null),
+                rule(booster, secondBooster, null, 1, null, null, 3650, null)));
+        int b = graph.ordinalOf(base.id());
+        int t = graph.ordinalOf(booster.id());
+        int s = graph.ordinalOf(secondBooster.id());
+
+        int[] completed = new int[3];
+        int[] last = {NONE, NONE, NONE};
+        completed[b] = 1;
+        last[b] = 100;
+
+        int[] nextDue = evaluate(graph, completed, last);
+        assertEquals(280, nextDue[t]);
+        assertEquals(NONE, nextDue[s]);
+    }
+
+    @Test
+    void computeNextDue_skipsBoosterAlreadyReceived_afterSourceDose() {
+        FollowUpRuleGraph graph = FollowUpRuleGraph.compile(List.of(base, booster), List.of(
+                rule(base, booster, null, 1, null, null, 180, null)));
+        int b = graph.ordinalOf(base.id());
+        int t = graph.ordinalOf(booster.id());
+
+        int[] completed = new int[2];
+        int[] last = {NONE, NONE};
+        completed[b] = 1;
+        completed[t] = 1;
+        last[b] = 400;
+
+        last[t] = 600;
+        assertEquals(NONE, evaluate(graph, completed, last)[t]);
+
+        last[t] = 400;
+        assertEquals(NONE, evaluate(graph, completed, last)[t]);
+
+        // Auffrischung vor der letzten Dosis des Ausgangsplans zählt nicht
+        last[t] = 300;
+        assertEquals(580, evaluate(graph, completed, last)[t]);
+    }
+}
@@ -0,0 +1,19 @@
+-- H2-compatible version of V11__Pending_immunization_due_date_open_only.sql
+-- Unterschiede zu PostgreSQL:
+-- - birth_date + age_max_days -> DATEADD('DAY', ...)
+-- - Index unverändert (H2 kennt keine partiellen Indizes)
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+UPDATE pending_immunization p
+SET due_date = NULL
+WHERE p.priority IS NULL
+  AND (p.completed_doses >= p.required_doses
+    OR EXISTS (SELECT 1
+               FROM users u
+                        JOIN immunization_plan ip ON ip.id = p.immunization_plan_id
+                        JOIN age_category ac ON ac.id = ip.age_category_id
+               WHERE u.id = p.user_id
+                 AND ac.age_max_days IS NOT NULL
+                 AND DATEADD('DAY', ac.age_max_days + 365, u.birth_date) < CURRENT_DATE));
@@ -0,0 +1,9 @@
+-- H2-compatible version of V12__Reminder_outbox_digest.sql
+-- Unterschiede zu PostgreSQL:
+-- - keine Bereinigung bestehender Doppelter (leere Testdaten)
+-- - kein partieller Unique-Index
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+ALTER TABLE reminder_outbox ADD COLUMN IF NOT EXISTS digest BIGINT;
@@ -0,0 +1,42 @@
+-- H2-compatible version of V5__Create_pending_immunization.sql
+-- Unterschiede zu PostgreSQL:
+-- - TIMESTAMPTZ -> TIMESTAMP, TEXT -> VARCHAR
+-- - birth_date + age_min_days -> DATEADD('DAY', ...)
+-- - kein ON CONFLICT (Tabelle ist bei der Migration leer)
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE TABLE IF NOT EXISTS pending_immunization (
+    user_id UUID NOT NULL,
+    immunization_plan_id UUID NOT NULL,
+    completed_doses INT NOT NULL,
+    required_doses INT NOT NULL,
+    last_administered_on DATE,
+    due_date DATE,
+    priority VARCHAR(32),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, immunization_plan_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (immunization_plan_id) REFERENCES immunization_plan(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_due_date ON pending_immunization(due_date);
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_priority ON pending_immunization(priority);
+
+INSERT INTO pending_immunization (user_id, immunization_plan_id, completed_doses, required_doses,
+                                  last_administered_on, due_date, priority)
+SELECT r.user_id,
+       r.immunization_plan_id,
+       COUNT(*),
+       COALESCE((SELECT SUM(s.required_doses)
+                 FROM immunization_plan_series s
+                 WHERE s.immunization_plan_id = r.immunization_plan_id), 0),
+       MAX(r.administered_on),
+       DATEADD('DAY', MAX(ac.age_min_days), MAX(u.birth_date)),
+       NULL
+FROM immunization_record r
+         JOIN users u ON u.id = r.user_id
+         JOIN immunization_plan ip ON ip.id = r.immunization_plan_id
+         JOIN age_category ac ON ac.id = ip.age_category_id
+GROUP BY r.user_id, r.immunization_plan_id;
@@ -0,0 +1,8 @@
+-- H2-compatible version of V6__Add_pending_immunization_forecast_index.sql
+-- H2 kennt weder INCLUDE noch partielle Indizes, daher ein zusammengesetzter Index
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE INDEX IF NOT EXISTS idx_pending_immunization_forecast
+    ON pending_immunization (due_date, immunization_plan_id, user_id, required_doses, completed_doses);
@@ -0,0 +1,6 @@
+-- H2-compatible version of V7__Add_users_role_id_index.sql
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE INDEX IF NOT EXISTS idx_users_role_id ON users(role, id);
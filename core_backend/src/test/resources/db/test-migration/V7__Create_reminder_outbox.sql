@@ -0,0 +1,23 @@
+-- H2-compatible version of V8__Create_reminder_outbox.sql
+-- Unterschiede zu PostgreSQL:
+-- - TIMESTAMPTZ -> TIMESTAMP, TEXT -> VARCHAR
+-- - gen_random_uuid() -> RANDOM_UUID()
+-- - kein partieller Index
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE TABLE IF NOT EXISTS reminder_outbox (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    user_id UUID NOT NULL,
+    payload VARCHAR NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_reminder_outbox_pending ON reminder_outbox(status, next_attempt_at);
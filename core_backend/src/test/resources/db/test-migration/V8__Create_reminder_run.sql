@@ -0,0 +1,37 @@
+-- H2-compatible version of V9__Create_reminder_run.sql
+-- Unterschiede zu PostgreSQL:
+-- - TIMESTAMPTZ -> TIMESTAMP, TEXT -> VARCHAR
+-- - gen_random_uuid() -> RANDOM_UUID()
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE TABLE IF NOT EXISTS reminder_run (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    run_key VARCHAR(64) NOT NULL UNIQUE,
+    status VARCHAR(16) NOT NULL,
+    shard_count INT NOT NULL,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS reminder_run_shard (
+    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+    run_id UUID NOT NULL,
+    shard_no INT NOT NULL,
+    lower_bound UUID NOT NULL,
+    upper_bound UUID NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    last_user_id UUID,
+    lease_owner VARCHAR(255),
+    lease_until TIMESTAMP,
+    processed INT NOT NULL DEFAULT 0,
+    enqueued INT NOT NULL DEFAULT 0,
+    skipped INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (run_id, shard_no),
+    FOREIGN KEY (run_id) REFERENCES reminder_run(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_reminder_run_status ON reminder_run(status);
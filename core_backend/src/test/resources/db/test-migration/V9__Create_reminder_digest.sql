@@ -0,0 +1,11 @@
+-- H2-compatible version of V10__Create_reminder_digest.sql
+
+CREATE SCHEMA IF NOT EXISTS SPRING_BOOSTERS;
+SET SCHEMA SPRING_BOOSTERS;
+
+CREATE TABLE IF NOT EXISTS reminder_digest (
+    user_id UUID PRIMARY KEY,
+    digest BIGINT NOT NULL,
+    last_sent_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
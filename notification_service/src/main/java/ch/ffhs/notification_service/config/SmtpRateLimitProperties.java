@@ -0,0 +1,33 @@
+package ch.ffhs.notification_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Versandrate pro SMTP-Host. Hosts ohne eigenen Eintrag verwenden {@code defaults}.
+ *
+ * @param maxWaitMs so lange wartet ein synchroner Aufruf höchstens auf freie Kapazität, danach 429
+ */
+@ConfigurationProperties(prefix = "notification.rate-limit")
+public record SmtpRateLimitProperties(
+        @DefaultValue("2000") long maxWaitMs,
+        @DefaultValue Rate defaults,
+        Map<String, Rate> hosts
+) {
+
+    /**
+     * @param perSecond nachhaltige Rate in E-Mails pro Sekunde
+     * @param burst     so viele E-Mails dürfen nach einer Pause sofort versendet werden
+     */
+    public record Rate(
+            @DefaultValue("5") double perSecond,
+            @DefaultValue("20") int burst
+    ) {
+    }
+
+    public Rate rateFor(String host) {
+        return hosts != null && hosts.containsKey(host) ? hosts.get(host) : defaults;
+    }
+}
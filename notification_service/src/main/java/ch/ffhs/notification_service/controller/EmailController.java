@@ -1,35 +1,172 @@
 package ch.ffhs.notification_service.controller;
 
+import ch.ffhs.notification_service.controller.dto.EmailBatchItemResultDto;
+import ch.ffhs.notification_service.controller.dto.EmailBatchRequestDto;
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
 import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
 import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
+import ch.ffhs.notification_service.service.EmailDispatchService;
 import ch.ffhs.notification_service.service.EmailService;
+import ch.ffhs.notification_service.service.IdempotencyService;
+import ch.ffhs.notification_service.service.exception.IdempotencyKeyInProgressException;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @RestController
 @AllArgsConstructor
 @RequestMapping("/api/v1/email")
 public class EmailController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final EmailService emailService;
+    private final EmailDispatchService emailDispatchService;
+    private final IdempotencyService idempotencyService;
 
+    /**
+     * Reiht die E-Mail zum Versand ein und antwortet sofort mit 202. Ist die Warteschlange
+     * voll, antwortet der Endpunkt mit 429 und Retry-After (geschätzte Zeit, bis sie bei der
+     * Versandrate des SMTP-Hosts abgearbeitet ist).
+     * Mit Idempotency-Key wird eine wiederholte Anfrage nicht erneut eingereiht; sie erhält die
+     * ursprüngliche Antwort.
+     */
     @PostMapping("/send")
-    public ResponseEntity<EmailResponseDto> sendEmail(@Valid @RequestBody EmailRequestDto emailRequest) {
-        EmailResponseDto response = emailService.sendVaccinationEmail(emailRequest);
+    public ResponseEntity<EmailResponseDto> sendEmail(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody EmailRequestDto emailRequest) {
+        EmailResponseDto accepted = new EmailResponseDto(
+                true,
+                "E-Mail zum Versand eingereiht an " + emailRequest.recipientEmail(),
+                LocalDateTime.now().toString());
+        if (idempotencyKey != null) {
+            Optional<EmailResponseDto> original = idempotencyService.putIfAbsent(idempotencyKey, accepted);
+            if (original.isPresent()) {
+                return ResponseEntity.accepted().body(original.get());
+            }
+        }
+
+        if (emailDispatchService.enqueue(emailRequest)) {
+            return ResponseEntity.accepted().body(accepted);
+        }
+        if (idempotencyKey != null) {
+            // Nicht eingereiht: die Wiederholung nach Retry-After muss erneut angenommen werden
+            idempotencyService.remove(idempotencyKey);
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(emailDispatchService.estimatedDrainTime()))
+                .body(new EmailResponseDto(
+                        false,
+                        "Versand-Warteschlange voll, bitte später erneut versuchen",
+                        LocalDateTime.now().toString()));
+    }
+
+    /**
+     * Versendet mehrere E-Mails in einem Aufruf. Antwortet immer mit 200 und einem Ergebnis
+     * pro E-Mail (gleiche Reihenfolge wie im Request); fehlgeschlagene E-Mails sind dort markiert.
+     * Ist die Versandrate des SMTP-Hosts ausgeschöpft, wird nichts versendet: 429 mit Retry-After.
+     * Idempotency-Keys (idempotencyKeys) werden vor dem Versand als "in Bearbeitung" angenommen und
+     * erst nach erfolgreichem Versand mit der Antwort abgeschlossen; fehlgeschlagene geben ihren Key
+     * wieder frei. E-Mails mit abgeschlossenem Key werden nicht erneut versendet und erhalten die
+     * ursprüngliche Antwort. Ist ein Key noch in Bearbeitung, wird nichts versendet: 409 mit Retry-After.
+     */
+    @PostMapping("/send-batch")
+    public ResponseEntity<EmailBatchResponseDto> sendEmailBatch(@Valid @RequestBody EmailBatchRequestDto batchRequest) {
+        List<EmailRequestDto> requests = batchRequest.requests();
+        List<String> keys = batchRequest.idempotencyKeys();
+        if (keys == null) {
+            return ResponseEntity.ok(emailService.sendVaccinationEmails(requests));
+        }
+        if (keys.size() != requests.size()) {
+            throw new IllegalArgumentException("idempotencyKeys muss gleich viele Einträge wie requests haben");
+        }
+        // Vor dem ersten Annehmen prüfen, damit ein ungültiger Key keine angenommenen zurücklässt
+        if (keys.stream().anyMatch(key -> key != null && key.isBlank())) {
+            throw new IllegalArgumentException("idempotencyKeys dürfen nicht leer sein");
+        }
+        // Ein doppelter Key wäre beim zweiten Vorkommen noch in Bearbeitung (409 ohne Ende)
+        if (keys.stream().filter(Objects::nonNull).distinct().count() != keys.stream().filter(Objects::nonNull).count()) {
+            throw new IllegalArgumentException("idempotencyKeys dürfen sich nicht wiederholen");
+        }
+
+        EmailBatchItemResultDto[] results = new EmailBatchItemResultDto[requests.size()];
+        List<Integer> pending = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String key = keys.get(i);
+            EmailRequestDto request = requests.get(i);
+            if (key != null) {
+                Optional<EmailResponseDto> original;
+                try {
+                    original = idempotencyService.claim(key);
+                } catch (IdempotencyKeyInProgressException e) {
+                    // Ohne Versand antworten: die in dieser Anfrage angenommenen Keys freigeben
+                    pending.stream().map(keys::get).filter(Objects::nonNull).forEach(idempotencyService::remove);
+                    throw e;
+                }
+                if (original.isPresent()) {
+                    results[i] = new EmailBatchItemResultDto(i, request.recipientEmail(),
+                            original.get().success(), original.get().message());
+                    continue;
+                }
+            }
+            pending.add(i);
+        }
 
-        if (response.success()) {
-            return ResponseEntity.ok(response);
-        } else {
-            return ResponseEntity.status(500).body(response);
+        if (!pending.isEmpty()) {
+            EmailBatchResponseDto sent;
+            try {
+                sent = emailService.sendVaccinationEmails(pending.stream().map(requests::get).toList());
+            } catch (RuntimeException e) {
+                // Nichts versendet (z.B. 429): die Wiederholung muss erneut angenommen werden
+                pending.stream().map(keys::get).filter(Objects::nonNull).forEach(idempotencyService::remove);
+                throw e;
+            }
+            for (EmailBatchItemResultDto result : sent.results()) {
+                int index = pending.get(result.index());
+                results[index] = new EmailBatchItemResultDto(index, result.recipientEmail(), result.success(), result.message());
+                String key = keys.get(index);
+                if (key == null) {
+                    continue;
+                }
+                if (result.success()) {
+                    idempotencyService.complete(key, new EmailResponseDto(
+                            true, "E-Mail erfolgreich gesendet an " + result.recipientEmail(), LocalDateTime.now().toString()));
+                } else {
+                    idempotencyService.remove(key);
+                }
+            }
         }
+
+        List<EmailBatchItemResultDto> merged = List.of(results);
+        int succeeded = (int) merged.stream().filter(EmailBatchItemResultDto::success).count();
+        return ResponseEntity.ok(new EmailBatchResponseDto(merged.size(), succeeded, merged.size() - succeeded,
+                merged, LocalDateTime.now().toString()));
+    }
+
+    /**
+     * Inhalt eines Log-Eintrags als HTML, neu gerendert aus Template und gespeicherten Parametern.
+     */
+    @GetMapping(value = "/logs/{id}/content", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getLogContent(@PathVariable Long id) {
+        return emailService.renderLogContent(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -54,6 +191,26 @@ public class EmailController {
         return ResponseEntity.badRequest().body(body);
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(body);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.CONFLICT.value());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
         Map<String, Object> body = new HashMap<>();
@@ -70,4 +227,9 @@ public class EmailController {
         body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
     }
+
+    // Retry-After in ganzen Sekunden, aufgerundet und mindestens 1
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
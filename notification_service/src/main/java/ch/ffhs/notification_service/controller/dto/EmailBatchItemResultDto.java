@@ -0,0 +1,8 @@
+package ch.ffhs.notification_service.controller.dto;
+
+public record EmailBatchItemResultDto(
+        int index,
+        String recipientEmail,
+        boolean success,
+        String message
+) {}
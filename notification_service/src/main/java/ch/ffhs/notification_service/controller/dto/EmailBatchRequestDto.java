@@ -0,0 +1,21 @@
+package ch.ffhs.notification_service.controller.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record EmailBatchRequestDto(
+        @NotEmpty(message = "Es muss mindestens eine E-Mail angegeben werden")
+        @Size(max = 500, message = "Es dürfen maximal 500 E-Mails pro Aufruf gesendet werden")
+        List<@NotNull @Valid EmailRequestDto> requests,
+        // Optional: ein Idempotency-Key pro E-Mail in derselben Reihenfolge, null ohne Key
+        List<@Size(max = 255, message = "idempotencyKeys dürfen maximal 255 Zeichen lang sein") String> idempotencyKeys
+) {
+    public EmailBatchRequestDto(List<EmailRequestDto> requests) {
+        this(requests, null);
+    }
+
+}
@@ -0,0 +1,11 @@
+package ch.ffhs.notification_service.controller.dto;
+
+import java.util.List;
+
+public record EmailBatchResponseDto(
+        int total,
+        int succeeded,
+        int failed,
+        List<EmailBatchItemResultDto> results,
+        String timestamp
+) {}
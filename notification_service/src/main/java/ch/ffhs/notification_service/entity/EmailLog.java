@@ -1,14 +1,19 @@
 package ch.ffhs.notification_service.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "email_log")
 public class EmailLog {
 
+    // Pooled-Sequenz (50 IDs pro Aufruf), damit Hibernate die Inserts bündeln kann
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_log_seq")
+    @SequenceGenerator(name = "email_log_seq", sequenceName = "email_log_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -20,8 +25,19 @@ public class EmailLog {
     @Column(nullable = false)
     private String subject;
 
+    @Column(length = 100)
+    private String templateId;
+
+    private Integer templateVersion;
+
+    // Empfängername und Impfungen; das HTML wird daraus bei Bedarf neu gerendert
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private EmailTemplateParams templateParams;
+
+    // Gerendertes HTML, nur bei Einträgen vor der Umstellung auf Template-Parameter
     @Column(columnDefinition = "TEXT")
-    private String content;
+    private String legacyContent;
 
     @Column(nullable = false)
     private LocalDateTime sentAt;
@@ -35,11 +51,14 @@ public class EmailLog {
     public EmailLog() {
     }
 
-    public EmailLog(String recipientEmail, String recipientName, String subject, String content, boolean success, String errorMessage) {
+    public EmailLog(String recipientEmail, String recipientName, String subject, String templateId, Integer templateVersion,
+                    EmailTemplateParams templateParams, boolean success, String errorMessage) {
         this.recipientEmail = recipientEmail;
         this.recipientName = recipientName;
         this.subject = subject;
-        this.content = content;
+        this.templateId = templateId;
+        this.templateVersion = templateVersion;
+        this.templateParams = templateParams;
         this.sentAt = LocalDateTime.now();
         this.success = success;
         this.errorMessage = errorMessage;
@@ -78,12 +97,36 @@ public class EmailLog {
         this.subject = subject;
     }
 
-    public String getContent() {
-        return content;
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(String templateId) {
+        this.templateId = templateId;
+    }
+
+    public Integer getTemplateVersion() {
+        return templateVersion;
+    }
+
+    public void setTemplateVersion(Integer templateVersion) {
+        this.templateVersion = templateVersion;
+    }
+
+    public EmailTemplateParams getTemplateParams() {
+        return templateParams;
+    }
+
+    public void setTemplateParams(EmailTemplateParams templateParams) {
+        this.templateParams = templateParams;
+    }
+
+    public String getLegacyContent() {
+        return legacyContent;
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    public void setLegacyContent(String legacyContent) {
+        this.legacyContent = legacyContent;
     }
 
     public LocalDateTime getSentAt() {
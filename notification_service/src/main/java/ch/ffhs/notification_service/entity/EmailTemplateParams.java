@@ -0,0 +1,14 @@
+package ch.ffhs.notification_service.entity;
+
+import ch.ffhs.notification_service.controller.dto.VaccinationDto;
+
+import java.util.List;
+
+/**
+ * Parameter des E-Mail-Templates, wie sie im Log gespeichert werden (JSONB).
+ */
+public record EmailTemplateParams(
+        String recipientName,
+        List<VaccinationDto> vaccinations
+) {
+}
@@ -0,0 +1,26 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
+
+import java.time.Duration;
+
+public interface EmailDispatchService {
+
+    /**
+     * Reiht die E-Mail zum asynchronen Versand ein. Rendern, Versand und Log übernehmen
+     * die Worker, gruppiert über eine gemeinsame SMTP-Verbindung.
+     *
+     * @return false, wenn die Warteschlange voll ist
+     */
+    boolean enqueue(EmailRequestDto emailRequest);
+
+    /**
+     * Anzahl eingereihter, noch nicht von einem Worker übernommener E-Mails.
+     */
+    int queuedCount();
+
+    /**
+     * Geschätzte Zeit, bis die Warteschlange bei der Versandrate des SMTP-Hosts abgearbeitet ist.
+     */
+    Duration estimatedDrainTime();
+}
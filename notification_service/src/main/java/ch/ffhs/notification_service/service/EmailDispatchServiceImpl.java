@@ -0,0 +1,156 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
+import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Begrenzte In-Memory-Warteschlange für einzelne E-Mails. Eine feste Anzahl Worker nimmt jeweils
+ * bis zu batch-size E-Mails und versendet sie über {@link EmailService#sendVaccinationEmails}:
+ * eine SMTP-Verbindung (Connect und Auth) pro Gruppe bzw. pro Burst des Hosts statt pro E-Mail,
+ * Logs im JDBC-Batch.
+ * Eingereihte E-Mails gehen bei einem Neustart verloren; Aufrufer mit Zustellgarantie
+ * (Outbox im Core-Backend) verwenden den synchronen Batch-Endpunkt.
+ * Ist die Versandrate des SMTP-Hosts ausgeschöpft, wartet der Worker und versendet dieselbe
+ * Gruppe erneut, statt sie als fehlgeschlagen zu protokollieren.
+ */
+@Service
+@Slf4j
+public class EmailDispatchServiceImpl implements EmailDispatchService {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final EmailService emailService;
+    private final SmtpRateLimiter smtpRateLimiter;
+    private final BlockingQueue<EmailRequestDto> queue;
+    private final int workerCount;
+    private final int batchSize;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public EmailDispatchServiceImpl(
+            EmailService emailService,
+            SmtpRateLimiter smtpRateLimiter,
+            @Value("${notification.dispatch.queue-capacity:10000}") int queueCapacity,
+            @Value("${notification.dispatch.workers:4}") int workerCount,
+            @Value("${notification.dispatch.batch-size:50}") int batchSize
+    ) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("notification.dispatch.queue-capacity muss mindestens 1 sein: " + queueCapacity);
+        }
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("notification.dispatch.workers muss mindestens 1 sein: " + workerCount);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("notification.dispatch.batch-size muss mindestens 1 sein: " + batchSize);
+        }
+        this.emailService = emailService;
+        this.smtpRateLimiter = smtpRateLimiter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("email-dispatch-", 0).factory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drain);
+        }
+    }
+
+    /**
+     * Lässt die Worker die bereits übernommenen Gruppen fertig versenden. Was danach noch in der
+     * Warteschlange liegt, wird verworfen und protokolliert.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (workers == null) {
+            // start() wurde nie aufgerufen
+            return;
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} eingereihte E-Mails beim Herunterfahren verworfen", queue.size());
+        }
+    }
+
+    @Override
+    public boolean enqueue(EmailRequestDto emailRequest) {
+        return queue.offer(emailRequest);
+    }
+
+    @Override
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    @Override
+    public Duration estimatedDrainTime() {
+        return smtpRateLimiter.timeFor(queue.size());
+    }
+
+    private void drain() {
+        List<EmailRequestDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                EmailRequestDto first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<EmailRequestDto> batch) throws InterruptedException {
+        try {
+            EmailBatchResponseDto response = sendThrottled(List.copyOf(batch));
+            if (response.failed() > 0) {
+                log.warn("{} von {} E-Mails nicht versendet", response.failed(), response.total());
+            }
+        } catch (RuntimeException e) {
+            // Fehler pro E-Mail und beim Schreiben der Logs fangen EmailServiceImpl und EmailLogWriter selbst ab;
+            // hier landen nur unerwartete Fehler, damit der Worker weiterläuft
+            log.error("Versand von {} E-Mails fehlgeschlagen: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private EmailBatchResponseDto sendThrottled(List<EmailRequestDto> batch) throws InterruptedException {
+        while (true) {
+            try {
+                return emailService.sendVaccinationEmails(batch);
+            } catch (RateLimitExceededException e) {
+                log.debug("Versandrate ausgeschoepft, {} E-Mails warten {} ms", batch.size(), e.getRetryAfter().toMillis());
+                TimeUnit.MILLISECONDS.sleep(Math.max(1, e.getRetryAfter().toMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ch.ffhs.notification_service.service;
+
+public interface EmailLogPartitionService {
+
+    /**
+     * Legt die Monatspartitionen von email_log bis months-ahead im Voraus an und hängt Partitionen
+     * ab, die vollständig älter als die Aufbewahrungsdauer sind (gelöscht oder zur Archivierung behalten).
+     */
+    void maintainPartitions();
+}
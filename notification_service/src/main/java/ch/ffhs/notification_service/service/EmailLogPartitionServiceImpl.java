@@ -0,0 +1,163 @@
+package ch.ffhs.notification_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pflege der Monatspartitionen von email_log (siehe V5__partition_email_log_by_month.sql).
+ * Läuft beim Start und täglich; alle Anweisungen sind idempotent, mehrere Instanzen stören sich nicht.
+ * Alte Partitionen werden per DETACH aus der Tabelle genommen und danach gelöscht oder, mit
+ * archive=true, als eigenständige Tabelle zur Archivierung (z.B. pg_dump) stehen gelassen.
+ * Logs ohne passende Monatspartition landen in der Default-Partition (V8); vor dem Anlegen eines
+ * Monats werden dessen Logs von dort in die neue Partition verschoben.
+ */
+@Service
+@Slf4j
+public class EmailLogPartitionServiceImpl implements EmailLogPartitionService {
+
+    private static final String SCHEMA = "notification_service";
+    private static final String PARTITION_PREFIX = "email_log_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String DEFAULT_PARTITION = "email_log_default";
+
+    private static final String COUNT_IN_DEFAULT_SQL = "SELECT count(*) FROM " + SCHEMA + "." + DEFAULT_PARTITION
+            + " WHERE sent_at >= ? AND sent_at < ?";
+
+    // Eine Anweisung, also atomar: Partition separat anlegen, Logs umziehen, dann anhängen
+    private static final String MOVE_FROM_DEFAULT_SQL = """
+            DO $$
+            BEGIN
+                CREATE TABLE %1$s.%2$s (LIKE %1$s.email_log INCLUDING DEFAULTS);
+                INSERT INTO %1$s.%2$s SELECT * FROM %1$s.%3$s WHERE sent_at >= '%4$s' AND sent_at < '%5$s';
+                DELETE FROM %1$s.%3$s WHERE sent_at >= '%4$s' AND sent_at < '%5$s';
+                ALTER TABLE %1$s.email_log ATTACH PARTITION %1$s.%2$s FOR VALUES FROM ('%4$s') TO ('%5$s');
+            END $$""";
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            JOIN pg_namespace n ON n.oid = p.relnamespace
+            WHERE n.nspname = ? AND p.relname = 'email_log'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+
+    @Autowired
+    public EmailLogPartitionServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            @Value("${notification.log.partition.months-ahead:3}") int monthsAhead,
+            @Value("${notification.log.retention.months:24}") int retentionMonths,
+            @Value("${notification.log.retention.archive:false}") boolean archive
+    ) {
+        this(jdbcTemplate, Clock.systemDefaultZone(), monthsAhead, retentionMonths, archive);
+    }
+
+    EmailLogPartitionServiceImpl(JdbcTemplate jdbcTemplate, Clock clock, int monthsAhead, int retentionMonths, boolean archive) {
+        if (monthsAhead < 1) {
+            throw new IllegalArgumentException("notification.log.partition.months-ahead muss mindestens 1 sein: " + monthsAhead);
+        }
+        if (retentionMonths < 1) {
+            throw new IllegalArgumentException("notification.log.retention.months muss mindestens 1 sein: " + retentionMonths);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = archive;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Override
+    @Scheduled(cron = "${notification.log.partition.cron:0 15 2 * * *}")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+
+        // Nur Partitionen, die vollständig vor dem Aufbewahrungs-Zeitraum liegen
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, SCHEMA)) {
+            parsePartitionMonth(partition)
+                    .filter(month -> month.isBefore(oldestKept))
+                    .ifPresent(month -> retire(partition));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        try {
+            Long inDefault = jdbcTemplate.queryForObject(COUNT_IN_DEFAULT_SQL, Long.class,
+                    month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+            if (inDefault != null && inDefault > 0) {
+                // Mit Zeilen des Monats in der Default-Partition würde CREATE ... PARTITION OF scheitern
+                jdbcTemplate.execute(MOVE_FROM_DEFAULT_SQL.formatted(SCHEMA, partitionName(month), DEFAULT_PARTITION,
+                        month.atDay(1), month.plusMonths(1).atDay(1)));
+                log.warn("Partition {} angelegt, {} E-Mail-Logs aus der Default-Partition verschoben",
+                        partitionName(month), inDefault);
+                return;
+            }
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + SCHEMA + "." + partitionName(month)
+                    + " PARTITION OF " + SCHEMA + ".email_log"
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        } catch (DataAccessException e) {
+            // z.B. gleichzeitig von einer anderen Instanz angelegt
+            log.warn("Partition {} nicht angelegt: {}", partitionName(month), e.getMessage());
+        }
+    }
+
+    private void retire(String partition) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + SCHEMA + ".email_log DETACH PARTITION " + SCHEMA + "." + partition);
+            if (archive) {
+                log.info("Partition {} abgehaengt und zur Archivierung behalten", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + SCHEMA + "." + partition);
+                log.info("Partition {} nach Ablauf der Aufbewahrung geloescht", partition);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Partition {} nicht entfernt: {}", partition, e.getMessage());
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(month);
+    }
+
+    /**
+     * Monat einer Partition aus ihrem Namen; leer für Tabellen, die nicht dem Schema folgen.
+     */
+    static Optional<YearMonth> parsePartitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.entity.EmailLog;
+import ch.ffhs.notification_service.repository.EmailRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puffert E-Mail-Logs und schreibt sie gebündelt: sobald batch-size Logs anstehen oder
+ * spätestens nach flush-interval-ms. Jeder Batch läuft in einer Transaktion, dank der
+ * Pooled-Sequenz bündelt Hibernate die Inserts per JDBC-Batch.
+ * Ist der Puffer voll, schreibt der aufrufende Thread selbst (Rückstau statt Verlust).
+ * Beim Herunterfahren wird der Puffer geleert.
+ * Schlägt das Schreiben fehl, wird der Batch verworfen (die E-Mails sind bereits versendet) und
+ * als Fehler mit der Anzahl verlorener Logs protokolliert; {@link #droppedCount()} zählt sie auf.
+ */
+@Component
+@Slf4j
+public class EmailLogWriter {
+
+    private final EmailRepository emailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<EmailLog> buffer;
+    private final int batchSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public EmailLogWriter(
+            EmailRepository emailRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${notification.log.queue-capacity:10000}") int queueCapacity,
+            @Value("${notification.log.batch-size:100}") int batchSize
+    ) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("notification.log.queue-capacity muss mindestens 1 sein: " + queueCapacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("notification.log.batch-size muss mindestens 1 sein: " + batchSize);
+        }
+        this.emailRepository = emailRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    public void write(EmailLog emailLog) {
+        while (!buffer.offer(emailLog)) {
+            flushBatch();
+        }
+        if (buffer.size() >= batchSize) {
+            flushBatch();
+        }
+    }
+
+    public void writeAll(List<EmailLog> emailLogs) {
+        emailLogs.forEach(this::write);
+    }
+
+    /**
+     * Schreibt alle gepufferten Logs (Zeit-Trigger und Herunterfahren).
+     */
+    @Scheduled(fixedDelayString = "${notification.log.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        while (flushBatch() > 0) {
+            // weiter, bis der Puffer leer ist
+        }
+    }
+
+    public int bufferedCount() {
+        return buffer.size();
+    }
+
+    /**
+     * Anzahl Logs, die seit dem Start wegen Schreibfehlern verworfen wurden.
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Schreibt bis zu batch-size Logs in einer Transaktion. Gleichzeitige Aufrufe entnehmen
+     * disjunkte Logs aus dem Puffer.
+     *
+     * @return Anzahl entnommener Logs
+     */
+    private int flushBatch() {
+        List<EmailLog> batch = new ArrayList<>(batchSize);
+        buffer.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> emailRepository.saveAll(batch));
+        } catch (RuntimeException e) {
+            // Das Log darf den Versand nicht blockieren; die E-Mails sind bereits verschickt
+            long total = dropped.addAndGet(batch.size());
+            log.error("{} E-Mail-Logs konnten nicht geschrieben werden und sind verworfen (seit Start {}): {}",
+                    batch.size(), total, e.getMessage(), e);
+        }
+        return batch.size();
+    }
+}
@@ -1,10 +1,28 @@
 package ch.ffhs.notification_service.service;
 
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
 import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
 import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
 public interface EmailService {
     EmailResponseDto sendVaccinationEmail(EmailRequestDto emailRequest);
+
+    /**
+     * Rendert und versendet mehrere E-Mails gemeinsam (eine SMTP-Verbindung pro Burst des Hosts)
+     * und schreibt die Logs in einem Batch. Fehler betreffen nur die jeweilige E-Mail.
+     */
+    EmailBatchResponseDto sendVaccinationEmails(List<EmailRequestDto> emailRequests);
+
+    /**
+     * Rendert den Inhalt eines Log-Eintrags aus Template und gespeicherten Parametern neu.
+     * Einträge aus der Zeit vor den Template-Parametern liefern das gespeicherte HTML.
+     *
+     * @return leer, wenn der Eintrag nicht existiert oder keinen Inhalt hat
+     */
+    Optional<String> renderLogContent(Long logId);
 }
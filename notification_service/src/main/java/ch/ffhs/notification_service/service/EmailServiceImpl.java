@@ -1,13 +1,19 @@
 package ch.ffhs.notification_service.service;
 
+import ch.ffhs.notification_service.controller.dto.EmailBatchItemResultDto;
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
 import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
 import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
 import ch.ffhs.notification_service.entity.EmailLog;
+import ch.ffhs.notification_service.entity.EmailTemplateParams;
 import ch.ffhs.notification_service.repository.EmailRepository;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -16,13 +22,26 @@ import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.io.UnsupportedEncodingException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class EmailServiceImpl implements EmailService {
 
+    private static final String DEFAULT_SUBJECT = "Impfbenachrichtigung";
+
+    // Bei inhaltlichen Änderungen am Template die Version erhöhen, damit das Log erkennbar bleibt
+    static final String TEMPLATE_ID = "vaccination-email";
+    static final int TEMPLATE_VERSION = 1;
+
     private final JavaMailSender mailSender;
     private final SpringTemplateEngine templateEngine;
     private final EmailRepository emailRepository;
+    private final EmailLogWriter emailLogWriter;
+    private final SmtpRateLimiter smtpRateLimiter;
 
     @Value("${notification.email.from}")
     private String fromAddress;
@@ -31,44 +50,40 @@ public class EmailServiceImpl implements EmailService {
     private String fromPersonal;
 
     @Autowired
-    public EmailServiceImpl(JavaMailSender mailSender, SpringTemplateEngine templateEngine, EmailRepository emailRepository) {
+    public EmailServiceImpl(JavaMailSender mailSender, SpringTemplateEngine templateEngine, EmailRepository emailRepository,
+                            EmailLogWriter emailLogWriter, SmtpRateLimiter smtpRateLimiter) {
         this.mailSender = mailSender;
         this.templateEngine = templateEngine;
         this.emailRepository = emailRepository;
+        this.emailLogWriter = emailLogWriter;
+        this.smtpRateLimiter = smtpRateLimiter;
     }
 
+    /**
+     * @throws RateLimitExceededException wenn die Versandrate des SMTP-Hosts ausgeschöpft ist;
+     *                                    die E-Mail wurde dann weder versendet noch protokolliert
+     */
     @Override
     public EmailResponseDto sendVaccinationEmail(EmailRequestDto emailRequest) {
         try {
-            // Create Thymeleaf context with data
-            Context context = new Context();
-            context.setVariable("recipientName", emailRequest.recipientName());
-            context.setVariable("vaccinations", emailRequest.vaccinations());
-
-            // Process the HTML template
-            String htmlContent = templateEngine.process("vaccination-email", context);
-
-            // Create and send email
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(emailRequest.recipientEmail());
-            String subject = (emailRequest.subject() == null || emailRequest.subject().isBlank()) ? "Impfbenachrichtigung" : emailRequest.subject();
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            helper.setFrom(fromAddress, fromPersonal);
+            String subject = subjectOf(emailRequest);
+            String htmlContent = renderContent(templateParamsOf(emailRequest));
 
-            mailSender.send(message);
+            smtpRateLimiter.acquire(1);
+            mailSender.send(createMessage(emailRequest, subject, htmlContent));
 
             // Log successful email
             EmailLog log = new EmailLog(
                     emailRequest.recipientEmail(),
                     emailRequest.recipientName(),
                     subject,
-                    htmlContent,
+                    TEMPLATE_ID,
+                    TEMPLATE_VERSION,
+                    templateParamsOf(emailRequest),
                     true,
                     null
             );
-            emailRepository.save(log);
+            emailLogWriter.write(log);
 
             return new EmailResponseDto(
                     true,
@@ -76,17 +91,19 @@ public class EmailServiceImpl implements EmailService {
                     LocalDateTime.now().toString()
             );
 
-        } catch (MessagingException | UnsupportedEncodingException | org.springframework.mail.MailException e) {
+        } catch (MessagingException | UnsupportedEncodingException | MailException e) {
             // Log failed email
             EmailLog log = new EmailLog(
                     emailRequest.recipientEmail(),
                     emailRequest.recipientName(),
                     emailRequest.subject(),
-                    null,
+                    TEMPLATE_ID,
+                    TEMPLATE_VERSION,
+                    templateParamsOf(emailRequest),
                     false,
                     e.getMessage()
             );
-            emailRepository.save(log);
+            emailLogWriter.write(log);
 
             return new EmailResponseDto(
                     false,
@@ -95,4 +112,125 @@ public class EmailServiceImpl implements EmailService {
             );
         }
     }
+
+    /**
+     * @throws RateLimitExceededException wenn die Versandrate des SMTP-Hosts ausgeschöpft ist;
+     *                                    die Gruppe wurde dann weder versendet noch protokolliert
+     */
+    @Override
+    public EmailBatchResponseDto sendVaccinationEmails(List<EmailRequestDto> emailRequests) {
+        int count = emailRequests.size();
+        String[] subjects = new String[count];
+        MimeMessage[] messages = new MimeMessage[count];
+        String[] errors = new String[count];
+
+        // Rendern und Aufbauen pro E-Mail; ein Fehler betrifft nur diese E-Mail
+        List<MimeMessage> toSend = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EmailRequestDto request = emailRequests.get(i);
+            try {
+                subjects[i] = subjectOf(request);
+                messages[i] = createMessage(request, subjects[i], renderContent(templateParamsOf(request)));
+                toSend.add(messages[i]);
+            } catch (MessagingException | UnsupportedEncodingException | RuntimeException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        // Eine Verbindung pro Teil von höchstens maxGroupSize Nachrichten, damit der Host nie mehr als
+        // den Burst auf einmal erhält. Nur der erste Teil kann abgelehnt werden; die weiteren warten,
+        // damit eine begonnene Gruppe nicht halb versendet abbricht.
+        // MailSendException enthält die einzelnen Fehlschläge
+        Map<Object, String> sendErrors = new HashMap<>();
+        int chunkSize = smtpRateLimiter.maxGroupSize();
+        for (int from = 0; from < toSend.size(); from += chunkSize) {
+            List<MimeMessage> chunk = toSend.subList(from, Math.min(from + chunkSize, toSend.size()));
+            if (from == 0) {
+                smtpRateLimiter.acquire(chunk.size());
+            } else {
+                smtpRateLimiter.acquireContinuation(chunk.size());
+            }
+            try {
+                mailSender.send(chunk.toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    chunk.forEach(message -> sendErrors.put(message, e.getMessage()));
+                }
+                e.getFailedMessages().forEach((message, failure) -> sendErrors.put(message, failure.getMessage()));
+            } catch (MailException e) {
+                chunk.forEach(message -> sendErrors.put(message, e.getMessage()));
+            }
+        }
+
+        List<EmailBatchItemResultDto> results = new ArrayList<>(count);
+        List<EmailLog> logs = new ArrayList<>(count);
+        int succeeded = 0;
+        for (int i = 0; i < count; i++) {
+            EmailRequestDto request = emailRequests.get(i);
+            String error = errors[i];
+            if (error == null) {
+                error = sendErrors.get(messages[i]);
+            }
+
+            if (error == null) {
+                succeeded++;
+                logs.add(new EmailLog(request.recipientEmail(), request.recipientName(), subjects[i],
+                        TEMPLATE_ID, TEMPLATE_VERSION, templateParamsOf(request), true, null));
+                results.add(new EmailBatchItemResultDto(i, request.recipientEmail(), true,
+                        "E-Mail erfolgreich gesendet an " + request.recipientEmail()));
+            } else {
+                logs.add(new EmailLog(request.recipientEmail(), request.recipientName(), request.subject(),
+                        TEMPLATE_ID, TEMPLATE_VERSION, templateParamsOf(request), false, error));
+                results.add(new EmailBatchItemResultDto(i, request.recipientEmail(), false,
+                        "Fehler beim Senden der E-Mail: " + error));
+            }
+        }
+
+        emailLogWriter.writeAll(logs);
+
+        return new EmailBatchResponseDto(count, succeeded, count - succeeded, results, LocalDateTime.now().toString());
+    }
+
+    @Override
+    public Optional<String> renderLogContent(Long logId) {
+        return emailRepository.findById(logId).map(log -> {
+            if (log.getTemplateParams() != null) {
+                return render(log.getTemplateId(), log.getTemplateParams());
+            }
+            return log.getLegacyContent();
+        });
+    }
+
+    private String subjectOf(EmailRequestDto emailRequest) {
+        return (emailRequest.subject() == null || emailRequest.subject().isBlank()) ? DEFAULT_SUBJECT : emailRequest.subject();
+    }
+
+    private EmailTemplateParams templateParamsOf(EmailRequestDto emailRequest) {
+        return new EmailTemplateParams(emailRequest.recipientName(), emailRequest.vaccinations());
+    }
+
+    private String renderContent(EmailTemplateParams params) {
+        return render(TEMPLATE_ID, params);
+    }
+
+    private String render(String templateId, EmailTemplateParams params) {
+        // Create Thymeleaf context with data
+        Context context = new Context();
+        context.setVariable("recipientName", params.recipientName());
+        context.setVariable("vaccinations", params.vaccinations());
+
+        // Process the HTML template
+        return templateEngine.process(templateId, context);
+    }
+
+    private MimeMessage createMessage(EmailRequestDto emailRequest, String subject, String htmlContent)
+            throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(emailRequest.recipientEmail());
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        helper.setFrom(fromAddress, fromPersonal);
+        return message;
+    }
 }
@@ -0,0 +1,39 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
+import ch.ffhs.notification_service.service.exception.IdempotencyKeyInProgressException;
+
+import java.util.Optional;
+
+public interface IdempotencyService {
+
+    /**
+     * Nimmt den Key mit der Antwort an, sofern er noch nicht (oder nicht mehr innerhalb der TTL)
+     * bekannt ist. Bei einem Duplikat bleibt der Key unverändert.
+     *
+     * @return die ursprüngliche Antwort, wenn der Key bereits angenommen wurde; sonst leer
+     * @throws IdempotencyKeyInProgressException wenn der Key noch in Bearbeitung ist
+     */
+    Optional<EmailResponseDto> putIfAbsent(String idempotencyKey, EmailResponseDto response);
+
+    /**
+     * Nimmt den Key als "in Bearbeitung" an, wenn die Antwort erst nach dem Versand feststeht.
+     * Bis {@link #complete} oder {@link #remove} erhalten Wiederholungen keine Antwort, sondern
+     * eine {@link IdempotencyKeyInProgressException}; bleibt beides aus (Absturz), wird der Key nach
+     * notification.idempotency.in-progress-timeout-ms wieder frei.
+     *
+     * @return die ursprüngliche Antwort, wenn der Key bereits abgeschlossen ist; sonst leer
+     * @throws IdempotencyKeyInProgressException wenn der Key noch in Bearbeitung ist
+     */
+    Optional<EmailResponseDto> claim(String idempotencyKey);
+
+    /**
+     * Speichert die Antwort zu einem mit {@link #claim} angenommenen Key; die TTL beginnt neu.
+     */
+    void complete(String idempotencyKey, EmailResponseDto response);
+
+    /**
+     * Gibt einen angenommenen Key wieder frei, z.B. wenn die E-Mail doch nicht eingereiht werden konnte.
+     */
+    void remove(String idempotencyKey);
+}
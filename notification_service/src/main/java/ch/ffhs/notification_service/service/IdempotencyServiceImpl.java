@@ -0,0 +1,232 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
+import ch.ffhs.notification_service.service.exception.IdempotencyKeyInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency-Keys in einem begrenzten LRU-Cache vor der Tabelle idempotency_record. Duplikate
+ * aus dem Cache kosten keinen Datenbankzugriff; ein neuer Key wird mit einem einzigen
+ * INSERT ... ON CONFLICT angenommen, das auch gleichzeitige Anfragen mehrerer Instanzen entscheidet.
+ * Keys in Bearbeitung landen nicht im Cache, ihr Abschluss kann auf einer anderen Instanz erfolgen.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    // Abgelaufene und liegengebliebene (in Bearbeitung seit dem Timeout) Keys werden überschrieben,
+    // gültige bleiben unverändert (0 Zeilen)
+    private static final String CLAIM_SQL = """
+            INSERT INTO notification_service.idempotency_record
+                (idempotency_key, success, message, response_timestamp, in_progress, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (idempotency_key) DO UPDATE SET
+                success = EXCLUDED.success,
+                message = EXCLUDED.message,
+                response_timestamp = EXCLUDED.response_timestamp,
+                in_progress = EXCLUDED.in_progress,
+                created_at = EXCLUDED.created_at
+            WHERE idempotency_record.created_at < ?
+               OR (idempotency_record.in_progress AND idempotency_record.created_at < ?)
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE notification_service.idempotency_record
+            SET success = ?, message = ?, response_timestamp = ?, in_progress = FALSE, created_at = ?
+            WHERE idempotency_key = ?
+            """;
+
+    private static final String FIND_SQL = """
+            SELECT success, message, response_timestamp, in_progress, created_at
+            FROM notification_service.idempotency_record
+            WHERE idempotency_key = ?
+            """;
+
+    private static final String DELETE_SQL =
+            "DELETE FROM notification_service.idempotency_record WHERE idempotency_key = ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM notification_service.idempotency_record WHERE created_at < ?";
+
+    private record CachedResponse(EmailResponseDto response, Instant expiresAt) {
+    }
+
+    // Gespeicherter Stand eines Keys; bei inProgress ist expiresAt das Ende des Timeouts
+    private record StoredRecord(EmailResponseDto response, boolean inProgress, Instant expiresAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Map<String, CachedResponse> cache;
+
+    @Autowired
+    public IdempotencyServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            @Value("${notification.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${notification.idempotency.cache-size:10000}") int cacheSize,
+            @Value("${notification.idempotency.in-progress-timeout-ms:120000}") long inProgressTimeoutMs
+    ) {
+        this(jdbcTemplate, Clock.systemUTC(), ttlHours, cacheSize, inProgressTimeoutMs);
+    }
+
+    IdempotencyServiceImpl(JdbcTemplate jdbcTemplate, Clock clock, long ttlHours, int cacheSize, long inProgressTimeoutMs) {
+        if (ttlHours < 1) {
+            throw new IllegalArgumentException("notification.idempotency.ttl-hours muss mindestens 1 sein: " + ttlHours);
+        }
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("notification.idempotency.cache-size muss mindestens 1 sein: " + cacheSize);
+        }
+        if (inProgressTimeoutMs < 1) {
+            throw new IllegalArgumentException(
+                    "notification.idempotency.in-progress-timeout-ms muss positiv sein: " + inProgressTimeoutMs);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressTimeout = Duration.ofMillis(inProgressTimeoutMs);
+        // Zugriffsreihenfolge: bei vollem Cache fällt der am längsten nicht verwendete Key heraus
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public Optional<EmailResponseDto> putIfAbsent(String idempotencyKey, EmailResponseDto response) {
+        return accept(idempotencyKey, response);
+    }
+
+    @Override
+    public Optional<EmailResponseDto> claim(String idempotencyKey) {
+        return accept(idempotencyKey, null);
+    }
+
+    @Override
+    public void complete(String idempotencyKey, EmailResponseDto response) {
+        Instant now = clock.instant();
+        int updated = jdbcTemplate.update(COMPLETE_SQL, response.success(), response.message(), response.timestamp(),
+                utc(now), idempotencyKey);
+        if (updated == 0) {
+            // Inzwischen abgelaufen oder freigegeben: die nächste Wiederholung wird erneut angenommen
+            log.warn("Idempotency-Key {} beim Abschluss nicht mehr vorhanden", idempotencyKey);
+            return;
+        }
+        cache(idempotencyKey, response, now.plus(ttl));
+    }
+
+    /**
+     * Nimmt den Key an; ohne Antwort (response null) als "in Bearbeitung".
+     */
+    private Optional<EmailResponseDto> accept(String idempotencyKey, EmailResponseDto response) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key muss 1 bis " + MAX_KEY_LENGTH + " Zeichen lang sein");
+        }
+        Instant now = clock.instant();
+        Optional<EmailResponseDto> cached = fromCache(idempotencyKey, now);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        boolean inProgress = response == null;
+        int claimed = jdbcTemplate.update(CLAIM_SQL, idempotencyKey,
+                !inProgress && response.success(),
+                inProgress ? null : response.message(),
+                inProgress ? null : response.timestamp(),
+                inProgress, utc(now), utc(now.minus(ttl)), utc(now.minus(inProgressTimeout)));
+        if (claimed == 1) {
+            if (!inProgress) {
+                cache(idempotencyKey, response, now.plus(ttl));
+            }
+            return Optional.empty();
+        }
+
+        // Von einer anderen Instanz angenommen, noch in Bearbeitung oder aus dem Cache verdrängt
+        List<StoredRecord> stored = jdbcTemplate.query(FIND_SQL, storedRecord(), idempotencyKey);
+        if (stored.isEmpty()) {
+            // Zwischen INSERT und SELECT gelöscht (Freigabe oder Ablauf): Anfrage als neu behandeln
+            log.warn("Idempotency-Key {} weder angenommen noch gefunden", idempotencyKey);
+            return Optional.empty();
+        }
+        StoredRecord original = stored.getFirst();
+        if (original.inProgress()) {
+            Duration remaining = Duration.between(now, original.expiresAt());
+            throw new IdempotencyKeyInProgressException(idempotencyKey,
+                    remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining);
+        }
+        cache(idempotencyKey, original.response(), original.expiresAt());
+        return Optional.of(original.response());
+    }
+
+    @Override
+    public void remove(String idempotencyKey) {
+        synchronized (cache) {
+            cache.remove(idempotencyKey);
+        }
+        jdbcTemplate.update(DELETE_SQL, idempotencyKey);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(PURGE_SQL, utc(clock.instant().minus(ttl)));
+        if (purged > 0) {
+            log.info("{} abgelaufene Idempotency-Keys geloescht", purged);
+        }
+    }
+
+    private Optional<EmailResponseDto> fromCache(String idempotencyKey, Instant now) {
+        synchronized (cache) {
+            CachedResponse cached = cache.get(idempotencyKey);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            if (!cached.expiresAt().isAfter(now)) {
+                cache.remove(idempotencyKey);
+                return Optional.empty();
+            }
+            return Optional.of(cached.response());
+        }
+    }
+
+    private void cache(String idempotencyKey, EmailResponseDto response, Instant expiresAt) {
+        synchronized (cache) {
+            cache.put(idempotencyKey, new CachedResponse(response, expiresAt));
+        }
+    }
+
+    private RowMapper<StoredRecord> storedRecord() {
+        return (rs, rowNum) -> {
+            boolean inProgress = rs.getBoolean("in_progress");
+            Instant createdAt = rs.getObject("created_at", OffsetDateTime.class).toInstant();
+            return new StoredRecord(
+                    new EmailResponseDto(rs.getBoolean("success"), rs.getString("message"), rs.getString("response_timestamp")),
+                    inProgress,
+                    createdAt.plus(inProgress ? inProgressTimeout : ttl));
+        };
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
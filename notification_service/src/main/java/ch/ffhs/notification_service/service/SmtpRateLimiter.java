@@ -0,0 +1,86 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.config.SmtpRateLimitProperties;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Begrenzt den Versand über den konfigurierten SMTP-Host (spring.mail.host) auf dessen Rate
+ * aus {@link SmtpRateLimitProperties}. Wird vor jedem Aufruf von JavaMailSender#send gefragt.
+ */
+@Component
+public class SmtpRateLimiter {
+
+    private final String host;
+    private final TokenBucket bucket;
+    private final Duration maxWait;
+
+    @Autowired
+    public SmtpRateLimiter(SmtpRateLimitProperties properties, @Value("${spring.mail.host}") String host) {
+        this(host, Duration.ofMillis(properties.maxWaitMs()), new TokenBucket(
+                properties.rateFor(host).perSecond(), properties.rateFor(host).burst(), System::nanoTime));
+    }
+
+    SmtpRateLimiter(String host, Duration maxWait, TokenBucket bucket) {
+        this.host = host;
+        this.bucket = bucket;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Grösste Anzahl E-Mails, die auf einmal reserviert und versendet werden darf (Burst des Hosts).
+     */
+    public int maxGroupSize() {
+        return bucket.capacity();
+    }
+
+    /**
+     * Reserviert Kapazität für die E-Mails und wartet, bis sie versendet werden dürfen.
+     *
+     * @param messages höchstens {@link #maxGroupSize()}
+     * @throws RateLimitExceededException wenn die Wartezeit max-wait-ms überschreiten würde;
+     *                                    es wird dann nichts reserviert
+     */
+    public void acquire(int messages) {
+        TokenBucket.Reservation reservation = bucket.reserve(messages, maxWait.toNanos());
+        if (!reservation.granted()) {
+            throw new RateLimitExceededException(host, Duration.ofNanos(reservation.waitNanos()));
+        }
+        if (reservation.waitNanos() > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(reservation.waitNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException(host, Duration.ofNanos(reservation.waitNanos()));
+            }
+        }
+    }
+
+    /**
+     * Wie {@link #acquire(int)}, aber ohne Obergrenze für die Wartezeit: für die weiteren Teile
+     * einer bereits begonnenen Gruppe, die nicht mehr abgelehnt werden dürfen. Bei einem Interrupt
+     * (Herunterfahren) wird nicht weiter gewartet.
+     */
+    public void acquireContinuation(int messages) {
+        TokenBucket.Reservation reservation = bucket.reserve(messages, Long.MAX_VALUE);
+        if (reservation.waitNanos() > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(reservation.waitNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Geschätzte Zeit, bis die angegebene Anzahl E-Mails bei der Rate des Hosts versendet ist.
+     */
+    public Duration timeFor(int messages) {
+        return Duration.ofNanos(bucket.nanosFor(messages));
+    }
+}
@@ -0,0 +1,69 @@
+package ch.ffhs.notification_service.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token Bucket mit Reservierung: jede Reservierung wartet, bis ihre eigenen Tokens nachgefüllt
+ * sind, und zieht den Bestand dafür sofort ab (auch ins Minus). Folgende Reservierungen stellen
+ * sich so hinten an. Eine Reservierung darf höchstens den Burst umfassen; grössere Gruppen teilt
+ * der Aufrufer auf, sonst gingen sie auf einmal an den SMTP-Host.
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Ergebnis einer Reservierung: bei {@code granted} ist {@code waitNanos} die Wartezeit bis zum
+     * Versand, sonst die Zeit, nach der ein neuer Versuch sinnvoll ist.
+     */
+    record Reservation(boolean granted, long waitNanos) {
+    }
+
+    TokenBucket(double perSecond, int burst, LongSupplier nanoClock) {
+        if (perSecond <= 0) {
+            throw new IllegalArgumentException("Rate muss positiv sein: " + perSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst muss mindestens 1 sein: " + burst);
+        }
+        this.tokensPerNano = perSecond / NANOS_PER_SECOND;
+        this.capacity = burst;
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    synchronized Reservation reserve(int permits, long maxWaitNanos) {
+        if (permits > capacity) {
+            throw new IllegalArgumentException("Reservierung grösser als der Burst: " + permits + " > " + (int) capacity);
+        }
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+
+        long waitNanos = tokens >= permits ? 0 : (long) Math.ceil((permits - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return new Reservation(false, waitNanos);
+        }
+        tokens -= permits;
+        return new Reservation(true, waitNanos);
+    }
+
+    int capacity() {
+        return (int) capacity;
+    }
+
+    /**
+     * Zeit, bis die angegebene Anzahl E-Mails bei der nachhaltigen Rate versendet ist.
+     */
+    long nanosFor(int permits) {
+        return (long) Math.ceil(permits / tokensPerNano);
+    }
+}
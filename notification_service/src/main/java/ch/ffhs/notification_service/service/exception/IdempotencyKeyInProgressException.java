@@ -0,0 +1,22 @@
+package ch.ffhs.notification_service.service.exception;
+
+import java.time.Duration;
+
+/**
+ * Eine Anfrage mit demselben Idempotency-Key wird gerade verarbeitet. Es wurde nichts versendet;
+ * der Aufrufer soll es nach {@link #getRetryAfter()} erneut versuchen und erhält dann das Ergebnis.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyKeyInProgressException(String idempotencyKey, Duration retryAfter) {
+        super("Idempotency-Key " + idempotencyKey + " wird noch verarbeitet, erneut versuchen in "
+                + retryAfter.toSeconds() + " s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,21 @@
+package ch.ffhs.notification_service.service.exception;
+
+import java.time.Duration;
+
+/**
+ * Die Versandrate des SMTP-Hosts ist ausgeschöpft. Es wurde nichts versendet; der Aufrufer
+ * soll es nach {@link #getRetryAfter()} erneut versuchen.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String host, Duration retryAfter) {
+        super("Versandrate fuer " + host + " ausgeschoepft, erneut versuchen in " + retryAfter.toSeconds() + " s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
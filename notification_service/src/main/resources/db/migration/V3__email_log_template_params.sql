@@ -0,0 +1,22 @@
+-- V3__email_log_template_params.sql
+-- Statt des gerenderten HTML pro E-Mail speichert das Log das Template (id und Version) und dessen
+-- Parameter als JSONB. Das HTML wird bei Bedarf neu gerendert.
+
+ALTER TABLE notification_service.email_log ADD COLUMN template_id VARCHAR(100);
+ALTER TABLE notification_service.email_log ADD COLUMN template_version INTEGER;
+ALTER TABLE notification_service.email_log ADD COLUMN template_params JSONB;
+
+-- Bestehende Einträge: die Impfungen lassen sich aus dem HTML nicht zuverlässig zurückgewinnen.
+-- Das HTML bleibt deshalb nur für diese Einträge erhalten (von PostgreSQL per TOAST komprimiert),
+-- neue Einträge schreiben die Spalte nicht mehr.
+ALTER TABLE notification_service.email_log RENAME COLUMN content TO legacy_content;
+
+UPDATE notification_service.email_log
+SET template_id = 'vaccination-email',
+    template_version = 1
+WHERE legacy_content IS NOT NULL;
+
+COMMENT ON COLUMN notification_service.email_log.template_id IS 'Name des Thymeleaf-Templates';
+COMMENT ON COLUMN notification_service.email_log.template_version IS 'Version des Templates beim Versand';
+COMMENT ON COLUMN notification_service.email_log.template_params IS 'Template-Parameter (Empfängername und Impfungen) als JSON';
+COMMENT ON COLUMN notification_service.email_log.legacy_content IS 'Gerendertes HTML von Einträgen vor V3, sonst NULL';
@@ -0,0 +1,14 @@
+-- V4__email_log_pooled_sequence.sql
+-- IDs von email_log aus einer Sequenz mit Schrittweite 50: Hibernate reserviert so 50 IDs pro
+-- Sequenz-Aufruf (pooled) und kann die Inserts per JDBC-Batch bündeln. IDENTITY verhindert das.
+
+CREATE SEQUENCE notification_service.email_log_seq INCREMENT BY 50;
+
+-- pooled: Hibernate behandelt den Sequenzwert als obere Grenze und vergibt die 50 IDs darunter
+-- (Wert - 49 bis Wert); der nächste Wert muss daher MAX(id) + 50 sein
+SELECT setval('notification_service.email_log_seq', COALESCE(MAX(id), 0) + 50, false)
+FROM notification_service.email_log;
+
+-- Die IDs vergibt ausschliesslich Hibernate; die BIGSERIAL-Sequenz würde mit den reservierten Bereichen kollidieren
+ALTER TABLE notification_service.email_log ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS notification_service.email_log_id_seq;
@@ -0,0 +1,55 @@
+-- V5__partition_email_log_by_month.sql
+-- email_log wird nach Monat (sent_at) partitioniert. Neue Partitionen legt der EmailLogPartitionService
+-- im Voraus an, alte Partitionen werden als Ganzes abgehängt bzw. gelöscht statt per DELETE.
+
+ALTER TABLE notification_service.email_log RENAME TO email_log_unpartitioned;
+
+-- Der Primärschlüssel einer partitionierten Tabelle muss den Partitionsschlüssel enthalten
+CREATE TABLE notification_service.email_log (
+    id BIGINT NOT NULL,
+    recipient_email VARCHAR(255) NOT NULL,
+    recipient_name VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    template_id VARCHAR(100),
+    template_version INTEGER,
+    template_params JSONB,
+    legacy_content TEXT,
+    sent_at TIMESTAMP NOT NULL,
+    success BOOLEAN NOT NULL,
+    error_message TEXT,
+    PRIMARY KEY (id, sent_at)
+) PARTITION BY RANGE (sent_at);
+
+-- Partitionen für alle vorhandenen Monate bis drei Monate im Voraus
+DO $$
+DECLARE
+    month_start DATE := COALESCE(
+            (SELECT date_trunc('month', MIN(sent_at))::date FROM notification_service.email_log_unpartitioned),
+            date_trunc('month', CURRENT_DATE)::date);
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+                'CREATE TABLE IF NOT EXISTS notification_service.%I PARTITION OF notification_service.email_log FOR VALUES FROM (%L) TO (%L)',
+                'email_log_p' || to_char(month_start, 'YYYYMM'),
+                month_start,
+                (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO notification_service.email_log
+    (id, recipient_email, recipient_name, subject, template_id, template_version, template_params,
+     legacy_content, sent_at, success, error_message)
+SELECT id, recipient_email, recipient_name, subject, template_id, template_version, template_params,
+       legacy_content, sent_at, success, error_message
+FROM notification_service.email_log_unpartitioned;
+
+DROP TABLE notification_service.email_log_unpartitioned;
+
+-- Werden auf jeder Partition angelegt: Zustellungen pro Empfänger (neueste zuerst) und pro Zeitfenster.
+-- Der Index auf success entfällt (zu wenig selektiv).
+CREATE INDEX idx_email_log_recipient_sent_at ON notification_service.email_log(recipient_email, sent_at DESC);
+CREATE INDEX idx_email_log_sent_at ON notification_service.email_log(sent_at);
+
+COMMENT ON TABLE notification_service.email_log IS 'Log-Tabelle für alle versendeten E-Mails des Notification Service, monatlich partitioniert nach sent_at';
@@ -0,0 +1,17 @@
+-- V6__create_idempotency_record.sql
+-- Idempotency-Keys von POST /api/v1/email/send mit der ursprünglichen Antwort. Der Primärschlüssel
+-- sorgt dafür, dass ein Key auch über mehrere Instanzen hinweg nur einmal angenommen wird.
+
+CREATE TABLE notification_service.idempotency_record (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    success BOOLEAN NOT NULL,
+    message TEXT,
+    response_timestamp VARCHAR(50),
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+-- Für das Löschen abgelaufener Keys
+CREATE INDEX idx_idempotency_record_created_at ON notification_service.idempotency_record(created_at);
+
+COMMENT ON TABLE notification_service.idempotency_record IS 'Angenommene Idempotency-Keys und die ursprüngliche Antwort';
+COMMENT ON COLUMN notification_service.idempotency_record.created_at IS 'Zeitpunkt der Annahme; nach Ablauf der TTL darf der Key erneut verwendet werden';
@@ -0,0 +1,8 @@
+-- V7__idempotency_record_in_progress.sql
+-- /send-batch nimmt Keys vor dem Versand als "in Bearbeitung" an und speichert die Antwort erst
+-- nach dem Versand. Wiederholungen während des Versands erhalten 409 statt einer Erfolgsantwort.
+
+ALTER TABLE notification_service.idempotency_record
+    ADD COLUMN in_progress BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMENT ON COLUMN notification_service.idempotency_record.in_progress IS 'Versand läuft noch; nach notification.idempotency.in-progress-timeout-ms darf der Key erneut angenommen werden';
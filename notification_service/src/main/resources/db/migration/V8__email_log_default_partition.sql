@@ -0,0 +1,8 @@
+-- V8__email_log_default_partition.sql
+-- Auffang-Partition für Logs ausserhalb der angelegten Monate (z.B. wenn die Partitionspflege
+-- ausgefallen ist). Ohne sie schlägt der Insert fehl und die Logs des ganzen Batches gehen verloren.
+-- Vor dem Anlegen eines Monats verschiebt der EmailLogPartitionService dessen Zeilen von hier in die
+-- neue Partition.
+
+CREATE TABLE IF NOT EXISTS notification_service.email_log_default
+    PARTITION OF notification_service.email_log DEFAULT;
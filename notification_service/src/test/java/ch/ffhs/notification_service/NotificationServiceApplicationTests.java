@@ -0,0 +1,33 @@
+package ch.ffhs.notification_service;
+
+import ch.ffhs.notification_service.repository.EmailRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Prüft, dass der Kontext mit allen Services startet (Konstruktorauswahl, @Value-Properties).
+ * Die Migrationen setzen PostgreSQL voraus; Datenbankzugriffe sind deshalb durch Mocks ersetzt.
+ */
+@SpringBootTest(properties = "spring.autoconfigure.exclude="
+		+ "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+		+ "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration,"
+		+ "org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration")
+class NotificationServiceApplicationTests {
+
+	@MockitoBean
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoBean
+	private PlatformTransactionManager transactionManager;
+
+	@MockitoBean
+	private EmailRepository emailRepository;
+
+	@Test
+	void contextLoads() {
+	}
+
+}
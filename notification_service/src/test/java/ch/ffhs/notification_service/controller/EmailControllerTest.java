@@ -1,12 +1,20 @@
 package ch.ffhs.notification_service.controller;
 
+import ch.ffhs.notification_service.controller.dto.EmailBatchItemResultDto;
+import ch.ffhs.notification_service.controller.dto.EmailBatchRequestDto;
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
 import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
 import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
 import ch.ffhs.notification_service.controller.dto.VaccinationDto;
+import ch.ffhs.notification_service.service.EmailDispatchService;
 import ch.ffhs.notification_service.service.EmailService;
+import ch.ffhs.notification_service.service.IdempotencyService;
+import ch.ffhs.notification_service.service.exception.IdempotencyKeyInProgressException;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.MediaType;
@@ -21,26 +29,38 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Path;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class EmailControllerTest {
 
     private MockMvc mockMvc;
     private EmailService emailService;
+    private EmailDispatchService emailDispatchService;
+    private IdempotencyService idempotencyService;
     private ObjectMapper mapper;
     private EmailController controller;
 
     @BeforeEach
     void setUp() {
         emailService = Mockito.mock(EmailService.class);
-        controller = new EmailController(emailService);
+        emailDispatchService = Mockito.mock(EmailDispatchService.class);
+        idempotencyService = Mockito.mock(IdempotencyService.class);
+        controller = new EmailController(emailService, emailDispatchService, idempotencyService);
 
         // enable validation for @Valid on controller
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
@@ -54,9 +74,8 @@ class EmailControllerTest {
     }
 
     @Test
-    void sendEmail_success_returns200AndBody() throws Exception {
-        EmailResponseDto responseDto = new EmailResponseDto(true, "ok", "2025-11-27T00:00:00Z");
-        when(emailService.sendVaccinationEmail(any(EmailRequestDto.class))).thenReturn(responseDto);
+    void sendEmail_enqueued_returns202WithoutSending() throws Exception {
+        when(emailDispatchService.enqueue(any(EmailRequestDto.class))).thenReturn(true);
 
         var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
         EmailRequestDto req = new EmailRequestDto("to@example.com", "Recipient", "Subject", java.util.List.of(vaccination));
@@ -64,39 +83,94 @@ class EmailControllerTest {
         var mvcResult = mockMvc.perform(post("/api/v1/email/send")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(req)))
-                .andExpect(status().isOk())
+                .andExpect(status().isAccepted())
                 .andReturn();
 
         String respJson = mvcResult.getResponse().getContentAsString();
         EmailResponseDto resp = mapper.readValue(respJson, EmailResponseDto.class);
 
         assertTrue(resp.success());
-        assertEquals("ok", resp.message());
+        assertTrue(resp.message().contains("to@example.com"));
         assertNotNull(resp.timestamp());
-        verify(emailService, times(1)).sendVaccinationEmail(any(EmailRequestDto.class));
+        verify(emailDispatchService, times(1)).enqueue(req);
+        verifyNoInteractions(emailService);
+        verifyNoInteractions(idempotencyService);
     }
 
     @Test
-    void sendEmail_failure_returns500AndBody() throws Exception {
-        EmailResponseDto responseDto = new EmailResponseDto(false, "failed", null);
-        when(emailService.sendVaccinationEmail(any(EmailRequestDto.class))).thenReturn(responseDto);
+    void sendEmail_duplicateIdempotencyKey_returnsOriginalResponseWithoutEnqueueing() throws Exception {
+        EmailResponseDto original = new EmailResponseDto(true, "E-Mail zum Versand eingereiht an to@example.com",
+                "2025-10-09T14:30:00");
+        when(idempotencyService.putIfAbsent(eq("key-1"), any(EmailResponseDto.class))).thenReturn(Optional.of(original));
 
         var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
         EmailRequestDto req = new EmailRequestDto("to@example.com", "Recipient", "Subject", java.util.List.of(vaccination));
 
         var mvcResult = mockMvc.perform(post("/api/v1/email/send")
+                        .header("Idempotency-Key", "key-1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(mapper.writeValueAsString(req)))
-                .andExpect(status().isInternalServerError())
+                .andExpect(status().isAccepted())
                 .andReturn();
 
-        String respJson = mvcResult.getResponse().getContentAsString();
-        EmailResponseDto resp = mapper.readValue(respJson, EmailResponseDto.class);
+        assertEquals(original, mapper.readValue(mvcResult.getResponse().getContentAsString(), EmailResponseDto.class));
+        verifyNoInteractions(emailDispatchService, emailService);
+    }
+
+    @Test
+    void sendEmail_newIdempotencyKey_enqueues() throws Exception {
+        when(idempotencyService.putIfAbsent(eq("key-1"), any(EmailResponseDto.class))).thenReturn(Optional.empty());
+        when(emailDispatchService.enqueue(any(EmailRequestDto.class))).thenReturn(true);
+
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto req = new EmailRequestDto("to@example.com", "Recipient", "Subject", java.util.List.of(vaccination));
+
+        mockMvc.perform(post("/api/v1/email/send")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isAccepted());
+
+        verify(emailDispatchService).enqueue(req);
+        verify(idempotencyService, never()).remove(anyString());
+    }
+
+    @Test
+    void sendEmail_queueFull_releasesIdempotencyKey() throws Exception {
+        when(idempotencyService.putIfAbsent(eq("key-1"), any(EmailResponseDto.class))).thenReturn(Optional.empty());
+        when(emailDispatchService.enqueue(any(EmailRequestDto.class))).thenReturn(false);
+        when(emailDispatchService.estimatedDrainTime()).thenReturn(Duration.ofSeconds(1));
+
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto req = new EmailRequestDto("to@example.com", "Recipient", "Subject", java.util.List.of(vaccination));
+
+        mockMvc.perform(post("/api/v1/email/send")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isTooManyRequests());
+
+        verify(idempotencyService).remove("key-1");
+    }
+
+    @Test
+    void sendEmail_queueFull_returns429WithRetryAfter() throws Exception {
+        when(emailDispatchService.enqueue(any(EmailRequestDto.class))).thenReturn(false);
+        when(emailDispatchService.estimatedDrainTime()).thenReturn(Duration.ofMillis(12_300));
+
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto req = new EmailRequestDto("to@example.com", "Recipient", "Subject", java.util.List.of(vaccination));
+
+        var mvcResult = mockMvc.perform(post("/api/v1/email/send")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(req)))
+                .andExpect(status().isTooManyRequests())
+                .andReturn();
+
+        EmailResponseDto resp = mapper.readValue(mvcResult.getResponse().getContentAsString(), EmailResponseDto.class);
 
         assertFalse(resp.success());
-        assertEquals("failed", resp.message());
-        assertNull(resp.timestamp());
-        verify(emailService, times(1)).sendVaccinationEmail(any(EmailRequestDto.class));
+        assertEquals("13", mvcResult.getResponse().getHeader("Retry-After"));
     }
 
     @Test
@@ -109,7 +183,180 @@ class EmailControllerTest {
                         .content(emptyJson))
                 .andExpect(status().isBadRequest());
 
-        verify(emailService, never()).sendVaccinationEmail(any());
+        verify(emailDispatchService, never()).enqueue(any());
+    }
+
+    @Test
+    void sendEmailBatch_returns200WithPerItemResults() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        EmailRequestDto second = new EmailRequestDto("b@example.com", "B", "Subject", java.util.List.of(vaccination));
+        EmailBatchResponseDto responseDto = new EmailBatchResponseDto(2, 1, 1, java.util.List.of(
+                new EmailBatchItemResultDto(0, "a@example.com", true, "ok"),
+                new EmailBatchItemResultDto(1, "b@example.com", false, "failed")), "2025-11-27T00:00:00Z");
+        when(emailService.sendVaccinationEmails(anyList())).thenReturn(responseDto);
+
+        var mvcResult = mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        EmailBatchResponseDto resp = mapper.readValue(mvcResult.getResponse().getContentAsString(), EmailBatchResponseDto.class);
+        assertEquals(2, resp.total());
+        assertEquals(1, resp.failed());
+        assertFalse(resp.results().get(1).success());
+        verify(emailService, times(1)).sendVaccinationEmails(java.util.List.of(first, second));
+    }
+
+    @Test
+    void sendEmailBatch_rateLimitExceeded_returns429WithRetryAfter() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        when(emailService.sendVaccinationEmails(anyList()))
+                .thenThrow(new RateLimitExceededException("smtp.example.com", Duration.ofSeconds(7)));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first)))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"));
+    }
+
+    @Test
+    void sendEmailBatch_withIdempotencyKeys_skipsDuplicates_andReleasesFailedKeys() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto duplicate = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        EmailRequestDto failing = new EmailRequestDto("b@example.com", "B", "Subject", java.util.List.of(vaccination));
+        EmailRequestDto withoutKey = new EmailRequestDto("c@example.com", "C", "Subject", java.util.List.of(vaccination));
+        when(idempotencyService.claim("key-a"))
+                .thenReturn(Optional.of(new EmailResponseDto(true, "original", "2025-11-26T00:00:00Z")));
+        when(idempotencyService.claim("key-b")).thenReturn(Optional.empty());
+        when(emailService.sendVaccinationEmails(java.util.List.of(failing, withoutKey)))
+                .thenReturn(new EmailBatchResponseDto(2, 1, 1, java.util.List.of(
+                        new EmailBatchItemResultDto(0, "b@example.com", false, "failed"),
+                        new EmailBatchItemResultDto(1, "c@example.com", true, "ok")), "2025-11-27T00:00:00Z"));
+
+        var mvcResult = mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(
+                                java.util.List.of(duplicate, failing, withoutKey),
+                                java.util.Arrays.asList("key-a", "key-b", null)))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        EmailBatchResponseDto resp = mapper.readValue(mvcResult.getResponse().getContentAsString(), EmailBatchResponseDto.class);
+        assertEquals(3, resp.total());
+        assertEquals(2, resp.succeeded());
+        assertEquals(new EmailBatchItemResultDto(0, "a@example.com", true, "original"), resp.results().get(0));
+        assertEquals(new EmailBatchItemResultDto(1, "b@example.com", false, "failed"), resp.results().get(1));
+        assertEquals(new EmailBatchItemResultDto(2, "c@example.com", true, "ok"), resp.results().get(2));
+        verify(idempotencyService).remove("key-b");
+        verify(idempotencyService, never()).remove("key-a");
+        verify(idempotencyService, never()).complete(anyString(), any());
+    }
+
+    @Test
+    void sendEmailBatch_withIdempotencyKeys_completesKeyOnlyAfterSuccessfulSend() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        when(idempotencyService.claim("key-a")).thenReturn(Optional.empty());
+        when(emailService.sendVaccinationEmails(java.util.List.of(first))).thenAnswer(invocation -> {
+            // Während des Versands ist der Key nur angenommen, noch ohne Antwort
+            verify(idempotencyService, never()).complete(anyString(), any());
+            return new EmailBatchResponseDto(1, 1, 0, java.util.List.of(
+                    new EmailBatchItemResultDto(0, "a@example.com", true, "ok")), "2025-11-27T00:00:00Z");
+        });
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first),
+                                java.util.List.of("key-a")))))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<EmailResponseDto> captor = ArgumentCaptor.forClass(EmailResponseDto.class);
+        verify(idempotencyService).complete(eq("key-a"), captor.capture());
+        assertTrue(captor.getValue().success());
+        verify(idempotencyService, never()).putIfAbsent(anyString(), any());
+    }
+
+    @Test
+    void sendEmailBatch_keyInProgress_returns409WithRetryAfter_andReleasesClaimedKeys() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        EmailRequestDto second = new EmailRequestDto("b@example.com", "B", "Subject", java.util.List.of(vaccination));
+        when(idempotencyService.claim("key-a")).thenReturn(Optional.empty());
+        when(idempotencyService.claim("key-b"))
+                .thenThrow(new IdempotencyKeyInProgressException("key-b", Duration.ofSeconds(42)));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first, second),
+                                java.util.List.of("key-a", "key-b")))))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "42"));
+
+        verify(idempotencyService).remove("key-a");
+        verify(idempotencyService, never()).remove("key-b");
+        verify(emailService, never()).sendVaccinationEmails(anyList());
+    }
+
+    @Test
+    void sendEmailBatch_duplicateIdempotencyKeys_returns400() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first, first),
+                                java.util.List.of("key-a", "key-a")))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(idempotencyService, emailService);
+    }
+
+    @Test
+    void sendEmailBatch_rateLimitExceeded_releasesClaimedKeys() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+        when(idempotencyService.claim("key-a")).thenReturn(Optional.empty());
+        when(emailService.sendVaccinationEmails(anyList()))
+                .thenThrow(new RateLimitExceededException("smtp.example.com", Duration.ofSeconds(7)));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first),
+                                java.util.List.of("key-a")))))
+                .andExpect(status().isTooManyRequests());
+
+        verify(idempotencyService).remove("key-a");
+    }
+
+    @Test
+    void sendEmailBatch_idempotencyKeyCountMismatch_returns400() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", java.util.List.of(vaccination));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(first),
+                                java.util.List.of("key-a", "key-b")))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(idempotencyService, emailService);
+    }
+
+    @Test
+    void sendEmailBatch_invalidItem_returns400() throws Exception {
+        var vaccination = new VaccinationDto("COVID-19", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto invalid = new EmailRequestDto("not-an-email", "A", "Subject", java.util.List.of(vaccination));
+
+        mockMvc.perform(post("/api/v1/email/send-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(new EmailBatchRequestDto(java.util.List.of(invalid)))))
+                .andExpect(status().isBadRequest());
+
+        verify(emailService, never()).sendVaccinationEmails(anyList());
     }
 
     @Test
@@ -120,8 +367,8 @@ class EmailControllerTest {
         BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(target, "emailRequest");
         bindingResult.addError(new FieldError("emailRequest", "recipientEmail", "recipientEmail darf nicht leer sein"));
 
-        Method method = EmailController.class.getMethod("sendEmail", EmailRequestDto.class);
-        MethodParameter param = new MethodParameter(method, 0);
+        Method method = EmailController.class.getMethod("sendEmail", String.class, EmailRequestDto.class);
+        MethodParameter param = new MethodParameter(method, 1);
         MethodArgumentNotValidException ex = new MethodArgumentNotValidException(param, bindingResult);
 
         var response = controller.handleMethodArgumentNotValid(ex);
@@ -176,4 +423,22 @@ class EmailControllerTest {
         assertEquals("boom", body.get("error"));
         assertEquals(500, body.get("status"));
     }
+
+    @Test
+    void getLogContent_returnsRenderedHtml() throws Exception {
+        when(emailService.renderLogContent(7L)).thenReturn(java.util.Optional.of("<html>ok</html>"));
+
+        mockMvc.perform(get("/api/v1/email/logs/7/content"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_HTML))
+                .andExpect(content().string("<html>ok</html>"));
+    }
+
+    @Test
+    void getLogContent_unknownLog_returns404() throws Exception {
+        when(emailService.renderLogContent(7L)).thenReturn(java.util.Optional.empty());
+
+        mockMvc.perform(get("/api/v1/email/logs/7/content"))
+                .andExpect(status().isNotFound());
+    }
 }
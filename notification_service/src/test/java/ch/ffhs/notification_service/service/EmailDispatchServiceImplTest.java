@@ -0,0 +1,123 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailBatchResponseDto;
+import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
+import ch.ffhs.notification_service.controller.dto.VaccinationDto;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EmailDispatchServiceImplTest {
+
+    private EmailService emailService;
+    private SmtpRateLimiter smtpRateLimiter;
+    private EmailDispatchServiceImpl dispatchService;
+
+    @BeforeEach
+    void setUp() {
+        emailService = mock(EmailService.class);
+        when(emailService.sendVaccinationEmails(anyList()))
+                .thenAnswer(i -> new EmailBatchResponseDto(i.<List<?>>getArgument(0).size(),
+                        i.<List<?>>getArgument(0).size(), 0, List.of(), null));
+        smtpRateLimiter = mock(SmtpRateLimiter.class);
+        dispatchService = new EmailDispatchServiceImpl(emailService, smtpRateLimiter, 3, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatchService.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void worker_sendsQueuedEmailsInGroupsOfBatchSize() {
+        EmailRequestDto first = request("a@example.com");
+        EmailRequestDto second = request("b@example.com");
+        EmailRequestDto third = request("c@example.com");
+        assertTrue(dispatchService.enqueue(first));
+        assertTrue(dispatchService.enqueue(second));
+        assertTrue(dispatchService.enqueue(third));
+        assertEquals(3, dispatchService.queuedCount());
+
+        dispatchService.start();
+
+        ArgumentCaptor<List<EmailRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emailService, timeout(2000).times(2)).sendVaccinationEmails(captor.capture());
+        assertEquals(List.of(List.of(first, second), List.of(third)), captor.getAllValues());
+        assertEquals(0, dispatchService.queuedCount());
+    }
+
+    @Test
+    void enqueue_returnsFalse_whenQueueIsFull() {
+        // Worker noch nicht gestartet: niemand leert die Warteschlange (Kapazität 3)
+        for (int i = 0; i < 3; i++) {
+            assertTrue(dispatchService.enqueue(request(i + "@example.com")));
+        }
+
+        assertFalse(dispatchService.enqueue(request("voll@example.com")));
+
+        dispatchService.start();
+    }
+
+    @Test
+    void worker_keepsRunning_whenSendingThrows() {
+        when(emailService.sendVaccinationEmails(anyList()))
+                .thenThrow(new IllegalStateException("Template nicht gefunden"))
+                .thenReturn(new EmailBatchResponseDto(1, 1, 0, List.of(), null));
+        dispatchService.start();
+
+        dispatchService.enqueue(request("a@example.com"));
+        verify(emailService, timeout(2000).times(1)).sendVaccinationEmails(anyList());
+        dispatchService.enqueue(request("b@example.com"));
+
+        verify(emailService, timeout(2000).times(2)).sendVaccinationEmails(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void worker_retriesSameGroup_whenRateLimitExceeded() {
+        EmailRequestDto first = request("a@example.com");
+        when(emailService.sendVaccinationEmails(anyList()))
+                .thenThrow(new RateLimitExceededException("smtp.example.com", Duration.ofMillis(50)))
+                .thenReturn(new EmailBatchResponseDto(1, 1, 0, List.of(), null));
+        dispatchService.start();
+
+        dispatchService.enqueue(first);
+
+        ArgumentCaptor<List<EmailRequestDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(emailService, timeout(2000).times(2)).sendVaccinationEmails(captor.capture());
+        assertEquals(List.of(List.of(first), List.of(first)), captor.getAllValues());
+    }
+
+    @Test
+    void estimatedDrainTime_usesRateOfSmtpHost() {
+        dispatchService.enqueue(request("a@example.com"));
+        dispatchService.enqueue(request("b@example.com"));
+        when(smtpRateLimiter.timeFor(2)).thenReturn(Duration.ofSeconds(4));
+
+        assertEquals(Duration.ofSeconds(4), dispatchService.estimatedDrainTime());
+
+        dispatchService.start();
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new EmailDispatchServiceImpl(emailService, smtpRateLimiter, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EmailDispatchServiceImpl(emailService, smtpRateLimiter, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EmailDispatchServiceImpl(emailService, smtpRateLimiter, 1, 1, 0));
+    }
+
+    private EmailRequestDto request(String email) {
+        return new EmailRequestDto(email, "Empfänger", "Subject",
+                List.of(new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc")));
+    }
+}
@@ -0,0 +1,96 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
+import ch.ffhs.notification_service.controller.dto.VaccinationDto;
+import ch.ffhs.notification_service.repository.EmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Misst den Versand gegen einen lokalen SMTP-Server (GreenMail): einzeln (eine Verbindung pro
+ * E-Mail, wie bisher auf dem Request-Thread) und über die Warteschlange (eine Verbindung pro Gruppe).
+ * Läuft nur mit gesetzter Umgebungsvariable, z.B. BENCHMARK_THROUGHPUT=true
+ */
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_THROUGHPUT", matches = ".+")
+class EmailDispatchThroughputTest {
+
+    private static final int EMAIL_COUNT = 200;
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailServiceImpl emailService;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        SmtpRateLimiter smtpRateLimiter = mock(SmtpRateLimiter.class);
+        when(smtpRateLimiter.maxGroupSize()).thenReturn(50);
+        emailService = new EmailServiceImpl(mailSender, templateEngine, mock(EmailRepository.class),
+                mock(EmailLogWriter.class), smtpRateLimiter);
+        ReflectionTestUtils.setField(emailService, "fromAddress", "noreply@example.com");
+        ReflectionTestUtils.setField(emailService, "fromPersonal", "No Reply");
+    }
+
+    @Test
+    void queuedDispatch_deliversAllEmails_andReportsThroughput() throws InterruptedException {
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < EMAIL_COUNT; i++) {
+            assertTrue(emailService.sendVaccinationEmail(request(i)).success());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+        assertTrue(greenMail.waitForIncomingEmail(10_000, EMAIL_COUNT));
+        greenMail.reset();
+
+        EmailDispatchServiceImpl dispatchService = new EmailDispatchServiceImpl(emailService, mock(SmtpRateLimiter.class),
+                EMAIL_COUNT, 2, 50);
+        long queuedStart = System.nanoTime();
+        for (int i = 0; i < EMAIL_COUNT; i++) {
+            assertTrue(dispatchService.enqueue(request(i)));
+        }
+        dispatchService.start();
+        try {
+            assertTrue(greenMail.waitForIncomingEmail(10_000, EMAIL_COUNT));
+        } finally {
+            dispatchService.stop();
+        }
+        long queuedNanos = System.nanoTime() - queuedStart;
+
+        assertEquals(EMAIL_COUNT, greenMail.getReceivedMessages().length);
+        log.info("Einzeln: {} E-Mails/s, Warteschlange: {} E-Mails/s",
+                Math.round(EMAIL_COUNT * 1e9 / singleNanos), Math.round(EMAIL_COUNT * 1e9 / queuedNanos));
+    }
+
+    private EmailRequestDto request(int i) {
+        return new EmailRequestDto("user" + i + "@example.com", "Empfänger " + i, "Impf-Erinnerung",
+                List.of(new VaccinationDto("Tetanus", "2025-12-31", "pending", "Auffrischung")));
+    }
+}
@@ -0,0 +1,115 @@
+package ch.ffhs.notification_service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailLogPartitionServiceImplTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-10-15T12:00:00Z"), ZoneOffset.UTC);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any())).thenReturn(0L);
+    }
+
+    @Test
+    void maintainPartitions_createsCurrentAndUpcomingMonths() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+
+        new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 2, 24, false).maintainPartitions();
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS notification_service.email_log_p202510"
+                + " PARTITION OF notification_service.email_log FOR VALUES FROM ('2025-10-01') TO ('2025-11-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS notification_service.email_log_p202511"
+                + " PARTITION OF notification_service.email_log FOR VALUES FROM ('2025-11-01') TO ('2025-12-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS notification_service.email_log_p202512"
+                + " PARTITION OF notification_service.email_log FOR VALUES FROM ('2025-12-01') TO ('2026-01-01')");
+        verify(jdbcTemplate, times(3)).execute(startsWith("CREATE TABLE"));
+    }
+
+    @Test
+    void maintainPartitions_movesLogsOutOfDefaultPartition_beforeCreatingMonth() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class),
+                eq(LocalDateTime.of(2025, 10, 1, 0, 0)), eq(LocalDateTime.of(2025, 11, 1, 0, 0)))).thenReturn(3L);
+
+        new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 1, 24, false).maintainPartitions();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).execute(sql.capture());
+        String move = sql.getAllValues().getFirst();
+        assertTrue(move.startsWith("DO $$"));
+        assertTrue(move.contains("CREATE TABLE notification_service.email_log_p202510 (LIKE notification_service.email_log"));
+        assertTrue(move.contains("DELETE FROM notification_service.email_log_default WHERE sent_at >= '2025-10-01' AND sent_at < '2025-11-01'"));
+        assertTrue(move.contains("ATTACH PARTITION notification_service.email_log_p202510 FOR VALUES FROM ('2025-10-01') TO ('2025-11-01')"));
+        // Der Folgemonat ohne Logs in der Default-Partition wird direkt angelegt
+        assertTrue(sql.getAllValues().get(1).startsWith("CREATE TABLE IF NOT EXISTS notification_service.email_log_p202511"));
+    }
+
+    @Test
+    void maintainPartitions_dropsOnlyPartitionsOlderThanRetention() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("email_log_p202409", "email_log_p202410", "email_log_p202510", "email_log_archiv",
+                        "email_log_default"));
+
+        new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 1, 12, false).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE notification_service.email_log DETACH PARTITION notification_service.email_log_p202409");
+        verify(jdbcTemplate).execute("DROP TABLE notification_service.email_log_p202409");
+        verify(jdbcTemplate, times(1)).execute(startsWith("ALTER TABLE"));
+        verify(jdbcTemplate, times(1)).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    void maintainPartitions_onlyDetaches_whenArchiving() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of("email_log_p202001"));
+
+        new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 1, 12, true).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE notification_service.email_log DETACH PARTITION notification_service.email_log_p202001");
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    void maintainPartitions_continues_whenCreatingOnePartitionFails() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("already exists"))
+                .when(jdbcTemplate).execute(contains("email_log_p202510"));
+
+        new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 1, 12, false).maintainPartitions();
+
+        verify(jdbcTemplate).execute(contains("email_log_p202511"));
+    }
+
+    @Test
+    void parsePartitionMonth_ignoresForeignTables() {
+        assertEquals(Optional.of(YearMonth.of(2025, 1)), EmailLogPartitionServiceImpl.parsePartitionMonth("email_log_p202501"));
+        assertEquals("email_log_p202501", EmailLogPartitionServiceImpl.partitionName(YearMonth.of(2025, 1)));
+        assertTrue(EmailLogPartitionServiceImpl.parsePartitionMonth("email_log_archiv").isEmpty());
+        assertTrue(EmailLogPartitionServiceImpl.parsePartitionMonth("other_table").isEmpty());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 0, 12, false));
+        assertThrows(IllegalArgumentException.class, () -> new EmailLogPartitionServiceImpl(jdbcTemplate, clock, 1, 0, false));
+    }
+}
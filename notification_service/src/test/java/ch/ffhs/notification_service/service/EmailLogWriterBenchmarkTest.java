@@ -0,0 +1,73 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.VaccinationDto;
+import ch.ffhs.notification_service.entity.EmailLog;
+import ch.ffhs.notification_service.entity.EmailTemplateParams;
+import ch.ffhs.notification_service.repository.EmailRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts pro Sekunde gegen eine lokale PostgreSQL-Datenbank: einzeln über save() (eine
+ * Transaktion und ein Roundtrip pro Log, wie bisher) und gepuffert über den {@link EmailLogWriter}.
+ * Läuft nur mit gesetzter Umgebungsvariable, z.B.
+ * BENCHMARK_DATASOURCE_URL=jdbc:postgresql://localhost:5432/spring_booster_db?currentSchema=notification_service
+ */
+@SpringBootTest
+@Slf4j
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DATASOURCE_URL", matches = ".+")
+class EmailLogWriterBenchmarkTest {
+
+    private static final int LOG_COUNT = 5000;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private EmailLogWriter emailLogWriter;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("BENCHMARK_DATASOURCE_URL"));
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Test
+    void insertsPerSecond_singleVersusBuffered() {
+        long before = emailRepository.count();
+
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < LOG_COUNT; i++) {
+            emailRepository.save(emailLog(i));
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long bufferedStart = System.nanoTime();
+        for (int i = 0; i < LOG_COUNT; i++) {
+            emailLogWriter.write(emailLog(i));
+        }
+        emailLogWriter.flush();
+        long bufferedNanos = System.nanoTime() - bufferedStart;
+
+        assertEquals(before + 2L * LOG_COUNT, emailRepository.count());
+        log.info("Einzeln: {} Inserts/s, gepuffert: {} Inserts/s",
+                Math.round(LOG_COUNT * 1e9 / singleNanos), Math.round(LOG_COUNT * 1e9 / bufferedNanos));
+    }
+
+    private EmailLog emailLog(int i) {
+        return new EmailLog("benchmark" + i + "@example.com", "Benchmark " + i, "Impf-Erinnerung",
+                EmailServiceImpl.TEMPLATE_ID, EmailServiceImpl.TEMPLATE_VERSION,
+                new EmailTemplateParams("Benchmark " + i,
+                        List.of(new VaccinationDto("Tetanus", "2025-12-31", "pending", "Auffrischung"))),
+                true, null);
+    }
+}
@@ -0,0 +1,89 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.entity.EmailLog;
+import ch.ffhs.notification_service.repository.EmailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class EmailLogWriterTest {
+
+    private EmailRepository emailRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        emailRepository = mock(EmailRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+    }
+
+    @Test
+    void write_flushesBatch_whenBatchSizeIsReached() {
+        EmailLogWriter writer = new EmailLogWriter(emailRepository, transactionManager, 10, 2);
+        EmailLog first = log("a@example.com");
+        EmailLog second = log("b@example.com");
+
+        writer.write(first);
+        verifyNoInteractions(emailRepository);
+
+        writer.write(second);
+        verify(emailRepository, times(1)).saveAll(List.of(first, second));
+        assertEquals(0, writer.bufferedCount());
+    }
+
+    @Test
+    void flush_writesRemainingLogsInBatches() {
+        EmailLogWriter writer = new EmailLogWriter(emailRepository, transactionManager, 10, 3);
+        EmailLog first = log("a@example.com");
+        EmailLog second = log("b@example.com");
+        writer.writeAll(List.of(first, second));
+
+        writer.flush();
+
+        verify(emailRepository, times(1)).saveAll(List.of(first, second));
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, writer.bufferedCount());
+    }
+
+    @Test
+    void write_flushesOnCallerThread_whenBufferIsFull() {
+        EmailLogWriter writer = new EmailLogWriter(emailRepository, transactionManager, 1, 5);
+        EmailLog first = log("a@example.com");
+        EmailLog second = log("b@example.com");
+
+        writer.write(first);
+        writer.write(second);
+
+        verify(emailRepository, times(1)).saveAll(List.of(first));
+        assertEquals(1, writer.bufferedCount());
+    }
+
+    @Test
+    void flush_dropsBatch_whenWriteFails() {
+        EmailLogWriter writer = new EmailLogWriter(emailRepository, transactionManager, 10, 5);
+        when(emailRepository.saveAll(anyList())).thenThrow(new IllegalStateException("Datenbank nicht erreichbar"));
+        writer.write(log("a@example.com"));
+        writer.write(log("b@example.com"));
+
+        assertDoesNotThrow(writer::flush);
+
+        assertEquals(0, writer.bufferedCount());
+        assertEquals(2, writer.droppedCount());
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new EmailLogWriter(emailRepository, transactionManager, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new EmailLogWriter(emailRepository, transactionManager, 1, 0));
+    }
+
+    private EmailLog log(String email) {
+        return new EmailLog(email, "Empfänger", "Subject", "vaccination-email", 1, null, true, null);
+    }
+}
@@ -3,16 +3,22 @@ package ch.ffhs.notification_service.service;
 import ch.ffhs.notification_service.controller.dto.EmailRequestDto;
 import ch.ffhs.notification_service.controller.dto.VaccinationDto;
 import ch.ffhs.notification_service.entity.EmailLog;
+import ch.ffhs.notification_service.entity.EmailTemplateParams;
 import ch.ffhs.notification_service.repository.EmailRepository;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.thymeleaf.context.IContext;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +28,8 @@ class EmailServiceImplTest {
     private JavaMailSender mailSender;
     private SpringTemplateEngine templateEngine;
     private EmailRepository emailRepository;
+    private EmailLogWriter emailLogWriter;
+    private SmtpRateLimiter smtpRateLimiter;
     private EmailServiceImpl service;
 
     @BeforeEach
@@ -30,8 +38,11 @@ class EmailServiceImplTest {
         mailSender = mock(org.springframework.mail.javamail.JavaMailSender.class);
         templateEngine = mock(SpringTemplateEngine.class);
         emailRepository = mock(EmailRepository.class);
+        emailLogWriter = mock(EmailLogWriter.class);
+        smtpRateLimiter = mock(SmtpRateLimiter.class);
+        when(smtpRateLimiter.maxGroupSize()).thenReturn(20);
 
-        service = new EmailServiceImpl(mailSender, templateEngine, emailRepository);
+        service = new EmailServiceImpl(mailSender, templateEngine, emailRepository, emailLogWriter, smtpRateLimiter);
         ReflectionTestUtils.setField(service, "fromAddress", "noreply@example.com");
         ReflectionTestUtils.setField(service, "fromPersonal", "No Reply");
     }
@@ -46,7 +57,6 @@ class EmailServiceImplTest {
         when(mailSender.createMimeMessage()).thenReturn(msg);
         // mailSender.send does nothing
         doNothing().when(mailSender).send(msg);
-        when(emailRepository.save(any(EmailLog.class))).thenAnswer(i -> i.getArgument(0));
 
         var resp = service.sendVaccinationEmail(req);
 
@@ -55,13 +65,16 @@ class EmailServiceImplTest {
         assertNotNull(resp.timestamp());
 
         ArgumentCaptor<EmailLog> cap = ArgumentCaptor.forClass(EmailLog.class);
-        verify(emailRepository, times(1)).save(cap.capture());
+        verify(emailLogWriter, times(1)).write(cap.capture());
         EmailLog log = cap.getValue();
         assertEquals(req.recipientEmail(), log.getRecipientEmail());
         assertEquals(req.recipientName(), log.getRecipientName());
         assertEquals("Subject", log.getSubject());
         assertTrue(log.isSuccess());
-        assertNotNull(log.getContent());
+        assertEquals("vaccination-email", log.getTemplateId());
+        assertEquals(1, log.getTemplateVersion());
+        assertEquals(new EmailTemplateParams("Recipient", List.of(vacc)), log.getTemplateParams());
+        assertNull(log.getLegacyContent());
         assertNull(log.getErrorMessage());
     }
 
@@ -74,13 +87,12 @@ class EmailServiceImplTest {
         MimeMessage msg = mock(MimeMessage.class);
         when(mailSender.createMimeMessage()).thenReturn(msg);
         doNothing().when(mailSender).send(msg);
-        when(emailRepository.save(any(EmailLog.class))).thenAnswer(i -> i.getArgument(0));
 
         var resp = service.sendVaccinationEmail(req);
 
         assertTrue(resp.success());
         ArgumentCaptor<EmailLog> cap = ArgumentCaptor.forClass(EmailLog.class);
-        verify(emailRepository).save(cap.capture());
+        verify(emailLogWriter).write(cap.capture());
         EmailLog log = cap.getValue();
         assertEquals("Impfbenachrichtigung", log.getSubject());
     }
@@ -94,7 +106,6 @@ class EmailServiceImplTest {
         MimeMessage msg = mock(MimeMessage.class);
         when(mailSender.createMimeMessage()).thenReturn(msg);
         doThrow(new org.springframework.mail.MailSendException("send-fail")).when(mailSender).send(msg);
-        when(emailRepository.save(any(EmailLog.class))).thenAnswer(i -> i.getArgument(0));
 
         var resp = service.sendVaccinationEmail(req);
 
@@ -102,10 +113,162 @@ class EmailServiceImplTest {
         assertTrue(resp.message().contains("send-fail"));
 
         ArgumentCaptor<EmailLog> cap = ArgumentCaptor.forClass(EmailLog.class);
-        verify(emailRepository).save(cap.capture());
+        verify(emailLogWriter).write(cap.capture());
         EmailLog log = cap.getValue();
         assertFalse(log.isSuccess());
         assertNotNull(log.getErrorMessage());
         assertTrue(log.getErrorMessage().contains("send-fail"));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendVaccinationEmails_sendsTogether_andBatchesLogs() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", List.of(vacc));
+        EmailRequestDto second = new EmailRequestDto("b@example.com", "B", "Subject", List.of(vacc));
+
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>ok</html>");
+        MimeMessage msgA = mock(MimeMessage.class);
+        MimeMessage msgB = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(msgA, msgB);
+
+        var resp = service.sendVaccinationEmails(List.of(first, second));
+
+        assertEquals(2, resp.total());
+        assertEquals(2, resp.succeeded());
+        assertEquals(0, resp.failed());
+        verify(mailSender, times(1)).send(new MimeMessage[]{msgA, msgB});
+        verify(smtpRateLimiter).acquire(2);
+
+        ArgumentCaptor<List<EmailLog>> cap = ArgumentCaptor.forClass(List.class);
+        verify(emailLogWriter).writeAll(cap.capture());
+        assertEquals(2, cap.getValue().size());
+        assertTrue(cap.getValue().stream().allMatch(EmailLog::isSuccess));
+        verify(emailLogWriter, never()).write(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendVaccinationEmails_splitsGroupAboveBurst_andKeepsResultsPerChunk() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", List.of(vacc));
+        EmailRequestDto second = new EmailRequestDto("b@example.com", "B", "Subject", List.of(vacc));
+        EmailRequestDto third = new EmailRequestDto("c@example.com", "C", "Subject", List.of(vacc));
+
+        when(smtpRateLimiter.maxGroupSize()).thenReturn(2);
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>ok</html>");
+        MimeMessage msgA = mock(MimeMessage.class);
+        MimeMessage msgB = mock(MimeMessage.class);
+        MimeMessage msgC = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(msgA, msgB, msgC);
+        doThrow(new MailSendException("connection lost")).when(mailSender).send(new MimeMessage[]{msgC});
+
+        var resp = service.sendVaccinationEmails(List.of(first, second, third));
+
+        verify(smtpRateLimiter).acquire(2);
+        verify(smtpRateLimiter).acquireContinuation(1);
+        verify(mailSender).send(new MimeMessage[]{msgA, msgB});
+        assertEquals(2, resp.succeeded());
+        assertFalse(resp.results().get(2).success());
+        assertTrue(resp.results().get(2).message().contains("connection lost"));
+    }
+
+    @Test
+    void sendVaccinationEmails_rateLimitExceeded_sendsAndLogsNothing() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", List.of(vacc));
+
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>ok</html>");
+        when(mailSender.createMimeMessage()).thenReturn(mock(MimeMessage.class));
+        doThrow(new RateLimitExceededException("smtp.example.com", Duration.ofSeconds(3)))
+                .when(smtpRateLimiter).acquire(1);
+
+        var ex = assertThrows(RateLimitExceededException.class, () -> service.sendVaccinationEmails(List.of(first)));
+
+        assertEquals(Duration.ofSeconds(3), ex.getRetryAfter());
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+        verifyNoInteractions(emailLogWriter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendVaccinationEmails_partialFailure_marksOnlyFailedItems() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", List.of(vacc));
+        EmailRequestDto second = new EmailRequestDto("b@example.com", "B", "Subject", List.of(vacc));
+
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>ok</html>");
+        MimeMessage msgA = mock(MimeMessage.class);
+        MimeMessage msgB = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(msgA, msgB);
+        doThrow(new org.springframework.mail.MailSendException(java.util.Map.of(msgB, new RuntimeException("mailbox full"))))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        var resp = service.sendVaccinationEmails(List.of(first, second));
+
+        assertEquals(1, resp.succeeded());
+        assertEquals(1, resp.failed());
+        assertTrue(resp.results().get(0).success());
+        assertFalse(resp.results().get(1).success());
+        assertTrue(resp.results().get(1).message().contains("mailbox full"));
+
+        ArgumentCaptor<List<EmailLog>> cap = ArgumentCaptor.forClass(List.class);
+        verify(emailLogWriter).writeAll(cap.capture());
+        assertTrue(cap.getValue().get(0).isSuccess());
+        assertFalse(cap.getValue().get(1).isSuccess());
+        assertEquals("mailbox full", cap.getValue().get(1).getErrorMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendVaccinationEmails_connectionFailure_failsAllItems() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailRequestDto first = new EmailRequestDto("a@example.com", "A", "Subject", List.of(vacc));
+
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>ok</html>");
+        when(mailSender.createMimeMessage()).thenReturn(mock(MimeMessage.class));
+        doThrow(new org.springframework.mail.MailAuthenticationException("auth-fail"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        var resp = service.sendVaccinationEmails(List.of(first));
+
+        assertEquals(0, resp.succeeded());
+        assertTrue(resp.results().get(0).message().contains("auth-fail"));
+        ArgumentCaptor<List<EmailLog>> cap = ArgumentCaptor.forClass(List.class);
+        verify(emailLogWriter).writeAll(cap.capture());
+        assertFalse(cap.getValue().get(0).isSuccess());
+    }
+
+    @Test
+    void renderLogContent_rendersTemplateWithStoredParams() {
+        var vacc = new VaccinationDto("COVID", "2025-12-01", "PENDING", "desc");
+        EmailLog log = new EmailLog("to@example.com", "Recipient", "Subject", "vaccination-email", 1,
+                new EmailTemplateParams("Recipient", List.of(vacc)), true, null);
+        when(emailRepository.findById(5L)).thenReturn(Optional.of(log));
+        when(templateEngine.process(eq("vaccination-email"), any())).thenReturn("<html>neu</html>");
+
+        assertEquals(Optional.of("<html>neu</html>"), service.renderLogContent(5L));
+
+        ArgumentCaptor<IContext> cap = ArgumentCaptor.forClass(IContext.class);
+        verify(templateEngine).process(eq("vaccination-email"), cap.capture());
+        assertEquals("Recipient", cap.getValue().getVariable("recipientName"));
+        assertEquals(List.of(vacc), cap.getValue().getVariable("vaccinations"));
+    }
+
+    @Test
+    void renderLogContent_legacyEntry_returnsStoredHtml() {
+        EmailLog log = new EmailLog("to@example.com", "Recipient", "Subject", "vaccination-email", 1, null, true, null);
+        log.setLegacyContent("<html>alt</html>");
+        when(emailRepository.findById(5L)).thenReturn(Optional.of(log));
+
+        assertEquals(Optional.of("<html>alt</html>"), service.renderLogContent(5L));
+        verifyNoInteractions(templateEngine);
+    }
+
+    @Test
+    void renderLogContent_unknownLog_returnsEmpty() {
+        when(emailRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertTrue(service.renderLogContent(5L).isEmpty());
+    }
 }
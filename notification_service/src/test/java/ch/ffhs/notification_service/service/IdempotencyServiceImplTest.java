@@ -0,0 +1,190 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.controller.dto.EmailResponseDto;
+import ch.ffhs.notification_service.service.exception.IdempotencyKeyInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2025-10-15T12:00:00Z");
+
+    private final EmailResponseDto response = new EmailResponseDto(true, "eingereiht", "2025-10-15T12:00:00");
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new IdempotencyServiceImpl(jdbcTemplate, Clock.fixed(NOW, ZoneOffset.UTC), 24, 2, 60000);
+    }
+
+    @Test
+    void putIfAbsent_newKey_claimsInDatabase() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertEquals(Optional.empty(), service.putIfAbsent("key-1", response));
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO notification_service.idempotency_record"),
+                eq("key-1"), eq(true), eq("eingereiht"), eq("2025-10-15T12:00:00"), eq(false),
+                eq(NOW.atOffset(ZoneOffset.UTC)), eq(NOW.minusSeconds(24 * 3600).atOffset(ZoneOffset.UTC)),
+                eq(NOW.minusSeconds(60).atOffset(ZoneOffset.UTC)));
+    }
+
+    @Test
+    void putIfAbsent_duplicateFromCache_skipsDatabase() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        service.putIfAbsent("key-1", response);
+
+        Optional<EmailResponseDto> duplicate = service.putIfAbsent("key-1",
+                new EmailResponseDto(true, "andere Antwort", "2025-10-15T12:05:00"));
+
+        assertEquals(Optional.of(response), duplicate);
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putIfAbsent_keyClaimedElsewhere_returnsStoredResponse() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("key-1"))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            var rs = mock(java.sql.ResultSet.class);
+            when(rs.getBoolean("success")).thenReturn(true);
+            when(rs.getString("message")).thenReturn("eingereiht");
+            when(rs.getString("response_timestamp")).thenReturn("2025-10-15T11:00:00");
+            when(rs.getObject("created_at", OffsetDateTime.class)).thenReturn(NOW.minusSeconds(3600).atOffset(ZoneOffset.UTC));
+            return List.of(mapper.mapRow(rs, 0));
+        });
+
+        Optional<EmailResponseDto> duplicate = service.putIfAbsent("key-1", response);
+
+        assertEquals(Optional.of(new EmailResponseDto(true, "eingereiht", "2025-10-15T11:00:00")), duplicate);
+        // Danach aus dem Cache
+        assertEquals(duplicate, service.putIfAbsent("key-1", response));
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void putIfAbsent_evictsLeastRecentlyUsedKey_whenCacheIsFull() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        service.putIfAbsent("key-1", response);
+        service.putIfAbsent("key-2", response);
+        service.putIfAbsent("key-1", response);
+        service.putIfAbsent("key-3", response);
+
+        // key-2 ist verdrängt und muss wieder über die Datenbank entschieden werden (verdrängt nun key-1);
+        // key-3 ist noch im Cache
+        service.putIfAbsent("key-2", response);
+        service.putIfAbsent("key-3", response);
+
+        verify(jdbcTemplate, times(2)).update(anyString(), eq("key-2"), any(), any(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate, times(1)).update(anyString(), eq("key-1"), any(), any(), any(), any(), any(), any(), any());
+        verify(jdbcTemplate, times(1)).update(anyString(), eq("key-3"), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void putIfAbsent_rejectsBlankOrOverlongKey() {
+        assertThrows(IllegalArgumentException.class, () -> service.putIfAbsent(" ", response));
+        assertThrows(IllegalArgumentException.class, () -> service.putIfAbsent("x".repeat(256), response));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void claim_newKey_insertsInProgress_withoutCaching() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertEquals(Optional.empty(), service.claim("key-1"));
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO notification_service.idempotency_record"),
+                eq("key-1"), eq(false), isNull(), isNull(), eq(true),
+                eq(NOW.atOffset(ZoneOffset.UTC)), eq(NOW.minusSeconds(24 * 3600).atOffset(ZoneOffset.UTC)),
+                eq(NOW.minusSeconds(60).atOffset(ZoneOffset.UTC)));
+        // Nicht im Cache: eine Wiederholung wird über die Datenbank entschieden
+        service.claim("key-1");
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), eq("key-1"), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_keyInProgress_throwsWithRemainingTimeout() throws Exception {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("key-1"))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            var rs = mock(java.sql.ResultSet.class);
+            when(rs.getBoolean("in_progress")).thenReturn(true);
+            when(rs.getObject("created_at", OffsetDateTime.class)).thenReturn(NOW.minusSeconds(20).atOffset(ZoneOffset.UTC));
+            return List.of(mapper.mapRow(rs, 0));
+        });
+
+        IdempotencyKeyInProgressException ex = assertThrows(IdempotencyKeyInProgressException.class,
+                () -> service.claim("key-1"));
+
+        assertEquals(Duration.ofSeconds(40), ex.getRetryAfter());
+    }
+
+    @Test
+    void complete_storesResponse_andAnswersDuplicatesFromCache() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        service.claim("key-1");
+
+        service.complete("key-1", response);
+
+        verify(jdbcTemplate).update(startsWith("UPDATE notification_service.idempotency_record"),
+                eq(true), eq("eingereiht"), eq("2025-10-15T12:00:00"), eq(NOW.atOffset(ZoneOffset.UTC)), eq("key-1"));
+        assertEquals(Optional.of(response), service.claim("key-1"));
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT"), eq("key-1"), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void complete_releasedKey_isNotCached() {
+        when(jdbcTemplate.update(startsWith("UPDATE"), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.update(startsWith("INSERT"), any(Object[].class))).thenReturn(1);
+
+        service.complete("key-1", response);
+
+        assertEquals(Optional.empty(), service.claim("key-1"));
+    }
+
+    @Test
+    void remove_releasesKeyInCacheAndDatabase() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+        service.putIfAbsent("key-1", response);
+
+        service.remove("key-1");
+        service.putIfAbsent("key-1", response);
+
+        verify(jdbcTemplate).update("DELETE FROM notification_service.idempotency_record WHERE idempotency_key = ?", "key-1");
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), eq("key-1"), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void purgeExpired_deletesKeysOlderThanTtl() {
+        service.purgeExpired();
+
+        verify(jdbcTemplate).update("DELETE FROM notification_service.idempotency_record WHERE created_at < ?",
+                NOW.minusSeconds(24 * 3600).atOffset(ZoneOffset.UTC));
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyServiceImpl(jdbcTemplate, Clock.systemUTC(), 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyServiceImpl(jdbcTemplate, Clock.systemUTC(), 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new IdempotencyServiceImpl(jdbcTemplate, Clock.systemUTC(), 1, 1, 0));
+    }
+}
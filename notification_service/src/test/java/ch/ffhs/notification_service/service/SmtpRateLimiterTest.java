@@ -0,0 +1,63 @@
+package ch.ffhs.notification_service.service;
+
+import ch.ffhs.notification_service.config.SmtpRateLimitProperties;
+import ch.ffhs.notification_service.service.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpRateLimiterTest {
+
+    @Test
+    void acquire_throwsWithRetryAfter_whenWaitExceedsMax() {
+        AtomicLong now = new AtomicLong();
+        SmtpRateLimiter limiter = new SmtpRateLimiter("smtp.example.com", Duration.ofMillis(500),
+                new TokenBucket(1, 2, now::get));
+
+        limiter.acquire(2);
+        var ex = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(2));
+
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertTrue(ex.getMessage().contains("smtp.example.com"));
+    }
+
+    @Test
+    void acquire_waitsUntilPermitsAreRefilled() {
+        AtomicLong now = new AtomicLong();
+        SmtpRateLimiter limiter = new SmtpRateLimiter("smtp.example.com", Duration.ofSeconds(1),
+                new TokenBucket(100, 1, now::get));
+        limiter.acquire(1);
+
+        long start = System.nanoTime();
+        limiter.acquire(1);
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(10).toNanos());
+    }
+
+    @Test
+    void acquireContinuation_waitsBeyondMaxWait_insteadOfThrowing() {
+        AtomicLong now = new AtomicLong();
+        SmtpRateLimiter limiter = new SmtpRateLimiter("smtp.example.com", Duration.ZERO,
+                new TokenBucket(50, 1, now::get));
+        limiter.acquire(1);
+
+        long start = System.nanoTime();
+        limiter.acquireContinuation(1);
+
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(20).toNanos());
+        assertEquals(1, limiter.maxGroupSize());
+    }
+
+    @Test
+    void timeFor_usesRateOfConfiguredHost() {
+        var properties = new SmtpRateLimitProperties(2000, new SmtpRateLimitProperties.Rate(5, 20),
+                Map.of("smtp.gmail.com", new SmtpRateLimitProperties.Rate(1, 20)));
+
+        assertEquals(Duration.ofSeconds(10), new SmtpRateLimiter(properties, "smtp.gmail.com").timeFor(10));
+        assertEquals(Duration.ofSeconds(2), new SmtpRateLimiter(properties, "localhost").timeFor(10));
+    }
+}
@@ -0,0 +1,73 @@
+package ch.ffhs.notification_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void reserve_grantsBurstImmediately_thenWaitsForOwnPermits() {
+        // 2 E-Mails pro Sekunde, Burst 4
+        TokenBucket bucket = new TokenBucket(2, 4, now::get);
+
+        assertEquals(new TokenBucket.Reservation(true, 0), bucket.reserve(4, 0));
+
+        // Bestand 0: 2 Tokens brauchen eine Sekunde
+        assertEquals(new TokenBucket.Reservation(true, TimeUnit.SECONDS.toNanos(1)),
+                bucket.reserve(2, TimeUnit.SECONDS.toNanos(2)));
+        // Bestand -2: die nächste Reservierung stellt sich hinten an
+        assertEquals(new TokenBucket.Reservation(true, TimeUnit.MILLISECONDS.toNanos(1500)),
+                bucket.reserve(1, TimeUnit.SECONDS.toNanos(2)));
+    }
+
+    @Test
+    void reserve_rejectsWithoutConsuming_whenWaitExceedsMax() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+        bucket.reserve(2, 0);
+
+        TokenBucket.Reservation rejected = bucket.reserve(2, TimeUnit.SECONDS.toNanos(1));
+
+        assertFalse(rejected.granted());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), rejected.waitNanos());
+        // Abgelehnte Reservierung hat nichts verbraucht
+        assertEquals(rejected, bucket.reserve(2, TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void reserve_rejectsPermitsAboveBurst() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+
+        assertThrows(IllegalArgumentException.class, () -> bucket.reserve(3, Long.MAX_VALUE));
+        assertEquals(2, bucket.capacity());
+    }
+
+    @Test
+    void reserve_refillsOverTime_upToBurst() {
+        TokenBucket bucket = new TokenBucket(1, 2, now::get);
+        bucket.reserve(2, 0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(new TokenBucket.Reservation(true, 0), bucket.reserve(2, 0));
+        assertFalse(bucket.reserve(1, 0).granted());
+    }
+
+    @Test
+    void nanosFor_usesSustainedRate() {
+        TokenBucket bucket = new TokenBucket(4, 10, now::get);
+
+        assertEquals(TimeUnit.SECONDS.toNanos(5), bucket.nanosFor(20));
+    }
+
+    @Test
+    void constructor_rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, now::get));
+    }
+}